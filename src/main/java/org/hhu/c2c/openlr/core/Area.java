@@ -0,0 +1,41 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+
+/**
+ * An <b>area</b> is a location which isn't bound to the road network, e.g.
+ * the region of a weather warning. Areas keep their positions as integers in
+ * decamicrodegrees, the resolution of relative coordinates in the physical
+ * data format, so positions can be tested against them without converting
+ * any values.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public interface Area extends Location {
+
+	/**
+	 * The number of decamicrodegrees per degree
+	 */
+	int DECAMICRODEGREES_PER_DEGREE = 100000;
+
+	/**
+	 * Returns <code>true</code> if the given position lies within the area,
+	 * including its border
+	 * 
+	 * @param longitude
+	 *            the longitude in decamicrodegrees
+	 * @param latitude
+	 *            the latitude in decamicrodegrees
+	 * @return <code>true</code> if the position is contained
+	 */
+	boolean contains(int longitude, int latitude);
+
+	/**
+	 * Returns the bounding box of the area, e.g. to find the candidates for
+	 * {@link #contains(int, int)} in a spatial index
+	 * 
+	 * @return the bounding box
+	 */
+	BoundingBox getBoundingBox();
+}
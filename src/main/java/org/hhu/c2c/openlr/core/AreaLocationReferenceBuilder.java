@@ -0,0 +1,325 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link AreaLocationReferenceBuilder} helps building valid {@link Area}s.
+ * The type of the area is chosen by the last of {@link #setCircle},
+ * {@link #setRectangle}, {@link #setGrid} or {@link #addVertex} called. All
+ * positions are given in decamicrodegrees.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class AreaLocationReferenceBuilder implements
+		Builder<AreaLocationReferenceBuilder, Area> {
+
+	/**
+	 * Area locations were introduced with version <code>3</code> of the
+	 * physical data format.
+	 *
+	 * @see Area#getVersion()
+	 */
+	protected static final byte VERSION_NUMBER_DEFAULT = 3;
+
+	/**
+	 * A polygon needs at least three vertices
+	 */
+	protected static final int MINIMUM_NUMBER_OF_VERTICES = 3;
+
+	/**
+	 * The number of columns or rows of a grid is encoded in two bytes
+	 */
+	protected static final int MAXIMUM_GRID_SIZE = 0xFFFF;
+
+	/**
+	 * The difference between two vertices is encoded in two bytes each for
+	 * longitude and latitude
+	 */
+	protected static final int MAXIMUM_DELTA = Short.MAX_VALUE;
+
+	/**
+	 * Holds the version number
+	 */
+	private byte version;
+
+	/**
+	 * Holds the type of the area, or <code>null</code>
+	 */
+	private LocationType type;
+
+	/**
+	 * Holds the center longitude of a circle or the western border of a
+	 * rectangle
+	 */
+	private int longitude;
+
+	/**
+	 * Holds the center latitude of a circle or the southern border of a
+	 * rectangle
+	 */
+	private int latitude;
+
+	/**
+	 * Holds the eastern border of a rectangle
+	 */
+	private int east;
+
+	/**
+	 * Holds the northern border of a rectangle
+	 */
+	private int north;
+
+	/**
+	 * Holds the radius of a circle in meters
+	 */
+	private int radius;
+
+	/**
+	 * Holds the number of columns of a grid
+	 */
+	private int columns;
+
+	/**
+	 * Holds the number of rows of a grid
+	 */
+	private int rows;
+
+	/**
+	 * Holds the vertices of a polygon, longitude before latitude
+	 */
+	private IntList vertices;
+
+	/**
+	 * Constructs a new {@link AreaLocationReferenceBuilder}
+	 */
+	public AreaLocationReferenceBuilder() {
+		init();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public Area build() throws LocationReferenceException {
+		validate();
+		switch (type) {
+		case CIRCLE:
+			return new CircleLocationReference(version, longitude, latitude,
+					radius);
+		case RECTANGLE:
+			return new RectangleLocationReference(version, longitude,
+					latitude, east, north);
+		case GRID:
+			return new GridLocationReference(version, longitude, latitude,
+					east, north, columns, rows);
+		default:
+			int[] deltas = vertices.toArray();
+			for (int i = deltas.length - 1; i >= 2; i--) {
+				deltas[i] -= deltas[i - 2];
+			}
+			return new PolygonLocationReference(version, deltas);
+		}
+	}
+
+	/**
+	 * Resets the area location reference
+	 */
+	private void init() {
+		version = VERSION_NUMBER_DEFAULT;
+		type = null;
+		longitude = 0;
+		latitude = 0;
+		east = 0;
+		north = 0;
+		radius = 0;
+		columns = 0;
+		rows = 0;
+		vertices = new IntList();
+	}
+
+	/**
+	 * Makes the area a circle
+	 *
+	 * @param longitude
+	 *            the longitude of the center in decamicrodegrees
+	 * @param latitude
+	 *            the latitude of the center in decamicrodegrees
+	 * @param radius
+	 *            the radius in meters
+	 * @return the same instance of this {@link AreaLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public AreaLocationReferenceBuilder setCircle(final int longitude,
+			final int latitude, final int radius) {
+		this.type = LocationType.CIRCLE;
+		this.longitude = longitude;
+		this.latitude = latitude;
+		this.radius = radius;
+		return this;
+	}
+
+	/**
+	 * Makes the area a rectangle
+	 *
+	 * @param west
+	 *            the western border in decamicrodegrees
+	 * @param south
+	 *            the southern border in decamicrodegrees
+	 * @param east
+	 *            the eastern border in decamicrodegrees
+	 * @param north
+	 *            the northern border in decamicrodegrees
+	 * @return the same instance of this {@link AreaLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public AreaLocationReferenceBuilder setRectangle(final int west,
+			final int south, final int east, final int north) {
+		this.type = LocationType.RECTANGLE;
+		this.longitude = west;
+		this.latitude = south;
+		this.east = east;
+		this.north = north;
+		return this;
+	}
+
+	/**
+	 * Makes the area a grid
+	 *
+	 * @param west
+	 *            the western border of the base cell in decamicrodegrees
+	 * @param south
+	 *            the southern border of the base cell in decamicrodegrees
+	 * @param east
+	 *            the eastern border of the base cell in decamicrodegrees
+	 * @param north
+	 *            the northern border of the base cell in decamicrodegrees
+	 * @param columns
+	 *            the number of columns
+	 * @param rows
+	 *            the number of rows
+	 * @return the same instance of this {@link AreaLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public AreaLocationReferenceBuilder setGrid(final int west,
+			final int south, final int east, final int north,
+			final int columns, final int rows) {
+		setRectangle(west, south, east, north);
+		this.type = LocationType.GRID;
+		this.columns = columns;
+		this.rows = rows;
+		return this;
+	}
+
+	/**
+	 * Makes the area a polygon and adds a vertex to it
+	 *
+	 * @param longitude
+	 *            the longitude of the vertex in decamicrodegrees
+	 * @param latitude
+	 *            the latitude of the vertex in decamicrodegrees
+	 * @return the same instance of this {@link AreaLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public AreaLocationReferenceBuilder addVertex(final int longitude,
+			final int latitude) {
+		this.type = LocationType.POLYGON;
+		vertices.add(longitude);
+		vertices.add(latitude);
+		return this;
+	}
+
+	/**
+	 * Sets the version number
+	 *
+	 * @param version
+	 *            the version number
+	 * @return the same instance of this {@link AreaLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public AreaLocationReferenceBuilder setVersion(final byte version) {
+		this.version = version;
+		return this;
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public AreaLocationReferenceBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		if (type == null) {
+			throw new LocationReferenceException(Messages
+					.getString("AreaLocationReferenceBuilder.Exception.TYPE_NOT_SET")); //$NON-NLS-1$
+		}
+
+		if (version != VERSION_NUMBER_DEFAULT) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("AreaLocationReferenceBuilder.Exception.PROTOCOL_VERSION_NOT_SUPPORTED")); //$NON-NLS-1$
+		}
+
+		switch (type) {
+		case CIRCLE:
+			if (radius <= 0) {
+				throw new LocationReferenceException(Messages
+						.getString("AreaLocationReferenceBuilder.Exception.RADIUS")); //$NON-NLS-1$
+			}
+			break;
+		case GRID:
+			if (columns < 1 || columns > MAXIMUM_GRID_SIZE || rows < 1
+					|| rows > MAXIMUM_GRID_SIZE) {
+				throw new LocationReferenceException(
+						Messages
+								.getString(
+										"AreaLocationReferenceBuilder.Exception.GRID_SIZE", MAXIMUM_GRID_SIZE)); //$NON-NLS-1$
+			}
+			// the base cell must be a rectangle
+			validateRectangle();
+			break;
+		case RECTANGLE:
+			validateRectangle();
+			break;
+		default:
+			if (vertices.size() < 2 * MINIMUM_NUMBER_OF_VERTICES) {
+				throw new LocationReferenceException(
+						Messages
+								.getString(
+										"AreaLocationReferenceBuilder.Exception.MINIMUM_NUMBER_OF_VERTICES", MINIMUM_NUMBER_OF_VERTICES)); //$NON-NLS-1$
+			}
+			for (int i = 2; i < vertices.size(); i++) {
+				if (Math.abs(vertices.get(i) - vertices.get(i - 2)) > MAXIMUM_DELTA) {
+					throw new LocationReferenceException(
+							Messages
+									.getString(
+											"AreaLocationReferenceBuilder.Exception.VERTICES_TOO_FAR_APART", i / 2)); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	/**
+	 * Validates the rectangle of a rectangle location or the base cell of a
+	 * grid location
+	 * 
+	 * @throws LocationReferenceException
+	 *             if the rectangle is empty
+	 */
+	private void validateRectangle() throws LocationReferenceException {
+		if (longitude >= east || latitude >= north) {
+			throw new LocationReferenceException(Messages
+					.getString("AreaLocationReferenceBuilder.Exception.EMPTY_RECTANGLE")); //$NON-NLS-1$
+		}
+	}
+}
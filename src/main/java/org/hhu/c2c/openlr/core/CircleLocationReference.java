@@ -0,0 +1,165 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+import org.hhu.c2c.openlr.geo.GeoHelper;
+
+/**
+ * A <b>circle location reference</b> describes the area within a radius
+ * around a center position.
+ * 
+ * Positions are tested with the equirectangular approximation. The scale of
+ * the longitudes at the latitude of the center is computed once, so a test
+ * takes a few multiplications.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class CircleLocationReference implements Area {
+
+	/**
+	 * The length of one decamicrodegree of latitude in meters
+	 */
+	private static final double METERS_PER_DECAMICRODEGREE = GeoHelper.EARTH_RADIUS
+			* Math.PI / 180 / DECAMICRODEGREES_PER_DEGREE;
+
+	/**
+	 * Holds the version of the physical data format
+	 */
+	private final byte version;
+
+	/**
+	 * Holds the longitude of the center in decamicrodegrees
+	 */
+	private final int longitude;
+
+	/**
+	 * Holds the latitude of the center in decamicrodegrees
+	 */
+	private final int latitude;
+
+	/**
+	 * Holds the radius in meters
+	 */
+	private final int radius;
+
+	/**
+	 * Holds the length of one decamicrodegree of longitude at the center in
+	 * meters
+	 */
+	private final double longitudeScale;
+
+	/**
+	 * Constructs a new {@link CircleLocationReference}
+	 * 
+	 * @param version
+	 *            the version number
+	 * @param longitude
+	 *            the longitude of the center in decamicrodegrees
+	 * @param latitude
+	 *            the latitude of the center in decamicrodegrees
+	 * @param radius
+	 *            the radius in meters
+	 */
+	protected CircleLocationReference(final byte version, final int longitude,
+			final int latitude, final int radius) {
+		this.version = version;
+		this.longitude = longitude;
+		this.latitude = latitude;
+		this.radius = radius;
+		this.longitudeScale = METERS_PER_DECAMICRODEGREE
+				* Math.cos(Math.toRadians((double) latitude
+						/ DECAMICRODEGREES_PER_DEGREE));
+	}
+
+	/**
+	 * Returns {@link LocationType#CIRCLE}
+	 */
+	@Override
+	public LocationType getLocationType() {
+		return LocationType.CIRCLE;
+	}
+
+	@Override
+	public byte getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the longitude of the center
+	 * 
+	 * @return the longitude in decamicrodegrees
+	 */
+	public int getLongitude() {
+		return longitude;
+	}
+
+	/**
+	 * Returns the latitude of the center
+	 * 
+	 * @return the latitude in decamicrodegrees
+	 */
+	public int getLatitude() {
+		return latitude;
+	}
+
+	/**
+	 * Returns the radius
+	 * 
+	 * @return the radius in meters
+	 */
+	public int getRadius() {
+		return radius;
+	}
+
+	@Override
+	public boolean contains(final int longitude, final int latitude) {
+		double x = (longitude - this.longitude) * longitudeScale;
+		double y = (latitude - this.latitude) * METERS_PER_DECAMICRODEGREE;
+		return x * x + y * y <= (double) radius * radius;
+	}
+
+	@Override
+	public BoundingBox getBoundingBox() {
+		float x = (float) longitude / DECAMICRODEGREES_PER_DEGREE;
+		float y = (float) latitude / DECAMICRODEGREES_PER_DEGREE;
+		return new BoundingBox(x, y, x, y).expand(radius);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + latitude;
+		result = prime * result + longitude;
+		result = prime * result + radius;
+		result = prime * result + version;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CircleLocationReference other = (CircleLocationReference) obj;
+		if (latitude != other.latitude)
+			return false;
+		if (longitude != other.longitude)
+			return false;
+		if (radius != other.radius)
+			return false;
+		if (version != other.version)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "CircleLocationReference: \n" + "\tVER: " + version + "\n"
+				+ "\tLongitude: " + longitude + "\n" + "\tLatitude: "
+				+ latitude + "\n" + "\tRadius: " + radius + " m\n";
+	}
+}
@@ -0,0 +1,102 @@
+package org.hhu.c2c.openlr.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A <b>closed line location reference</b> describes a path through the road
+ * network that ends where it started, e.g. a ring road or a cordon around a
+ * city centre.
+ *
+ * Like a line location it is described by a list of
+ * {@link LocationReferencePoint}s, but the last of them lies at the coordinate
+ * of the first one and only tells the attributes of the line closing the path.
+ * A closed line location has no offsets.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ClosedLineLocationReference implements Location {
+
+	/**
+	 * Holds the version of the physical data format
+	 */
+	private final byte version;
+
+	/**
+	 * Holds the location reference points, the last one closing the path
+	 */
+	private final List<LocationReferencePoint> points;
+
+	/**
+	 * Constructs a new {@link ClosedLineLocationReference}
+	 *
+	 * @param version
+	 *            the version number
+	 * @param points
+	 *            the location reference points, the last one at the coordinate
+	 *            of the first one
+	 */
+	protected ClosedLineLocationReference(final byte version,
+			final List<LocationReferencePoint> points) {
+		this.version = version;
+		this.points = Collections.unmodifiableList(points);
+	}
+
+	/**
+	 * Returns {@link LocationType#CLOSED_LINE}
+	 */
+	@Override
+	public LocationType getLocationType() {
+		return LocationType.CLOSED_LINE;
+	}
+
+	@Override
+	public byte getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the location reference points, the last one closing the path at
+	 * the coordinate of the first one
+	 *
+	 * @return an unmodifiable list of the location reference points
+	 */
+	public List<LocationReferencePoint> getLocationReferencePoints() {
+		return points;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((points == null) ? 0 : points.hashCode());
+		result = prime * result + version;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ClosedLineLocationReference other = (ClosedLineLocationReference) obj;
+		if (points == null) {
+			if (other.points != null)
+				return false;
+		} else if (!points.equals(other.points))
+			return false;
+		if (version != other.version)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "ClosedLineLocationReference: \n" + "\tVER: " + version + "\n"
+				+ "\tPoints: \n" + points + "\n";
+	}
+}
@@ -0,0 +1,196 @@
+package org.hhu.c2c.openlr.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link ClosedLineLocationReferenceBuilder} helps building valid
+ * {@link ClosedLineLocationReference}s. The location reference points are
+ * added in order, the path is closed by the attributes of the line leading
+ * back to the first point.
+ *
+ * @see ClosedLineLocationReference
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ClosedLineLocationReferenceBuilder implements
+		Builder<ClosedLineLocationReferenceBuilder, ClosedLineLocationReference> {
+
+	/**
+	 * Closed line locations were introduced with version <code>3</code> of the
+	 * physical data format.
+	 *
+	 * @see ClosedLineLocationReference#getVersion()
+	 */
+	protected static final byte VERSION_NUMBER_DEFAULT = 3;
+
+	/**
+	 * Holds the version number
+	 */
+	private byte version;
+
+	/**
+	 * Holds the location reference points
+	 */
+	private List<LocationReferencePoint> points;
+
+	/**
+	 * A counter to see, if the location reference was closed properly by
+	 * calling {@link #close(FunctionalRoadClass, FormOfWay, Bearing)}
+	 */
+	private int closeCounter;
+
+	/**
+	 * Constructs a new {@link ClosedLineLocationReferenceBuilder}
+	 */
+	public ClosedLineLocationReferenceBuilder() {
+		init();
+	}
+
+	/**
+	 * Adds a new location reference point to the closed line.
+	 *
+	 * @param point
+	 *            a location reference point
+	 * @return the same instance of this
+	 *         {@link ClosedLineLocationReferenceBuilder} for use in a fluid
+	 *         interface
+	 */
+	public ClosedLineLocationReferenceBuilder addLocationReferencePoint(
+			final LocationReferencePoint point) {
+		points.add(point);
+		return this;
+	}
+
+	/**
+	 * Closes the path by the line leading back to the first location reference
+	 * point
+	 *
+	 * @param frc
+	 *            the functional road class of the closing line
+	 * @param fow
+	 *            the form of way of the closing line
+	 * @param bearing
+	 *            the bearing of the closing line
+	 * @return the same instance of this
+	 *         {@link ClosedLineLocationReferenceBuilder} for use in a fluid
+	 *         interface
+	 * @throws LocationReferenceException
+	 *             if no location reference point has been added yet
+	 */
+	public ClosedLineLocationReferenceBuilder close(
+			final FunctionalRoadClass frc, final FormOfWay fow,
+			final Bearing bearing) throws LocationReferenceException {
+		if (points.isEmpty()) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("ClosedLineLocationReferenceBuilder.Exception.FIRST_POINT_NOT_SET")); //$NON-NLS-1$
+		}
+
+		closeCounter++;
+
+		points.add(new LocationReferencePoint(points.get(0).getCoordinate(),
+				frc, fow, FunctionalRoadClass.UNDEFINED_CLASS_ROAD, bearing,
+				new Distance(0)));
+		return this;
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public ClosedLineLocationReference build()
+			throws LocationReferenceException {
+		validate();
+		return new ClosedLineLocationReference(version, points);
+	}
+
+	/**
+	 * Resets the closed line location reference
+	 */
+	private void init() {
+		version = VERSION_NUMBER_DEFAULT;
+		points = new ArrayList<LocationReferencePoint>();
+		closeCounter = 0;
+	}
+
+	/**
+	 * Sets the version number
+	 *
+	 * @param version
+	 *            the version number
+	 * @return the same instance of this
+	 *         {@link ClosedLineLocationReferenceBuilder} for use in a fluid
+	 *         interface
+	 */
+	public ClosedLineLocationReferenceBuilder setVersion(final byte version) {
+		this.version = version;
+		return this;
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public ClosedLineLocationReferenceBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		if (closeCounter == 0) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("ClosedLineLocationReferenceBuilder.Exception.NOT_CLOSED")); //$NON-NLS-1$
+		}
+
+		if (closeCounter > 1) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("ClosedLineLocationReferenceBuilder.Exception.MULTIPLE_LAST_POINTS")); //$NON-NLS-1$
+		}
+
+		if (version != VERSION_NUMBER_DEFAULT) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("ClosedLineLocationReferenceBuilder.Exception.PROTOCOL_VERSION_NOT_SUPPORTED")); //$NON-NLS-1$
+		}
+
+		// the closing point must be the last one, all the others lead to
+		// their next point
+		int numberOfPoints = points.size();
+		LocationReferencePoint point = points.get(numberOfPoints - 1);
+		if (point.getLowestFRCToNextPoint() != FunctionalRoadClass.UNDEFINED_CLASS_ROAD
+				|| !point.getCoordinate().equals(points.get(0).getCoordinate())) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("ClosedLineLocationReferenceBuilder.Exception.POINT_AFTER_CLOSE")); //$NON-NLS-1$
+		}
+
+		if (point.getFunctionalRoadClass() == FunctionalRoadClass.UNDEFINED_CLASS_ROAD) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("ClosedLineLocationReferenceBuilder.Exception.UNDEFINED_FRC")); //$NON-NLS-1$
+		}
+
+		for (int i = 0; i < numberOfPoints - 1; i++) {
+			point = points.get(i);
+
+			if (point.getFunctionalRoadClass() == FunctionalRoadClass.UNDEFINED_CLASS_ROAD
+					|| point.getLowestFRCToNextPoint() == FunctionalRoadClass.UNDEFINED_CLASS_ROAD) {
+				throw new LocationReferenceException(
+						Messages
+								.getString("ClosedLineLocationReferenceBuilder.Exception.UNDEFINED_FRC")); //$NON-NLS-1$
+			}
+		}
+	}
+}
@@ -45,6 +45,28 @@ public class Distance implements Comparable<Distance> {
 		return newDistanceFromMetricRepresentation((int) (distance * Rules.ONE_BIT_DISTANCE));
 	}
 
+	/**
+	 * Returns a new distance value by passing a byte value, like
+	 * {@link #newDistanceFromByteRepresentation(int)}, but with the start of
+	 * the interval rounded up instead of down to whole meters. The distance
+	 * then lies inside the interval and encodes back to the same byte value,
+	 * which the location types of version 3 rely on when offsets are stored
+	 * relative to the distance to the next point. Line locations of version 2
+	 * keep the rounded down value.
+	 * 
+	 * @param distance
+	 *            the byte value
+	 * @return a new distance
+	 * @throws LocationReferenceException
+	 *             if the distance violates the first rule of the data format
+	 *             rules
+	 */
+	public static Distance newDistanceFromBucket(final int distance)
+			throws LocationReferenceException {
+		return newDistanceFromMetricRepresentation((int) Math.ceil(distance
+				* Rules.ONE_BIT_DISTANCE));
+	}
+
 	/**
 	 * Returns a new distance value by passing a value given in meter.
 	 * 
@@ -0,0 +1,144 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+
+/**
+ * A <b>grid location reference</b> describes a rectangle, the base cell,
+ * repeated in columns to the east and in rows to the north. The borders
+ * inherited from {@link RectangleLocationReference} are those of the base
+ * cell, the grid covers the area of all cells.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class GridLocationReference extends RectangleLocationReference {
+
+	/**
+	 * Holds the number of columns
+	 */
+	private final int columns;
+
+	/**
+	 * Holds the number of rows
+	 */
+	private final int rows;
+
+	/**
+	 * Constructs a new {@link GridLocationReference}
+	 * 
+	 * @param version
+	 *            the version number
+	 * @param west
+	 *            the western border of the base cell in decamicrodegrees
+	 * @param south
+	 *            the southern border of the base cell in decamicrodegrees
+	 * @param east
+	 *            the eastern border of the base cell in decamicrodegrees
+	 * @param north
+	 *            the northern border of the base cell in decamicrodegrees
+	 * @param columns
+	 *            the number of columns
+	 * @param rows
+	 *            the number of rows
+	 */
+	protected GridLocationReference(final byte version, final int west,
+			final int south, final int east, final int north,
+			final int columns, final int rows) {
+		super(version, west, south, east, north);
+		this.columns = columns;
+		this.rows = rows;
+	}
+
+	/**
+	 * Returns {@link LocationType#GRID}
+	 */
+	@Override
+	public LocationType getLocationType() {
+		return LocationType.GRID;
+	}
+
+	/**
+	 * Returns the number of columns
+	 * 
+	 * @return the number of columns
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the number of rows
+	 * 
+	 * @return the number of rows
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the eastern border of the whole grid
+	 * 
+	 * @return the longitude in decamicrodegrees
+	 */
+	public int getGridEast() {
+		return getWest() + columns * (getEast() - getWest());
+	}
+
+	/**
+	 * Returns the northern border of the whole grid
+	 * 
+	 * @return the latitude in decamicrodegrees
+	 */
+	public int getGridNorth() {
+		return getSouth() + rows * (getNorth() - getSouth());
+	}
+
+	/**
+	 * Tests the area of all cells
+	 */
+	@Override
+	public boolean contains(final int longitude, final int latitude) {
+		return longitude >= getWest() && longitude <= getGridEast()
+				&& latitude >= getSouth() && latitude <= getGridNorth();
+	}
+
+	/**
+	 * Returns the bounding box of all cells
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox((float) getWest() / DECAMICRODEGREES_PER_DEGREE,
+				(float) getSouth() / DECAMICRODEGREES_PER_DEGREE,
+				(float) getGridEast() / DECAMICRODEGREES_PER_DEGREE,
+				(float) getGridNorth() / DECAMICRODEGREES_PER_DEGREE);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + columns;
+		result = prime * result + rows;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!super.equals(obj))
+			return false;
+		GridLocationReference other = (GridLocationReference) obj;
+		if (columns != other.columns)
+			return false;
+		if (rows != other.rows)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "GridLocationReference: \n" + "\tColumns: " + columns + "\n"
+				+ "\tRows: " + rows + "\n" + "\tCell: \n" + super.toString();
+	}
+}
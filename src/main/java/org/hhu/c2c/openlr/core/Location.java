@@ -0,0 +1,26 @@
+package org.hhu.c2c.openlr.core;
+
+/**
+ * A <b>location</b> is implemented by the location reference of each
+ * {@link LocationType}, so that location references of different types can be
+ * decoded from and encoded into the physical data format in the same way.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public interface Location {
+
+	/**
+	 * Returns the type of the location
+	 * 
+	 * @return the location type
+	 */
+	LocationType getLocationType();
+
+	/**
+	 * Returns the version of the physical data format
+	 * 
+	 * @return the version number
+	 */
+	byte getVersion();
+}
@@ -15,7 +15,7 @@ import java.util.List;
  * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
  * 
  */
-public class LocationReference {
+public class LocationReference implements Location {
 
 	/**
 	 * The <code>ArF</code> (<b>area flag</b>) indicates whether the location
@@ -124,6 +124,14 @@ public class LocationReference {
 		points.add(point);
 	}
 
+	/**
+	 * Returns {@link LocationType#LINE}
+	 */
+	@Override
+	public LocationType getLocationType() {
+		return LocationType.LINE;
+	}
+
 	/**
 	 * Returns a list of location reference points describing the location
 	 * reference
@@ -166,6 +174,7 @@ public class LocationReference {
 	 * 
 	 * @return the version number
 	 */
+	@Override
 	public byte getVersion() {
 		return version;
 	}
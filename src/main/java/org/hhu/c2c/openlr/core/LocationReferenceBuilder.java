@@ -48,6 +48,15 @@ public class LocationReferenceBuilder implements
 	 */
 	protected static final byte VERSION_NUMBER_DEFAULT = 2;
 
+	/**
+	 * Version <code>3</code> of the physical data format added further
+	 * location types, but kept the layout of line locations.
+	 *
+	 * @see #version
+	 * @see LocationReference#getVersion()
+	 */
+	protected static final byte VERSION_NUMBER_MAXIMUM = 3;
+
 	/**
 	 * The <code>ArF</code> (<b>area flag</b>) indicates whether the location
 	 * reference describes an area or not. If this flag is set then the location
@@ -396,7 +405,7 @@ public class LocationReferenceBuilder implements
 							.getString("LocationReferenceBuilder.Exception.AREA_FLAG_IS_NOT_SUPPORTED")); //$NON-NLS-1$
 		}
 
-		if (version != VERSION_NUMBER_DEFAULT) {
+		if (version < VERSION_NUMBER_DEFAULT || version > VERSION_NUMBER_MAXIMUM) {
 			throw new LocationReferenceException(
 					Messages
 							.getString("LocationReferenceBuilder.Exception.PROTOCOL_VERSION_NOT_SUPPORTED")); //$NON-NLS-1$
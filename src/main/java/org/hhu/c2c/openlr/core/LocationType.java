@@ -0,0 +1,84 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * The <b>location type</b> tells which kind of location a location reference
+ * describes. The physical data format tells them apart by the flags of the
+ * header byte and, where these are equal, by the number of bytes.
+ * 
+ * @see Location#getLocationType()
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public enum LocationType {
+
+	/**
+	 * A line location is a path through the road network, described by two or
+	 * more location reference points.
+	 */
+	LINE(Messages.getString("LocationType.Text.LINE")), //$NON-NLS-1$
+
+	/**
+	 * A point along line location is a position on a line of the road network,
+	 * described by the two location reference points of the line and an
+	 * offset.
+	 */
+	POINT_ALONG_LINE(Messages.getString("LocationType.Text.POINT_ALONG_LINE")), //$NON-NLS-1$
+
+	/**
+	 * A point of interest with access point is a position off the road
+	 * network, e.g. a parking lot, reached from a point along a line.
+	 */
+	POI_WITH_ACCESS_POINT(Messages
+			.getString("LocationType.Text.POI_WITH_ACCESS_POINT")), //$NON-NLS-1$
+
+	/**
+	 * A circle location is the area within a radius around a position.
+	 */
+	CIRCLE(Messages.getString("LocationType.Text.CIRCLE")), //$NON-NLS-1$
+
+	/**
+	 * A rectangle location is the area between two longitudes and two
+	 * latitudes.
+	 */
+	RECTANGLE(Messages.getString("LocationType.Text.RECTANGLE")), //$NON-NLS-1$
+
+	/**
+	 * A grid location is a rectangle repeated in columns to the east and in
+	 * rows to the north.
+	 */
+	GRID(Messages.getString("LocationType.Text.GRID")), //$NON-NLS-1$
+
+	/**
+	 * A polygon location is the area enclosed by three or more positions.
+	 */
+	POLYGON(Messages.getString("LocationType.Text.POLYGON")), //$NON-NLS-1$
+
+	/**
+	 * A closed line location is a path through the road network that ends
+	 * where it started, e.g. a ring road.
+	 */
+	CLOSED_LINE(Messages.getString("LocationType.Text.CLOSED_LINE")); //$NON-NLS-1$
+
+	/**
+	 * Holds the name of the location type
+	 */
+	private final String name;
+
+	/**
+	 * Creating a new {@link LocationType}
+	 * 
+	 * @param name
+	 *            the name of the location type
+	 */
+	LocationType(final String name) {
+		this.name = name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,105 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * The <b>orientation</b> (<code>ORI</code>) tells in which direction a point
+ * location is relevant, relative to the direction of the line it is
+ * referenced on.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public enum Orientation {
+
+	/**
+	 * The point has no orientation, or it isn't known.
+	 */
+	NO_ORIENTATION_OR_UNKNOWN(0, Messages
+			.getString("Orientation.Text.NO_ORIENTATION_OR_UNKNOWN")), //$NON-NLS-1$
+
+	/**
+	 * The point is relevant in the direction of the line.
+	 */
+	WITH_LINE_DIRECTION(1, Messages
+			.getString("Orientation.Text.WITH_LINE_DIRECTION")), //$NON-NLS-1$
+
+	/**
+	 * The point is relevant against the direction of the line.
+	 */
+	AGAINST_LINE_DIRECTION(2, Messages
+			.getString("Orientation.Text.AGAINST_LINE_DIRECTION")), //$NON-NLS-1$
+
+	/**
+	 * The point is relevant in both directions.
+	 */
+	BOTH(3, Messages.getString("Orientation.Text.BOTH")); //$NON-NLS-1$
+
+	/**
+	 * Describes a bitmask, masking the two least significant bits: "0000 0011"
+	 */
+	private static final byte TWO_BIT_BITMASK = 3;
+
+	/**
+	 * Returns the orientation of the passed byte. Only the two least
+	 * significant bits are used.
+	 * 
+	 * @param orientation
+	 *            the byte containing the orientation encoded as the two least
+	 *            significant bits
+	 * @return the orientation corresponding to the two least significant bits
+	 */
+	public static Orientation getOrientation(final byte orientation) {
+		switch (orientation & TWO_BIT_BITMASK) {
+		case 0:
+			return NO_ORIENTATION_OR_UNKNOWN;
+		case 1:
+			return WITH_LINE_DIRECTION;
+		case 2:
+			return AGAINST_LINE_DIRECTION;
+		case 3:
+			return BOTH;
+		default:
+			throw new RuntimeException(Messages
+					.getString("General.Error.GURU_MEDITATION_FAILURE")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Holds the byte value (the two least significant bits) of the orientation
+	 */
+	private final byte orientation;
+
+	/**
+	 * Holds the name of the orientation
+	 */
+	private final String name;
+
+	/**
+	 * Creating a new {@link Orientation}
+	 * 
+	 * @param orientation
+	 *            the orientation
+	 * @param name
+	 *            the name of the orientation
+	 */
+	Orientation(final int orientation, final String name) {
+		this.orientation = (byte) orientation;
+		this.name = name;
+	}
+
+	/**
+	 * Returns the byte representation of the orientation, using the two least
+	 * significant bits
+	 * 
+	 * @return the byte representation
+	 */
+	public byte getByteRepresentation() {
+		return orientation;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
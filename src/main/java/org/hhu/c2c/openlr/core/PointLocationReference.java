@@ -0,0 +1,239 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.geo.Coordinate;
+
+/**
+ * A <b>point location reference</b> describes a position on a line of the
+ * road network (a <i>point along line</i>), or a point of interest off the
+ * road network together with the position on a line it is accessed from (a
+ * <i>POI with access point</i>).
+ *
+ * The line is described by exactly two location reference points, the
+ * position by the positive offset from the first of them. The side of road
+ * and the orientation tell where and in which direction the point is
+ * relevant.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class PointLocationReference implements Location {
+
+	/**
+	 * Holds the version of the physical data format
+	 */
+	private final byte version;
+
+	/**
+	 * Holds the location reference point at the start of the line
+	 */
+	private final LocationReferencePoint firstPoint;
+
+	/**
+	 * Holds the location reference point at the end of the line
+	 */
+	private final LocationReferencePoint lastPoint;
+
+	/**
+	 * Holds the distance of the point from the start of the line
+	 */
+	private final Distance positiveOffset;
+
+	/**
+	 * Holds the side of road
+	 */
+	private final SideOfRoad sideOfRoad;
+
+	/**
+	 * Holds the orientation
+	 */
+	private final Orientation orientation;
+
+	/**
+	 * Holds the coordinate of the point of interest, or <code>null</code> for
+	 * a point along line
+	 */
+	private final Coordinate pointOfInterest;
+
+	/**
+	 * Constructs a new {@link PointLocationReference}
+	 *
+	 * @param version
+	 *            the version number
+	 * @param firstPoint
+	 *            the location reference point at the start of the line
+	 * @param lastPoint
+	 *            the location reference point at the end of the line
+	 * @param positiveOffset
+	 *            the distance of the point from the start of the line
+	 * @param sideOfRoad
+	 *            the side of road
+	 * @param orientation
+	 *            the orientation
+	 * @param pointOfInterest
+	 *            the coordinate of the point of interest, or <code>null</code>
+	 *            for a point along line
+	 */
+	protected PointLocationReference(final byte version,
+			final LocationReferencePoint firstPoint,
+			final LocationReferencePoint lastPoint,
+			final Distance positiveOffset, final SideOfRoad sideOfRoad,
+			final Orientation orientation, final Coordinate pointOfInterest) {
+		this.version = version;
+		this.firstPoint = firstPoint;
+		this.lastPoint = lastPoint;
+		this.positiveOffset = positiveOffset;
+		this.sideOfRoad = sideOfRoad;
+		this.orientation = orientation;
+		this.pointOfInterest = pointOfInterest;
+	}
+
+	/**
+	 * Returns {@link LocationType#POINT_ALONG_LINE} or
+	 * {@link LocationType#POI_WITH_ACCESS_POINT}
+	 */
+	@Override
+	public LocationType getLocationType() {
+		return pointOfInterest == null ? LocationType.POINT_ALONG_LINE
+				: LocationType.POI_WITH_ACCESS_POINT;
+	}
+
+	@Override
+	public byte getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the location reference point at the start of the line
+	 *
+	 * @return the first location reference point
+	 */
+	public LocationReferencePoint getFirstPoint() {
+		return firstPoint;
+	}
+
+	/**
+	 * Returns the location reference point at the end of the line
+	 *
+	 * @return the last location reference point
+	 */
+	public LocationReferencePoint getLastPoint() {
+		return lastPoint;
+	}
+
+	/**
+	 * The <code>POFF</code> (<b>positive offset</b>) value indicates the
+	 * distance between the start of the line and the point, or the access
+	 * point respectively.
+	 *
+	 * @return the positive offset
+	 */
+	public Distance getPositiveOffset() {
+		return positiveOffset;
+	}
+
+	/**
+	 * Returns <code>true</code> if the point doesn't lie at the start of the
+	 * line
+	 *
+	 * @return <code>true</code> if the data has a positive offset,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean hasPositiveOffset() {
+		return positiveOffset.getDistance() != 0;
+	}
+
+	/**
+	 * Returns the side of road
+	 *
+	 * @return the side of road
+	 */
+	public SideOfRoad getSideOfRoad() {
+		return sideOfRoad;
+	}
+
+	/**
+	 * Returns the orientation
+	 *
+	 * @return the orientation
+	 */
+	public Orientation getOrientation() {
+		return orientation;
+	}
+
+	/**
+	 * Returns the coordinate of the point of interest
+	 *
+	 * @return the coordinate, or <code>null</code> for a point along line
+	 */
+	public Coordinate getPointOfInterest() {
+		return pointOfInterest;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result
+				+ ((firstPoint == null) ? 0 : firstPoint.hashCode());
+		result = prime * result
+				+ ((lastPoint == null) ? 0 : lastPoint.hashCode());
+		result = prime * result
+				+ ((orientation == null) ? 0 : orientation.hashCode());
+		result = prime * result
+				+ ((pointOfInterest == null) ? 0 : pointOfInterest.hashCode());
+		result = prime * result
+				+ ((positiveOffset == null) ? 0 : positiveOffset.hashCode());
+		result = prime * result
+				+ ((sideOfRoad == null) ? 0 : sideOfRoad.hashCode());
+		result = prime * result + version;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PointLocationReference other = (PointLocationReference) obj;
+		if (firstPoint == null) {
+			if (other.firstPoint != null)
+				return false;
+		} else if (!firstPoint.equals(other.firstPoint))
+			return false;
+		if (lastPoint == null) {
+			if (other.lastPoint != null)
+				return false;
+		} else if (!lastPoint.equals(other.lastPoint))
+			return false;
+		if (orientation != other.orientation)
+			return false;
+		if (pointOfInterest == null) {
+			if (other.pointOfInterest != null)
+				return false;
+		} else if (!pointOfInterest.equals(other.pointOfInterest))
+			return false;
+		if (positiveOffset == null) {
+			if (other.positiveOffset != null)
+				return false;
+		} else if (!positiveOffset.equals(other.positiveOffset))
+			return false;
+		if (sideOfRoad != other.sideOfRoad)
+			return false;
+		if (version != other.version)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "PointLocationReference: \n" + "\tType: " + getLocationType()
+				+ "\n" + "\tVER: " + version + "\n" + "\tPOFF: "
+				+ positiveOffset + "\n" + "\tSOR: " + sideOfRoad + "\n"
+				+ "\tORI: " + orientation + "\n" + "\tPOI: " + pointOfInterest
+				+ "\n" + "\tFirst: \n" + firstPoint + "\n" + "\tLast: \n"
+				+ lastPoint + "\n";
+	}
+}
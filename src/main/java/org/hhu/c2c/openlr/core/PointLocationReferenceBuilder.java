@@ -0,0 +1,277 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.geo.Coordinate;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link PointLocationReferenceBuilder} helps building valid
+ * {@link PointLocationReference}s. A point of interest makes it a POI with
+ * access point, otherwise it is a point along line.
+ *
+ * @see PointLocationReference
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class PointLocationReferenceBuilder implements
+		Builder<PointLocationReferenceBuilder, PointLocationReference> {
+
+	/**
+	 * Point locations were introduced with version <code>3</code> of the
+	 * physical data format.
+	 *
+	 * @see PointLocationReference#getVersion()
+	 */
+	protected static final byte VERSION_NUMBER_DEFAULT = 3;
+
+	/**
+	 * Holds the version number
+	 */
+	private byte version;
+
+	/**
+	 * Holds the location reference point at the start of the line
+	 */
+	private LocationReferencePoint firstPoint;
+
+	/**
+	 * Holds the location reference point at the end of the line
+	 */
+	private LocationReferencePoint lastPoint;
+
+	/**
+	 * Holds the distance of the point from the start of the line
+	 */
+	private Distance positiveOffset;
+
+	/**
+	 * Holds the side of road
+	 */
+	private SideOfRoad sideOfRoad;
+
+	/**
+	 * Holds the orientation
+	 */
+	private Orientation orientation;
+
+	/**
+	 * Holds the coordinate of the point of interest, or <code>null</code>
+	 */
+	private Coordinate pointOfInterest;
+
+	/**
+	 * Constructs a new {@link PointLocationReferenceBuilder}
+	 */
+	public PointLocationReferenceBuilder() {
+		init();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public PointLocationReference build() throws LocationReferenceException {
+		validate();
+		return new PointLocationReference(version, firstPoint, lastPoint,
+				positiveOffset, sideOfRoad, orientation, pointOfInterest);
+	}
+
+	/**
+	 * Resets the point location reference
+	 */
+	private void init() {
+		version = VERSION_NUMBER_DEFAULT;
+		firstPoint = null;
+		lastPoint = null;
+		positiveOffset = new Distance(0);
+		sideOfRoad = SideOfRoad.ON_ROAD_OR_UNKNOWN;
+		orientation = Orientation.NO_ORIENTATION_OR_UNKNOWN;
+		pointOfInterest = null;
+	}
+
+	/**
+	 * Sets the location reference point at the start of the line
+	 *
+	 * @param firstPoint
+	 *            the first location reference point
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setFirstPoint(
+			final LocationReferencePoint firstPoint) {
+		this.firstPoint = firstPoint;
+		return this;
+	}
+
+	/**
+	 * Sets the location reference point at the end of the line
+	 *
+	 * @param lastPoint
+	 *            the last location reference point
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setLastPoint(
+			final LocationReferencePoint lastPoint) {
+		this.lastPoint = lastPoint;
+		return this;
+	}
+
+	/**
+	 * Sets the distance of the point from the start of the line
+	 *
+	 * @param positiveOffset
+	 *            the positive offset
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setPositiveOffset(
+			final Distance positiveOffset) {
+		this.positiveOffset = positiveOffset;
+		return this;
+	}
+
+	/**
+	 * A convenience method to set the distance of the point from the start of
+	 * the line
+	 *
+	 * @param positiveOffset
+	 *            the positive offset in meter
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setPositiveOffset(
+			final int positiveOffset) {
+		return setPositiveOffset(new Distance(positiveOffset));
+	}
+
+	/**
+	 * Sets the side of road
+	 *
+	 * @param sideOfRoad
+	 *            the side of road
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setSideOfRoad(
+			final SideOfRoad sideOfRoad) {
+		this.sideOfRoad = sideOfRoad;
+		return this;
+	}
+
+	/**
+	 * Sets the orientation
+	 *
+	 * @param orientation
+	 *            the orientation
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setOrientation(
+			final Orientation orientation) {
+		this.orientation = orientation;
+		return this;
+	}
+
+	/**
+	 * Sets the coordinate of the point of interest
+	 *
+	 * @param pointOfInterest
+	 *            the coordinate, or <code>null</code> for a point along line
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setPointOfInterest(
+			final Coordinate pointOfInterest) {
+		this.pointOfInterest = pointOfInterest;
+		return this;
+	}
+
+	/**
+	 * Convenience method to set the coordinate of the point of interest
+	 *
+	 * @param longitude
+	 *            the longitude
+	 * @param latitude
+	 *            the latitude
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 * @throws LocationReferenceException
+	 *             if the angular measurements for the coordinates are misformed
+	 */
+	public PointLocationReferenceBuilder setPointOfInterest(
+			final float longitude, final float latitude)
+			throws LocationReferenceException {
+		return setPointOfInterest(Coordinate.newCoordinate(longitude, latitude));
+	}
+
+	/**
+	 * Sets the version number
+	 *
+	 * @param version
+	 *            the version number
+	 * @return the same instance of this {@link PointLocationReferenceBuilder}
+	 *         for use in a fluid interface
+	 */
+	public PointLocationReferenceBuilder setVersion(final byte version) {
+		this.version = version;
+		return this;
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public PointLocationReferenceBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		if (firstPoint == null) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("PointLocationReferenceBuilder.Exception.FIRST_POINT_NOT_SET")); //$NON-NLS-1$
+		}
+
+		if (lastPoint == null) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("PointLocationReferenceBuilder.Exception.LAST_POINT_NOT_SET")); //$NON-NLS-1$
+		}
+
+		if (version != VERSION_NUMBER_DEFAULT) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("PointLocationReferenceBuilder.Exception.PROTOCOL_VERSION_NOT_SUPPORTED")); //$NON-NLS-1$
+		}
+
+		if (firstPoint.getFunctionalRoadClass() == FunctionalRoadClass.UNDEFINED_CLASS_ROAD
+				|| firstPoint.getLowestFRCToNextPoint() == FunctionalRoadClass.UNDEFINED_CLASS_ROAD
+				|| lastPoint.getFunctionalRoadClass() == FunctionalRoadClass.UNDEFINED_CLASS_ROAD) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("PointLocationReferenceBuilder.Exception.UNDEFINED_FRC")); //$NON-NLS-1$
+		}
+
+		if (lastPoint.getDistanceToNextPoint().getDistance() != 0
+				|| lastPoint.getLowestFRCToNextPoint() != FunctionalRoadClass.UNDEFINED_CLASS_ROAD) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("PointLocationReferenceBuilder.Exception.LAST_POINT_NOT_CLOSED")); //$NON-NLS-1$
+		}
+
+		if (positiveOffset.getDistance() > firstPoint.getDistanceToNextPoint()
+				.getDistance()) {
+			throw new LocationReferenceException(
+					Messages
+							.getString("PointLocationReferenceBuilder.Exception.OFFSET_TOO_LONG")); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package org.hhu.c2c.openlr.core;
+
+import java.util.Arrays;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+
+/**
+ * A <b>polygon location reference</b> describes the area enclosed by three or
+ * more vertices. The last vertex is connected to the first one.
+ *
+ * The vertices are kept like in the physical data format: one array holds the
+ * first vertex followed by the difference of each further vertex to its
+ * previous one, longitude before latitude, all in decamicrodegrees. Positions
+ * are tested by counting the crossings of the edges in a single pass over
+ * these differences, in integer arithmetic.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class PolygonLocationReference implements Area {
+
+	/**
+	 * Holds the version of the physical data format
+	 */
+	private final byte version;
+
+	/**
+	 * Holds the first vertex and the differences of the following ones
+	 */
+	private final int[] deltas;
+
+	/**
+	 * Holds the longitude of the last vertex in decamicrodegrees
+	 */
+	private final int lastLongitude;
+
+	/**
+	 * Holds the latitude of the last vertex in decamicrodegrees
+	 */
+	private final int lastLatitude;
+
+	/**
+	 * Holds the western border of the bounding box in decamicrodegrees
+	 */
+	private final int west;
+
+	/**
+	 * Holds the southern border of the bounding box in decamicrodegrees
+	 */
+	private final int south;
+
+	/**
+	 * Holds the eastern border of the bounding box in decamicrodegrees
+	 */
+	private final int east;
+
+	/**
+	 * Holds the northern border of the bounding box in decamicrodegrees
+	 */
+	private final int north;
+
+	/**
+	 * Constructs a new {@link PolygonLocationReference}
+	 *
+	 * @param version
+	 *            the version number
+	 * @param deltas
+	 *            the first vertex followed by the difference of each further
+	 *            vertex to its previous one, longitude before latitude, in
+	 *            decamicrodegrees; the array is not copied
+	 */
+	protected PolygonLocationReference(final byte version, final int[] deltas) {
+		this.version = version;
+		this.deltas = deltas;
+
+		int longitude = deltas[0];
+		int latitude = deltas[1];
+		int west = longitude;
+		int south = latitude;
+		int east = longitude;
+		int north = latitude;
+		for (int i = 2; i < deltas.length; i += 2) {
+			longitude += deltas[i];
+			latitude += deltas[i + 1];
+			west = Math.min(west, longitude);
+			south = Math.min(south, latitude);
+			east = Math.max(east, longitude);
+			north = Math.max(north, latitude);
+		}
+		this.lastLongitude = longitude;
+		this.lastLatitude = latitude;
+		this.west = west;
+		this.south = south;
+		this.east = east;
+		this.north = north;
+	}
+
+	/**
+	 * Returns {@link LocationType#POLYGON}
+	 */
+	@Override
+	public LocationType getLocationType() {
+		return LocationType.POLYGON;
+	}
+
+	@Override
+	public byte getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the number of vertices
+	 *
+	 * @return the number of vertices
+	 */
+	public int getVertexCount() {
+		return deltas.length / 2;
+	}
+
+	/**
+	 * Returns the longitude of the first vertex, or the difference in
+	 * longitude of a further vertex to its previous one
+	 *
+	 * @param index
+	 *            the index of the vertex
+	 * @return the longitude or the difference in decamicrodegrees
+	 */
+	public int getLongitudeDelta(final int index) {
+		return deltas[2 * index];
+	}
+
+	/**
+	 * Returns the latitude of the first vertex, or the difference in latitude
+	 * of a further vertex to its previous one
+	 *
+	 * @param index
+	 *            the index of the vertex
+	 * @return the latitude or the difference in decamicrodegrees
+	 */
+	public int getLatitudeDelta(final int index) {
+		return deltas[2 * index + 1];
+	}
+
+	/**
+	 * Tests whether a horizontal ray from the position to the east crosses an
+	 * odd number of edges. Positions on the border may be reported either way.
+	 */
+	@Override
+	public boolean contains(final int longitude, final int latitude) {
+		if (longitude < west || longitude > east || latitude < south
+				|| latitude > north) {
+			return false;
+		}
+		boolean inside = false;
+		// the edge from the last to the first vertex comes first
+		int previousLongitude = lastLongitude;
+		int previousLatitude = lastLatitude;
+		int currentLongitude = 0;
+		int currentLatitude = 0;
+		for (int i = 0; i < deltas.length; i += 2) {
+			currentLongitude += deltas[i];
+			currentLatitude += deltas[i + 1];
+			if ((currentLatitude > latitude) != (previousLatitude > latitude)) {
+				// compare the position to the crossing without dividing
+				long left = (long) (longitude - currentLongitude)
+						* (previousLatitude - currentLatitude);
+				long right = (long) (previousLongitude - currentLongitude)
+						* (latitude - currentLatitude);
+				if (previousLatitude > currentLatitude ? left < right
+						: left > right) {
+					inside = !inside;
+				}
+			}
+			previousLongitude = currentLongitude;
+			previousLatitude = currentLatitude;
+		}
+		return inside;
+	}
+
+	@Override
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox((float) west / DECAMICRODEGREES_PER_DEGREE,
+				(float) south / DECAMICRODEGREES_PER_DEGREE, (float) east
+						/ DECAMICRODEGREES_PER_DEGREE, (float) north
+						/ DECAMICRODEGREES_PER_DEGREE);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(deltas);
+		result = prime * result + version;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PolygonLocationReference other = (PolygonLocationReference) obj;
+		if (!Arrays.equals(deltas, other.deltas))
+			return false;
+		if (version != other.version)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "PolygonLocationReference: \n" + "\tVER: " + version + "\n"
+				+ "\tVertices: " + Arrays.toString(deltas) + "\n";
+	}
+}
@@ -0,0 +1,166 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+
+/**
+ * A <b>rectangle location reference</b> describes the area between two
+ * longitudes and two latitudes, given by its lower left and upper right
+ * corner.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class RectangleLocationReference implements Area {
+
+	/**
+	 * Holds the version of the physical data format
+	 */
+	private final byte version;
+
+	/**
+	 * Holds the western border in decamicrodegrees
+	 */
+	private final int west;
+
+	/**
+	 * Holds the southern border in decamicrodegrees
+	 */
+	private final int south;
+
+	/**
+	 * Holds the eastern border in decamicrodegrees
+	 */
+	private final int east;
+
+	/**
+	 * Holds the northern border in decamicrodegrees
+	 */
+	private final int north;
+
+	/**
+	 * Constructs a new {@link RectangleLocationReference}
+	 * 
+	 * @param version
+	 *            the version number
+	 * @param west
+	 *            the western border in decamicrodegrees
+	 * @param south
+	 *            the southern border in decamicrodegrees
+	 * @param east
+	 *            the eastern border in decamicrodegrees
+	 * @param north
+	 *            the northern border in decamicrodegrees
+	 */
+	protected RectangleLocationReference(final byte version, final int west,
+			final int south, final int east, final int north) {
+		this.version = version;
+		this.west = west;
+		this.south = south;
+		this.east = east;
+		this.north = north;
+	}
+
+	/**
+	 * Returns {@link LocationType#RECTANGLE}
+	 */
+	@Override
+	public LocationType getLocationType() {
+		return LocationType.RECTANGLE;
+	}
+
+	@Override
+	public byte getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the western border, the longitude of the lower left corner
+	 * 
+	 * @return the longitude in decamicrodegrees
+	 */
+	public int getWest() {
+		return west;
+	}
+
+	/**
+	 * Returns the southern border, the latitude of the lower left corner
+	 * 
+	 * @return the latitude in decamicrodegrees
+	 */
+	public int getSouth() {
+		return south;
+	}
+
+	/**
+	 * Returns the eastern border, the longitude of the upper right corner
+	 * 
+	 * @return the longitude in decamicrodegrees
+	 */
+	public int getEast() {
+		return east;
+	}
+
+	/**
+	 * Returns the northern border, the latitude of the upper right corner
+	 * 
+	 * @return the latitude in decamicrodegrees
+	 */
+	public int getNorth() {
+		return north;
+	}
+
+	@Override
+	public boolean contains(final int longitude, final int latitude) {
+		return longitude >= west && longitude <= east && latitude >= south
+				&& latitude <= north;
+	}
+
+	@Override
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox((float) west / DECAMICRODEGREES_PER_DEGREE,
+				(float) south / DECAMICRODEGREES_PER_DEGREE, (float) east
+						/ DECAMICRODEGREES_PER_DEGREE, (float) north
+						/ DECAMICRODEGREES_PER_DEGREE);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + east;
+		result = prime * result + north;
+		result = prime * result + south;
+		result = prime * result + version;
+		result = prime * result + west;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RectangleLocationReference other = (RectangleLocationReference) obj;
+		if (east != other.east)
+			return false;
+		if (north != other.north)
+			return false;
+		if (south != other.south)
+			return false;
+		if (version != other.version)
+			return false;
+		if (west != other.west)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "RectangleLocationReference: \n" + "\tVER: " + version + "\n"
+				+ "\tWest: " + west + "\n" + "\tSouth: " + south + "\n"
+				+ "\tEast: " + east + "\n" + "\tNorth: " + north + "\n";
+	}
+}
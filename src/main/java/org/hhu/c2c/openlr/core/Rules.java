@@ -88,7 +88,7 @@ public class Rules {
 	 * reference then a sufficient number of additional LR-points shall be
 	 * inserted.
 	 */
-	protected static final int MAXIMUM_DISTANCE_BETWEEN_TWO_LR_POINTS = 15000;;
+	public static final int MAXIMUM_DISTANCE_BETWEEN_TWO_LR_POINTS = 15000;
 
 	/**
 	 * <b>Lemma 1.1:</b> As distances are encoded as a byte, using all 8 bit
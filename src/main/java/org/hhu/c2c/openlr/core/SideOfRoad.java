@@ -0,0 +1,102 @@
+package org.hhu.c2c.openlr.core;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * The <b>side of road</b> (<code>SOR</code>) tells on which side of the road a
+ * point location lies, seen in the direction of the line it is referenced on.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public enum SideOfRoad {
+
+	/**
+	 * The point lies on the road, or the side isn't known.
+	 */
+	ON_ROAD_OR_UNKNOWN(0, Messages
+			.getString("SideOfRoad.Text.ON_ROAD_OR_UNKNOWN")), //$NON-NLS-1$
+
+	/**
+	 * The point lies on the right side of the road.
+	 */
+	RIGHT(1, Messages.getString("SideOfRoad.Text.RIGHT")), //$NON-NLS-1$
+
+	/**
+	 * The point lies on the left side of the road.
+	 */
+	LEFT(2, Messages.getString("SideOfRoad.Text.LEFT")), //$NON-NLS-1$
+
+	/**
+	 * The point lies on both sides of the road.
+	 */
+	BOTH(3, Messages.getString("SideOfRoad.Text.BOTH")); //$NON-NLS-1$
+
+	/**
+	 * Describes a bitmask, masking the two least significant bits: "0000 0011"
+	 */
+	private static final byte TWO_BIT_BITMASK = 3;
+
+	/**
+	 * Returns the side of road of the passed byte. Only the two least
+	 * significant bits are used.
+	 * 
+	 * @param sideOfRoad
+	 *            the byte containing the side of road encoded as the two least
+	 *            significant bits
+	 * @return the side of road corresponding to the two least significant bits
+	 */
+	public static SideOfRoad getSideOfRoad(final byte sideOfRoad) {
+		switch (sideOfRoad & TWO_BIT_BITMASK) {
+		case 0:
+			return ON_ROAD_OR_UNKNOWN;
+		case 1:
+			return RIGHT;
+		case 2:
+			return LEFT;
+		case 3:
+			return BOTH;
+		default:
+			throw new RuntimeException(Messages
+					.getString("General.Error.GURU_MEDITATION_FAILURE")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Holds the byte value (the two least significant bits) of the side of road
+	 */
+	private final byte sideOfRoad;
+
+	/**
+	 * Holds the name of the side of road
+	 */
+	private final String name;
+
+	/**
+	 * Creating a new {@link SideOfRoad}
+	 * 
+	 * @param sideOfRoad
+	 *            the side of road
+	 * @param name
+	 *            the name of the side of road
+	 */
+	SideOfRoad(final int sideOfRoad, final String name) {
+		this.sideOfRoad = (byte) sideOfRoad;
+		this.name = name;
+	}
+
+	/**
+	 * Returns the byte representation of the side of road, using the two least
+	 * significant bits
+	 * 
+	 * @return the byte representation
+	 */
+	public byte getByteRepresentation() {
+		return sideOfRoad;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
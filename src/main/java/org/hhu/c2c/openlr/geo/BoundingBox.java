@@ -0,0 +1,180 @@
+package org.hhu.c2c.openlr.geo;
+
+/**
+ * A <b>bounding box</b> is the smallest rectangle of longitudes and latitudes
+ * containing a set of WGS84 positions. It is used as a cheap prefilter: two
+ * objects whose bounding boxes don't intersect can't share a position.
+ *
+ * A bounding box is immutable. It doesn't cross the antimeridian.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BoundingBox {
+
+	/**
+	 * The length of one degree of latitude in meters
+	 */
+	private static final double METERS_PER_DEGREE = GeoHelper.EARTH_RADIUS
+			* Math.PI / 180;
+
+	/** Holds the western border in degree */
+	private final float west;
+
+	/** Holds the southern border in degree */
+	private final float south;
+
+	/** Holds the eastern border in degree */
+	private final float east;
+
+	/** Holds the northern border in degree */
+	private final float north;
+
+	/**
+	 * Constructs a new bounding box
+	 *
+	 * @param west
+	 *            the western border in degree
+	 * @param south
+	 *            the southern border in degree
+	 * @param east
+	 *            the eastern border in degree
+	 * @param north
+	 *            the northern border in degree
+	 * @throws IllegalArgumentException
+	 *             if the western border is east of the eastern one or the
+	 *             southern border north of the northern one
+	 */
+	public BoundingBox(final float west, final float south, final float east,
+			final float north) {
+		if (west > east || south > north) {
+			throw new IllegalArgumentException(
+					"The bounding box must not be empty."); //$NON-NLS-1$
+		}
+		this.west = west;
+		this.south = south;
+		this.east = east;
+		this.north = north;
+	}
+
+	/**
+	 * Returns the western border
+	 *
+	 * @return the smallest longitude in degree
+	 */
+	public float getWest() {
+		return west;
+	}
+
+	/**
+	 * Returns the southern border
+	 *
+	 * @return the smallest latitude in degree
+	 */
+	public float getSouth() {
+		return south;
+	}
+
+	/**
+	 * Returns the eastern border
+	 *
+	 * @return the largest longitude in degree
+	 */
+	public float getEast() {
+		return east;
+	}
+
+	/**
+	 * Returns the northern border
+	 *
+	 * @return the largest latitude in degree
+	 */
+	public float getNorth() {
+		return north;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given position lies within this
+	 * bounding box, including its borders
+	 *
+	 * @param longitude
+	 *            the longitude in degree
+	 * @param latitude
+	 *            the latitude in degree
+	 * @return <code>true</code> if the position is contained
+	 */
+	public boolean contains(final float longitude, final float latitude) {
+		return longitude >= west && longitude <= east && latitude >= south
+				&& latitude <= north;
+	}
+
+	/**
+	 * Returns <code>true</code> if this bounding box and the given one share
+	 * at least one position, including their borders
+	 *
+	 * @param other
+	 *            the other bounding box
+	 * @return <code>true</code> if the bounding boxes intersect
+	 */
+	public boolean intersects(final BoundingBox other) {
+		return west <= other.east && other.west <= east
+				&& south <= other.north && other.south <= north;
+	}
+
+	/**
+	 * Returns a bounding box which contains every position within the given
+	 * distance of this bounding box
+	 *
+	 * @param meters
+	 *            the distance in meters
+	 * @return the enlarged bounding box
+	 */
+	public BoundingBox expand(final double meters) {
+		double latitudeMargin = meters / METERS_PER_DEGREE;
+		double longitudeMargin = latitudeMargin
+				/ Math.max(0.01, Math.cos(Math.toRadians(Math.max(Math
+						.abs(south), Math.abs(north)))));
+		return new BoundingBox((float) Math.max(-180, west - longitudeMargin),
+				(float) Math.max(-90, south - latitudeMargin), (float) Math
+						.min(180, east + longitudeMargin), (float) Math.min(
+						90, north + latitudeMargin));
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Float.floatToIntBits(west);
+		result = prime * result + Float.floatToIntBits(south);
+		result = prime * result + Float.floatToIntBits(east);
+		result = prime * result + Float.floatToIntBits(north);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BoundingBox other = (BoundingBox) obj;
+		if (Float.floatToIntBits(west) != Float.floatToIntBits(other.west))
+			return false;
+		if (Float.floatToIntBits(south) != Float.floatToIntBits(other.south))
+			return false;
+		if (Float.floatToIntBits(east) != Float.floatToIntBits(other.east))
+			return false;
+		if (Float.floatToIntBits(north) != Float.floatToIntBits(other.north))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "BoundingBox: \n" + "\tWest: " + west + "\n" + "\tSouth: "
+				+ south + "\n" + "\tEast: " + east + "\n" + "\tNorth: " + north
+				+ "\n";
+	}
+}
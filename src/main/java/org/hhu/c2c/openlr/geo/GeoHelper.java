@@ -0,0 +1,376 @@
+package org.hhu.c2c.openlr.geo;
+
+/**
+ * <b>GeoHelper</b> is a collection of great-circle functions for computing
+ * distances and bearings between WGS84 positions. Besides the scalar variants
+ * there are batch variants that work on parallel arrays of longitudes and
+ * latitudes, so that a sequence of coordinates (e.g. the coordinates of all
+ * location reference points of a location reference) can be processed without
+ * creating any intermediate objects.
+ *
+ * Every function is offered in an exact and a fast mode. The exact mode uses
+ * the haversine formula and the initial bearing of the great circle. The fast
+ * mode uses an equirectangular projection and an approximation of
+ * <code>atan2</code>, which is accurate to a few meters respectively a fraction
+ * of a degree over the distances allowed between two location reference points
+ * (see the first rule of the data format rules). This is far below the
+ * resolution of the physical data format (58.6 meters and 11.25&#xB0;).
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class GeoHelper {
+
+	/**
+	 * The mean earth radius in meters, as defined by the IUGG
+	 */
+	public static final double EARTH_RADIUS = 6371008.8;
+
+	/**
+	 * Used to convert degrees into radians
+	 */
+	private static final double DEGREE_TO_RADIAN = Math.PI / 180;
+
+	/**
+	 * Used to convert radians into degrees
+	 */
+	private static final double RADIAN_TO_DEGREE = 180 / Math.PI;
+
+	/**
+	 * Prevents class from being instantiated
+	 */
+	private GeoHelper() {
+	}
+
+	/**
+	 * Returns the great-circle distance in meters between the two given
+	 * positions, computed by the haversine formula.
+	 *
+	 * @param longitude1
+	 *            the longitude of the first position in degree
+	 * @param latitude1
+	 *            the latitude of the first position in degree
+	 * @param longitude2
+	 *            the longitude of the second position in degree
+	 * @param latitude2
+	 *            the latitude of the second position in degree
+	 * @return the distance in meters
+	 */
+	public static double haversine(final double longitude1,
+			final double latitude1, final double longitude2,
+			final double latitude2) {
+		double phi1 = latitude1 * DEGREE_TO_RADIAN;
+		double phi2 = latitude2 * DEGREE_TO_RADIAN;
+		double sinDeltaPhi = Math.sin((phi2 - phi1) / 2);
+		double sinDeltaLambda = Math.sin((longitude2 - longitude1)
+				* DEGREE_TO_RADIAN / 2);
+		double a = sinDeltaPhi * sinDeltaPhi + Math.cos(phi1) * Math.cos(phi2)
+				* sinDeltaLambda * sinDeltaLambda;
+		return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(1, a)));
+	}
+
+	/**
+	 * Returns the distance in meters between the two given positions using an
+	 * equirectangular projection around their mean latitude. This is
+	 * considerably cheaper than {@link #haversine(double, double, double, double)}
+	 * and accurate for short distances, also across the antimeridian.
+	 *
+	 * @param longitude1
+	 *            the longitude of the first position in degree
+	 * @param latitude1
+	 *            the latitude of the first position in degree
+	 * @param longitude2
+	 *            the longitude of the second position in degree
+	 * @param latitude2
+	 *            the latitude of the second position in degree
+	 * @return the distance in meters
+	 */
+	public static double equirectangular(final double longitude1,
+			final double latitude1, final double longitude2,
+			final double latitude2) {
+		double x = deltaLongitude(longitude1, longitude2)
+				* Math.cos((latitude1 + latitude2) / 2 * DEGREE_TO_RADIAN);
+		double y = latitude2 - latitude1;
+		return Math.sqrt(x * x + y * y) * DEGREE_TO_RADIAN * EARTH_RADIUS;
+	}
+
+	/**
+	 * Returns the distance in meters between the two given positions.
+	 *
+	 * @see #haversine(double, double, double, double)
+	 * @see #equirectangular(double, double, double, double)
+	 *
+	 * @param longitude1
+	 *            the longitude of the first position in degree
+	 * @param latitude1
+	 *            the latitude of the first position in degree
+	 * @param longitude2
+	 *            the longitude of the second position in degree
+	 * @param latitude2
+	 *            the latitude of the second position in degree
+	 * @param fast
+	 *            <code>true</code> to use the equirectangular approximation,
+	 *            <code>false</code> to use the haversine formula
+	 * @return the distance in meters
+	 */
+	public static double distance(final double longitude1,
+			final double latitude1, final double longitude2,
+			final double latitude2, final boolean fast) {
+		return fast ? equirectangular(longitude1, latitude1, longitude2,
+				latitude2) : haversine(longitude1, latitude1, longitude2,
+				latitude2);
+	}
+
+	/**
+	 * Returns the initial bearing of the line from the first to the second
+	 * position, measured in degrees clockwise from true north. The result lies
+	 * between 0&#xB0; (inclusive) and 360&#xB0; (exclusive).
+	 *
+	 * @param longitude1
+	 *            the longitude of the first position in degree
+	 * @param latitude1
+	 *            the latitude of the first position in degree
+	 * @param longitude2
+	 *            the longitude of the second position in degree
+	 * @param latitude2
+	 *            the latitude of the second position in degree
+	 * @param fast
+	 *            <code>true</code> to use the equirectangular approximation,
+	 *            <code>false</code> to use the initial bearing of the great
+	 *            circle
+	 * @return the bearing in degree
+	 */
+	public static double bearing(final double longitude1,
+			final double latitude1, final double longitude2,
+			final double latitude2, final boolean fast) {
+		double bearing;
+		if (fast) {
+			double x = deltaLongitude(longitude1, longitude2)
+					* Math.cos((latitude1 + latitude2) / 2 * DEGREE_TO_RADIAN);
+			double y = latitude2 - latitude1;
+			bearing = atan2(x, y) * RADIAN_TO_DEGREE;
+		} else {
+			double phi1 = latitude1 * DEGREE_TO_RADIAN;
+			double phi2 = latitude2 * DEGREE_TO_RADIAN;
+			double deltaLambda = (longitude2 - longitude1) * DEGREE_TO_RADIAN;
+			double cosPhi2 = Math.cos(phi2);
+			bearing = Math.atan2(Math.sin(deltaLambda) * cosPhi2, Math
+					.cos(phi1)
+					* Math.sin(phi2)
+					- Math.sin(phi1)
+					* cosPhi2
+					* Math.cos(deltaLambda))
+					* RADIAN_TO_DEGREE;
+		}
+		return bearing < 0 ? bearing + 360 : bearing;
+	}
+
+	/**
+	 * Computes the distances between consecutive positions of the given
+	 * coordinate sequence. For <code>length</code> positions starting at
+	 * <code>offset</code> there are <code>length - 1</code> distances written
+	 * into <code>result</code>, starting at <code>resultOffset</code>. The
+	 * distance at <code>resultOffset + i</code> is the distance between the
+	 * positions <code>offset + i</code> and <code>offset + i + 1</code>.
+	 *
+	 * @param longitudes
+	 *            the longitudes in degree
+	 * @param latitudes
+	 *            the latitudes in degree
+	 * @param offset
+	 *            the index of the first position
+	 * @param length
+	 *            the number of positions
+	 * @param result
+	 *            the array receiving the distances in meters
+	 * @param resultOffset
+	 *            the index of the first distance in the result array
+	 * @param fast
+	 *            <code>true</code> to use the equirectangular approximation,
+	 *            <code>false</code> to use the haversine formula
+	 * @throws IndexOutOfBoundsException
+	 *             if one of the arrays is too small
+	 */
+	public static void distances(final float[] longitudes,
+			final float[] latitudes, final int offset, final int length,
+			final float[] result, final int resultOffset, final boolean fast) {
+		checkBounds(longitudes, latitudes, offset, length, result,
+				resultOffset);
+		int end = offset + length - 1;
+		int j = resultOffset;
+		if (fast) {
+			for (int i = offset; i < end; i++) {
+				result[j++] = (float) equirectangular(longitudes[i],
+						latitudes[i], longitudes[i + 1], latitudes[i + 1]);
+			}
+		} else {
+			for (int i = offset; i < end; i++) {
+				result[j++] = (float) haversine(longitudes[i], latitudes[i],
+						longitudes[i + 1], latitudes[i + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Computes the initial bearings between consecutive positions of the
+	 * given coordinate sequence. The layout of the result is the same as for
+	 * {@link #distances(float[], float[], int, int, float[], int, boolean)}.
+	 *
+	 * @param longitudes
+	 *            the longitudes in degree
+	 * @param latitudes
+	 *            the latitudes in degree
+	 * @param offset
+	 *            the index of the first position
+	 * @param length
+	 *            the number of positions
+	 * @param result
+	 *            the array receiving the bearings in degree
+	 * @param resultOffset
+	 *            the index of the first bearing in the result array
+	 * @param fast
+	 *            <code>true</code> to use the equirectangular approximation,
+	 *            <code>false</code> to use the initial bearing of the great
+	 *            circle
+	 * @throws IndexOutOfBoundsException
+	 *             if one of the arrays is too small
+	 */
+	public static void bearings(final float[] longitudes,
+			final float[] latitudes, final int offset, final int length,
+			final float[] result, final int resultOffset, final boolean fast) {
+		checkBounds(longitudes, latitudes, offset, length, result,
+				resultOffset);
+		int end = offset + length - 1;
+		int j = resultOffset;
+		for (int i = offset; i < end; i++) {
+			result[j++] = (float) bearing(longitudes[i], latitudes[i],
+					longitudes[i + 1], latitudes[i + 1], fast);
+		}
+	}
+
+	/**
+	 * Returns the length in meters of the polyline described by the given
+	 * coordinate sequence, that is the sum of the distances between
+	 * consecutive positions.
+	 *
+	 * @param longitudes
+	 *            the longitudes in degree
+	 * @param latitudes
+	 *            the latitudes in degree
+	 * @param offset
+	 *            the index of the first position
+	 * @param length
+	 *            the number of positions
+	 * @param fast
+	 *            <code>true</code> to use the equirectangular approximation,
+	 *            <code>false</code> to use the haversine formula
+	 * @return the length of the polyline in meters
+	 * @throws IndexOutOfBoundsException
+	 *             if one of the arrays is too small
+	 */
+	public static double length(final float[] longitudes,
+			final float[] latitudes, final int offset, final int length,
+			final boolean fast) {
+		if (offset < 0 || length < 0 || offset + length > longitudes.length
+				|| offset + length > latitudes.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		double sum = 0;
+		int end = offset + length - 1;
+		for (int i = offset; i < end; i++) {
+			sum += distance(longitudes[i], latitudes[i], longitudes[i + 1],
+					latitudes[i + 1], fast);
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the difference from the first to the second longitude, wrapped
+	 * into the range from -180&#xB0; to 180&#xB0;, so that two positions on
+	 * either side of the antimeridian are close to each other.
+	 *
+	 * @param longitude1
+	 *            the first longitude in degree
+	 * @param longitude2
+	 *            the second longitude in degree
+	 * @return the difference in degree
+	 */
+	private static double deltaLongitude(final double longitude1,
+			final double longitude2) {
+		double delta = longitude2 - longitude1;
+		if (delta > 180) {
+			delta -= 360;
+		} else if (delta < -180) {
+			delta += 360;
+		}
+		return delta;
+	}
+
+	/**
+	 * Approximates <code>atan2(y, x)</code> by a polynomial with a maximum
+	 * error of about 0.004 radians (less than 0.25&#xB0;).
+	 *
+	 * @param y
+	 *            the ordinate
+	 * @param x
+	 *            the abscissa
+	 * @return the angle in radians, between -&pi; and &pi;
+	 */
+	static double atan2(final double y, final double x) {
+		double absY = Math.abs(y);
+		double absX = Math.abs(x);
+		if (absX == 0 && absY == 0) {
+			return 0;
+		}
+		double angle;
+		if (absX >= absY) {
+			angle = atan(absY / absX);
+		} else {
+			angle = Math.PI / 2 - atan(absX / absY);
+		}
+		if (x < 0) {
+			angle = Math.PI - angle;
+		}
+		return y < 0 ? -angle : angle;
+	}
+
+	/**
+	 * Approximates the arc tangent for values between 0 and 1.
+	 *
+	 * @param z
+	 *            a value between 0 and 1
+	 * @return the arc tangent in radians
+	 */
+	private static double atan(final double z) {
+		return z * (Math.PI / 4 + 0.273 * (1 - z));
+	}
+
+	/**
+	 * Checks the bounds of the arrays used by the batch functions.
+	 *
+	 * @param longitudes
+	 *            the longitudes
+	 * @param latitudes
+	 *            the latitudes
+	 * @param offset
+	 *            the index of the first position
+	 * @param length
+	 *            the number of positions
+	 * @param result
+	 *            the result array
+	 * @param resultOffset
+	 *            the index of the first result
+	 * @throws IndexOutOfBoundsException
+	 *             if one of the arrays is too small
+	 */
+	private static void checkBounds(final float[] longitudes,
+			final float[] latitudes, final int offset, final int length,
+			final float[] result, final int resultOffset) {
+		if (offset < 0 || length < 0 || resultOffset < 0
+				|| offset + length > longitudes.length
+				|| offset + length > latitudes.length
+				|| resultOffset + Math.max(0, length - 1) > result.length) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package org.hhu.c2c.openlr.io;
+
+/**
+ * This class offers static definitions of the binary archive format shared
+ * between the {@link ArchiveWriter} and the {@link ArchiveReader}. An archive
+ * holds any number of location references in their physical data format, in
+ * the order they were written, grouped into blocks of a fixed number of
+ * references which are compressed independently of each other.
+ *
+ * The format starts with a header of four big endian integers: the magic
+ * number, the format version, the number of references per block and the
+ * length of the preset dictionary, followed by the dictionary itself. The
+ * dictionary is sampled across the first {@link #SAMPLE_BLOCKS} blocks, in
+ * pieces taken at evenly spaced positions, and primes the compression of
+ * every block, so that even small blocks compress well without depending on
+ * each other.
+ *
+ * It is followed by the blocks, each compressed by the {@link
+ * java.util.zip.Deflater} without a zlib wrapper. Uncompressed, a block holds
+ * for each of its references the number of bytes as a variable length integer
+ * followed by the bytes themselves.
+ *
+ * The blocks are followed by the index, one entry per block: the offset of the
+ * block from the start of the archive as a big endian long, its compressed
+ * and its uncompressed length and the number of its references as big endian
+ * integers. The archive ends with the offset of the index as a big endian
+ * long and the number of blocks as a big endian integer.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ArchiveFormat {
+
+	/**
+	 * The default number of references per block
+	 */
+	protected static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	/**
+	 * The maximum length of the preset dictionary in bytes
+	 */
+	protected static final int DICTIONARY_SIZE = 4096;
+
+	/**
+	 * The number of blocks the preset dictionary is sampled from
+	 */
+	protected static final int SAMPLE_BLOCKS = 16;
+
+	/**
+	 * The length of each piece of the preset dictionary in bytes, a divisor
+	 * of {@link #DICTIONARY_SIZE}
+	 */
+	protected static final int SAMPLE_PIECE_SIZE = 256;
+
+	/**
+	 * The size of the header without the dictionary in bytes
+	 */
+	protected static final int HEADER_SIZE = 4 * 4;
+
+	/**
+	 * The size of the index entry of a block in bytes
+	 */
+	protected static final int INDEX_ENTRY_SIZE = 8 + 3 * 4;
+
+	/**
+	 * The magic number, <code>OLAR</code> in ASCII
+	 */
+	protected static final int MAGIC_NUMBER = 0x4F4C4152;
+
+	/**
+	 * The size of the trailer holding the offset of the index and the number
+	 * of blocks in bytes
+	 */
+	protected static final int TRAILER_SIZE = 8 + 4;
+
+	/**
+	 * The version of the format
+	 */
+	protected static final int VERSION = 1;
+
+	/**
+	 * This class should not be instantiated
+	 */
+	private ArchiveFormat() {
+	}
+}
@@ -0,0 +1,123 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.ArchiveFormat.HEADER_SIZE;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.INDEX_ENTRY_SIZE;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.TRAILER_SIZE;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.VERSION;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * Used for opening an archive of location references written by the
+ * {@link ArchiveWriter}. Only the header and the index are read; the blocks
+ * are read and decompressed on demand by the returned
+ * {@link ReferenceArchive}, which has to be closed when it is no longer
+ * needed.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ArchiveReader {
+
+	/**
+	 * Opens the archive in the given file
+	 *
+	 * @param file
+	 *            the file
+	 * @return the archive
+	 * @throws IOException
+	 *             if the file can't be read or doesn't contain an archive
+	 */
+	public ReferenceArchive open(final File file) throws IOException {
+		FileChannel channel = new RandomAccessFile(file, "r").getChannel(); //$NON-NLS-1$
+		try {
+			ReferenceArchive archive = open(channel);
+			channel = null;
+			return archive;
+		} finally {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Opens the archive in the given channel
+	 *
+	 * @param channel
+	 *            the channel
+	 * @return the archive
+	 * @throws IOException
+	 *             if the channel can't be read or doesn't contain an archive
+	 */
+	private ReferenceArchive open(final FileChannel channel)
+			throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + TRAILER_SIZE) {
+			throw new IOException(Messages
+					.getString("ArchiveReader.Exception.NO_ARCHIVE")); //$NON-NLS-1$
+		}
+		ByteBuffer header = ReferenceArchive.read(channel, 0, HEADER_SIZE);
+		if (header.getInt() != MAGIC_NUMBER) {
+			throw new IOException(Messages
+					.getString("ArchiveReader.Exception.NO_ARCHIVE")); //$NON-NLS-1$
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException(Messages.getString(
+					"ArchiveReader.Exception.VERSION_NOT_SUPPORTED", version)); //$NON-NLS-1$
+		}
+		header.getInt(); // the block size is only a hint for writers
+		int dictionaryLength = header.getInt();
+
+		ByteBuffer trailer = ReferenceArchive.read(channel,
+				size - TRAILER_SIZE, TRAILER_SIZE);
+		long indexOffset = trailer.getLong();
+		int blockCount = trailer.getInt();
+		if (dictionaryLength < 0 || blockCount < 0
+				|| indexOffset < HEADER_SIZE + dictionaryLength
+				|| indexOffset + (long) blockCount * INDEX_ENTRY_SIZE
+						+ TRAILER_SIZE != size) {
+			throw new IOException(Messages
+					.getString("ArchiveReader.Exception.MALFORMED_INDEX")); //$NON-NLS-1$
+		}
+		byte[] dictionary = new byte[dictionaryLength];
+		ReferenceArchive.read(channel, HEADER_SIZE, dictionaryLength).get(
+				dictionary);
+
+		ByteBuffer index = ReferenceArchive.read(channel, indexOffset,
+				blockCount * INDEX_ENTRY_SIZE);
+		long[] offsets = new long[blockCount];
+		int[] compressedLengths = new int[blockCount];
+		int[] lengths = new int[blockCount];
+		long[] firsts = new long[blockCount + 1];
+		long next = HEADER_SIZE + dictionaryLength;
+		for (int block = 0; block < blockCount; block++) {
+			offsets[block] = index.getLong();
+			compressedLengths[block] = index.getInt();
+			lengths[block] = index.getInt();
+			int count = index.getInt();
+			if (offsets[block] != next || compressedLengths[block] < 0
+					|| lengths[block] < 0 || count < 0) {
+				throw new IOException(Messages
+						.getString("ArchiveReader.Exception.MALFORMED_INDEX")); //$NON-NLS-1$
+			}
+			next += compressedLengths[block];
+			firsts[block + 1] = firsts[block] + count;
+		}
+		if (next != indexOffset) {
+			throw new IOException(Messages
+					.getString("ArchiveReader.Exception.MALFORMED_INDEX")); //$NON-NLS-1$
+		}
+
+		return new ReferenceArchive(channel, dictionary, offsets,
+				compressedLengths, lengths, firsts);
+	}
+}
@@ -0,0 +1,325 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.ArchiveFormat.DEFAULT_BLOCK_SIZE;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.DICTIONARY_SIZE;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.HEADER_SIZE;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.SAMPLE_BLOCKS;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.SAMPLE_PIECE_SIZE;
+import static org.hhu.c2c.openlr.io.ArchiveFormat.VERSION;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Used for writing location references into an archive in the format
+ * described by {@link ArchiveFormat}. The references are streamed: only the
+ * current block and the index are held in memory, so archives of any size can
+ * be written. The only exception are the first blocks, which are held back
+ * uncompressed until the preset dictionary has been sampled across them. The
+ * blocks are compressed by the {@link Deflater} at its fastest level, which
+ * favours writing speed over size.
+ *
+ * The archive is complete once {@link #finish()} or {@link #close()} has been
+ * called. An archive writer is not thread-safe.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ArchiveWriter implements Closeable {
+
+	/**
+	 * Holds the output stream
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * Holds the number of references per block
+	 */
+	private final int blockSize;
+
+	/**
+	 * Holds the compressor, reused for all blocks
+	 */
+	private final Deflater deflater;
+
+	/**
+	 * Holds the uncompressed current block
+	 */
+	private final ByteArrayOutputStream block;
+
+	/**
+	 * Holds the index written so far
+	 */
+	private final ByteArrayOutputStream index;
+
+	/**
+	 * Holds the compressed block
+	 */
+	private byte[] compressed;
+
+	/**
+	 * Holds the preset dictionary, or <code>null</code> until the header is
+	 * written
+	 */
+	private byte[] dictionary;
+
+	/**
+	 * Holds the uncompressed blocks held back until the dictionary is sampled
+	 */
+	private final List<byte[]> pending;
+
+	/**
+	 * Holds the number of references of each block held back
+	 */
+	private final int[] pendingCounts;
+
+	/**
+	 * Holds the number of references of the current block
+	 */
+	private int count;
+
+	/**
+	 * Holds the number of blocks written
+	 */
+	private int blockCount;
+
+	/**
+	 * Holds the number of bytes written
+	 */
+	private long position;
+
+	/**
+	 * Holds <code>true</code> once the archive is complete
+	 */
+	private boolean finished;
+
+	/**
+	 * Constructs a new {@link ArchiveWriter} using the default block size
+	 *
+	 * @param out
+	 *            the output stream
+	 */
+	public ArchiveWriter(final OutputStream out) {
+		this(out, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructs a new {@link ArchiveWriter}
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param blockSize
+	 *            the number of references per block; smaller blocks are
+	 *            faster to access, larger ones compress better
+	 * @throws IllegalArgumentException
+	 *             if the block size isn't positive
+	 */
+	public ArchiveWriter(final OutputStream out, final int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException(
+					"The block size must be positive."); //$NON-NLS-1$
+		}
+		this.out = new DataOutputStream(out);
+		this.blockSize = blockSize;
+		this.deflater = new Deflater(Deflater.BEST_SPEED, true);
+		this.block = new ByteArrayOutputStream();
+		this.index = new ByteArrayOutputStream();
+		this.compressed = new byte[1024];
+		this.pending = new ArrayList<byte[]>(SAMPLE_BLOCKS);
+		this.pendingCounts = new int[SAMPLE_BLOCKS];
+	}
+
+	/**
+	 * Adds the given location reference to the archive
+	 *
+	 * @param reference
+	 *            the location reference in its physical data format
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 * @throws IllegalStateException
+	 *             if the archive is already complete
+	 */
+	public void add(final byte[] reference) throws IOException {
+		if (finished) {
+			throw new IllegalStateException("The archive is already complete."); //$NON-NLS-1$
+		}
+		int remaining = reference.length;
+		while ((remaining & ~0x7f) != 0) {
+			block.write(remaining & 0x7f | 0x80);
+			remaining >>>= 7;
+		}
+		block.write(remaining);
+		block.write(reference, 0, reference.length);
+		if (++count == blockSize) {
+			writeBlock();
+		}
+	}
+
+	/**
+	 * Writes the last block and the index, completing the archive. The output
+	 * stream is flushed but not closed. Calling this method again has no
+	 * effect.
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void finish() throws IOException {
+		if (finished) {
+			return;
+		}
+		if (count > 0) {
+			writeBlock();
+		}
+		if (dictionary == null) {
+			writePending();
+		}
+		index.writeTo(out);
+		out.writeLong(position);
+		out.writeInt(blockCount);
+		out.flush();
+		deflater.end();
+		finished = true;
+	}
+
+	/**
+	 * Completes the archive and closes the output stream
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Compresses and writes the current block. Until the dictionary has been
+	 * sampled the block is held back instead.
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writeBlock() throws IOException {
+		byte[] raw = block.toByteArray();
+		int references = count;
+		block.reset();
+		count = 0;
+		if (dictionary == null) {
+			pendingCounts[pending.size()] = references;
+			pending.add(raw);
+			if (pending.size() == SAMPLE_BLOCKS) {
+				writePending();
+			}
+			return;
+		}
+		writeBlock(raw, references);
+	}
+
+	/**
+	 * Samples the dictionary across the blocks held back, writes the header
+	 * and then the blocks
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writePending() throws IOException {
+		ByteArrayOutputStream sample = new ByteArrayOutputStream();
+		for (byte[] raw : pending) {
+			sample.write(raw);
+		}
+		dictionary = sample(sample.toByteArray());
+		writeHeader();
+		for (int i = 0; i < pending.size(); i++) {
+			writeBlock(pending.get(i), pendingCounts[i]);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Returns the dictionary sampled from the given bytes: if they are longer
+	 * than the dictionary, pieces taken at evenly spaced positions, otherwise
+	 * the bytes themselves
+	 *
+	 * @param bytes
+	 *            the uncompressed blocks held back
+	 * @return the dictionary
+	 */
+	private static byte[] sample(final byte[] bytes) {
+		if (bytes.length <= DICTIONARY_SIZE) {
+			return bytes;
+		}
+		byte[] sample = new byte[DICTIONARY_SIZE];
+		int pieces = DICTIONARY_SIZE / SAMPLE_PIECE_SIZE;
+		for (int i = 0; i < pieces; i++) {
+			long start = (long) (bytes.length - SAMPLE_PIECE_SIZE) * i
+					/ (pieces - 1);
+			System.arraycopy(bytes, (int) start, sample, i
+					* SAMPLE_PIECE_SIZE, SAMPLE_PIECE_SIZE);
+		}
+		return sample;
+	}
+
+	/**
+	 * Compresses and writes the given block and adds it to the index
+	 *
+	 * @param raw
+	 *            the uncompressed block
+	 * @param references
+	 *            the number of references of the block
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writeBlock(final byte[] raw, final int references)
+			throws IOException {
+		deflater.reset();
+		if (dictionary.length > 0) {
+			deflater.setDictionary(dictionary);
+		}
+		deflater.setInput(raw);
+		deflater.finish();
+		int length = 0;
+		while (!deflater.finished()) {
+			if (length == compressed.length) {
+				compressed = Arrays.copyOf(compressed, compressed.length * 2);
+			}
+			length += deflater.deflate(compressed, length, compressed.length
+					- length);
+		}
+		out.write(compressed, 0, length);
+
+		DataOutputStream entry = new DataOutputStream(index);
+		entry.writeLong(position);
+		entry.writeInt(length);
+		entry.writeInt(raw.length);
+		entry.writeInt(references);
+		position += length;
+		blockCount++;
+	}
+
+	/**
+	 * Writes the header
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writeHeader() throws IOException {
+		out.writeInt(MAGIC_NUMBER);
+		out.writeInt(VERSION);
+		out.writeInt(blockSize);
+		out.writeInt(dictionary.length);
+		out.write(dictionary);
+		position = HEADER_SIZE + dictionary.length;
+	}
+}
@@ -0,0 +1,299 @@
+package org.hhu.c2c.openlr.io;
+
+import java.util.Arrays;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * <b>Base64</b> converts binary location references into and out of the
+ * Base64 representation (RFC 4648) they are usually transmitted in, e.g. in
+ * DATEX II or JSON feeds. Each character is decoded by a single lookup in a
+ * table, and the caller may supply the buffers, so that no objects are
+ * created while decoding.
+ *
+ * Both the standard and the URL safe alphabet are accepted, the padding may
+ * be omitted. Encoding uses the standard alphabet with padding.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class Base64 {
+
+	/** The characters of the standard alphabet */
+	private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/" //$NON-NLS-1$
+			.toCharArray();
+
+	/** The padding character */
+	private static final char PADDING = '=';
+
+	/** Holds the value of each ASCII character, or <code>-1</code> */
+	private static final byte[] VALUES = new byte[128];
+
+	static {
+		Arrays.fill(VALUES, (byte) -1);
+		for (int i = 0; i < ALPHABET.length; i++) {
+			VALUES[ALPHABET[i]] = (byte) i;
+		}
+		// the URL safe alphabet
+		VALUES['-'] = 62;
+		VALUES['_'] = 63;
+	}
+
+	/**
+	 * Returns the number of bytes the given Base64 string decodes to
+	 *
+	 * @param base64
+	 *            the Base64 string
+	 * @return the number of bytes
+	 * @throws LocationReferenceException
+	 *             if the string has an impossible length
+	 */
+	public static int getDecodedLength(final CharSequence base64)
+			throws LocationReferenceException {
+		int length = base64.length();
+		while (length > 0 && base64.charAt(length - 1) == PADDING) {
+			length--;
+		}
+		return getDecodedLength(base64.length(), length);
+	}
+
+	/**
+	 * Returns the number of bytes the given Base64 characters decode to
+	 *
+	 * @param ascii
+	 *            holds the Base64 characters, one byte each
+	 * @param offset
+	 *            the index of the first character
+	 * @param length
+	 *            the number of characters
+	 * @return the number of bytes
+	 * @throws LocationReferenceException
+	 *             if the characters have an impossible length
+	 */
+	public static int getDecodedLength(final byte[] ascii, final int offset,
+			final int length) throws LocationReferenceException {
+		int end = offset + length;
+		while (end > offset && ascii[end - 1] == PADDING) {
+			end--;
+		}
+		return getDecodedLength(length, end - offset);
+	}
+
+	/**
+	 * Returns the number of characters the given number of bytes encodes to
+	 *
+	 * @param length
+	 *            the number of bytes
+	 * @return the number of characters, including the padding
+	 */
+	public static int getEncodedLength(final int length) {
+		return (length + 2) / 3 * 4;
+	}
+
+	/**
+	 * Decodes the given Base64 string
+	 *
+	 * @param base64
+	 *            the Base64 string
+	 * @return the decoded bytes
+	 * @throws LocationReferenceException
+	 *             if the string isn't valid Base64
+	 */
+	public static byte[] decode(final CharSequence base64)
+			throws LocationReferenceException {
+		byte[] bytes = new byte[getDecodedLength(base64)];
+		decode(base64, bytes, 0);
+		return bytes;
+	}
+
+	/**
+	 * Decodes the given Base64 string into the given buffer
+	 *
+	 * @param base64
+	 *            the Base64 string
+	 * @param buffer
+	 *            receives the decoded bytes
+	 * @param offset
+	 *            the index of the buffer the first byte is written to
+	 * @return the number of bytes written
+	 * @throws LocationReferenceException
+	 *             if the string isn't valid Base64
+	 * @throws IllegalArgumentException
+	 *             if the buffer is too small
+	 */
+	public static int decode(final CharSequence base64, final byte[] buffer,
+			final int offset) throws LocationReferenceException {
+		int length = getDecodedLength(base64);
+		checkBuffer(buffer, offset, length);
+		int position = offset;
+		int bits = 0;
+		for (int i = 0; position < offset + length; i++) {
+			bits = bits << 6 | getValue(base64.charAt(i), i);
+			if ((i & 3) != 0) {
+				// each character after the first of a group completes a byte
+				buffer[position++] = (byte) (bits >> (6 - 2 * (i & 3)));
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Decodes the given Base64 characters into the given buffer
+	 *
+	 * @param ascii
+	 *            holds the Base64 characters, one byte each
+	 * @param offset
+	 *            the index of the first character
+	 * @param length
+	 *            the number of characters
+	 * @param buffer
+	 *            receives the decoded bytes
+	 * @param bufferOffset
+	 *            the index of the buffer the first byte is written to
+	 * @return the number of bytes written
+	 * @throws LocationReferenceException
+	 *             if the characters aren't valid Base64
+	 * @throws IllegalArgumentException
+	 *             if the buffer is too small
+	 */
+	public static int decode(final byte[] ascii, final int offset,
+			final int length, final byte[] buffer, final int bufferOffset)
+			throws LocationReferenceException {
+		int decoded = getDecodedLength(ascii, offset, length);
+		checkBuffer(buffer, bufferOffset, decoded);
+		int position = bufferOffset;
+		int bits = 0;
+		for (int i = 0; position < bufferOffset + decoded; i++) {
+			bits = bits << 6 | getValue(ascii[offset + i], i);
+			if ((i & 3) != 0) {
+				buffer[position++] = (byte) (bits >> (6 - 2 * (i & 3)));
+			}
+		}
+		return decoded;
+	}
+
+	/**
+	 * Encodes the given bytes as a Base64 string
+	 *
+	 * @param bytes
+	 *            the bytes
+	 * @return the Base64 string
+	 */
+	public static String encode(final byte[] bytes) {
+		char[] chars = new char[getEncodedLength(bytes.length)];
+		encode(bytes, 0, bytes.length, chars, 0);
+		return new String(chars);
+	}
+
+	/**
+	 * Encodes the given bytes into the given buffer
+	 *
+	 * @param bytes
+	 *            the bytes
+	 * @param offset
+	 *            the index of the first byte
+	 * @param length
+	 *            the number of bytes
+	 * @param buffer
+	 *            receives the Base64 characters
+	 * @param bufferOffset
+	 *            the index of the buffer the first character is written to
+	 * @return the number of characters written
+	 * @throws IllegalArgumentException
+	 *             if the buffer is too small
+	 */
+	public static int encode(final byte[] bytes, final int offset,
+			final int length, final char[] buffer, final int bufferOffset) {
+		int encoded = getEncodedLength(length);
+		if (bufferOffset < 0 || buffer.length - bufferOffset < encoded) {
+			throw new IllegalArgumentException("The buffer is too small."); //$NON-NLS-1$
+		}
+		int position = bufferOffset;
+		int end = offset + length;
+		int i = offset;
+		for (; i + 2 < end; i += 3) {
+			int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8
+					| bytes[i + 2] & 0xff;
+			buffer[position++] = ALPHABET[bits >>> 18];
+			buffer[position++] = ALPHABET[bits >>> 12 & 0x3f];
+			buffer[position++] = ALPHABET[bits >>> 6 & 0x3f];
+			buffer[position++] = ALPHABET[bits & 0x3f];
+		}
+		if (i < end) {
+			int bits = (bytes[i] & 0xff) << 16;
+			if (i + 1 < end) {
+				bits |= (bytes[i + 1] & 0xff) << 8;
+			}
+			buffer[position++] = ALPHABET[bits >>> 18];
+			buffer[position++] = ALPHABET[bits >>> 12 & 0x3f];
+			buffer[position++] = i + 1 < end ? ALPHABET[bits >>> 6 & 0x3f]
+					: PADDING;
+			buffer[position++] = PADDING;
+		}
+		return encoded;
+	}
+
+	/**
+	 * Returns the number of bytes a Base64 string decodes to
+	 *
+	 * @param length
+	 *            the number of characters, including the padding
+	 * @param unpadded
+	 *            the number of characters without the padding
+	 * @return the number of bytes
+	 * @throws LocationReferenceException
+	 *             if the lengths are impossible
+	 */
+	private static int getDecodedLength(final int length, final int unpadded)
+			throws LocationReferenceException {
+		// a padded string has whole groups of four, an unpadded one can't
+		// end with a single character of a group
+		if (unpadded % 4 == 1 || (length != unpadded && length % 4 != 0)
+				|| length - unpadded > 2) {
+			throw new LocationReferenceException(Messages.getString(
+					"Base64.Exception.ILLEGAL_LENGTH", length)); //$NON-NLS-1$
+		}
+		return unpadded * 3 / 4;
+	}
+
+	/**
+	 * Returns the value of a Base64 character
+	 *
+	 * @param c
+	 *            the character
+	 * @param index
+	 *            the index of the character, for the message
+	 * @return the value between <code>0</code> and <code>63</code>
+	 * @throws LocationReferenceException
+	 *             if the character isn't part of the alphabet
+	 */
+	private static int getValue(final int c, final int index)
+			throws LocationReferenceException {
+		int value = c >= 0 && c < VALUES.length ? VALUES[c] : -1;
+		if (value < 0) {
+			throw new LocationReferenceException(Messages.getString(
+					"Base64.Exception.ILLEGAL_CHARACTER", index)); //$NON-NLS-1$
+		}
+		return value;
+	}
+
+	/**
+	 * Checks that the given buffer can hold the given number of bytes
+	 *
+	 * @param buffer
+	 *            the buffer
+	 * @param offset
+	 *            the index of the buffer the first byte is written to
+	 * @param length
+	 *            the number of bytes
+	 * @throws IllegalArgumentException
+	 *             if the buffer is too small
+	 */
+	private static void checkBuffer(final byte[] buffer, final int offset,
+			final int length) {
+		if (offset < 0 || buffer.length - offset < length) {
+			throw new IllegalArgumentException("The buffer is too small."); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package org.hhu.c2c.openlr.io;
+
+/**
+ * This class offers static definitions of the binary batch format shared
+ * between the {@link BatchWriter} and the {@link BatchReader}. A batch holds
+ * many location references of any type in their physical data format, sorted
+ * along a Z-order curve over their first coordinate, so that references of
+ * the same neighbourhood end up next to each other.
+ *
+ * The format starts with a header of four big endian integers: the magic
+ * number, the format version, the number of references and the number of
+ * blocks. It is followed by the blocks, each holding up to the block size of
+ * references. Each reference is written as its header byte, the difference of
+ * its first longitude and latitude to those of the previous reference of the
+ * block as zig-zag encoded variable length integers (the first reference of a
+ * block is taken relative to <code>0</code>), the number of its remaining
+ * bytes as a variable length integer and the remaining bytes themselves. As
+ * all location types start with the header byte and an absolute coordinate,
+ * the original bytes can be restored exactly.
+ *
+ * The blocks are followed by the index, six big endian integers per block:
+ * the offset of the block from the start of the batch, the number of its
+ * references and the western, southern, eastern and northern border of their
+ * first coordinates in the three byte representation. The last big endian
+ * integer of the batch is the offset of the index.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BatchFormat {
+
+	/**
+	 * The default number of references per block
+	 */
+	protected static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	/**
+	 * The size of the header in bytes
+	 */
+	protected static final int HEADER_SIZE = 4 * 4;
+
+	/**
+	 * The size of the index entry of a block in bytes
+	 */
+	protected static final int INDEX_ENTRY_SIZE = 6 * 4;
+
+	/**
+	 * The magic number, <code>OLBA</code> in ASCII
+	 */
+	protected static final int MAGIC_NUMBER = 0x4F4C4241;
+
+	/**
+	 * The size of the trailer holding the offset of the index in bytes
+	 */
+	protected static final int TRAILER_SIZE = 4;
+
+	/**
+	 * The version of the format
+	 */
+	protected static final int VERSION = 1;
+
+	/**
+	 * This class should not be instantiated
+	 */
+	private BatchFormat() {
+	}
+}
@@ -0,0 +1,147 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.BatchFormat.HEADER_SIZE;
+import static org.hhu.c2c.openlr.io.BatchFormat.INDEX_ENTRY_SIZE;
+import static org.hhu.c2c.openlr.io.BatchFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.io.BatchFormat.TRAILER_SIZE;
+import static org.hhu.c2c.openlr.io.BatchFormat.VERSION;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * Used for reading a batch of location references written by the
+ * {@link BatchWriter}. Only the header and the index are read; the blocks
+ * are decompressed on demand by the returned {@link ReferenceBatch}. Files
+ * are best read by {@link #read(File)}, which maps them into memory instead
+ * of loading them.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BatchReader {
+
+	/**
+	 * Reads a batch from the given buffer, starting at its position
+	 *
+	 * @param buffer
+	 *            the buffer
+	 * @return the batch
+	 * @throws IOException
+	 *             if the buffer doesn't contain a batch
+	 */
+	public ReferenceBatch read(final ByteBuffer buffer) throws IOException {
+		ByteBuffer batch = buffer.slice();
+		int size = batch.limit();
+		if (size < HEADER_SIZE + TRAILER_SIZE
+				|| batch.getInt(0) != MAGIC_NUMBER) {
+			throw new IOException(Messages
+					.getString("BatchReader.Exception.NO_BATCH")); //$NON-NLS-1$
+		}
+		int version = batch.getInt(4);
+		if (version != VERSION) {
+			throw new IOException(Messages.getString(
+					"BatchReader.Exception.VERSION_NOT_SUPPORTED", version)); //$NON-NLS-1$
+		}
+		int referenceCount = batch.getInt(8);
+		int blockCount = batch.getInt(12);
+		int indexOffset = batch.getInt(size - TRAILER_SIZE);
+		if (blockCount < 0 || indexOffset < HEADER_SIZE
+				|| (long) indexOffset + (long) blockCount * INDEX_ENTRY_SIZE
+						+ TRAILER_SIZE != size) {
+			throw new IOException(Messages
+					.getString("BatchReader.Exception.MALFORMED_INDEX")); //$NON-NLS-1$
+		}
+
+		int[] offsets = new int[blockCount + 1];
+		int[] counts = new int[blockCount];
+		BoundingBox[] boundingBoxes = new BoundingBox[blockCount];
+		int total = 0;
+		batch.position(indexOffset);
+		for (int block = 0; block < blockCount; block++) {
+			offsets[block] = batch.getInt();
+			counts[block] = batch.getInt();
+			int west = batch.getInt();
+			int south = batch.getInt();
+			int east = batch.getInt();
+			int north = batch.getInt();
+			if (offsets[block] < (block == 0 ? HEADER_SIZE
+					: offsets[block - 1]) || counts[block] < 0) {
+				throw new IOException(Messages
+						.getString("BatchReader.Exception.MALFORMED_INDEX")); //$NON-NLS-1$
+			}
+			if (counts[block] > 0) {
+				if (west > east || south > north) {
+					throw new IOException(Messages
+							.getString("BatchReader.Exception.MALFORMED_INDEX")); //$NON-NLS-1$
+				}
+				boundingBoxes[block] = new BoundingBox(CoordinateHelper
+						.getFloatRepresentation(west), CoordinateHelper
+						.getFloatRepresentation(south), CoordinateHelper
+						.getFloatRepresentation(east), CoordinateHelper
+						.getFloatRepresentation(north));
+			}
+			total += counts[block];
+		}
+		offsets[blockCount] = indexOffset;
+		if (blockCount > 0 && offsets[blockCount - 1] > indexOffset
+				|| total != referenceCount) {
+			throw new IOException(Messages
+					.getString("BatchReader.Exception.MALFORMED_INDEX")); //$NON-NLS-1$
+		}
+		batch.position(0);
+
+		return new ReferenceBatch(batch.asReadOnlyBuffer(), referenceCount,
+				offsets, counts, boundingBoxes);
+	}
+
+	/**
+	 * Reads a batch from the given input stream. The stream is read to its
+	 * end but not closed.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @return the batch
+	 * @throws IOException
+	 *             if there are problems with the input stream or if it doesn't
+	 *             contain a batch
+	 */
+	public ReferenceBatch read(final InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int length;
+		while ((length = in.read(buffer)) != -1) {
+			out.write(buffer, 0, length);
+		}
+		return read(ByteBuffer.wrap(out.toByteArray()));
+	}
+
+	/**
+	 * Reads a batch from the given file. The file is mapped into memory, so
+	 * only the blocks asked for are ever loaded from disk.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the batch
+	 * @throws IOException
+	 *             if the file can't be read or doesn't contain a batch
+	 */
+	public ReferenceBatch read(final File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			return read(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.BatchFormat.DEFAULT_BLOCK_SIZE;
+import static org.hhu.c2c.openlr.io.BatchFormat.HEADER_SIZE;
+import static org.hhu.c2c.openlr.io.BatchFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.io.BatchFormat.VERSION;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Used for writing many location references into a single batch in the
+ * format described by {@link BatchFormat}. The references are sorted along a
+ * Z-order curve over their first coordinate, so that the difference to the
+ * previous reference usually fits into one or two bytes instead of the six
+ * bytes of an absolute coordinate.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BatchWriter {
+
+	/**
+	 * The number of bytes preceding the remaining bytes of a reference
+	 */
+	private static final int PREFIX_SIZE = 1 + NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+
+	/**
+	 * Holds the number of references per block
+	 */
+	private final int blockSize;
+
+	/**
+	 * Constructs a new {@link BatchWriter} using the default block size
+	 */
+	public BatchWriter() {
+		this(DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructs a new {@link BatchWriter}
+	 *
+	 * @param blockSize
+	 *            the number of references per block; smaller blocks allow
+	 *            finer random access, larger ones compress better
+	 * @throws IllegalArgumentException
+	 *             if the block size isn't positive
+	 */
+	public BatchWriter(final int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException(
+					"The block size must be positive."); //$NON-NLS-1$
+		}
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Writes the given location references as a batch to the given output
+	 * stream. The stream is not closed.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param references
+	 *            the location references in their physical data format
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 * @throws IllegalArgumentException
+	 *             if a reference is too short to hold a header byte and an
+	 *             absolute coordinate
+	 */
+	public void write(final OutputStream out, final List<byte[]> references)
+			throws IOException {
+		int count = references.size();
+		final long[] keys = new long[count];
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			byte[] reference = references.get(i);
+			if (reference.length < PREFIX_SIZE) {
+				throw new IllegalArgumentException(
+						"A location reference needs a header byte and an absolute coordinate."); //$NON-NLS-1$
+			}
+			keys[i] = getZOrder(getLongitude(reference), getLatitude(reference));
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				return keys[a] < keys[b] ? -1 : (keys[a] == keys[b] ? 0 : 1);
+			}
+		});
+
+		int blockCount = (count + blockSize - 1) / blockSize;
+		int[] index = new int[blockCount * 6];
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC_NUMBER);
+		data.writeInt(VERSION);
+		data.writeInt(count);
+		data.writeInt(blockCount);
+
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		int offset = HEADER_SIZE;
+		for (int b = 0; b < blockCount; b++) {
+			block.reset();
+			int first = b * blockSize;
+			int last = Math.min(count, first + blockSize);
+			int previousLongitude = 0;
+			int previousLatitude = 0;
+			int west = Integer.MAX_VALUE;
+			int south = Integer.MAX_VALUE;
+			int east = Integer.MIN_VALUE;
+			int north = Integer.MIN_VALUE;
+			for (int i = first; i < last; i++) {
+				byte[] reference = references.get(order[i]);
+				int longitude = getLongitude(reference);
+				int latitude = getLatitude(reference);
+				block.write(reference[0]);
+				writeVarint(block, zigZag(longitude - previousLongitude));
+				writeVarint(block, zigZag(latitude - previousLatitude));
+				writeVarint(block, reference.length - PREFIX_SIZE);
+				block.write(reference, PREFIX_SIZE, reference.length
+						- PREFIX_SIZE);
+				previousLongitude = longitude;
+				previousLatitude = latitude;
+				west = Math.min(west, longitude);
+				south = Math.min(south, latitude);
+				east = Math.max(east, longitude);
+				north = Math.max(north, latitude);
+			}
+			index[6 * b] = offset;
+			index[6 * b + 1] = last - first;
+			index[6 * b + 2] = west;
+			index[6 * b + 3] = south;
+			index[6 * b + 4] = east;
+			index[6 * b + 5] = north;
+			block.writeTo(data);
+			offset += block.size();
+		}
+
+		for (int value : index) {
+			data.writeInt(value);
+		}
+		data.writeInt(offset);
+		data.flush();
+	}
+
+	/**
+	 * Writes the given location references as a batch to the given file,
+	 * replacing its content. The file can be loaded quickly by
+	 * {@link BatchReader#read(File)}.
+	 *
+	 * @param file
+	 *            the file
+	 * @param references
+	 *            the location references in their physical data format
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void write(final File file, final List<byte[]> references)
+			throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			write(out, references);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns the three byte value of the first longitude of a reference
+	 *
+	 * @param reference
+	 *            the reference
+	 * @return the longitude as a signed three byte value
+	 */
+	private static int getLongitude(final byte[] reference) {
+		return reference[1] << 16 | (reference[2] & 0xff) << 8
+				| reference[3] & 0xff;
+	}
+
+	/**
+	 * Returns the three byte value of the first latitude of a reference
+	 *
+	 * @param reference
+	 *            the reference
+	 * @return the latitude as a signed three byte value
+	 */
+	private static int getLatitude(final byte[] reference) {
+		int position = 1 + NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT;
+		return reference[position] << 16 | (reference[position + 1] & 0xff) << 8
+				| reference[position + 2] & 0xff;
+	}
+
+	/**
+	 * Returns the position of a coordinate along the Z-order curve, by
+	 * interleaving the bits of longitude and latitude
+	 *
+	 * @param longitude
+	 *            the longitude as a signed three byte value
+	 * @param latitude
+	 *            the latitude as a signed three byte value
+	 * @return the position along the curve
+	 */
+	private static long getZOrder(final int longitude, final int latitude) {
+		// shift both into the unsigned range of three bytes
+		int x = longitude + (1 << 23);
+		int y = latitude + (1 << 23);
+		long key = 0;
+		for (int bit = 23; bit >= 0; bit--) {
+			key = key << 2 | (x >>> bit & 1) << 1 | (y >>> bit & 1);
+		}
+		return key;
+	}
+
+	/**
+	 * Maps signed integers onto unsigned ones, so that small differences of
+	 * either sign take few bytes as a variable length integer
+	 *
+	 * @param value
+	 *            the signed integer
+	 * @return the zig-zag encoded integer
+	 */
+	private static int zigZag(final int value) {
+		return value << 1 ^ value >> 31;
+	}
+
+	/**
+	 * Writes an unsigned integer using seven bits per byte, the most
+	 * significant bit telling whether another byte follows
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param value
+	 *            the unsigned integer
+	 */
+	private static void writeVarint(final ByteArrayOutputStream out,
+			final int value) {
+		int remaining = value;
+		while ((remaining & ~0x7f) != 0) {
+			out.write(remaining & 0x7f | 0x80);
+			remaining >>>= 7;
+		}
+		out.write(remaining);
+	}
+}
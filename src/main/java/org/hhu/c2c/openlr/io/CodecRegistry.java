@@ -0,0 +1,134 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.VERSION_NUMBER_BITMASK;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.hhu.c2c.openlr.core.Location;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>codec registry</b> decodes and encodes location references of mixed
+ * versions of the physical data format. It holds one {@link LocationCodec}
+ * per version in a table indexed by the version bits of the header byte, so
+ * that selecting the codec takes a single array lookup and the codec of one
+ * version never pays for the location types of another.
+ *
+ * The registry is immutable and may be shared between threads, as long as its
+ * codecs may.
+ *
+ * @see CodecRegistryBuilder
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class CodecRegistry {
+
+	/**
+	 * Holds the codec of each version, or <code>null</code>
+	 */
+	private final LocationCodec[] codecs;
+
+	/**
+	 * Constructs a new {@link CodecRegistry}
+	 *
+	 * @param codecs
+	 *            the codec of each version, or <code>null</code>; the array is
+	 *            copied
+	 */
+	protected CodecRegistry(final LocationCodec[] codecs) {
+		this.codecs = new LocationCodec[VERSION_NUMBER_BITMASK + 1];
+		System.arraycopy(codecs, 0, this.codecs, 0, this.codecs.length);
+	}
+
+	/**
+	 * Returns the codec of the given version
+	 *
+	 * @param version
+	 *            the version number
+	 * @return the codec, or <code>null</code> if the version isn't supported
+	 */
+	public LocationCodec getCodec(final byte version) {
+		return codecs[version & VERSION_NUMBER_BITMASK];
+	}
+
+	/**
+	 * Returns <code>true</code> if the given version is supported
+	 *
+	 * @param version
+	 *            the version number
+	 * @return <code>true</code> if a codec is registered for the version,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean supports(final byte version) {
+		return version >= 0 && version <= VERSION_NUMBER_BITMASK
+				&& codecs[version] != null;
+	}
+
+	/**
+	 * Converts the given byte array into a location reference, using the codec
+	 * of the version told by the header byte
+	 *
+	 * @param bytes
+	 *            the byte array representing a location reference
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the version isn't supported or the location reference
+	 *             wasn't valid
+	 */
+	public Location decode(final byte[] bytes)
+			throws LocationReferenceException {
+		if (bytes.length == 0) {
+			throw new LocationReferenceException(Messages
+					.getString("CodecRegistry.Exception.EMPTY")); //$NON-NLS-1$
+		}
+		LocationCodec codec = codecs[bytes[0] & VERSION_NUMBER_BITMASK];
+		if (codec == null) {
+			throw new LocationReferenceException(Messages.getString(
+					"CodecRegistry.Exception.PROTOCOL_VERSION_NOT_SUPPORTED", //$NON-NLS-1$
+					bytes[0] & VERSION_NUMBER_BITMASK));
+		}
+		return codec.decode(bytes);
+	}
+
+	/**
+	 * Converts the given Base64 string into a location reference
+	 *
+	 * @param base64
+	 *            the Base64 representation of a location reference
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the string isn't valid Base64, the version isn't
+	 *             supported or the location reference wasn't valid
+	 */
+	public Location decode(final CharSequence base64)
+			throws LocationReferenceException {
+		return decode(Base64.decode(base64));
+	}
+
+	/**
+	 * Writes the given location reference to the given output stream, using
+	 * the codec of its version
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param location
+	 *            the location reference
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 * @throws IllegalArgumentException
+	 *             if the version or the location type isn't supported
+	 */
+	public void write(final OutputStream out, final Location location)
+			throws IOException {
+		LocationCodec codec = codecs[location.getVersion()
+				& VERSION_NUMBER_BITMASK];
+		if (codec == null) {
+			throw new IllegalArgumentException(
+					"The version of the location reference isn't supported."); //$NON-NLS-1$
+		}
+		codec.write(out, location);
+	}
+}
@@ -0,0 +1,105 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.VERSION_NUMBER_BITMASK;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link CodecRegistryBuilder} helps building valid {@link CodecRegistry}
+ * s. A new builder knows no codecs; {@link #registerDefaults()} registers the
+ * codecs for versions <code>2</code> and <code>3</code>.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class CodecRegistryBuilder implements
+		Builder<CodecRegistryBuilder, CodecRegistry> {
+
+	/**
+	 * Holds the codec of each version, or <code>null</code>
+	 */
+	private LocationCodec[] codecs;
+
+	/**
+	 * Constructs a new {@link CodecRegistryBuilder}
+	 */
+	public CodecRegistryBuilder() {
+		init();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public CodecRegistry build() throws LocationReferenceException {
+		validate();
+		return new CodecRegistry(codecs);
+	}
+
+	/**
+	 * Resets the registry
+	 */
+	private void init() {
+		codecs = new LocationCodec[VERSION_NUMBER_BITMASK + 1];
+	}
+
+	/**
+	 * Registers the codec of the given version, replacing a codec registered
+	 * before
+	 *
+	 * @param version
+	 *            the version number
+	 * @param codec
+	 *            the codec, or <code>null</code> to drop the version
+	 * @return the same instance of this {@link CodecRegistryBuilder} for use in
+	 *         a fluid interface
+	 * @throws IllegalArgumentException
+	 *             if the version doesn't fit into the header byte
+	 */
+	public CodecRegistryBuilder register(final byte version,
+			final LocationCodec codec) {
+		if (version < 0 || version > VERSION_NUMBER_BITMASK) {
+			throw new IllegalArgumentException(
+					"The version number must fit into three bits."); //$NON-NLS-1$
+		}
+		codecs[version] = codec;
+		return this;
+	}
+
+	/**
+	 * Registers the codecs of versions <code>2</code> and <code>3</code>
+	 *
+	 * @return the same instance of this {@link CodecRegistryBuilder} for use in
+	 *         a fluid interface
+	 */
+	public CodecRegistryBuilder registerDefaults() {
+		register((byte) 2, new Version2Codec());
+		register((byte) 3, new Version3Codec());
+		return this;
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public CodecRegistryBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		for (LocationCodec codec : codecs) {
+			if (codec != null) {
+				return;
+			}
+		}
+		throw new LocationReferenceException(Messages
+				.getString("CodecRegistryBuilder.Exception.NO_CODECS")); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,127 @@
+package org.hhu.c2c.openlr.io;
+
+/**
+ * The columns written by the {@link ColumnWriter}, each into a file of its
+ * own. Columns are either given per location reference or per location
+ * reference point, in the order the location references were written. Values
+ * are either four byte primitives or small symbols, which are run-length
+ * encoded and bit-packed as described by {@link ColumnFormat}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public enum Column {
+
+	/**
+	 * The number of location reference points of each location reference as
+	 * an integer
+	 */
+	POINT_COUNT(0, false),
+
+	/**
+	 * The positive offset of each location reference in meters as an integer
+	 */
+	POSITIVE_OFFSET(0, false),
+
+	/**
+	 * The negative offset of each location reference in meters as an integer
+	 */
+	NEGATIVE_OFFSET(0, false),
+
+	/**
+	 * The longitude of each location reference point in degree as a float
+	 */
+	LONGITUDE(0, true),
+
+	/**
+	 * The latitude of each location reference point in degree as a float
+	 */
+	LATITUDE(0, true),
+
+	/**
+	 * The byte representation of the functional road class of each location
+	 * reference point as a three bit symbol
+	 */
+	FUNCTIONAL_ROAD_CLASS(3, false),
+
+	/**
+	 * The byte representation of the form of way of each location reference
+	 * point as a three bit symbol
+	 */
+	FORM_OF_WAY(3, false),
+
+	/**
+	 * The byte representation of the bearing of each location reference point
+	 * as a five bit symbol
+	 */
+	BEARING(5, false),
+
+	/**
+	 * The distance to the next point of each location reference point in
+	 * meters as an integer
+	 */
+	DISTANCE_TO_NEXT_POINT(0, false);
+
+	/**
+	 * Holds the number of bits of a symbol, or <code>0</code> for primitives
+	 */
+	private final int bitWidth;
+
+	/**
+	 * Holds <code>true</code> if the primitives are floats
+	 */
+	private final boolean floatingPoint;
+
+	/**
+	 * Constructs a new {@link Column}
+	 *
+	 * @param bitWidth
+	 *            the number of bits of a symbol, or <code>0</code> for
+	 *            primitives
+	 * @param floatingPoint
+	 *            <code>true</code> if the primitives are floats
+	 */
+	Column(final int bitWidth, final boolean floatingPoint) {
+		this.bitWidth = bitWidth;
+		this.floatingPoint = floatingPoint;
+	}
+
+	/**
+	 * Returns the number of bits of a symbol
+	 *
+	 * @return the number of bits, or <code>0</code> if the column holds four
+	 *         byte primitives
+	 */
+	public int getBitWidth() {
+		return bitWidth;
+	}
+
+	/**
+	 * Returns <code>true</code> if the column holds symbols
+	 *
+	 * @return <code>true</code> if the column holds symbols,
+	 *         <code>false</code> if it holds four byte primitives
+	 */
+	public boolean isSymbol() {
+		return bitWidth > 0;
+	}
+
+	/**
+	 * Returns <code>true</code> if the column holds floats
+	 *
+	 * @return <code>true</code> if the column holds floats, <code>false</code>
+	 *         if it holds integers or symbols
+	 */
+	public boolean isFloatingPoint() {
+		return floatingPoint;
+	}
+
+	/**
+	 * Returns the name of the file holding the column
+	 *
+	 * @return the file name
+	 */
+	public String getFileName() {
+		return name().toLowerCase() + ColumnFormat.FILE_EXTENSION;
+	}
+}
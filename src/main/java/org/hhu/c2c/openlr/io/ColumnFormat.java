@@ -0,0 +1,71 @@
+package org.hhu.c2c.openlr.io;
+
+/**
+ * This class offers static definitions of the binary column format shared
+ * between the {@link ColumnWriter} and the {@link ColumnReader}. Each
+ * {@link Column} is written into a file of its own.
+ *
+ * A column file starts with a header of three big endian integers, the magic
+ * number, the format version and the ordinal of the column, followed by the
+ * number of values as a big endian long. Primitive columns continue with one
+ * big endian integer or float per value, so they can be scanned as an
+ * {@link java.nio.IntBuffer} or a {@link java.nio.FloatBuffer} straight from
+ * a mapped file.
+ *
+ * Symbol columns continue with a sequence of runs. Each run starts with a
+ * variable length integer whose least significant bit tells the kind of run:
+ * a run of a single symbol (<code>0</code>) holds its length in the remaining
+ * bits, followed by the symbol in one byte. A bit-packed run (<code>1</code>)
+ * holds the number of groups of eight symbols in the remaining bits, followed
+ * by each group packed into as many bytes as a symbol has bits, starting with
+ * the least significant bit. The last group is padded with zeros, which are
+ * not counted as values.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ColumnFormat {
+
+	/**
+	 * The extension of column files
+	 */
+	protected static final String FILE_EXTENSION = ".col"; //$NON-NLS-1$
+
+	/**
+	 * The number of symbols of a group in a bit-packed run, which is also the
+	 * minimum length of a run of a single symbol
+	 */
+	protected static final int GROUP_SIZE = 8;
+
+	/**
+	 * The size of the header in bytes
+	 */
+	protected static final int HEADER_SIZE = 3 * 4 + 8;
+
+	/**
+	 * The magic number, <code>OLCO</code> in ASCII
+	 */
+	protected static final int MAGIC_NUMBER = 0x4F4C434F;
+
+	/**
+	 * The maximum number of groups of a bit-packed run, so that its header
+	 * fits into a single byte
+	 */
+	protected static final int MAXIMUM_GROUPS_PER_RUN = 63;
+
+	/**
+	 * The position of the number of values in the header
+	 */
+	protected static final int VALUE_COUNT_POSITION = 3 * 4;
+
+	/**
+	 * The version of the format
+	 */
+	protected static final int VERSION = 1;
+
+	/**
+	 * This class should not be instantiated
+	 */
+	private ColumnFormat() {
+	}
+}
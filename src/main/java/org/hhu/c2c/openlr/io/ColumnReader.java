@@ -0,0 +1,318 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.ColumnFormat.GROUP_SIZE;
+import static org.hhu.c2c.openlr.io.ColumnFormat.HEADER_SIZE;
+import static org.hhu.c2c.openlr.io.ColumnFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.io.ColumnFormat.VERSION;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * Used for scanning the columns written by the {@link ColumnWriter}. Each
+ * column is read from its own file, which is mapped into memory, so a query
+ * only touches the bytes of the columns it asks for.
+ *
+ * Primitive columns are returned as views on the mapped file without copying
+ * them. Symbol columns are either expanded into one byte per value or
+ * aggregated into a histogram straight from their runs. As a column is mapped
+ * as a whole, it may not exceed two gigabytes.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ColumnReader {
+
+	/**
+	 * Holds the directory of the column files
+	 */
+	private final File directory;
+
+	/**
+	 * Constructs a new {@link ColumnReader}
+	 *
+	 * @param directory
+	 *            the directory of the column files
+	 */
+	public ColumnReader(final File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the number of values of the given column
+	 *
+	 * @param column
+	 *            the column
+	 * @return the number of values
+	 * @throws IOException
+	 *             if the column file can't be read or doesn't contain the
+	 *             column
+	 */
+	public long getValueCount(final Column column) throws IOException {
+		return map(column).getLong(HEADER_SIZE - 8);
+	}
+
+	/**
+	 * Returns the values of the given integer column
+	 *
+	 * @param column
+	 *            the column
+	 * @return a read-only view on the values
+	 * @throws IOException
+	 *             if the column file can't be read, doesn't contain the column
+	 *             or is malformed
+	 * @throws IllegalArgumentException
+	 *             if the column doesn't hold integers
+	 */
+	public IntBuffer getInts(final Column column) throws IOException {
+		if (column.isSymbol() || column.isFloatingPoint()) {
+			throw new IllegalArgumentException(
+					"The column doesn't hold integers."); //$NON-NLS-1$
+		}
+		return getPrimitives(column).asIntBuffer();
+	}
+
+	/**
+	 * Returns the values of the given float column
+	 *
+	 * @param column
+	 *            the column
+	 * @return a read-only view on the values
+	 * @throws IOException
+	 *             if the column file can't be read, doesn't contain the column
+	 *             or is malformed
+	 * @throws IllegalArgumentException
+	 *             if the column doesn't hold floats
+	 */
+	public FloatBuffer getFloats(final Column column) throws IOException {
+		if (!column.isFloatingPoint()) {
+			throw new IllegalArgumentException(
+					"The column doesn't hold floats."); //$NON-NLS-1$
+		}
+		return getPrimitives(column).asFloatBuffer();
+	}
+
+	/**
+	 * Returns the values of the given symbol column
+	 *
+	 * @param column
+	 *            the column
+	 * @return the symbols, one per byte
+	 * @throws IOException
+	 *             if the column file can't be read, doesn't contain the column
+	 *             or is malformed
+	 * @throws IllegalArgumentException
+	 *             if the column doesn't hold symbols
+	 */
+	public byte[] getSymbols(final Column column) throws IOException {
+		ByteBuffer buffer = getRuns(column);
+		long count = buffer.getLong(HEADER_SIZE - 8);
+		if (count > Integer.MAX_VALUE) {
+			throw new IOException(Messages.getString(
+					"ColumnReader.Exception.MALFORMED_COLUMN", column)); //$NON-NLS-1$
+		}
+		byte[] symbols = new byte[(int) count];
+		decode(column, buffer, symbols, null);
+		return symbols;
+	}
+
+	/**
+	 * Returns the number of occurrences of each symbol of the given symbol
+	 * column. Runs of a single symbol are counted without expanding them.
+	 *
+	 * @param column
+	 *            the column
+	 * @return the number of occurrences, indexed by symbol
+	 * @throws IOException
+	 *             if the column file can't be read, doesn't contain the column
+	 *             or is malformed
+	 * @throws IllegalArgumentException
+	 *             if the column doesn't hold symbols
+	 */
+	public long[] getHistogram(final Column column) throws IOException {
+		ByteBuffer buffer = getRuns(column);
+		long[] histogram = new long[1 << column.getBitWidth()];
+		decode(column, buffer, null, histogram);
+		return histogram;
+	}
+
+	/**
+	 * Returns the mapped file of the given primitive column, positioned at
+	 * the first value
+	 *
+	 * @param column
+	 *            the column
+	 * @return the mapped file
+	 * @throws IOException
+	 *             if the column file can't be read, doesn't contain the column
+	 *             or is malformed
+	 */
+	private ByteBuffer getPrimitives(final Column column) throws IOException {
+		ByteBuffer buffer = map(column);
+		long count = buffer.getLong(HEADER_SIZE - 8);
+		if (count != (buffer.limit() - HEADER_SIZE) / 4
+				|| (buffer.limit() - HEADER_SIZE) % 4 != 0) {
+			throw new IOException(Messages.getString(
+					"ColumnReader.Exception.MALFORMED_COLUMN", column)); //$NON-NLS-1$
+		}
+		buffer.position(HEADER_SIZE);
+		return buffer.slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Returns the mapped file of the given symbol column, positioned at the
+	 * first run
+	 *
+	 * @param column
+	 *            the column
+	 * @return the mapped file
+	 * @throws IOException
+	 *             if the column file can't be read or doesn't contain the
+	 *             column
+	 * @throws IllegalArgumentException
+	 *             if the column doesn't hold symbols
+	 */
+	private ByteBuffer getRuns(final Column column) throws IOException {
+		if (!column.isSymbol()) {
+			throw new IllegalArgumentException(
+					"The column doesn't hold symbols."); //$NON-NLS-1$
+		}
+		ByteBuffer buffer = map(column);
+		buffer.position(HEADER_SIZE);
+		return buffer;
+	}
+
+	/**
+	 * Decodes the runs of the given symbol column into symbols, a histogram
+	 * or both
+	 *
+	 * @param column
+	 *            the column
+	 * @param buffer
+	 *            the mapped file, positioned at the first run
+	 * @param symbols
+	 *            receives the symbols, or <code>null</code>
+	 * @param histogram
+	 *            receives the number of occurrences of each symbol, or
+	 *            <code>null</code>
+	 * @throws IOException
+	 *             if the column is malformed
+	 */
+	private void decode(final Column column, final ByteBuffer buffer,
+			final byte[] symbols, final long[] histogram) throws IOException {
+		int bitWidth = column.getBitWidth();
+		int mask = (1 << bitWidth) - 1;
+		long count = buffer.getLong(HEADER_SIZE - 8);
+		long position = 0;
+		try {
+			while (position < count) {
+				int header = readVarint(buffer);
+				if ((header & 1) == 0) {
+					int length = header >>> 1;
+					int symbol = buffer.get() & 0xff;
+					if (length == 0 || length > count - position
+							|| symbol > mask) {
+						throw new BufferUnderflowException();
+					}
+					if (symbols != null) {
+						for (int i = 0; i < length; i++) {
+							symbols[(int) position + i] = (byte) symbol;
+						}
+					}
+					if (histogram != null) {
+						histogram[symbol] += length;
+					}
+					position += length;
+				} else {
+					int groups = header >>> 1;
+					for (int group = 0; group < groups; group++) {
+						long bits = 0;
+						for (int i = 0; i < bitWidth; i++) {
+							bits |= (long) (buffer.get() & 0xff) << 8 * i;
+						}
+						// the padding of the last group is not counted
+						int length = (int) Math.min(GROUP_SIZE, count
+								- position);
+						for (int i = 0; i < length; i++) {
+							int symbol = (int) (bits >>> i * bitWidth) & mask;
+							if (symbols != null) {
+								symbols[(int) position + i] = (byte) symbol;
+							}
+							if (histogram != null) {
+								histogram[symbol]++;
+							}
+						}
+						position += length;
+					}
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException(Messages.getString(
+					"ColumnReader.Exception.MALFORMED_COLUMN", column)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Maps the file of the given column into memory and checks its header
+	 *
+	 * @param column
+	 *            the column
+	 * @return the mapped file
+	 * @throws IOException
+	 *             if the column file can't be read or doesn't contain the
+	 *             column
+	 */
+	private ByteBuffer map(final Column column) throws IOException {
+		FileInputStream in = new FileInputStream(new File(directory, column
+				.getFileName()));
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel
+					.size());
+			if (buffer.limit() < HEADER_SIZE
+					|| buffer.getInt(0) != MAGIC_NUMBER
+					|| buffer.getInt(8) != column.ordinal()) {
+				throw new IOException(Messages.getString(
+						"ColumnReader.Exception.NO_COLUMN", column)); //$NON-NLS-1$
+			}
+			int version = buffer.getInt(4);
+			if (version != VERSION) {
+				throw new IOException(Messages.getString(
+						"ColumnReader.Exception.VERSION_NOT_SUPPORTED", version)); //$NON-NLS-1$
+			}
+			return buffer;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads an unsigned integer written using seven bits per byte
+	 *
+	 * @param buffer
+	 *            the buffer
+	 * @return the unsigned integer
+	 * @throws BufferUnderflowException
+	 *             if the buffer ends within the integer
+	 */
+	private static int readVarint(final ByteBuffer buffer) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7f) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+}
@@ -0,0 +1,220 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.ColumnFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.io.ColumnFormat.VALUE_COUNT_POSITION;
+import static org.hhu.c2c.openlr.io.ColumnFormat.VERSION;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+
+/**
+ * Used for exporting decoded location references into a directory of column
+ * files in the format described by {@link ColumnFormat}, one file per
+ * {@link Column}. Queries aggregating a single column, e.g. the distribution
+ * of the functional road classes, only have to read that column's file by
+ * the {@link ColumnReader}.
+ *
+ * The location references are streamed, so any number can be exported. The
+ * columns are complete once {@link #close()} has been called. A column writer
+ * is not thread-safe.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ColumnWriter implements Closeable {
+
+	/**
+	 * Holds the file of each column
+	 */
+	private final FileOutputStream[] files;
+
+	/**
+	 * Holds the output stream of each column
+	 */
+	private final DataOutputStream[] outs;
+
+	/**
+	 * Holds the encoder of each symbol column, or <code>null</code>
+	 */
+	private final RunLengthEncoder[] encoders;
+
+	/**
+	 * Holds the number of values of each column
+	 */
+	private final long[] counts;
+
+	/**
+	 * Constructs a new {@link ColumnWriter}, replacing the column files in the
+	 * given directory
+	 *
+	 * @param directory
+	 *            the directory, which has to exist
+	 * @throws IOException
+	 *             if the column files can't be written
+	 */
+	public ColumnWriter(final File directory) throws IOException {
+		Column[] columns = Column.values();
+		files = new FileOutputStream[columns.length];
+		outs = new DataOutputStream[columns.length];
+		encoders = new RunLengthEncoder[columns.length];
+		counts = new long[columns.length];
+		try {
+			for (Column column : columns) {
+				int i = column.ordinal();
+				files[i] = new FileOutputStream(new File(directory, column
+						.getFileName()));
+				outs[i] = new DataOutputStream(new BufferedOutputStream(
+						files[i]));
+				outs[i].writeInt(MAGIC_NUMBER);
+				outs[i].writeInt(VERSION);
+				outs[i].writeInt(i);
+				// the number of values is known once all have been written
+				outs[i].writeLong(0);
+				if (column.isSymbol()) {
+					encoders[i] = new RunLengthEncoder(outs[i], column
+							.getBitWidth());
+				}
+			}
+		} catch (IOException e) {
+			closeFiles();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the given location reference into the columns
+	 *
+	 * @param reference
+	 *            the location reference
+	 * @throws IOException
+	 *             if the column files can't be written
+	 */
+	public void write(final LocationReference reference) throws IOException {
+		writeInt(Column.POINT_COUNT, reference.getLocationReferencePoints()
+				.size());
+		writeInt(Column.POSITIVE_OFFSET, reference.getPositiveOffset()
+				.getDistance());
+		writeInt(Column.NEGATIVE_OFFSET, reference.getNegativeOffset()
+				.getDistance());
+		for (LocationReferencePoint point : reference
+				.getLocationReferencePoints()) {
+			writeFloat(Column.LONGITUDE, point.getCoordinate().getLongitude());
+			writeFloat(Column.LATITUDE, point.getCoordinate().getLatitude());
+			writeSymbol(Column.FUNCTIONAL_ROAD_CLASS, point
+					.getFunctionalRoadClass().getByteRepresentation());
+			writeSymbol(Column.FORM_OF_WAY, point.getFormOfWay()
+					.getByteRepresentation());
+			writeSymbol(Column.BEARING, point.getBearing()
+					.getByteRepresentation());
+			writeInt(Column.DISTANCE_TO_NEXT_POINT, point
+					.getDistanceToNextPoint().getDistance());
+		}
+	}
+
+	/**
+	 * Writes the remaining symbols and the number of values of each column
+	 * and closes the column files
+	 *
+	 * @throws IOException
+	 *             if the column files can't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			for (Column column : Column.values()) {
+				int i = column.ordinal();
+				if (encoders[i] != null) {
+					encoders[i].finish();
+				}
+				outs[i].flush();
+				ByteBuffer count = ByteBuffer.allocate(8);
+				count.putLong(0, counts[i]);
+				files[i].getChannel().write(count, VALUE_COUNT_POSITION);
+			}
+			for (FileOutputStream file : files) {
+				file.close();
+			}
+		} finally {
+			closeFiles();
+		}
+	}
+
+	/**
+	 * Writes an integer into the given column
+	 *
+	 * @param column
+	 *            the column
+	 * @param value
+	 *            the integer
+	 * @throws IOException
+	 *             if the column file can't be written
+	 */
+	private void writeInt(final Column column, final int value)
+			throws IOException {
+		outs[column.ordinal()].writeInt(value);
+		counts[column.ordinal()]++;
+	}
+
+	/**
+	 * Writes a float into the given column
+	 *
+	 * @param column
+	 *            the column
+	 * @param value
+	 *            the float
+	 * @throws IOException
+	 *             if the column file can't be written
+	 */
+	private void writeFloat(final Column column, final float value)
+			throws IOException {
+		outs[column.ordinal()].writeFloat(value);
+		counts[column.ordinal()]++;
+	}
+
+	/**
+	 * Writes a symbol into the given column
+	 *
+	 * @param column
+	 *            the column
+	 * @param symbol
+	 *            the symbol
+	 * @throws IOException
+	 *             if the column file can't be written
+	 * @throws IllegalArgumentException
+	 *             if the symbol doesn't fit into the bits of the column, e.g.
+	 *             the undefined functional road class
+	 */
+	private void writeSymbol(final Column column, final int symbol)
+			throws IOException {
+		if (symbol >>> column.getBitWidth() != 0) {
+			throw new IllegalArgumentException(
+					"The symbol doesn't fit into the column."); //$NON-NLS-1$
+		}
+		encoders[column.ordinal()].write(symbol);
+		counts[column.ordinal()]++;
+	}
+
+	/**
+	 * Closes all column files opened so far, ignoring failures. Closing a
+	 * file again has no effect.
+	 */
+	private void closeFiles() {
+		for (FileOutputStream file : files) {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException e) {
+					// only fails while another failure is being reported
+				}
+			}
+		}
+	}
+}
@@ -94,6 +94,35 @@ public class CoordinateHelper {
 				-RESOLUTION_PARAMETER)));
 	}
 
+	/**
+	 * Returns the longitude or latitude in decamicrodegrees of a longitude or
+	 * latitude encoded as a three byte value. The conversion is the inverse of
+	 * {@link #getAbsoluteRepresentation(int)}.
+	 *
+	 * @param degree
+	 *            the three byte value of the longitude (or latitude)
+	 * @return the longitude (or latitude) in decamicrodegrees
+	 */
+	static int getDecamicrodegrees(final int degree) {
+		return (int) Math.round((degree - Math.signum(degree) / 2) * 360
+				* RELATIVE_FORMAT_INT_MULTIPLIER
+				* Math.pow(2, -RESOLUTION_PARAMETER));
+	}
+
+	/**
+	 * Returns the three byte value of a longitude or latitude given in
+	 * decamicrodegrees
+	 *
+	 * @param decamicrodegrees
+	 *            the longitude (or latitude) in decamicrodegrees
+	 * @return the three byte value of the longitude (or latitude)
+	 */
+	static int getAbsoluteRepresentation(final int decamicrodegrees) {
+		return (int) Math.round(Math.signum(decamicrodegrees) / 2
+				+ (double) decamicrodegrees / (360 * RELATIVE_FORMAT_INT_MULTIPLIER)
+				* Math.pow(2, RESOLUTION_PARAMETER));
+	}
+
 	/**
 	 * Returns the long representation of a degree, used for converting
 	 * coordinate values like longitude or latitude
@@ -1,29 +1,55 @@
 package org.hhu.c2c.openlr.io;
 
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.AREA_FLAG_1_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.AREA_FLAG_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.ATTRIBUTE_FLAG_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.FORM_OF_WAY_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.FRC_BITSHIFT;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.FUNCTIONAL_ROAD_CLASS_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.LFRCNP_BITSHIFT;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MAXIMUM_NUMBER_OF_BYTES_FOR_RADIUS;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MINIMUM_NUMBER_OF_BYTES;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MINIMUM_NUMBER_OF_BYTES_FOR_CIRCLE;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MINIMUM_NUMBER_OF_BYTES_FOR_CLOSED_LINE;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MINIMUM_NUMBER_OF_BYTES_FOR_LAST_LRP;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MINIMUM_NUMBER_OF_BYTES_FOR_POI_WITH_ACCESS_POINT;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MINIMUM_NUMBER_OF_BYTES_FOR_POINT_ALONG_LINE;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MINIMUM_NUMBER_OF_BYTES_FOR_POLYGON;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NEGATIVE_OFFSET_FLAG_BITMASK;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_ABSOLUTE_LRP;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_CLOSING_LINE;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_GRID_SIZE;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_RELATIVE_ANGULAR_MEASUREMENT;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_RELATIVE_COORDINATE;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_RELATIVE_LRP;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.ORIENTATION_BITSHIFT;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.POINT_FLAG_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.POSITIVE_OFFSET_FLAG_BITMASK;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.RELATIVE_FORMAT_INT_MULTIPLIER;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.RELATIVE_OFFSET_BUCKETS;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.SIDE_OF_ROAD_BITSHIFT;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.VERSION_NUMBER_BITMASK;
 
+import org.hhu.c2c.openlr.core.Area;
+import org.hhu.c2c.openlr.core.AreaLocationReferenceBuilder;
 import org.hhu.c2c.openlr.core.Bearing;
+import org.hhu.c2c.openlr.core.ClosedLineLocationReference;
+import org.hhu.c2c.openlr.core.ClosedLineLocationReferenceBuilder;
 import org.hhu.c2c.openlr.core.Distance;
 import org.hhu.c2c.openlr.core.FormOfWay;
 import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.core.Location;
 import org.hhu.c2c.openlr.core.LocationReference;
 import org.hhu.c2c.openlr.core.LocationReferenceBuilder;
 import org.hhu.c2c.openlr.core.LocationReferencePoint;
 import org.hhu.c2c.openlr.core.LocationReferencePointBuilder;
+import org.hhu.c2c.openlr.core.Orientation;
+import org.hhu.c2c.openlr.core.PointLocationReference;
+import org.hhu.c2c.openlr.core.PointLocationReferenceBuilder;
+import org.hhu.c2c.openlr.core.SideOfRoad;
+import org.hhu.c2c.openlr.geo.BoundingBox;
 import org.hhu.c2c.openlr.geo.Coordinate;
 import org.hhu.c2c.openlr.l10n.Messages;
 import org.hhu.c2c.openlr.util.ByteArrayFiFo;
@@ -51,14 +77,57 @@ public class Decoder {
 	 */
 	public LocationReference decode(final byte[] bytes)
 			throws LocationReferenceException {
-		if (bytes.length < MINIMUM_NUMBER_OF_BYTES) {
+		return decodeLine(bytes, bytes.length, false);
+	}
+
+	/**
+	 * Converts the given byte array into a line location reference of version
+	 * <code>3</code> of the physical data format. The location reference points
+	 * are laid out as in version <code>2</code>, but the offsets are relative:
+	 * each offset byte tells one of 256 buckets of the distance between the
+	 * first two, respectively the last two, location reference points. Like
+	 * the other location types of version <code>3</code>, the distances are
+	 * read inside their bucket (see {@link Distance#newDistanceFromBucket(int)}
+	 * ).
+	 *
+	 * @param bytes
+	 *            the byte array representing a location reference
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the location reference wasn't valid
+	 */
+	public LocationReference decodeRelativeOffsets(final byte[] bytes)
+			throws LocationReferenceException {
+		return decodeLine(bytes, bytes.length, true);
+	}
+
+	/**
+	 * Converts the first bytes of the given byte array into a line location
+	 * reference. The bytes are read in place.
+	 *
+	 * @param bytes
+	 *            the byte array representing a location reference
+	 * @param length
+	 *            the number of bytes of the location reference
+	 * @param version3
+	 *            <code>true</code> to read the distances and the relative
+	 *            offsets of version <code>3</code>, <code>false</code> to read
+	 *            them as in version <code>2</code>
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the location reference wasn't valid
+	 */
+	private LocationReference decodeLine(final byte[] bytes,
+			final int length, final boolean version3)
+			throws LocationReferenceException {
+		if (length < MINIMUM_NUMBER_OF_BYTES) {
 			throw new LocationReferenceException(
 					Messages
 							.getString(
 									"Decoder.Exception.MINIMUM_NUMBER_OF_BYTES", MINIMUM_NUMBER_OF_BYTES)); //$NON-NLS-1$
 		}
 
-		ByteArrayFiFo fifo = new ByteArrayFiFo(bytes);
+		ByteArrayFiFo fifo = new ByteArrayFiFo(bytes, length);
 
 		LocationReferenceBuilder lrb = new LocationReferenceBuilder();
 
@@ -73,14 +142,15 @@ public class Decoder {
 
 		// get the first point, its an absolute one
 		LocationReferencePoint point = getAbsoluteLRP(fifo
-				.pop(NUMBER_OF_BYTES_FOR_ABSOLUTE_LRP));
+				.pop(NUMBER_OF_BYTES_FOR_ABSOLUTE_LRP), version3);
 		lrb.addLocationReferencePoint(point);
+		Distance firstDistance = point.getDistanceToNextPoint();
 
 		// get following, relative ones, if there are any
 		while (fifo.capacity() >= NUMBER_OF_BYTES_FOR_RELATIVE_LRP
 				+ MINIMUM_NUMBER_OF_BYTES_FOR_LAST_LRP) {
 			point = getLRPfromRelative(point.getCoordinate(), fifo
-					.pop(NUMBER_OF_BYTES_FOR_RELATIVE_LRP));
+					.pop(NUMBER_OF_BYTES_FOR_RELATIVE_LRP), version3);
 			lrb.addLocationReferencePoint(point);
 		}
 
@@ -103,7 +173,9 @@ public class Decoder {
 		if (positiveOffsetFlag) {
 			// there should be one or two byte left
 			if (fifo.capacity() > 0) {
-				lrb.setPositiveOffset(Distance.newDistanceFromByteRepresentation(fifo.pop()));
+				lrb.setPositiveOffset(version3 ? getRelativeOffset(fifo
+						.pop(), firstDistance) : Distance
+						.newDistanceFromByteRepresentation(fifo.pop()));
 			} else {
 				throw new LocationReferenceException(
 						Messages
@@ -115,7 +187,9 @@ public class Decoder {
 		if (negativeOffsetFlag) {
 			// there should only be one byte left
 			if (fifo.capacity() > 0) {
-				lrb.setNegativeOffset(Distance.newDistanceFromByteRepresentation(fifo.pop()));
+				lrb.setNegativeOffset(version3 ? getRelativeOffset(fifo
+						.pop(), point.getDistanceToNextPoint()) : Distance
+						.newDistanceFromByteRepresentation(fifo.pop()));
 			} else {
 				throw new LocationReferenceException(
 						Messages
@@ -132,6 +206,626 @@ public class Decoder {
 		return lrb.build();
 	}
 
+	/**
+	 * Converts the given byte array into the location reference of any
+	 * supported location type. The type is told by the header byte; line
+	 * locations, which have the attribute flag but neither the point nor an
+	 * area flag set, are passed on to {@link #decode(byte[])} unchanged up to
+	 * version <code>2</code> and to {@link #decodeRelativeOffsets(byte[])} from
+	 * version <code>3</code> on. Both area flags set tell a closed line
+	 * location.
+	 *
+	 * @param bytes
+	 *            the byte array representing a location reference
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the location reference wasn't valid
+	 */
+	public Location decodeLocation(final byte[] bytes)
+			throws LocationReferenceException {
+		if (bytes.length == 0
+				|| (bytes[0] & (POINT_FLAG_BITMASK | AREA_FLAG_1_BITMASK
+						| AREA_FLAG_BITMASK | ATTRIBUTE_FLAG_BITMASK)) == ATTRIBUTE_FLAG_BITMASK) {
+			if (bytes.length > 0 && (bytes[0] & VERSION_NUMBER_BITMASK) >= 3) {
+				return decodeRelativeOffsets(bytes);
+			}
+			return decode(bytes);
+		}
+		if ((bytes[0] & POINT_FLAG_BITMASK) != 0) {
+			return decodePoint(bytes);
+		}
+		if ((bytes[0] & (AREA_FLAG_1_BITMASK | AREA_FLAG_BITMASK)) == (AREA_FLAG_1_BITMASK | AREA_FLAG_BITMASK)) {
+			return decodeClosedLine(bytes);
+		}
+		return decodeArea(bytes);
+	}
+
+	/**
+	 * Converts the given byte array into a closed line location reference.
+	 * The location reference points are laid out like those of a line
+	 * location and read in the same order, but straight from the byte array
+	 * and with a single {@link LocationReferencePointBuilder}, so that long
+	 * cordons don't create a buffer per point. The path is closed by the
+	 * attributes of the line leading back to the first point.
+	 *
+	 * @param bytes
+	 *            the byte array representing a closed line location reference
+	 * @return a closed line location reference
+	 * @throws LocationReferenceException
+	 *             if the byte array doesn't have the size of a closed line
+	 *             location or the location reference wasn't valid
+	 */
+	public ClosedLineLocationReference decodeClosedLine(final byte[] bytes)
+			throws LocationReferenceException {
+		int relative = bytes.length - MINIMUM_NUMBER_OF_BYTES_FOR_CLOSED_LINE;
+		if (relative < 0 || relative % NUMBER_OF_BYTES_FOR_RELATIVE_LRP != 0) {
+			throw new LocationReferenceException(
+					Messages
+							.getString(
+									"Decoder.Exception.CLOSED_LINE_NUMBER_OF_BYTES", bytes.length)); //$NON-NLS-1$
+		}
+
+		ClosedLineLocationReferenceBuilder clrb = new ClosedLineLocationReferenceBuilder();
+		clrb.setVersion((byte) (bytes[0] & VERSION_NUMBER_BITMASK));
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+
+		// get the first point, its an absolute one
+		int position = 1;
+		float longitude = getAbsoluteDegree(bytes, position);
+		float latitude = getAbsoluteDegree(bytes, position
+				+ NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT);
+		position += NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+		clrb.addLocationReferencePoint(getLRP(lrpb, longitude, latitude,
+				bytes, position));
+		position += NUMBER_OF_BYTES_FOR_ABSOLUTE_LRP
+				- NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+
+		// get following, relative ones, if there are any
+		int end = bytes.length - NUMBER_OF_BYTES_FOR_CLOSING_LINE;
+		while (position < end) {
+			longitude += getRelativeDegree(bytes, position);
+			latitude += getRelativeDegree(bytes, position
+					+ NUMBER_OF_BYTES_FOR_RELATIVE_ANGULAR_MEASUREMENT);
+			position += NUMBER_OF_BYTES_FOR_RELATIVE_COORDINATE;
+			clrb.addLocationReferencePoint(getLRP(lrpb.reset(), longitude,
+					latitude, bytes, position));
+			position += NUMBER_OF_BYTES_FOR_RELATIVE_LRP
+					- NUMBER_OF_BYTES_FOR_RELATIVE_COORDINATE;
+		}
+
+		// the line leading back to the first point
+		clrb.close(FunctionalRoadClass
+				.getFunctionalRoadClass((byte) ((bytes[position] >> FRC_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)),
+				FormOfWay
+						.getFormOfWay((byte) (bytes[position] & FORM_OF_WAY_BITMASK)),
+				Bearing.newBearing(bytes[position + 1]));
+		return clrb.build();
+	}
+
+	/**
+	 * Converts the given byte array into a circle, rectangle, grid or polygon
+	 * location reference. The area flags of the header byte tell circles
+	 * (<code>00</code>), polygons (<code>01</code>) and rectangles (
+	 * <code>10</code>) apart, rectangles and grids are told apart by the
+	 * number of bytes. The coordinates are read straight from the byte array
+	 * into decamicrodegrees, polygon vertices stay relative to their previous
+	 * one.
+	 *
+	 * @param bytes
+	 *            the byte array representing an area location reference
+	 * @return an area location reference
+	 * @throws LocationReferenceException
+	 *             if the byte array doesn't have the size of an area location
+	 *             or the location reference wasn't valid
+	 */
+	public Area decodeArea(final byte[] bytes)
+			throws LocationReferenceException {
+		if (bytes.length < MINIMUM_NUMBER_OF_BYTES_FOR_CIRCLE) {
+			throw new LocationReferenceException(Messages.getString(
+					"Decoder.Exception.AREA_NUMBER_OF_BYTES", bytes.length)); //$NON-NLS-1$
+		}
+
+		AreaLocationReferenceBuilder alrb = new AreaLocationReferenceBuilder();
+		alrb.setVersion((byte) (bytes[0] & VERSION_NUMBER_BITMASK));
+
+		// every area starts with an absolute coordinate
+		int position = 1;
+		int longitude = getAbsoluteDecamicrodegrees(bytes, position);
+		int latitude = getAbsoluteDecamicrodegrees(bytes, position
+				+ NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT);
+		position += NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+		int remaining = bytes.length - position;
+
+		switch (bytes[0] & (AREA_FLAG_1_BITMASK | AREA_FLAG_BITMASK)) {
+		case 0:
+			// a circle, followed by the radius in as few bytes as needed
+			if (remaining > MAXIMUM_NUMBER_OF_BYTES_FOR_RADIUS) {
+				throw new LocationReferenceException(Messages.getString(
+						"Decoder.Exception.AREA_NUMBER_OF_BYTES", bytes.length)); //$NON-NLS-1$
+			}
+			int radius = 0;
+			while (position < bytes.length) {
+				radius = radius << 8 | bytes[position++] & 0xff;
+			}
+			alrb.setCircle(longitude, latitude, radius);
+			break;
+		case AREA_FLAG_BITMASK:
+			// a polygon, followed by the relative coordinates of the vertices
+			if (bytes.length < MINIMUM_NUMBER_OF_BYTES_FOR_POLYGON
+					|| remaining % NUMBER_OF_BYTES_FOR_RELATIVE_COORDINATE != 0) {
+				throw new LocationReferenceException(Messages.getString(
+						"Decoder.Exception.AREA_NUMBER_OF_BYTES", bytes.length)); //$NON-NLS-1$
+			}
+			alrb.addVertex(longitude, latitude);
+			while (position < bytes.length) {
+				longitude += getRelativeDecamicrodegrees(bytes, position);
+				latitude += getRelativeDecamicrodegrees(bytes, position
+						+ NUMBER_OF_BYTES_FOR_RELATIVE_ANGULAR_MEASUREMENT);
+				alrb.addVertex(longitude, latitude);
+				position += NUMBER_OF_BYTES_FOR_RELATIVE_COORDINATE;
+			}
+			break;
+		case AREA_FLAG_1_BITMASK:
+			// a rectangle, the upper right corner is relative or absolute, a
+			// grid is followed by the number of columns and rows
+			int corner = remaining;
+			boolean grid = remaining > NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+			if (grid) {
+				corner -= NUMBER_OF_BYTES_FOR_GRID_SIZE;
+			}
+			int east;
+			int north;
+			if (corner == NUMBER_OF_BYTES_FOR_RELATIVE_COORDINATE) {
+				east = longitude + getRelativeDecamicrodegrees(bytes, position);
+				north = latitude
+						+ getRelativeDecamicrodegrees(bytes, position
+								+ NUMBER_OF_BYTES_FOR_RELATIVE_ANGULAR_MEASUREMENT);
+			} else if (corner == NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE) {
+				east = getAbsoluteDecamicrodegrees(bytes, position);
+				north = getAbsoluteDecamicrodegrees(bytes, position
+						+ NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT);
+			} else {
+				throw new LocationReferenceException(Messages.getString(
+						"Decoder.Exception.AREA_NUMBER_OF_BYTES", bytes.length)); //$NON-NLS-1$
+			}
+			position += corner;
+			if (grid) {
+				alrb.setGrid(longitude, latitude, east, north,
+						(bytes[position] & 0xff) << 8 | bytes[position + 1]
+								& 0xff, (bytes[position + 2] & 0xff) << 8
+								| bytes[position + 3] & 0xff);
+			} else {
+				alrb.setRectangle(longitude, latitude, east, north);
+			}
+			break;
+		default:
+			throw new LocationReferenceException(Messages.getString(
+					"Decoder.Exception.LOCATION_TYPE_NOT_SUPPORTED", bytes[0])); //$NON-NLS-1$
+		}
+		return alrb.build();
+	}
+
+	/**
+	 * Converts the given byte array into a point along line or a POI with
+	 * access point location reference, which are told apart by the number of
+	 * bytes. The fields are read straight from the byte array.
+	 *
+	 * @param bytes
+	 *            the byte array representing a point location reference
+	 * @return a point location reference
+	 * @throws LocationReferenceException
+	 *             if the byte array doesn't have the size of a point location
+	 *             or the location reference wasn't valid
+	 */
+	public PointLocationReference decodePoint(final byte[] bytes)
+			throws LocationReferenceException {
+		// the positive offset flag tells whether the offset byte is there
+		int lastAttribute = MINIMUM_NUMBER_OF_BYTES_FOR_POINT_ALONG_LINE - 1;
+		int offsetBytes = bytes.length > lastAttribute
+				&& (bytes[lastAttribute] & POSITIVE_OFFSET_FLAG_BITMASK) != 0 ? 1
+				: 0;
+		boolean pointOfInterest = bytes.length == MINIMUM_NUMBER_OF_BYTES_FOR_POI_WITH_ACCESS_POINT
+				+ offsetBytes;
+		if (!pointOfInterest
+				&& bytes.length != MINIMUM_NUMBER_OF_BYTES_FOR_POINT_ALONG_LINE
+						+ offsetBytes) {
+			throw new LocationReferenceException(
+					Messages
+							.getString(
+									"Decoder.Exception.POINT_NUMBER_OF_BYTES", bytes.length)); //$NON-NLS-1$
+		}
+
+		PointLocationReferenceBuilder plrb = new PointLocationReferenceBuilder();
+		plrb.setVersion((byte) (bytes[0] & VERSION_NUMBER_BITMASK));
+
+		// the first point, its first attribute holds the orientation
+		int position = 1;
+		float longitude = getAbsoluteDegree(bytes, position);
+		float latitude = getAbsoluteDegree(bytes, position
+				+ NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT);
+		position += NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+		lrpb.setCoordinate(longitude, latitude);
+		plrb.setOrientation(Orientation
+				.getOrientation((byte) (bytes[position] >> ORIENTATION_BITSHIFT)));
+		lrpb.setFrc(FunctionalRoadClass
+				.getFunctionalRoadClass((byte) ((bytes[position] >> FRC_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)));
+		lrpb.setFow(FormOfWay
+				.getFormOfWay((byte) (bytes[position++] & FORM_OF_WAY_BITMASK)));
+		lrpb.setLfrcnp(FunctionalRoadClass
+				.getFunctionalRoadClass((byte) ((bytes[position] >> LFRCNP_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)));
+		lrpb.setBearing(Bearing.newBearing(bytes[position++]));
+		Distance dnp = Distance.newDistanceFromBucket(bytes[position++] & 0xff);
+		lrpb.setDnp(dnp);
+		LocationReferencePoint first = lrpb.build();
+		plrb.setFirstPoint(first);
+
+		// the last point, its first attribute holds the side of road
+		lrpb.reset();
+		lrpb.setCoordinate(longitude + getRelativeDegree(bytes, position),
+				latitude + getRelativeDegree(bytes, position
+						+ NUMBER_OF_BYTES_FOR_RELATIVE_ANGULAR_MEASUREMENT));
+		position += NUMBER_OF_BYTES_FOR_RELATIVE_COORDINATE;
+		plrb.setSideOfRoad(SideOfRoad
+				.getSideOfRoad((byte) (bytes[position] >> SIDE_OF_ROAD_BITSHIFT)));
+		lrpb.setFrc(FunctionalRoadClass
+				.getFunctionalRoadClass((byte) ((bytes[position] >> FRC_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)));
+		lrpb.setFow(FormOfWay
+				.getFormOfWay((byte) (bytes[position++] & FORM_OF_WAY_BITMASK)));
+		lrpb.setBearing(Bearing.newBearing(bytes[position++]));
+		plrb.setLastPoint(lrpb.build());
+
+		if (offsetBytes > 0) {
+			plrb.setPositiveOffset(getRelativeOffset(bytes[position++], dnp));
+		}
+
+		// the point of interest is relative to the first point
+		if (pointOfInterest) {
+			plrb.setPointOfInterest(longitude
+					+ getRelativeDegree(bytes, position), latitude
+					+ getRelativeDegree(bytes, position
+							+ NUMBER_OF_BYTES_FOR_RELATIVE_ANGULAR_MEASUREMENT));
+		}
+		return plrb.build();
+	}
+
+	/**
+	 * Converts the given Base64 string into a location reference
+	 *
+	 * The Base64 step allocates a byte array of the decoded length. Callers
+	 * decoding many location references should reuse a scratch array with
+	 * {@link #decode(CharSequence, byte[])} instead.
+	 *
+	 * @param base64
+	 *            the Base64 representation of a location reference
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the string isn't valid Base64 or the location reference
+	 *             wasn't valid
+	 */
+	public LocationReference decode(final CharSequence base64)
+			throws LocationReferenceException {
+		return decode(Base64.decode(base64));
+	}
+
+	/**
+	 * Converts the given Base64 string into a location reference, decoding
+	 * the Base64 characters into the given scratch array instead of a new one.
+	 * The scratch array can be reused for the next location reference as soon
+	 * as this method returns.
+	 *
+	 * @param base64
+	 *            the Base64 representation of a location reference
+	 * @param scratch
+	 *            receives the decoded bytes, it must hold at least
+	 *            {@link Base64#getDecodedLength(CharSequence)} bytes
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the string isn't valid Base64 or the location reference
+	 *             wasn't valid
+	 * @throws IllegalArgumentException
+	 *             if the scratch array is too small
+	 */
+	public LocationReference decode(final CharSequence base64,
+			final byte[] scratch) throws LocationReferenceException {
+		return decodeLine(scratch, Base64.decode(base64, scratch, 0), false);
+	}
+
+	/**
+	 * Converts the given Base64 characters, e.g. taken straight from the
+	 * buffer of a feed, into a location reference. The characters are read in
+	 * place, but like {@link #decode(CharSequence)} the decoded bytes are
+	 * still held in a new array; see
+	 * {@link #decodeBase64(byte[], int, int, byte[])} to avoid it.
+	 *
+	 * @param ascii
+	 *            holds the Base64 representation of a location reference, one
+	 *            byte per character
+	 * @param offset
+	 *            the index of the first character
+	 * @param length
+	 *            the number of characters
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the characters aren't valid Base64 or the location
+	 *             reference wasn't valid
+	 */
+	public LocationReference decodeBase64(final byte[] ascii, final int offset,
+			final int length) throws LocationReferenceException {
+		byte[] bytes = new byte[Base64.getDecodedLength(ascii, offset, length)];
+		Base64.decode(ascii, offset, length, bytes, 0);
+		return decode(bytes);
+	}
+
+	/**
+	 * Converts the given Base64 characters into a location reference,
+	 * decoding them into the given scratch array instead of a new one. The
+	 * scratch array can be reused for the next location reference as soon as
+	 * this method returns.
+	 *
+	 * @param ascii
+	 *            holds the Base64 representation of a location reference, one
+	 *            byte per character
+	 * @param offset
+	 *            the index of the first character
+	 * @param length
+	 *            the number of characters
+	 * @param scratch
+	 *            receives the decoded bytes, it must hold at least
+	 *            {@link Base64#getDecodedLength(byte[], int, int)} bytes
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the characters aren't valid Base64 or the location
+	 *             reference wasn't valid
+	 * @throws IllegalArgumentException
+	 *             if the scratch array is too small
+	 */
+	public LocationReference decodeBase64(final byte[] ascii, final int offset,
+			final int length, final byte[] scratch)
+			throws LocationReferenceException {
+		return decodeLine(scratch, Base64.decode(ascii, offset, length,
+				scratch, 0), false);
+	}
+
+	/**
+	 * Returns the bounding box of the location described by the given byte
+	 * array without decoding the location reference. Only the coordinates and
+	 * the distances to the next point are read, straight from the byte array,
+	 * so that the bounding boxes of many location references can be compared
+	 * cheaply before decoding any of them.
+	 *
+	 * The bounding box contains all location reference points and is enlarged
+	 * by half the longest distance to the next point. As the path between two
+	 * location reference points is no longer than the distance between them,
+	 * each of its positions is at most half that distance away from one of the
+	 * two points, so the bounding box contains the whole location (save for
+	 * the distance tolerance of the map it is decoded onto).
+	 *
+	 * The header byte is checked first: for an area location, the area is
+	 * decoded and its own bounding box returned (see
+	 * {@link Area#getBoundingBox()}). Point and closed line locations are
+	 * rejected.
+	 *
+	 * @param bytes
+	 *            the byte array representing a location reference
+	 * @return the bounding box of the location
+	 * @throws LocationReferenceException
+	 *             if the byte array is too small to hold a location reference,
+	 *             describes a point or closed line location or isn't a valid
+	 *             area location
+	 */
+	public BoundingBox decodeBoundingBox(final byte[] bytes)
+			throws LocationReferenceException {
+		if (bytes.length > 0
+				&& (bytes[0] & (POINT_FLAG_BITMASK | AREA_FLAG_1_BITMASK
+						| AREA_FLAG_BITMASK | ATTRIBUTE_FLAG_BITMASK)) != ATTRIBUTE_FLAG_BITMASK) {
+			if ((bytes[0] & POINT_FLAG_BITMASK) != 0
+					|| (bytes[0] & (AREA_FLAG_1_BITMASK | AREA_FLAG_BITMASK)) == (AREA_FLAG_1_BITMASK | AREA_FLAG_BITMASK)) {
+				throw new LocationReferenceException(Messages.getString(
+						"Decoder.Exception.NO_BOUNDING_BOX", bytes[0] & 0xff)); //$NON-NLS-1$
+			}
+			return decodeArea(bytes).getBoundingBox();
+		}
+		if (bytes.length < MINIMUM_NUMBER_OF_BYTES) {
+			throw new LocationReferenceException(
+					Messages
+							.getString(
+									"Decoder.Exception.MINIMUM_NUMBER_OF_BYTES", MINIMUM_NUMBER_OF_BYTES)); //$NON-NLS-1$
+		}
+
+		// skip the header byte
+		int position = 1;
+		float longitude = getAbsoluteDegree(bytes, position);
+		float latitude = getAbsoluteDegree(bytes, position
+				+ NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT);
+		float west = longitude;
+		float south = latitude;
+		float east = longitude;
+		float north = latitude;
+		int dnp = bytes[position + NUMBER_OF_BYTES_FOR_ABSOLUTE_LRP - 1] & 0xff;
+		position += NUMBER_OF_BYTES_FOR_ABSOLUTE_LRP;
+
+		// the following points, the last one is followed by the offsets only
+		boolean last = false;
+		while (!last) {
+			last = bytes.length - position < NUMBER_OF_BYTES_FOR_RELATIVE_LRP
+					+ MINIMUM_NUMBER_OF_BYTES_FOR_LAST_LRP;
+			longitude += getRelativeDegree(bytes, position);
+			latitude += getRelativeDegree(bytes, position
+					+ NUMBER_OF_BYTES_FOR_RELATIVE_ANGULAR_MEASUREMENT);
+			west = Math.min(west, longitude);
+			south = Math.min(south, latitude);
+			east = Math.max(east, longitude);
+			north = Math.max(north, latitude);
+			if (!last) {
+				dnp = Math.max(dnp, bytes[position
+						+ NUMBER_OF_BYTES_FOR_RELATIVE_LRP - 1] & 0xff);
+				position += NUMBER_OF_BYTES_FOR_RELATIVE_LRP;
+			}
+		}
+
+		return new BoundingBox(west, south, east, north).expand(Distance
+				.newDistanceFromByteRepresentation(dnp).getDistance() / 2.0);
+	}
+
+	/**
+	 * Returns the bounding box of the location described by the given Base64
+	 * string without decoding the location reference
+	 *
+	 * @see #decodeBoundingBox(byte[])
+	 *
+	 * @param base64
+	 *            the Base64 representation of a location reference
+	 * @return the bounding box of the location
+	 * @throws LocationReferenceException
+	 *             if the string isn't valid Base64 or too small to hold a
+	 *             location reference
+	 */
+	public BoundingBox decodeBoundingBox(final CharSequence base64)
+			throws LocationReferenceException {
+		return decodeBoundingBox(Base64.decode(base64));
+	}
+
+	/**
+	 * Returns the distance told by the given byte
+	 *
+	 * @param distance
+	 *            the byte
+	 * @param version3
+	 *            <code>true</code> to read the distance inside its bucket, as
+	 *            in version <code>3</code>, <code>false</code> to round it down
+	 *            as in version <code>2</code>
+	 * @return the distance
+	 * @throws LocationReferenceException
+	 *             if the distance violates the data format rules
+	 */
+	private static Distance getDistance(final byte distance,
+			final boolean version3) throws LocationReferenceException {
+		if (version3) {
+			return Distance.newDistanceFromBucket(distance & 0xff);
+		}
+		return Distance.newDistanceFromByteRepresentation(distance);
+	}
+
+	/**
+	 * Returns the offset told by the given bucket of the given distance between
+	 * two location reference points, as used from version <code>3</code> on
+	 *
+	 * @param bucket
+	 *            the offset byte, one of 256 buckets of the distance
+	 * @param distance
+	 *            the distance the offset is relative to
+	 * @return the middle of the bucket
+	 * @throws LocationReferenceException
+	 *             if the offset violates the data format rules
+	 */
+	private static Distance getRelativeOffset(final byte bucket,
+			final Distance distance) throws LocationReferenceException {
+		return Distance.newDistanceFromMetricRepresentation(Math
+				.round(((bucket & 0xff) + 0.5f) * distance.getDistance()
+						/ RELATIVE_OFFSET_BUCKETS));
+	}
+
+	/**
+	 * Returns the longitude or latitude encoded in three bytes of the given
+	 * byte array
+	 *
+	 * @param bytes
+	 *            the byte array
+	 * @param position
+	 *            the index of the first of the three bytes
+	 * @return the longitude or latitude in degree
+	 */
+	private static float getAbsoluteDegree(final byte[] bytes,
+			final int position) {
+		return CoordinateHelper.getFloatRepresentation(bytes[position] << 16
+				| (bytes[position + 1] & 0xff) << 8
+				| (bytes[position + 2] & 0xff));
+	}
+
+	/**
+	 * Returns the difference in longitude or latitude encoded in two bytes of
+	 * the given byte array
+	 *
+	 * @param bytes
+	 *            the byte array
+	 * @param position
+	 *            the index of the first of the two bytes
+	 * @return the difference to the previous point in degree
+	 */
+	private static float getRelativeDegree(final byte[] bytes,
+			final int position) {
+		return (float) (bytes[position] << 8 | bytes[position + 1] & 0xff)
+				/ RELATIVE_FORMAT_INT_MULTIPLIER;
+	}
+
+	/**
+	 * Returns the longitude or latitude encoded in three bytes of the given
+	 * byte array
+	 *
+	 * @param bytes
+	 *            the byte array
+	 * @param position
+	 *            the index of the first of the three bytes
+	 * @return the longitude or latitude in decamicrodegrees
+	 */
+	private static int getAbsoluteDecamicrodegrees(final byte[] bytes,
+			final int position) {
+		return CoordinateHelper.getDecamicrodegrees(bytes[position] << 16
+				| (bytes[position + 1] & 0xff) << 8
+				| (bytes[position + 2] & 0xff));
+	}
+
+	/**
+	 * Returns the difference in longitude or latitude encoded in two bytes of
+	 * the given byte array
+	 *
+	 * @param bytes
+	 *            the byte array
+	 * @param position
+	 *            the index of the first of the two bytes
+	 * @return the difference to the previous point in decamicrodegrees
+	 */
+	private static int getRelativeDecamicrodegrees(final byte[] bytes,
+			final int position) {
+		return bytes[position] << 8 | bytes[position + 1] & 0xff;
+	}
+
+	/**
+	 * Returns a location reference point at the given coordinate, reading its
+	 * three attribute bytes straight from the given byte array
+	 *
+	 * @param lrpb
+	 *            a reset location reference point builder
+	 * @param longitude
+	 *            the longitude of the point
+	 * @param latitude
+	 *            the latitude of the point
+	 * @param bytes
+	 *            the byte array
+	 * @param position
+	 *            the index of the first attribute byte
+	 * @return the location reference point
+	 * @throws LocationReferenceException
+	 *             if the location reference point trying to build couldn't be
+	 *             validated
+	 */
+	private static LocationReferencePoint getLRP(
+			final LocationReferencePointBuilder lrpb, final float longitude,
+			final float latitude, final byte[] bytes, final int position)
+			throws LocationReferenceException {
+		lrpb.setCoordinate(longitude, latitude);
+		lrpb.setFrc(FunctionalRoadClass
+				.getFunctionalRoadClass((byte) ((bytes[position] >> FRC_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)));
+		lrpb.setFow(FormOfWay
+				.getFormOfWay((byte) (bytes[position] & FORM_OF_WAY_BITMASK)));
+		lrpb.setLfrcnp(FunctionalRoadClass
+				.getFunctionalRoadClass((byte) ((bytes[position + 1] >> LFRCNP_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)));
+		lrpb.setBearing(Bearing.newBearing(bytes[position + 1]));
+		lrpb.setDnp(Distance.newDistanceFromBucket(bytes[position + 2] & 0xff));
+		return lrpb.build();
+	}
+
 	/**
 	 * Returns a location reference point from a given byte array of 9 bytes
 	 * representing a location reference point with an absolute coordinate and
@@ -140,13 +834,16 @@ public class Decoder {
 	 * @param point
 	 *            the byte representation of a location reference point with an
 	 *            absolute coordinate
+	 * @param version3
+	 *            <code>true</code> to read the distance as in version
+	 *            <code>3</code>
 	 * @return the location reference point
 	 * @throws LocationReferenceException
 	 *             if the location reference point trying to build couldn't be
 	 *             validated
 	 */
-	private LocationReferencePoint getAbsoluteLRP(final byte[] point)
-			throws LocationReferenceException {
+	private LocationReferencePoint getAbsoluteLRP(final byte[] point,
+			final boolean version3) throws LocationReferenceException {
 		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
 		ByteArrayFiFo fifo = new ByteArrayFiFo(point);
 
@@ -159,7 +856,7 @@ public class Decoder {
 		lrpb.setLfrcnp(FunctionalRoadClass.getFunctionalRoadClass((byte) ((fifo
 				.peek() >> LFRCNP_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)));
 		lrpb.setBearing(Bearing.newBearing(fifo.pop()));
-		lrpb.setDnp(Distance.newDistanceFromByteRepresentation(fifo.pop()));
+		lrpb.setDnp(getDistance(fifo.pop(), version3));
 		return lrpb.build();
 	}
 
@@ -211,14 +908,17 @@ public class Decoder {
 	 * @param currentPoint
 	 *            the byte array representation of the current relative location
 	 *            reference point
+	 * @param version3
+	 *            <code>true</code> to read the distance as in version
+	 *            <code>3</code>
 	 * @return the current location reference point with absolute values
 	 * @throws LocationReferenceException
 	 *             if the location reference point trying to build couldn't be
 	 *             validated
 	 */
 	private LocationReferencePoint getLRPfromRelative(
-			final Coordinate previous, final byte[] currentPoint)
-			throws LocationReferenceException {
+			final Coordinate previous, final byte[] currentPoint,
+			final boolean version3) throws LocationReferenceException {
 		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
 		ByteArrayFiFo fifo = new ByteArrayFiFo(currentPoint);
 
@@ -230,7 +930,7 @@ public class Decoder {
 		lrpb.setLfrcnp(FunctionalRoadClass.getFunctionalRoadClass((byte) ((fifo
 				.peek() >> LFRCNP_BITSHIFT) & FUNCTIONAL_ROAD_CLASS_BITMASK)));
 		lrpb.setBearing(Bearing.newBearing(fifo.pop()));
-		lrpb.setDnp(Distance.newDistanceFromByteRepresentation(fifo.pop()));
+		lrpb.setDnp(getDistance(fifo.pop(), version3));
 
 		return lrpb.build();
 	}
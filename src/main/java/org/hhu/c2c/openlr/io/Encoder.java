@@ -1,21 +1,39 @@
 package org.hhu.c2c.openlr.io;
 
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.AREA_FLAG_1_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.AREA_FLAG_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.ATTRIBUTE_FLAG_BITMASK;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.MAXIMUM_NUMBER_OF_BYTES_FOR_RADIUS;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NEGATIVE_OFFSET_FLAG_BITMASK;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.ORIENTATION_BITSHIFT;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.POINT_FLAG_BITMASK;
 import static org.hhu.c2c.openlr.io.PhysicalDataFormat.POSITIVE_OFFSET_FLAG_BITMASK;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.RELATIVE_FORMAT_INT_MULTIPLIER;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.RELATIVE_OFFSET_BUCKETS;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.SIDE_OF_ROAD_BITSHIFT;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.LinkedList;
+import java.util.List;
 
+import org.hhu.c2c.openlr.core.Area;
 import org.hhu.c2c.openlr.core.Bearing;
+import org.hhu.c2c.openlr.core.CircleLocationReference;
+import org.hhu.c2c.openlr.core.ClosedLineLocationReference;
 import org.hhu.c2c.openlr.core.Distance;
 import org.hhu.c2c.openlr.core.FormOfWay;
 import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.core.GridLocationReference;
 import org.hhu.c2c.openlr.core.LocationReference;
 import org.hhu.c2c.openlr.core.LocationReferencePoint;
+import org.hhu.c2c.openlr.core.PointLocationReference;
+import org.hhu.c2c.openlr.core.PolygonLocationReference;
+import org.hhu.c2c.openlr.core.RectangleLocationReference;
 import org.hhu.c2c.openlr.geo.Coordinate;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
 
 /**
  * Used for marshalling a {@link LocationReference} into a byte stream
@@ -37,6 +55,44 @@ public class Encoder {
 	 */
 	public void write(final OutputStream out,
 			final LocationReference locationReference) throws IOException {
+		writeLine(out, locationReference, false);
+	}
+
+	/**
+	 * Writes the given location reference to the given output stream with the
+	 * offsets relative to the distances of the first and last pair of location
+	 * reference points, as in version <code>3</code> of the physical data
+	 * format.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param locationReference
+	 *            the location reference
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void writeRelativeOffsets(final OutputStream out,
+			final LocationReference locationReference) throws IOException {
+		writeLine(out, locationReference, true);
+	}
+
+	/**
+	 * Writes the given line location reference to the given output stream
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param locationReference
+	 *            the location reference
+	 * @param relativeOffsets
+	 *            <code>true</code> to write the offsets relative to the
+	 *            distances of the first and last pair of location reference
+	 *            points, <code>false</code> to write them absolute
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writeLine(final OutputStream out,
+			final LocationReference locationReference,
+			final boolean relativeOffsets) throws IOException {
 
 		final LinkedList<LocationReferencePoint> points = new LinkedList<LocationReferencePoint>(
 				locationReference.getLocationReferencePoints());
@@ -114,13 +170,309 @@ public class Encoder {
 
 		// write positive offset byte IFF pOffF true
 		if (locationReference.hasPositiveOffset()) {
-			writeDistance(out, locationReference.getPositiveOffset());
+			if (relativeOffsets) {
+				writeRelativeOffset(out, locationReference.getPositiveOffset(),
+						locationReference.getLocationReferencePoints().get(0)
+								.getDistanceToNextPoint());
+			} else {
+				writeDistance(out, locationReference.getPositiveOffset());
+			}
 		}
 		// write negative offset byte IFF nOffF true
 		if (locationReference.hasNegativeOffset()) {
-			writeDistance(out, locationReference.getNegativeOffset());
+			if (relativeOffsets) {
+				writeRelativeOffset(out, locationReference.getNegativeOffset(),
+						previousPoint.getDistanceToNextPoint());
+			} else {
+				writeDistance(out, locationReference.getNegativeOffset());
+			}
+		}
+
+	}
+
+	/**
+	 * Writes the given point along line or POI with access point location
+	 * reference to the given output stream.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param locationReference
+	 *            the point location reference
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void write(final OutputStream out,
+			final PointLocationReference locationReference) throws IOException {
+		LocationReferencePoint first = locationReference.getFirstPoint();
+		LocationReferencePoint last = locationReference.getLastPoint();
+
+		// write 1 byte header, a point location always has attributes
+		out.write(locationReference.getVersion() | POINT_FLAG_BITMASK
+				| ATTRIBUTE_FLAG_BITMASK);
+
+		// write the absolute first point, the orientation goes into the two
+		// empty bits of the 1st attribute
+		out.write(CoordinateHelper.getByteArrayRepresentation(first
+				.getCoordinate().getLongitude()));
+		out.write(CoordinateHelper.getByteArrayRepresentation(first
+				.getCoordinate().getLatitude()));
+		out.write(locationReference.getOrientation().getByteRepresentation() << ORIENTATION_BITSHIFT
+				| first.getFunctionalRoadClass().getByteRepresentation() << 3
+				| first.getFormOfWay().getByteRepresentation());
+		writeSecondAttribute(out, first.getLowestFRCToNextPoint(), first
+				.getBearing());
+		writeThirdAttribute(out, first.getDistanceToNextPoint());
+
+		// write the relative last point, the side of road goes into the two
+		// empty bits of the 1st attribute
+		out.write(CoordinateHelper.getByteArrayRepresentation(last
+				.getCoordinate(), first.getCoordinate()));
+		out.write(locationReference.getSideOfRoad().getByteRepresentation() << SIDE_OF_ROAD_BITSHIFT
+				| last.getFunctionalRoadClass().getByteRepresentation() << 3
+				| last.getFormOfWay().getByteRepresentation());
+		writeFourthAttribute(out, locationReference.hasPositiveOffset(),
+				false, last.getBearing());
+
+		// write the positive offset relative to the distance to the last
+		// point IFF pOffF true
+		if (locationReference.hasPositiveOffset()) {
+			writeRelativeOffset(out, locationReference.getPositiveOffset(),
+					first.getDistanceToNextPoint());
+		}
+
+		// write the point of interest relative to the first point
+		if (locationReference.getPointOfInterest() != null) {
+			out.write(CoordinateHelper.getByteArrayRepresentation(
+					locationReference.getPointOfInterest(), first
+							.getCoordinate()));
+		}
+	}
+
+	/**
+	 * Writes the given closed line location reference to the given output
+	 * stream. The relative coordinates are taken from the position the decoder
+	 * arrives at for the previous point, so that rounding errors don't add up
+	 * along long cordons.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param locationReference
+	 *            the closed line location reference
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void write(final OutputStream out,
+			final ClosedLineLocationReference locationReference)
+			throws IOException {
+		List<LocationReferencePoint> points = locationReference
+				.getLocationReferencePoints();
+
+		// write 1 byte header, both area flags tell a closed line
+		out.write(locationReference.getVersion() | AREA_FLAG_1_BITMASK
+				| AREA_FLAG_BITMASK | ATTRIBUTE_FLAG_BITMASK);
+
+		// write absolute starting point
+		LocationReferencePoint point = points.get(0);
+		byte[] bytes = CoordinateHelper.getByteArrayRepresentation(point
+				.getCoordinate().getLongitude());
+		out.write(bytes);
+		float longitude = CoordinateHelper.getFloatRepresentation(bytes[0] << 16
+				| (bytes[1] & 0xff) << 8 | bytes[2] & 0xff);
+		bytes = CoordinateHelper.getByteArrayRepresentation(point
+				.getCoordinate().getLatitude());
+		out.write(bytes);
+		float latitude = CoordinateHelper.getFloatRepresentation(bytes[0] << 16
+				| (bytes[1] & 0xff) << 8 | bytes[2] & 0xff);
+		writeFirstAttribute(out, point.getFunctionalRoadClass(), point
+				.getFormOfWay());
+		writeSecondAttribute(out, point.getLowestFRCToNextPoint(), point
+				.getBearing());
+		writeThirdAttribute(out, point.getDistanceToNextPoint());
+
+		// write following points, relative to the decoded previous one
+		int last = points.size() - 1;
+		for (int i = 1; i < last; i++) {
+			point = points.get(i);
+			int relativeLongitude = Math.round((point.getCoordinate()
+					.getLongitude() - longitude)
+					* RELATIVE_FORMAT_INT_MULTIPLIER);
+			int relativeLatitude = Math.round((point.getCoordinate()
+					.getLatitude() - latitude)
+					* RELATIVE_FORMAT_INT_MULTIPLIER);
+			writeRelativeCoordinate(out, relativeLongitude, relativeLatitude);
+			longitude += (float) relativeLongitude
+					/ RELATIVE_FORMAT_INT_MULTIPLIER;
+			latitude += (float) relativeLatitude
+					/ RELATIVE_FORMAT_INT_MULTIPLIER;
+			writeFirstAttribute(out, point.getFunctionalRoadClass(), point
+					.getFormOfWay());
+			writeSecondAttribute(out, point.getLowestFRCToNextPoint(), point
+					.getBearing());
+			writeThirdAttribute(out, point.getDistanceToNextPoint());
 		}
 
+		// write the attributes of the line leading back to the first point
+		point = points.get(last);
+		writeFirstAttribute(out, point.getFunctionalRoadClass(), point
+				.getFormOfWay());
+		out.write(point.getBearing().getByteRepresentation());
+	}
+
+	/**
+	 * Writes the given circle, rectangle, grid or polygon location reference
+	 * to the given output stream. The radius of a circle takes as few bytes as
+	 * needed, the upper right corner of a rectangle is written relative to the
+	 * lower left one if the difference fits into two bytes.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param area
+	 *            the area location reference
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void write(final OutputStream out, final Area area)
+			throws IOException {
+		switch (area.getLocationType()) {
+		case CIRCLE:
+			CircleLocationReference circle = (CircleLocationReference) area;
+			out.write(area.getVersion());
+			writeAbsoluteCoordinate(out, circle.getLongitude(), circle
+					.getLatitude());
+			int radius = circle.getRadius();
+			for (int shift = 8 * (MAXIMUM_NUMBER_OF_BYTES_FOR_RADIUS - 1); shift >= 0; shift -= 8) {
+				if (radius >>> shift != 0 || shift == 0) {
+					out.write(radius >>> shift);
+				}
+			}
+			break;
+		case RECTANGLE:
+		case GRID:
+			RectangleLocationReference rectangle = (RectangleLocationReference) area;
+			out.write(area.getVersion() | AREA_FLAG_1_BITMASK);
+			writeAbsoluteCoordinate(out, rectangle.getWest(), rectangle
+					.getSouth());
+			int longitude = rectangle.getEast() - rectangle.getWest();
+			int latitude = rectangle.getNorth() - rectangle.getSouth();
+			if (longitude <= Short.MAX_VALUE && latitude <= Short.MAX_VALUE) {
+				writeRelativeCoordinate(out, longitude, latitude);
+			} else {
+				writeAbsoluteCoordinate(out, rectangle.getEast(), rectangle
+						.getNorth());
+			}
+			if (area instanceof GridLocationReference) {
+				GridLocationReference grid = (GridLocationReference) area;
+				out.write(grid.getColumns() >> 8);
+				out.write(grid.getColumns());
+				out.write(grid.getRows() >> 8);
+				out.write(grid.getRows());
+			}
+			break;
+		default:
+			PolygonLocationReference polygon = (PolygonLocationReference) area;
+			out.write(area.getVersion() | AREA_FLAG_BITMASK);
+			writeAbsoluteCoordinate(out, polygon.getLongitudeDelta(0), polygon
+					.getLatitudeDelta(0));
+			for (int i = 1; i < polygon.getVertexCount(); i++) {
+				writeRelativeCoordinate(out, polygon.getLongitudeDelta(i),
+						polygon.getLatitudeDelta(i));
+			}
+		}
+	}
+
+	/**
+	 * Returns the Base64 representation of the given location reference
+	 *
+	 * @param locationReference
+	 *            the location reference
+	 * @return the Base64 string
+	 */
+	public String writeBase64(final LocationReference locationReference) {
+		return Base64.encode(toByteArray(locationReference));
+	}
+
+	/**
+	 * Writes the Base64 representation of the given location reference into
+	 * the given buffer
+	 *
+	 * @param locationReference
+	 *            the location reference
+	 * @param buffer
+	 *            receives the Base64 characters
+	 * @param offset
+	 *            the index of the buffer the first character is written to
+	 * @return the number of characters written
+	 * @throws IllegalArgumentException
+	 *             if the buffer is too small
+	 */
+	public int writeBase64(final LocationReference locationReference,
+			final char[] buffer, final int offset) {
+		byte[] bytes = toByteArray(locationReference);
+		return Base64.encode(bytes, 0, bytes.length, buffer, offset);
+	}
+
+	/**
+	 * Returns the byte representation of the given location reference
+	 *
+	 * @param locationReference
+	 *            the location reference
+	 * @return the byte array
+	 */
+	private byte[] toByteArray(final LocationReference locationReference) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			write(out, locationReference);
+		} catch (IOException e) {
+			// a byte array output stream doesn't throw
+			throw new RuntimeException(Messages
+					.getString("General.Error.GURU_MEDITATION_FAILURE")); //$NON-NLS-1$
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes a coordinate given in decamicrodegrees in the absolute format,
+	 * three bytes each for longitude and latitude, into the output stream.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param longitude
+	 *            the longitude in decamicrodegrees
+	 * @param latitude
+	 *            the latitude in decamicrodegrees
+	 * @throws IOException
+	 */
+	private void writeAbsoluteCoordinate(final OutputStream out,
+			final int longitude, final int latitude) throws IOException {
+		int value = CoordinateHelper.getAbsoluteRepresentation(longitude);
+		out.write(value >> 16);
+		out.write(value >> 8);
+		out.write(value);
+		value = CoordinateHelper.getAbsoluteRepresentation(latitude);
+		out.write(value >> 16);
+		out.write(value >> 8);
+		out.write(value);
+	}
+
+	/**
+	 * Writes a difference of coordinates given in decamicrodegrees in the
+	 * relative format, two bytes each for longitude and latitude, into the
+	 * output stream.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param longitude
+	 *            the difference in longitude in decamicrodegrees
+	 * @param latitude
+	 *            the difference in latitude in decamicrodegrees
+	 * @throws IOException
+	 */
+	private void writeRelativeCoordinate(final OutputStream out,
+			final int longitude, final int latitude) throws IOException {
+		out.write(longitude >> 8);
+		out.write(longitude);
+		out.write(latitude >> 8);
+		out.write(latitude);
 	}
 
 	/**
@@ -138,6 +490,37 @@ public class Encoder {
 		out.write(distance.getByteRepresentation());
 	}
 
+	/**
+	 * Writes the given offset as one of 256 buckets of the given distance
+	 * between two location reference points, as used from version
+	 * <code>3</code> on. The buckets divide the distance as the decoder reads
+	 * it back from its byte, so that the offset decodes into the same bucket.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param offset
+	 *            the offset
+	 * @param distance
+	 *            the distance the offset is relative to
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writeRelativeOffset(final OutputStream out,
+			final Distance offset, final Distance distance) throws IOException {
+		int dnp;
+		try {
+			dnp = Distance.newDistanceFromBucket(
+					distance.getByteRepresentation()).getDistance();
+		} catch (LocationReferenceException e) {
+			// a byte representation always tells a valid distance
+			throw new RuntimeException(Messages
+					.getString("General.Error.GURU_MEDITATION_FAILURE")); //$NON-NLS-1$
+		}
+		out.write(dnp == 0 ? 0 : Math.min(RELATIVE_OFFSET_BUCKETS - 1, offset
+				.getDistance()
+				* RELATIVE_OFFSET_BUCKETS / dnp));
+	}
+
 	/**
 	 * Writes the first attribute, the functional road class and the form of way
 	 * as a byte array representation into the output stream.
@@ -0,0 +1,177 @@
+package org.hhu.c2c.openlr.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.hhu.c2c.openlr.core.ClosedLineLocationReference;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+
+/**
+ * Used for exporting location references as a GeoJSON feature collection,
+ * one feature per location reference whose geometry is the
+ * <code>LineString</code> through its location reference points. Line
+ * locations carry their offsets in meters as the properties
+ * <code>positiveOffset</code> and <code>negativeOffset</code>.
+ *
+ * The features are streamed straight into the writer without building any
+ * intermediate objects, so any number of location references can be
+ * exported in constant memory. The feature collection is complete once
+ * {@link #finish()} or {@link #close()} has been called. A GeoJSON writer is
+ * not thread-safe.
+ *
+ * @see WktWriter
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class GeoJsonWriter implements Closeable {
+
+	/**
+	 * The number of decimals of a coordinate, which keeps the resolution of
+	 * the physical data format
+	 */
+	protected static final int COORDINATE_DECIMALS = 5;
+
+	/**
+	 * Holds the buffered text
+	 */
+	private final TextBuffer buffer;
+
+	/**
+	 * Holds <code>true</code> once the first feature has been written
+	 */
+	private boolean started;
+
+	/**
+	 * Holds <code>true</code> once the feature collection is complete
+	 */
+	private boolean finished;
+
+	/**
+	 * Constructs a new {@link GeoJsonWriter}
+	 *
+	 * @param out
+	 *            the writer
+	 */
+	public GeoJsonWriter(final Writer out) {
+		this.buffer = new TextBuffer(out);
+		buffer.getBuilder().append(
+				"{\"type\":\"FeatureCollection\",\"features\":["); //$NON-NLS-1$
+	}
+
+	/**
+	 * Constructs a new {@link GeoJsonWriter} writing UTF-8
+	 *
+	 * @param out
+	 *            the output stream
+	 */
+	public GeoJsonWriter(final OutputStream out) {
+		this(new OutputStreamWriter(out, Charset.forName("UTF-8"))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the given line location reference as a feature
+	 *
+	 * @param reference
+	 *            the line location reference
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	public void write(final LocationReference reference) throws IOException {
+		StringBuilder builder = startFeature(reference
+				.getLocationReferencePoints());
+		builder.append(",\"properties\":{\"positiveOffset\":"); //$NON-NLS-1$
+		builder.append(reference.getPositiveOffset().getDistance());
+		builder.append(",\"negativeOffset\":"); //$NON-NLS-1$
+		builder.append(reference.getNegativeOffset().getDistance());
+		builder.append("}}"); //$NON-NLS-1$
+		buffer.drainIfFull();
+	}
+
+	/**
+	 * Writes the given closed line location reference as a feature
+	 *
+	 * @param reference
+	 *            the closed line location reference
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	public void write(final ClosedLineLocationReference reference)
+			throws IOException {
+		StringBuilder builder = startFeature(reference
+				.getLocationReferencePoints());
+		builder.append(",\"properties\":{}}"); //$NON-NLS-1$
+		buffer.drainIfFull();
+	}
+
+	/**
+	 * Ends the feature collection and flushes the writer, which is not
+	 * closed. Calling this method again has no effect.
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	public void finish() throws IOException {
+		if (finished) {
+			return;
+		}
+		buffer.getBuilder().append(started ? "\n]}\n" : "]}\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buffer.flush();
+		finished = true;
+	}
+
+	/**
+	 * Ends the feature collection and closes the writer
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			buffer.close();
+		}
+	}
+
+	/**
+	 * Appends the start of a feature up to its geometry
+	 *
+	 * @param points
+	 *            the location reference points
+	 * @return the string builder to append the properties to
+	 * @throws IllegalStateException
+	 *             if the feature collection is already complete
+	 */
+	private StringBuilder startFeature(final List<LocationReferencePoint> points) {
+		if (finished) {
+			throw new IllegalStateException(
+					"The feature collection is already complete."); //$NON-NLS-1$
+		}
+		StringBuilder builder = buffer.getBuilder();
+		builder.append(started ? ",\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		started = true;
+		builder.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":["); //$NON-NLS-1$
+		for (int i = 0; i < points.size(); i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append('[');
+			TextBuffer.appendDecimal(builder, points.get(i).getCoordinate()
+					.getLongitude(), COORDINATE_DECIMALS);
+			builder.append(',');
+			TextBuffer.appendDecimal(builder, points.get(i).getCoordinate()
+					.getLatitude(), COORDINATE_DECIMALS);
+			builder.append(']');
+		}
+		builder.append("]}"); //$NON-NLS-1$
+		return builder;
+	}
+}
@@ -0,0 +1,44 @@
+package org.hhu.c2c.openlr.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.hhu.c2c.openlr.core.Location;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * A <b>location codec</b> converts the location references of one version of
+ * the physical data format into and out of their byte representation. The
+ * {@link CodecRegistry} selects the codec by the version bits of the header
+ * byte.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public interface LocationCodec {
+
+	/**
+	 * Converts the given byte array into a location reference
+	 *
+	 * @param bytes
+	 *            the byte array representing a location reference
+	 * @return a location reference
+	 * @throws LocationReferenceException
+	 *             if the location reference wasn't valid
+	 */
+	Location decode(byte[] bytes) throws LocationReferenceException;
+
+	/**
+	 * Writes the given location reference to the given output stream.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param location
+	 *            the location reference
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 * @throws IllegalArgumentException
+	 *             if the location type isn't part of this version
+	 */
+	void write(OutputStream out, Location location) throws IOException;
+}
@@ -13,6 +13,13 @@ import org.hhu.c2c.openlr.core.FunctionalRoadClass;
  */
 public class PhysicalDataFormat {
 
+	/**
+	 * The second area flag in the header byte uses bit 7:
+	 * <code>0100 0000</code>. Together with the area flag it tells the kind of
+	 * an area location, which have been introduced with version 3.
+	 */
+	protected static final byte AREA_FLAG_1_BITMASK = 64;
+
 	/**
 	 * The area flag in the header byte uses bit 5:<code>0001 0000</code>
 	 */
@@ -55,6 +62,12 @@ public class PhysicalDataFormat {
 	 */
 	protected static final int LFRCNP_BITSHIFT = 5;
 
+	/**
+	 * The radius of a circle location uses up to four bytes using big endian
+	 * notation.
+	 */
+	protected static final int MAXIMUM_NUMBER_OF_BYTES_FOR_RADIUS = 4;
+
 	/**
 	 * As the header uses 1 byte and the protocol demands at least two location
 	 * reference points, the first one, as an absolute point using 9 bytes and
@@ -62,6 +75,19 @@ public class PhysicalDataFormat {
 	 */
 	protected static final int MINIMUM_NUMBER_OF_BYTES = 16;
 
+	/**
+	 * A circle location takes the header, the absolute coordinate of the
+	 * center (6 bytes) and at least one byte for the radius.
+	 */
+	protected static final int MINIMUM_NUMBER_OF_BYTES_FOR_CIRCLE = 8;
+
+	/**
+	 * A closed line location takes the header, the first location reference
+	 * point (9 bytes) and the attributes of the line closing the path back to
+	 * it (2 bytes).
+	 */
+	protected static final int MINIMUM_NUMBER_OF_BYTES_FOR_CLOSED_LINE = 12;
+
 	/**
 	 * The number of bytes used to describe the closing location reference
 	 * point. It also makes use of the relative coordinate format (4 bytes), but
@@ -73,6 +99,34 @@ public class PhysicalDataFormat {
 	 */
 	protected static final int MINIMUM_NUMBER_OF_BYTES_FOR_LAST_LRP = 6;
 
+	/**
+	 * A POI with access point location is laid out like a point along line
+	 * location, followed by the relative coordinate (4 bytes) of the point of
+	 * interest.
+	 */
+	protected static final int MINIMUM_NUMBER_OF_BYTES_FOR_POI_WITH_ACCESS_POINT = 20;
+
+	/**
+	 * A point along line location takes the header, the first location
+	 * reference point (9 bytes) and the last one (6 bytes), followed by an
+	 * optional byte for the positive offset.
+	 */
+	protected static final int MINIMUM_NUMBER_OF_BYTES_FOR_POINT_ALONG_LINE = 16;
+
+	/**
+	 * A polygon location takes the header, the absolute coordinate of the
+	 * first vertex (6 bytes) and the relative coordinates (4 bytes each) of at
+	 * least two further vertices.
+	 */
+	protected static final int MINIMUM_NUMBER_OF_BYTES_FOR_POLYGON = 15;
+
+	/**
+	 * A rectangle location takes the header, the absolute coordinate of the
+	 * lower left corner (6 bytes) and the coordinate of the upper right corner,
+	 * relative (4 bytes) if it is close enough, absolute (6 bytes) otherwise.
+	 */
+	protected static final int MINIMUM_NUMBER_OF_BYTES_FOR_RECTANGLE = 11;
+
 	/**
 	 * The bitmask used by the negative offset flag. The last location reference
 	 * point send over the wire also includes information whether the location
@@ -104,6 +158,19 @@ public class PhysicalDataFormat {
 	 */
 	protected static final int NUMBER_OF_BYTES_FOR_ABSOLUTE_LRP = 9;
 
+	/**
+	 * The line closing a closed line location is described by one byte for its
+	 * functional road class and form of way and one byte for its bearing, the
+	 * coordinate is the one of the first location reference point.
+	 */
+	protected static final int NUMBER_OF_BYTES_FOR_CLOSING_LINE = 2;
+
+	/**
+	 * A grid location is laid out like a rectangle location, followed by the
+	 * number of columns and the number of rows, two bytes each.
+	 */
+	protected static final int NUMBER_OF_BYTES_FOR_GRID_SIZE = 4;
+
 	/**
 	 * Number of bytes needed for a relative coordinate part, like longitude or
 	 * latitude
@@ -126,6 +193,18 @@ public class PhysicalDataFormat {
 	 */
 	protected static final int NUMBER_OF_BYTES_FOR_RELATIVE_LRP = 7;
 
+	/**
+	 * The orientation of a point location uses the two most significant bits
+	 * of the first attribute of the first location reference point.
+	 */
+	protected static final int ORIENTATION_BITSHIFT = 6;
+
+	/**
+	 * The point flag in the header byte uses bit 6:<code>0010 0000</code>. It
+	 * is set for point locations, which have been introduced with version 3.
+	 */
+	protected static final byte POINT_FLAG_BITMASK = 32;
+
 	/**
 	 * The bitmask used by the positive offset flag. The last location reference
 	 * point send over the wire also includes information whether the location
@@ -140,12 +219,25 @@ public class PhysicalDataFormat {
 	 */
 	protected static final int RELATIVE_FORMAT_INT_MULTIPLIER = 100000;
 
+	/**
+	 * The positive offset of a point location is relative to the distance
+	 * between its two location reference points, which is divided into 256
+	 * buckets.
+	 */
+	protected static final int RELATIVE_OFFSET_BUCKETS = 256;
+
 	/**
 	 * The resolution parameter is used to convert the float representation of
 	 * the longitude (or latitude) into the respective long representation
 	 */
 	protected static final byte RESOLUTION_PARAMETER = 24;
 
+	/**
+	 * The side of road of a point location uses the two most significant bits
+	 * of the first attribute of the last location reference point.
+	 */
+	protected static final int SIDE_OF_ROAD_BITSHIFT = 6;
+
 	/**
 	 * The three least significant bits of the header byte represent the version
 	 * number
@@ -0,0 +1,358 @@
+package org.hhu.c2c.openlr.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * A <b>reference archive</b> gives random access to the blocks of an archive
+ * of location references as described by {@link ArchiveFormat}. Only the
+ * index is held in memory; a block is read and decompressed when it is asked
+ * for, either on its own, to get a single location reference, or together
+ * with other blocks, which are then decompressed in parallel.
+ *
+ * Getting a single location reference decompresses its whole block. The
+ * location references of the block decompressed last are kept, so that
+ * getting the location references of a block one after the other
+ * decompresses the block only once; callers reading many location references
+ * should still prefer {@link #getReferences(int)}.
+ *
+ * A reference archive may be shared between threads, as blocks are read by
+ * absolute position and every decompression uses its own {@link Inflater}.
+ * It has to be closed when it is no longer needed.
+ *
+ * @see ArchiveReader
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ReferenceArchive implements Closeable {
+
+	/**
+	 * Holds the channel of the archive
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Holds the preset dictionary
+	 */
+	private final byte[] dictionary;
+
+	/**
+	 * Holds the offset of each block
+	 */
+	private final long[] offsets;
+
+	/**
+	 * Holds the compressed length of each block
+	 */
+	private final int[] compressedLengths;
+
+	/**
+	 * Holds the uncompressed length of each block
+	 */
+	private final int[] lengths;
+
+	/**
+	 * Holds the number of the first location reference of each block,
+	 * followed by the number of location references
+	 */
+	private final long[] firsts;
+
+	/**
+	 * Holds the block decompressed last by {@link #get(long)}, or
+	 * <code>null</code>
+	 */
+	private volatile DecompressedBlock last;
+
+	/**
+	 * Constructs a new {@link ReferenceArchive}
+	 *
+	 * @param channel
+	 *            the channel of the archive
+	 * @param dictionary
+	 *            the preset dictionary
+	 * @param offsets
+	 *            the offset of each block
+	 * @param compressedLengths
+	 *            the compressed length of each block
+	 * @param lengths
+	 *            the uncompressed length of each block
+	 * @param firsts
+	 *            the number of the first location reference of each block,
+	 *            followed by the number of location references
+	 */
+	protected ReferenceArchive(final FileChannel channel,
+			final byte[] dictionary, final long[] offsets,
+			final int[] compressedLengths, final int[] lengths,
+			final long[] firsts) {
+		this.channel = channel;
+		this.dictionary = dictionary;
+		this.offsets = offsets;
+		this.compressedLengths = compressedLengths;
+		this.lengths = lengths;
+		this.firsts = firsts;
+	}
+
+	/**
+	 * Returns the number of location references
+	 *
+	 * @return the number of location references
+	 */
+	public long getReferenceCount() {
+		return firsts[firsts.length - 1];
+	}
+
+	/**
+	 * Returns the number of blocks
+	 *
+	 * @return the number of blocks
+	 */
+	public int getBlockCount() {
+		return offsets.length;
+	}
+
+	/**
+	 * Returns the block holding the given location reference
+	 *
+	 * @param reference
+	 *            the number of the location reference
+	 * @return the block
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such location reference
+	 */
+	public int getBlock(final long reference) {
+		if (reference < 0 || reference >= getReferenceCount()) {
+			throw new IndexOutOfBoundsException(String.valueOf(reference));
+		}
+		int block = Arrays.binarySearch(firsts, reference);
+		if (block < 0) {
+			return -block - 2;
+		}
+		// skip empty blocks starting at the same reference
+		while (firsts[block + 1] == reference) {
+			block++;
+		}
+		return block;
+	}
+
+	/**
+	 * Returns the given location reference. Its whole block is decompressed,
+	 * unless it is the block of the location reference returned before.
+	 *
+	 * @param reference
+	 *            the number of the location reference
+	 * @return the location reference in its physical data format
+	 * @throws IOException
+	 *             if the block can't be read or is malformed
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such location reference
+	 */
+	public byte[] get(final long reference) throws IOException {
+		int block = getBlock(reference);
+		DecompressedBlock last = this.last;
+		if (last == null || last.block != block) {
+			last = new DecompressedBlock(block, getReferences(block));
+			this.last = last;
+		}
+		// the kept arrays must not be changed by the caller
+		return last.references.get((int) (reference - firsts[block])).clone();
+	}
+
+	/**
+	 * Returns the location references of the given block
+	 *
+	 * @param block
+	 *            the block
+	 * @return the location references in their physical data format
+	 * @throws IOException
+	 *             if the block can't be read or is malformed
+	 */
+	public List<byte[]> getReferences(final int block) throws IOException {
+		ByteBuffer compressed = read(channel, offsets[block],
+				compressedLengths[block]);
+		byte[] raw = new byte[lengths[block]];
+		Inflater inflater = new Inflater(true);
+		try {
+			// raw deflate streams don't ask for their dictionary
+			if (dictionary.length > 0) {
+				inflater.setDictionary(dictionary);
+			}
+			inflater.setInput(compressed.array(), 0, compressedLengths[block]);
+			int length = 0;
+			while (length < raw.length) {
+				int inflated = inflater.inflate(raw, length, raw.length
+						- length);
+				if (inflated == 0) {
+					throw new DataFormatException();
+				}
+				length += inflated;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(Messages.getString(
+					"ReferenceArchive.Exception.MALFORMED_BLOCK", block)); //$NON-NLS-1$
+		} finally {
+			inflater.end();
+		}
+
+		int count = (int) (firsts[block + 1] - firsts[block]);
+		List<byte[]> references = new ArrayList<byte[]>(count);
+		int position = 0;
+		for (int i = 0; i < count; i++) {
+			int length = 0;
+			int shift = 0;
+			byte b;
+			do {
+				if (position == raw.length || shift > 28) {
+					throw new IOException(Messages.getString(
+							"ReferenceArchive.Exception.MALFORMED_BLOCK", block)); //$NON-NLS-1$
+				}
+				b = raw[position++];
+				length |= (b & 0x7f) << shift;
+				shift += 7;
+			} while (b < 0);
+			if (length < 0 || length > raw.length - position) {
+				throw new IOException(Messages.getString(
+						"ReferenceArchive.Exception.MALFORMED_BLOCK", block)); //$NON-NLS-1$
+			}
+			references.add(Arrays.copyOfRange(raw, position, position + length));
+			position += length;
+		}
+		return references;
+	}
+
+	/**
+	 * Returns the location references of the given range of blocks, which are
+	 * read and decompressed in parallel by the given executor
+	 *
+	 * @param from
+	 *            the first block
+	 * @param to
+	 *            the block after the last one
+	 * @param executor
+	 *            the executor
+	 * @return the location references in their physical data format, in the
+	 *         order they were written
+	 * @throws IOException
+	 *             if a block can't be read or is malformed
+	 * @throws InterruptedException
+	 *             if the calling thread was interrupted while waiting for the
+	 *             executor
+	 */
+	public List<byte[]> getReferences(final int from, final int to,
+			final ExecutorService executor) throws IOException,
+			InterruptedException {
+		if (from < 0 || to > offsets.length || from > to) {
+			throw new IndexOutOfBoundsException(
+					"The blocks must lie within the archive."); //$NON-NLS-1$
+		}
+		List<Future<List<byte[]>>> futures = new ArrayList<Future<List<byte[]>>>(
+				to - from);
+		for (int block = from; block < to; block++) {
+			final int current = block;
+			futures.add(executor.submit(new Callable<List<byte[]>>() {
+				@Override
+				public List<byte[]> call() throws IOException {
+					return getReferences(current);
+				}
+			}));
+		}
+
+		List<byte[]> references = new ArrayList<byte[]>(
+				(int) (firsts[to] - firsts[from]));
+		try {
+			for (Future<List<byte[]>> future : futures) {
+				references.addAll(future.get());
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			for (Future<List<byte[]>> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return references;
+	}
+
+	/**
+	 * Closes the channel of the archive
+	 *
+	 * @throws IOException
+	 *             if the channel can't be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Reads the given range of the given channel by absolute position, which
+	 * leaves the position of the channel untouched and may happen
+	 * concurrently
+	 *
+	 * @param channel
+	 *            the channel
+	 * @param position
+	 *            the position of the first byte
+	 * @param length
+	 *            the number of bytes
+	 * @return a heap buffer holding the bytes, positioned at the first one
+	 * @throws IOException
+	 *             if the channel can't be read or ends before the range
+	 */
+	static ByteBuffer read(final FileChannel channel, final long position,
+			final int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException(Messages
+						.getString("ReferenceArchive.Exception.UNEXPECTED_END")); //$NON-NLS-1$
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * The location references of a decompressed block
+	 */
+	private static class DecompressedBlock {
+
+		/** Holds the block */
+		private final int block;
+
+		/** Holds the location references of the block */
+		private final List<byte[]> references;
+
+		/**
+		 * Constructs a new decompressed block
+		 *
+		 * @param block
+		 *            the block
+		 * @param references
+		 *            the location references of the block
+		 */
+		private DecompressedBlock(final int block, final List<byte[]> references) {
+			this.block = block;
+			this.references = references;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT;
+import static org.hhu.c2c.openlr.io.PhysicalDataFormat.NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+import org.hhu.c2c.openlr.l10n.Messages;
+
+/**
+ * A <b>reference batch</b> gives random access to the blocks of a batch of
+ * location references as described by {@link BatchFormat}. Only the index is
+ * read up front; a block is decompressed when it is asked for, back into the
+ * physical data format of its location references.
+ *
+ * A reference batch is immutable and may be shared between threads.
+ *
+ * @see BatchReader
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ReferenceBatch {
+
+	/**
+	 * The number of bytes preceding the remaining bytes of a reference
+	 */
+	private static final int PREFIX_SIZE = 1 + NUMBER_OF_BYTES_FOR_ABSOLUTE_COORDINATE;
+
+	/**
+	 * Holds the batch, starting at position <code>0</code>
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Holds the number of location references
+	 */
+	private final int referenceCount;
+
+	/**
+	 * Holds the offset of each block followed by the offset of the index
+	 */
+	private final int[] offsets;
+
+	/**
+	 * Holds the number of location references of each block
+	 */
+	private final int[] counts;
+
+	/**
+	 * Holds the bounding box of the first coordinates of each block
+	 */
+	private final BoundingBox[] boundingBoxes;
+
+	/**
+	 * Constructs a new {@link ReferenceBatch}
+	 *
+	 * @param buffer
+	 *            the batch, starting at position <code>0</code>
+	 * @param referenceCount
+	 *            the number of location references
+	 * @param offsets
+	 *            the offset of each block followed by the offset of the index
+	 * @param counts
+	 *            the number of location references of each block
+	 * @param boundingBoxes
+	 *            the bounding box of the first coordinates of each block
+	 */
+	protected ReferenceBatch(final ByteBuffer buffer, final int referenceCount,
+			final int[] offsets, final int[] counts,
+			final BoundingBox[] boundingBoxes) {
+		this.buffer = buffer;
+		this.referenceCount = referenceCount;
+		this.offsets = offsets;
+		this.counts = counts;
+		this.boundingBoxes = boundingBoxes;
+	}
+
+	/**
+	 * Returns the number of location references
+	 *
+	 * @return the number of location references
+	 */
+	public int getReferenceCount() {
+		return referenceCount;
+	}
+
+	/**
+	 * Returns the number of blocks
+	 *
+	 * @return the number of blocks
+	 */
+	public int getBlockCount() {
+		return counts.length;
+	}
+
+	/**
+	 * Returns the number of location references of the given block
+	 *
+	 * @param block
+	 *            the block
+	 * @return the number of location references
+	 */
+	public int getReferenceCount(final int block) {
+		return counts[block];
+	}
+
+	/**
+	 * Returns the bounding box of the first coordinates of the location
+	 * references of the given block
+	 *
+	 * @param block
+	 *            the block
+	 * @return the bounding box, or <code>null</code> if the block is empty
+	 */
+	public BoundingBox getBoundingBox(final int block) {
+		return boundingBoxes[block];
+	}
+
+	/**
+	 * Returns the blocks holding the location references whose first
+	 * coordinate might lie within the given bounding box
+	 *
+	 * @param boundingBox
+	 *            the bounding box
+	 * @return the blocks in ascending order
+	 */
+	public List<Integer> getBlocks(final BoundingBox boundingBox) {
+		List<Integer> blocks = new ArrayList<Integer>();
+		for (int block = 0; block < boundingBoxes.length; block++) {
+			if (boundingBoxes[block] != null
+					&& boundingBoxes[block].intersects(boundingBox)) {
+				blocks.add(block);
+			}
+		}
+		return blocks;
+	}
+
+	/**
+	 * Returns the location references of the given block in their physical
+	 * data format
+	 *
+	 * @param block
+	 *            the block
+	 * @return the location references in the order they were written
+	 * @throws IOException
+	 *             if the block is malformed
+	 */
+	public List<byte[]> getReferences(final int block) throws IOException {
+		List<byte[]> references = new ArrayList<byte[]>(counts[block]);
+		ByteBuffer in = buffer.duplicate();
+		in.limit(offsets[block + 1]);
+		in.position(offsets[block]);
+		try {
+			int longitude = 0;
+			int latitude = 0;
+			for (int i = 0; i < counts[block]; i++) {
+				byte header = in.get();
+				longitude += unZigZag(readVarint(in));
+				latitude += unZigZag(readVarint(in));
+				int length = readVarint(in);
+				if (length < 0 || length > in.remaining()) {
+					// also catches corrupted lengths before allocating
+					throw new BufferUnderflowException();
+				}
+
+				byte[] reference = new byte[PREFIX_SIZE + length];
+				reference[0] = header;
+				putAngularMeasurement(reference, 1, longitude);
+				putAngularMeasurement(reference,
+						1 + NUMBER_OF_BYTES_FOR_ABSOLUTE_ANGULAR_MEASUREMENT,
+						latitude);
+				in.get(reference, PREFIX_SIZE, length);
+				references.add(reference);
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException(Messages.getString(
+					"ReferenceBatch.Exception.MALFORMED_BLOCK", block)); //$NON-NLS-1$
+		}
+		return references;
+	}
+
+	/**
+	 * Returns all location references in their physical data format
+	 *
+	 * @return the location references, block by block
+	 * @throws IOException
+	 *             if a block is malformed
+	 */
+	public List<byte[]> getReferences() throws IOException {
+		List<byte[]> references = new ArrayList<byte[]>(referenceCount);
+		for (int block = 0; block < counts.length; block++) {
+			references.addAll(getReferences(block));
+		}
+		return references;
+	}
+
+	/**
+	 * Puts the three byte value of a longitude or latitude into a reference
+	 *
+	 * @param reference
+	 *            the reference
+	 * @param position
+	 *            the position of the first byte
+	 * @param value
+	 *            the three byte value
+	 */
+	private static void putAngularMeasurement(final byte[] reference,
+			final int position, final int value) {
+		reference[position] = (byte) (value >> 16);
+		reference[position + 1] = (byte) (value >> 8);
+		reference[position + 2] = (byte) value;
+	}
+
+	/**
+	 * Reads an unsigned integer written using seven bits per byte
+	 *
+	 * @param in
+	 *            the buffer
+	 * @return the unsigned integer
+	 * @throws BufferUnderflowException
+	 *             if the buffer ends within the integer
+	 */
+	private static int readVarint(final ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7f) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	/**
+	 * Restores a signed integer mapped onto an unsigned one by the
+	 * {@link BatchWriter}
+	 *
+	 * @param value
+	 *            the zig-zag encoded integer
+	 * @return the signed integer
+	 */
+	private static int unZigZag(final int value) {
+		return value >>> 1 ^ -(value & 1);
+	}
+}
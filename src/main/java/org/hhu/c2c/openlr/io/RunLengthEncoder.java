@@ -0,0 +1,194 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.ColumnFormat.GROUP_SIZE;
+import static org.hhu.c2c.openlr.io.ColumnFormat.MAXIMUM_GROUPS_PER_RUN;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encodes the symbols of a column into runs as described by
+ * {@link ColumnFormat}. Symbols are buffered in groups of eight: a group
+ * starting a repetition of at least eight equal symbols becomes a run of a
+ * single symbol which lasts until the symbol changes, all other groups are
+ * bit-packed and collected into bit-packed runs.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+class RunLengthEncoder {
+
+	/**
+	 * Holds the output stream
+	 */
+	private final OutputStream out;
+
+	/**
+	 * Holds the number of bits of a symbol
+	 */
+	private final int bitWidth;
+
+	/**
+	 * Holds the symbols of the current group
+	 */
+	private final int[] group;
+
+	/**
+	 * Holds the bit-packed groups of the current bit-packed run
+	 */
+	private final ByteArrayOutputStream packed;
+
+	/**
+	 * Holds the number of symbols of the current group
+	 */
+	private int groupLength;
+
+	/**
+	 * Holds the number of groups of the current bit-packed run
+	 */
+	private int groupCount;
+
+	/**
+	 * Holds the last symbol
+	 */
+	private int previous;
+
+	/**
+	 * Holds the number of repetitions of the last symbol since the start of
+	 * the current group, or the length of the current run of a single symbol
+	 */
+	private int repeatCount;
+
+	/**
+	 * Holds <code>true</code> while a run of a single symbol is written
+	 */
+	private boolean repeating;
+
+	/**
+	 * Constructs a new {@link RunLengthEncoder}
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param bitWidth
+	 *            the number of bits of a symbol, at most eight
+	 */
+	RunLengthEncoder(final OutputStream out, final int bitWidth) {
+		this.out = out;
+		this.bitWidth = bitWidth;
+		this.group = new int[GROUP_SIZE];
+		this.packed = new ByteArrayOutputStream();
+		this.previous = -1;
+	}
+
+	/**
+	 * Encodes the given symbol
+	 *
+	 * @param symbol
+	 *            the symbol, using at most the number of bits of a symbol
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	void write(final int symbol) throws IOException {
+		if (repeating) {
+			// the length has to fit into the run header
+			if (symbol == previous && repeatCount < Integer.MAX_VALUE >>> 1) {
+				repeatCount++;
+				return;
+			}
+			writeRepeatedRun();
+		}
+		if (symbol == previous) {
+			repeatCount++;
+		} else {
+			repeatCount = 1;
+			previous = symbol;
+		}
+		group[groupLength++] = symbol;
+		if (groupLength == GROUP_SIZE) {
+			if (repeatCount == GROUP_SIZE) {
+				// the group becomes the start of a run of a single symbol
+				writePackedRun();
+				groupLength = 0;
+				repeating = true;
+			} else {
+				packGroup();
+			}
+		}
+	}
+
+	/**
+	 * Writes all buffered symbols, padding the last group with zeros
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	void finish() throws IOException {
+		if (repeating) {
+			writeRepeatedRun();
+		} else if (groupLength > 0) {
+			while (groupLength < GROUP_SIZE) {
+				group[groupLength++] = 0;
+			}
+			packGroup();
+		}
+		writePackedRun();
+		out.flush();
+	}
+
+	/**
+	 * Adds the current group to the current bit-packed run, writing the run
+	 * if it is full
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void packGroup() throws IOException {
+		long bits = 0;
+		for (int i = 0; i < GROUP_SIZE; i++) {
+			bits |= (long) group[i] << i * bitWidth;
+		}
+		for (int i = 0; i < bitWidth; i++) {
+			packed.write((int) (bits >>> 8 * i));
+		}
+		groupLength = 0;
+		repeatCount = 0;
+		if (++groupCount == MAXIMUM_GROUPS_PER_RUN) {
+			writePackedRun();
+		}
+	}
+
+	/**
+	 * Writes the current bit-packed run, if there is one
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writePackedRun() throws IOException {
+		if (groupCount == 0) {
+			return;
+		}
+		out.write(groupCount << 1 | 1);
+		packed.writeTo(out);
+		packed.reset();
+		groupCount = 0;
+	}
+
+	/**
+	 * Writes the current run of a single symbol
+	 *
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	private void writeRepeatedRun() throws IOException {
+		int header = repeatCount << 1;
+		while ((header & ~0x7f) != 0) {
+			out.write(header & 0x7f | 0x80);
+			header >>>= 7;
+		}
+		out.write(header);
+		out.write(previous);
+		repeatCount = 0;
+		repeating = false;
+	}
+}
@@ -0,0 +1,154 @@
+package org.hhu.c2c.openlr.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffers the text of the streaming text writers. Text is appended to a
+ * reusable {@link StringBuilder}, which is drained into the writer once it
+ * holds a few kilobytes, so writing any number of location references takes
+ * constant memory and no intermediate strings.
+ *
+ * Decimals are formatted by hand, as the formatting of the Java library
+ * creates intermediate strings and may switch to the scientific notation.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+class TextBuffer {
+
+	/**
+	 * The number of characters from which on the buffer is drained
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The powers of ten up to the maximum number of decimals
+	 */
+	private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L,
+			10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+
+	/**
+	 * Appends the given value in plain decimal notation, rounded to the given
+	 * number of decimals and without trailing zeros
+	 *
+	 * @param builder
+	 *            the string builder
+	 * @param value
+	 *            the value, which must be finite
+	 * @param decimals
+	 *            the number of decimals, at most nine
+	 */
+	static void appendDecimal(final StringBuilder builder, final double value,
+			final int decimals) {
+		long power = POWERS_OF_TEN[decimals];
+		long scaled = Math.round(Math.abs(value) * power);
+		if (value < 0 && scaled != 0) {
+			builder.append('-');
+		}
+		builder.append(scaled / power);
+		long fraction = scaled % power;
+		if (fraction == 0) {
+			return;
+		}
+		int digits = decimals;
+		while (fraction % 10 == 0) {
+			fraction /= 10;
+			digits--;
+		}
+		builder.append('.');
+		for (long limit = POWERS_OF_TEN[digits - 1]; fraction < limit; limit /= 10) {
+			builder.append('0');
+		}
+		builder.append(fraction);
+	}
+
+	/**
+	 * Holds the writer
+	 */
+	private final Writer out;
+
+	/**
+	 * Holds the buffered text
+	 */
+	private final StringBuilder builder;
+
+	/**
+	 * Holds the characters being written
+	 */
+	private char[] chars;
+
+	/**
+	 * Constructs a new {@link TextBuffer}
+	 *
+	 * @param out
+	 *            the writer
+	 */
+	TextBuffer(final Writer out) {
+		this.out = out;
+		this.builder = new StringBuilder(2 * BUFFER_SIZE);
+		this.chars = new char[2 * BUFFER_SIZE];
+	}
+
+	/**
+	 * Returns the string builder to append text to
+	 *
+	 * @return the string builder
+	 */
+	StringBuilder getBuilder() {
+		return builder;
+	}
+
+	/**
+	 * Writes the buffered text if the buffer is full
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	void drainIfFull() throws IOException {
+		if (builder.length() >= BUFFER_SIZE) {
+			drain();
+		}
+	}
+
+	/**
+	 * Writes the buffered text
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	void drain() throws IOException {
+		int length = builder.length();
+		if (length > chars.length) {
+			chars = new char[length];
+		}
+		builder.getChars(0, length, chars, 0);
+		out.write(chars, 0, length);
+		builder.setLength(0);
+	}
+
+	/**
+	 * Writes the buffered text and flushes the writer
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	void flush() throws IOException {
+		drain();
+		out.flush();
+	}
+
+	/**
+	 * Writes the buffered text and closes the writer
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	void close() throws IOException {
+		try {
+			drain();
+		} finally {
+			out.close();
+		}
+	}
+}
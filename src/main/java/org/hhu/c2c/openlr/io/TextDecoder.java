@@ -0,0 +1,310 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.TextFormat.FIELD_SEPARATOR;
+import static org.hhu.c2c.openlr.io.TextFormat.POINT_SEPARATOR;
+import static org.hhu.c2c.openlr.io.TextFormat.VALUE_SEPARATOR;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferenceBuilder;
+import org.hhu.c2c.openlr.core.LocationReferencePointBuilder;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link TextDecoder} reads line location references back from the
+ * one-line text format described by {@link TextFormat}. The text is parsed
+ * in place without splitting it into strings.
+ *
+ * Most coordinates and bearings have few enough digits to be computed exactly
+ * from their decimal digits. Only if that is not possible, or if the float
+ * would be too close to the middle of two floats, the text is handed to
+ * {@link Float#parseFloat(String)}. Either way, a float written by the
+ * {@link TextEncoder} reads back unchanged.
+ *
+ * A text decoder is not thread-safe, as it reuses its builders.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class TextDecoder {
+
+	/**
+	 * The maximum number of digits of a float that are computed exactly, as
+	 * every integer with 15 digits is exactly representable as a double
+	 */
+	private static final int MAXIMUM_EXACT_DIGITS = 15;
+
+	/**
+	 * Holds the powers of ten which are exactly representable as a double
+	 */
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	/**
+	 * Holds the builder for the location reference
+	 */
+	private final LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+
+	/**
+	 * Holds the builder for the location reference points
+	 */
+	private final LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+
+	/**
+	 * Holds the text being decoded
+	 */
+	private CharSequence text;
+
+	/**
+	 * Holds the position of the next character to read
+	 */
+	private int position;
+
+	/**
+	 * Decodes the given line of text into a line location reference
+	 *
+	 * @param text
+	 *            the text, without a line separator
+	 * @return the line location reference
+	 * @throws LocationReferenceException
+	 *             if the text is malformed or doesn't describe a valid line
+	 *             location reference
+	 */
+	public LocationReference decode(final CharSequence text)
+			throws LocationReferenceException {
+		this.text = text;
+		this.position = 0;
+		try {
+			lrb.reset();
+			int version = readInt();
+			if (version < Byte.MIN_VALUE || version > Byte.MAX_VALUE) {
+				throw malformed();
+			}
+			lrb.setVersion((byte) version);
+			expect(FIELD_SEPARATOR);
+			lrb.setPositiveOffset(readInt());
+			expect(FIELD_SEPARATOR);
+			lrb.setNegativeOffset(readInt());
+			expect(FIELD_SEPARATOR);
+
+			while (true) {
+				float longitude = readFloat();
+				expect(VALUE_SEPARATOR);
+				float latitude = readFloat();
+				expect(VALUE_SEPARATOR);
+				FunctionalRoadClass frc = FunctionalRoadClass
+						.getFunctionalRoadClass(readSymbol());
+				expect(VALUE_SEPARATOR);
+				FormOfWay fow = FormOfWay.getFormOfWay(readSymbol());
+				expect(VALUE_SEPARATOR);
+				float bearing = readFloat();
+				if (position == text.length()) {
+					lrb.close(longitude, latitude, frc, fow, bearing);
+					break;
+				}
+				expect(VALUE_SEPARATOR);
+				lrpb.reset().setCoordinate(longitude, latitude).setFrc(frc)
+						.setFow(fow).setBearing(bearing);
+				lrpb.setLfrcnp(FunctionalRoadClass
+						.getFunctionalRoadClass(readSymbol()));
+				expect(VALUE_SEPARATOR);
+				lrpb.setDnp(readInt());
+				lrb.addLocationReferencePoint(lrpb.build());
+				expect(POINT_SEPARATOR);
+			}
+			return lrb.build();
+		} finally {
+			this.text = null;
+		}
+	}
+
+	/**
+	 * Reads the given separator
+	 *
+	 * @param separator
+	 *            the separator
+	 * @throws LocationReferenceException
+	 *             if the next character is not the separator
+	 */
+	private void expect(final char separator)
+			throws LocationReferenceException {
+		if (position == text.length() || text.charAt(position) != separator) {
+			throw malformed();
+		}
+		position++;
+	}
+
+	/**
+	 * Reads a symbol, which is a single digit from <code>0</code> to
+	 * <code>7</code>
+	 *
+	 * @return the symbol
+	 * @throws LocationReferenceException
+	 *             if the next character is not a symbol
+	 */
+	private byte readSymbol() throws LocationReferenceException {
+		if (position == text.length()) {
+			throw malformed();
+		}
+		char c = text.charAt(position);
+		if (c < '0' || c > '7') {
+			throw malformed();
+		}
+		position++;
+		return (byte) (c - '0');
+	}
+
+	/**
+	 * Reads a decimal integer with an optional minus sign
+	 *
+	 * @return the integer
+	 * @throws LocationReferenceException
+	 *             if there is no integer or it is out of range
+	 */
+	private int readInt() throws LocationReferenceException {
+		int start = position;
+		boolean negative = position < text.length()
+				&& text.charAt(position) == '-';
+		if (negative) {
+			position++;
+		}
+		long value = 0;
+		int digits = 0;
+		while (position < text.length()) {
+			char c = text.charAt(position);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			value = value * 10 + (c - '0');
+			if (value > (long) Integer.MAX_VALUE + 1) {
+				position = start;
+				throw malformed();
+			}
+			digits++;
+			position++;
+		}
+		if (digits == 0) {
+			throw malformed();
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			position = start;
+			throw malformed();
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads a float
+	 *
+	 * @return the float
+	 * @throws LocationReferenceException
+	 *             if there is no float
+	 */
+	private float readFloat() throws LocationReferenceException {
+		int start = position;
+		boolean negative = position < text.length()
+				&& text.charAt(position) == '-';
+		if (negative) {
+			position++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int decimals = 0;
+		boolean point = false;
+		while (position < text.length()) {
+			char c = text.charAt(position);
+			if (c >= '0' && c <= '9') {
+				if (digits < MAXIMUM_EXACT_DIGITS) {
+					mantissa = mantissa * 10 + (c - '0');
+				}
+				digits++;
+				if (point) {
+					decimals++;
+				}
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+			position++;
+		}
+		if (digits == 0 || digits > MAXIMUM_EXACT_DIGITS
+				|| !isEndOfValue(position)) {
+			return parseFloat(start);
+		}
+
+		// the quotient of two exact doubles is correctly rounded, so rounding
+		// it to a float is only wrong if it lies next to the middle of two
+		// floats
+		double d = mantissa / POWERS_OF_TEN[decimals];
+		float f = (float) d;
+		if (d != f) {
+			double middle = ((double) f + Math.nextAfter(f, d)) / 2;
+			if (Math.abs(d - middle) <= Math.ulp(d)) {
+				return parseFloat(start);
+			}
+		}
+		return negative ? -f : f;
+	}
+
+	/**
+	 * Reads the float starting at the given position using
+	 * {@link Float#parseFloat(String)}
+	 *
+	 * @param start
+	 *            the position of the float
+	 * @return the float
+	 * @throws LocationReferenceException
+	 *             if there is no float
+	 */
+	private float parseFloat(final int start)
+			throws LocationReferenceException {
+		position = start;
+		while (!isEndOfValue(position)) {
+			position++;
+		}
+		try {
+			return Float.parseFloat(text.subSequence(start, position)
+					.toString());
+		} catch (NumberFormatException e) {
+			position = start;
+			throw malformed();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the given position is the end of the text
+	 * or a separator
+	 *
+	 * @param index
+	 *            the position
+	 * @return <code>true</code> if a value ends at the given position
+	 */
+	private boolean isEndOfValue(final int index) {
+		if (index == text.length()) {
+			return true;
+		}
+		char c = text.charAt(index);
+		return c == VALUE_SEPARATOR || c == POINT_SEPARATOR
+				|| c == FIELD_SEPARATOR;
+	}
+
+	/**
+	 * Returns the exception for malformed text at the current position
+	 *
+	 * @return the exception
+	 */
+	private LocationReferenceException malformed() {
+		return new LocationReferenceException(Messages.getString(
+				"TextDecoder.Exception.MALFORMED", position)); //$NON-NLS-1$
+	}
+}
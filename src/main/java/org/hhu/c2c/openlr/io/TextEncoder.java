@@ -0,0 +1,103 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.TextFormat.FIELD_SEPARATOR;
+import static org.hhu.c2c.openlr.io.TextFormat.POINT_SEPARATOR;
+import static org.hhu.c2c.openlr.io.TextFormat.VALUE_SEPARATOR;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+
+/**
+ * The {@link TextEncoder} appends line location references in the one-line
+ * text format described by {@link TextFormat}. Each value is appended
+ * directly, so dumping location references into a reused
+ * {@link StringBuilder} creates no intermediate strings, unlike
+ * {@link LocationReference#toString()}.
+ *
+ * A text encoder is not thread-safe, as it reuses a buffer for appendables
+ * other than string builders.
+ *
+ * @see TextDecoder
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class TextEncoder {
+
+	/**
+	 * Holds the buffer for appendables other than string builders
+	 */
+	private final StringBuilder buffer = new StringBuilder();
+
+	/**
+	 * Appends the given line location reference to the given string builder,
+	 * without a line separator
+	 *
+	 * @param builder
+	 *            the string builder
+	 * @param reference
+	 *            the line location reference
+	 * @return the string builder
+	 */
+	public StringBuilder append(final StringBuilder builder,
+			final LocationReference reference) {
+		builder.append(reference.getVersion());
+		builder.append(FIELD_SEPARATOR);
+		builder.append(reference.getPositiveOffset().getDistance());
+		builder.append(FIELD_SEPARATOR);
+		builder.append(reference.getNegativeOffset().getDistance());
+		builder.append(FIELD_SEPARATOR);
+
+		List<LocationReferencePoint> points = reference
+				.getLocationReferencePoints();
+		int last = points.size() - 1;
+		for (int i = 0; i <= last; i++) {
+			LocationReferencePoint point = points.get(i);
+			if (i > 0) {
+				builder.append(POINT_SEPARATOR);
+			}
+			builder.append(point.getCoordinate().getLongitude());
+			builder.append(VALUE_SEPARATOR);
+			builder.append(point.getCoordinate().getLatitude());
+			builder.append(VALUE_SEPARATOR);
+			builder.append(point.getFunctionalRoadClass()
+					.getByteRepresentation());
+			builder.append(VALUE_SEPARATOR);
+			builder.append(point.getFormOfWay().getByteRepresentation());
+			builder.append(VALUE_SEPARATOR);
+			builder.append(point.getBearing().getBearing());
+			if (i < last) {
+				builder.append(VALUE_SEPARATOR);
+				builder.append(point.getLowestFRCToNextPoint()
+						.getByteRepresentation());
+				builder.append(VALUE_SEPARATOR);
+				builder.append(point.getDistanceToNextPoint().getDistance());
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * Appends the given line location reference to the given appendable,
+	 * without a line separator
+	 *
+	 * @param out
+	 *            the appendable
+	 * @param reference
+	 *            the line location reference
+	 * @throws IOException
+	 *             if there are problems with the appendable
+	 */
+	public void append(final Appendable out, final LocationReference reference)
+			throws IOException {
+		if (out instanceof StringBuilder) {
+			append((StringBuilder) out, reference);
+			return;
+		}
+		buffer.setLength(0);
+		out.append(append(buffer, reference));
+	}
+}
@@ -0,0 +1,52 @@
+package org.hhu.c2c.openlr.io;
+
+/**
+ * This class offers static definitions of the one-line text format shared
+ * between the {@link TextEncoder} and the {@link TextDecoder}. The format is
+ * meant for debugging dumps of line location references, which can be read
+ * back exactly.
+ *
+ * A line location reference is written as its version, its positive and its
+ * negative offset in meters, separated by colons, followed by a colon and its
+ * location reference points separated by semicolons. Each location reference
+ * point is written as its longitude, latitude, the byte representations of
+ * its functional road class and form of way and its bearing in degree,
+ * separated by commas. All but the last location reference point continue
+ * with the byte representation of their lowest functional road class to the
+ * next point and their distance to the next point in meters. The example of
+ * the white paper reads:
+ *
+ * <pre>
+ * 2:150:0:6.12683,49.60851,3,2,135.0,3,561;6.12838,49.60398,3,3,227.0,5,274;6.12817,49.60305,5,3,290.0
+ * </pre>
+ *
+ * Floats are written in their shortest form that still reads back to the
+ * same float. The area and the attribute flag are not written, as line
+ * locations always have the attribute flag set and the area flag cleared.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class TextFormat {
+
+	/**
+	 * Separates the fields of a location reference
+	 */
+	protected static final char FIELD_SEPARATOR = ':';
+
+	/**
+	 * Separates the location reference points
+	 */
+	protected static final char POINT_SEPARATOR = ';';
+
+	/**
+	 * Separates the values of a location reference point
+	 */
+	protected static final char VALUE_SEPARATOR = ',';
+
+	/**
+	 * This class should not be instantiated
+	 */
+	private TextFormat() {
+	}
+}
@@ -0,0 +1,48 @@
+package org.hhu.c2c.openlr.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.hhu.c2c.openlr.core.Location;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link LocationCodec} for version <code>2</code> of the physical data
+ * format, which only knows line locations. Byte arrays go straight to
+ * {@link Decoder#decode(byte[])} without looking at any flags.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class Version2Codec implements LocationCodec {
+
+	/**
+	 * Holds the decoder
+	 */
+	private final Decoder decoder = new Decoder();
+
+	/**
+	 * Holds the encoder
+	 */
+	private final Encoder encoder = new Encoder();
+
+	/**
+	 * Returns a line location
+	 */
+	@Override
+	public Location decode(final byte[] bytes)
+			throws LocationReferenceException {
+		return decoder.decode(bytes);
+	}
+
+	@Override
+	public void write(final OutputStream out, final Location location)
+			throws IOException {
+		if (!(location instanceof LocationReference)) {
+			throw new IllegalArgumentException(
+					"Version 2 only supports line locations."); //$NON-NLS-1$
+		}
+		encoder.write(out, (LocationReference) location);
+	}
+}
@@ -0,0 +1,63 @@
+package org.hhu.c2c.openlr.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.hhu.c2c.openlr.core.Area;
+import org.hhu.c2c.openlr.core.ClosedLineLocationReference;
+import org.hhu.c2c.openlr.core.Location;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.PointLocationReference;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link LocationCodec} for version <code>3</code> of the physical data
+ * format, which added point, area and closed line locations. The location type
+ * is told by the flags of the header byte. Line locations keep the layout of
+ * their location reference points, but their offsets are relative to the
+ * distances of the first and last pair of location reference points instead
+ * of the absolute 58.6 meter buckets of version <code>2</code>.
+ *
+ * @see Decoder#decodeLocation(byte[])
+ * @see Decoder#decodeRelativeOffsets(byte[])
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class Version3Codec implements LocationCodec {
+
+	/**
+	 * Holds the decoder
+	 */
+	private final Decoder decoder = new Decoder();
+
+	/**
+	 * Holds the encoder
+	 */
+	private final Encoder encoder = new Encoder();
+
+	@Override
+	public Location decode(final byte[] bytes)
+			throws LocationReferenceException {
+		return decoder.decodeLocation(bytes);
+	}
+
+	@Override
+	public void write(final OutputStream out, final Location location)
+			throws IOException {
+		switch (location.getLocationType()) {
+		case LINE:
+			encoder.writeRelativeOffsets(out, (LocationReference) location);
+			break;
+		case POINT_ALONG_LINE:
+		case POI_WITH_ACCESS_POINT:
+			encoder.write(out, (PointLocationReference) location);
+			break;
+		case CLOSED_LINE:
+			encoder.write(out, (ClosedLineLocationReference) location);
+			break;
+		default:
+			encoder.write(out, (Area) location);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package org.hhu.c2c.openlr.io;
+
+import static org.hhu.c2c.openlr.io.GeoJsonWriter.COORDINATE_DECIMALS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.hhu.c2c.openlr.core.ClosedLineLocationReference;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+
+/**
+ * Used for exporting location references as well-known text, one
+ * <code>LINESTRING</code> through the location reference points of a location
+ * reference per line.
+ *
+ * Like the {@link GeoJsonWriter}, the lines are streamed straight into the
+ * writer in constant memory. The writer has to be flushed or closed when all
+ * location references have been written. A WKT writer is not thread-safe.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class WktWriter implements Closeable {
+
+	/**
+	 * Holds the buffered text
+	 */
+	private final TextBuffer buffer;
+
+	/**
+	 * Constructs a new {@link WktWriter}
+	 *
+	 * @param out
+	 *            the writer
+	 */
+	public WktWriter(final Writer out) {
+		this.buffer = new TextBuffer(out);
+	}
+
+	/**
+	 * Constructs a new {@link WktWriter} writing UTF-8
+	 *
+	 * @param out
+	 *            the output stream
+	 */
+	public WktWriter(final OutputStream out) {
+		this(new OutputStreamWriter(out, Charset.forName("UTF-8"))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the given line location reference as a line string
+	 *
+	 * @param reference
+	 *            the line location reference
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	public void write(final LocationReference reference) throws IOException {
+		write(reference.getLocationReferencePoints());
+	}
+
+	/**
+	 * Writes the given closed line location reference as a line string
+	 *
+	 * @param reference
+	 *            the closed line location reference
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	public void write(final ClosedLineLocationReference reference)
+			throws IOException {
+		write(reference.getLocationReferencePoints());
+	}
+
+	/**
+	 * Writes the buffered lines and flushes the writer
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	public void flush() throws IOException {
+		buffer.flush();
+	}
+
+	/**
+	 * Writes the buffered lines and closes the writer
+	 *
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	@Override
+	public void close() throws IOException {
+		buffer.close();
+	}
+
+	/**
+	 * Writes the line string through the given location reference points
+	 *
+	 * @param points
+	 *            the location reference points
+	 * @throws IOException
+	 *             if there are problems with the writer
+	 */
+	private void write(final List<LocationReferencePoint> points)
+			throws IOException {
+		StringBuilder builder = buffer.getBuilder();
+		builder.append("LINESTRING ("); //$NON-NLS-1$
+		for (int i = 0; i < points.size(); i++) {
+			if (i > 0) {
+				builder.append(", "); //$NON-NLS-1$
+			}
+			TextBuffer.appendDecimal(builder, points.get(i).getCoordinate()
+					.getLongitude(), COORDINATE_DECIMALS);
+			builder.append(' ');
+			TextBuffer.appendDecimal(builder, points.get(i).getCoordinate()
+					.getLatitude(), COORDINATE_DECIMALS);
+		}
+		builder.append(")\n"); //$NON-NLS-1$
+		buffer.drainIfFull();
+	}
+}
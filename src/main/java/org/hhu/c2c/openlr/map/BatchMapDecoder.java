@@ -0,0 +1,355 @@
+package org.hhu.c2c.openlr.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>batch map decoder</b> decodes batches of location references in
+ * parallel, e.g. a burst of traffic messages. The batch is split into shards
+ * of consecutive location references which are decoded by a fixed pool of
+ * worker threads.
+ *
+ * The road graph, its spatial index, the matching parameters and the optional
+ * {@link ContractionHierarchy} and {@link RouteCache} are shared between all
+ * workers. Everything that is written while decoding belongs to the worker
+ * thread: the {@link RoutingScratch} sized to the road graph is allocated once
+ * per thread and used by its router, and the candidate lists belong to a
+ * {@link MapDecoder} of which each worker creates its own on its first shard
+ * and reuses it for all following ones. So no scratch memory is allocated per
+ * location reference and no worker ever waits for another one.
+ *
+ * The results are returned in the order of the batch, one
+ * {@link BatchResult} per location reference, so a location reference that
+ * can't be decoded doesn't affect the others. The batch map decoder must be
+ * shut down when it is no longer needed; decoding a batch afterwards throws an
+ * {@link IllegalStateException}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BatchMapDecoder {
+
+	/**
+	 * The number of shards per worker, so that workers finishing early can
+	 * take over the remaining work
+	 */
+	private static final int SHARDS_PER_THREAD = 4;
+
+	/** Holds the spatial index */
+	private final SpatialIndex index;
+
+	/** Holds the matching parameters */
+	private final MatchingParameters parameters;
+
+	/** Holds the contraction hierarchy, or <code>null</code> */
+	private final ContractionHierarchy hierarchy;
+
+	/** Holds the route cache, or <code>null</code> */
+	private final RouteCache cache;
+
+	/** Holds the number of worker threads */
+	private final int threads;
+
+	/** Holds the worker threads */
+	private final ExecutorService executor;
+
+	/** Holds the decoder of each worker thread */
+	private final ThreadLocal<MapDecoder> decoder;
+
+	/** Holds the decoders of all worker threads, for the statistics */
+	private final List<MapDecoder> decoders;
+
+	/**
+	 * Constructs a new batch map decoder routing by Dijkstra's algorithm
+	 *
+	 * @param index
+	 *            the spatial index of the road graph
+	 * @param parameters
+	 *            the matching parameters
+	 * @param threads
+	 *            the number of worker threads
+	 */
+	public BatchMapDecoder(final SpatialIndex index,
+			final MatchingParameters parameters, final int threads) {
+		this(index, parameters, null, null, threads);
+	}
+
+	/**
+	 * Constructs a new batch map decoder
+	 *
+	 * @param index
+	 *            the spatial index of the road graph
+	 * @param parameters
+	 *            the matching parameters
+	 * @param hierarchy
+	 *            the contraction hierarchy of the road graph to route on, or
+	 *            <code>null</code> to route by Dijkstra's algorithm
+	 * @param cache
+	 *            the route cache shared by all workers, or <code>null</code>
+	 * @param threads
+	 *            the number of worker threads
+	 */
+	public BatchMapDecoder(final SpatialIndex index,
+			final MatchingParameters parameters,
+			final ContractionHierarchy hierarchy, final RouteCache cache,
+			final int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException(
+					"The number of threads must be positive."); //$NON-NLS-1$
+		}
+		if (hierarchy != null && hierarchy.getGraph() != index.getGraph()) {
+			throw new IllegalArgumentException(
+					"The contraction hierarchy doesn't belong to the road graph."); //$NON-NLS-1$
+		}
+		this.index = index;
+		this.parameters = parameters;
+		this.hierarchy = hierarchy;
+		this.cache = cache;
+		this.threads = threads;
+		this.decoders = new ArrayList<MapDecoder>(threads);
+		this.decoder = new ThreadLocal<MapDecoder>() {
+			@Override
+			protected MapDecoder initialValue() {
+				return createDecoder();
+			}
+		};
+		this.executor = Executors.newFixedThreadPool(threads,
+				new WorkerFactory());
+	}
+
+	/**
+	 * Returns the number of worker threads
+	 *
+	 * @return the number of threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Decodes the given location references
+	 *
+	 * @param references
+	 *            the location references
+	 * @return the results in the order of the location references
+	 * @throws InterruptedException
+	 *             if the calling thread was interrupted while waiting for the
+	 *             workers
+	 * @throws IllegalStateException
+	 *             if the batch map decoder has been shut down
+	 */
+	public List<BatchResult> decode(final List<LocationReference> references)
+			throws InterruptedException {
+		if (executor.isShutdown()) {
+			throw new IllegalStateException(
+					"The batch map decoder has been shut down."); //$NON-NLS-1$
+		}
+		final LocationReference[] batch = references
+				.toArray(new LocationReference[references.size()]);
+		final BatchResult[] results = new BatchResult[batch.length];
+		if (batch.length == 0) {
+			return new ArrayList<BatchResult>(0);
+		}
+
+		int shards = Math.min(batch.length, threads * SHARDS_PER_THREAD);
+		int size = (batch.length + shards - 1) / shards;
+		List<Future<Void>> futures = new ArrayList<Future<Void>>(shards);
+		try {
+			for (int start = 0; start < batch.length; start += size) {
+				final int from = start;
+				final int to = Math.min(batch.length, start + size);
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						decode(batch, from, to, results);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (RejectedExecutionException e) {
+			// shut down by another thread while submitting
+			throw new IllegalStateException(
+					"The batch map decoder has been shut down.", e); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			// exceptions are caught per location reference, so only errors
+			// can get here
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			for (Future<Void> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Returns the sum of the statistics of all workers. It should be called
+	 * between two batches, as the statistics are not updated atomically.
+	 *
+	 * @return the statistics
+	 */
+	public MapDecoderStatistics getStatistics() {
+		MapDecoderStatistics statistics = new MapDecoderStatistics();
+		synchronized (decoders) {
+			for (MapDecoder decoder : decoders) {
+				statistics.add(decoder.getStatistics());
+			}
+		}
+		return statistics;
+	}
+
+	/**
+	 * Stops the worker threads. Batches being decoded are finished, but no
+	 * further batches can be decoded: {@link #decode(List)} throws an
+	 * {@link IllegalStateException} afterwards.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Decodes a shard of a batch with the decoder of the current worker
+	 *
+	 * @param batch
+	 *            the location references
+	 * @param from
+	 *            the index of the first location reference of the shard
+	 * @param to
+	 *            the index after the last location reference of the shard
+	 * @param results
+	 *            receives the results
+	 */
+	private void decode(final LocationReference[] batch, final int from,
+			final int to, final BatchResult[] results) {
+		MapDecoder decoder = this.decoder.get();
+		for (int i = from; i < to && !Thread.currentThread().isInterrupted(); i++) {
+			try {
+				results[i] = new BatchResult(i, BatchResult.Status.DECODED,
+						decoder.decode(batch[i]), null);
+			} catch (LocationReferenceException e) {
+				results[i] = new BatchResult(i, BatchResult.Status.FAILED,
+						null, e);
+			} catch (RuntimeException e) {
+				results[i] = new BatchResult(i, BatchResult.Status.ERROR, null,
+						e);
+			}
+		}
+	}
+
+	/**
+	 * Creates the decoder of a new worker, routing on the scratch memory of
+	 * the worker thread
+	 *
+	 * @return the decoder
+	 */
+	private MapDecoder createDecoder() {
+		Worker worker = (Worker) Thread.currentThread();
+		int nodeCount = index.getGraph().getNodeCount();
+		Router router = hierarchy != null ? new HierarchyRouter(hierarchy,
+				worker.getScratch(nodeCount), worker.getBackward(nodeCount))
+				: new DijkstraRouter(index.getGraph(), worker
+						.getScratch(nodeCount));
+		MapDecoder decoder = new MapDecoder(index, parameters, router, cache);
+		synchronized (decoders) {
+			decoders.add(decoder);
+		}
+		return decoder;
+	}
+
+	/**
+	 * Creates the worker threads as daemon threads, so that a batch map
+	 * decoder which hasn't been shut down doesn't keep the virtual machine
+	 * alive
+	 */
+	private static class WorkerFactory implements ThreadFactory {
+
+		/** Numbers the worker threads of all batch map decoders */
+		private static final AtomicInteger NUMBER = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			Thread thread = new Worker(runnable, "BatchMapDecoder-" //$NON-NLS-1$
+					+ NUMBER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * The <b>worker</b> is a worker thread holding its routing scratch memory
+	 */
+	private static class Worker extends Thread {
+
+		/**
+		 * Holds the routing scratch memory, for the Dijkstra router or the
+		 * forward search of the hierarchy router
+		 */
+		private RoutingScratch scratch;
+
+		/**
+		 * Holds the routing scratch memory for the backward search of the
+		 * hierarchy router, or <code>null</code>
+		 */
+		private RoutingScratch backward;
+
+		/**
+		 * Constructs a new worker
+		 *
+		 * @param runnable
+		 *            the task of the thread
+		 * @param name
+		 *            the name of the thread
+		 */
+		private Worker(final Runnable runnable, final String name) {
+			super(runnable, name);
+		}
+
+		/**
+		 * Returns the routing scratch memory, which holds at least the given
+		 * number of nodes
+		 *
+		 * @param nodeCount
+		 *            the number of nodes of the road graph
+		 * @return the routing scratch memory
+		 */
+		private RoutingScratch getScratch(final int nodeCount) {
+			if (scratch == null || scratch.getCapacity() < nodeCount) {
+				scratch = new RoutingScratch(nodeCount);
+			}
+			return scratch;
+		}
+
+		/**
+		 * Returns the routing scratch memory for the backward search, which
+		 * holds at least the given number of nodes
+		 *
+		 * @param nodeCount
+		 *            the number of nodes of the road graph
+		 * @return the routing scratch memory
+		 */
+		private RoutingScratch getBackward(final int nodeCount) {
+			if (backward == null || backward.getCapacity() < nodeCount) {
+				backward = new RoutingScratch(nodeCount);
+			}
+			return backward;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * The <b>batch result</b> holds the outcome of decoding one location reference
+ * of a batch (see {@link BatchMapDecoder}): either the matched path or the
+ * reason why the location reference couldn't be decoded.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BatchResult {
+
+	/**
+	 * The status of a decoded location reference
+	 */
+	public enum Status {
+
+		/** The location reference was decoded */
+		DECODED,
+
+		/**
+		 * The location reference couldn't be matched onto the road graph, see
+		 * {@link MapDecoder#decode(org.hhu.c2c.openlr.core.LocationReference)}
+		 */
+		FAILED,
+
+		/** Decoding the location reference threw an unexpected exception */
+		ERROR
+	}
+
+	/** Holds the position of the location reference in the batch */
+	private final int index;
+
+	/** Holds the status */
+	private final Status status;
+
+	/** Holds the matched path, or <code>null</code> */
+	private final MatchedPath path;
+
+	/** Holds the exception, or <code>null</code> */
+	private final Exception exception;
+
+	/**
+	 * Constructs a new batch result
+	 *
+	 * @param index
+	 *            the position of the location reference in the batch
+	 * @param status
+	 *            the status
+	 * @param path
+	 *            the matched path, or <code>null</code>
+	 * @param exception
+	 *            the exception, or <code>null</code>
+	 */
+	protected BatchResult(final int index, final Status status,
+			final MatchedPath path, final Exception exception) {
+		this.index = index;
+		this.status = status;
+		this.path = path;
+		this.exception = exception;
+	}
+
+	/**
+	 * Returns the position of the location reference in the batch
+	 *
+	 * @return the index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the status
+	 *
+	 * @return the status
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns <code>true</code> if the location reference was decoded
+	 *
+	 * @return <code>true</code> if there is a matched path
+	 */
+	public boolean isDecoded() {
+		return status == Status.DECODED;
+	}
+
+	/**
+	 * Returns the matched path
+	 *
+	 * @return the matched path, or <code>null</code> if the location reference
+	 *         wasn't decoded
+	 */
+	public MatchedPath getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns the exception thrown while decoding
+	 *
+	 * @return the exception, or <code>null</code> if the location reference
+	 *         was decoded
+	 */
+	public Exception getException() {
+		return exception;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchResult: \n" + "\tIndex: " + index + "\n" + "\tStatus: "
+				+ status + "\n"
+				+ (path != null ? "\tPath: " + path + "\n" : "")
+				+ (exception != null ? "\tException: "
+						+ exception.getMessage() + "\n" : "");
+	}
+}
@@ -0,0 +1,276 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+import org.hhu.c2c.openlr.geo.GeoHelper;
+
+/**
+ * The <b>candidate finder</b> searches the candidate lines of a location
+ * reference point. These are the edges of the {@link RoadGraph} passing within
+ * the candidate radius of the coordinate of the location reference point and
+ * whose bearing does not differ too much from the bearing of the location
+ * reference point.
+ *
+ * Each candidate is rated by a score between <code>0</code> and <code>1</code>
+ * combining
+ * <ul>
+ * <li>the distance between the location reference point and the edge,</li>
+ * <li>the difference between the bearings,</li>
+ * <li>the difference between the functional road classes and</li>
+ * <li>whether the forms of way are equal.</li>
+ * </ul>
+ *
+ * The best candidates are written into a {@link CandidateList}. No objects are
+ * created while searching, so that a single list can be reused for all
+ * location reference points. A candidate finder has no state besides the index
+ * and the parameters and can safely be shared between threads.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class CandidateFinder {
+
+	/** The weight of the distance in the score */
+	private static final float DISTANCE_WEIGHT = 3;
+
+	/** The weight of the bearing difference in the score */
+	private static final float BEARING_WEIGHT = 3;
+
+	/** The weight of the functional road class difference in the score */
+	private static final float FRC_WEIGHT = 1;
+
+	/** The weight of the form of way in the score */
+	private static final float FOW_WEIGHT = 1;
+
+	/** The sum of all weights */
+	private static final float TOTAL_WEIGHT = DISTANCE_WEIGHT + BEARING_WEIGHT
+			+ FRC_WEIGHT + FOW_WEIGHT;
+
+	/** The largest possible difference between two functional road classes */
+	private static final float MAXIMUM_FRC_DIFFERENCE = 7;
+
+	/**
+	 * The minimum length in meters an edge must extend beyond the projected
+	 * position, so that a bearing can be measured
+	 */
+	private static final double MINIMUM_BEARING_LENGTH = 1;
+
+	/** The length of one degree of latitude in meters */
+	private static final double METERS_PER_DEGREE = GeoHelper.EARTH_RADIUS
+			* Math.PI / 180;
+
+	/** Holds the spatial index */
+	private final SpatialIndex index;
+
+	/** Holds the matching parameters */
+	private final MatchingParameters parameters;
+
+	/**
+	 * Constructs a new candidate finder
+	 *
+	 * @param index
+	 *            the spatial index of the road graph
+	 * @param parameters
+	 *            the matching parameters
+	 */
+	public CandidateFinder(final SpatialIndex index,
+			final MatchingParameters parameters) {
+		this.index = index;
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Returns the spatial index
+	 *
+	 * @return the spatial index
+	 */
+	public SpatialIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the matching parameters
+	 *
+	 * @return the matching parameters
+	 */
+	public MatchingParameters getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Finds the candidate lines of the given location reference point. The
+	 * list is cleared before and will contain at most
+	 * {@link MatchingParameters#getMaximumCandidates()} candidates afterwards.
+	 *
+	 * @param point
+	 *            the location reference point
+	 * @param last
+	 *            <code>true</code> if the point is the last location reference
+	 *            point, whose bearing is measured against the direction of the
+	 *            line
+	 * @param result
+	 *            the list receiving the candidates
+	 */
+	public void find(final LocationReferencePoint point, final boolean last,
+			final CandidateList result) {
+		find(point.getCoordinate().getLongitude(), point.getCoordinate()
+				.getLatitude(), point.getBearing().getBearing(), point
+				.getFunctionalRoadClass().getByteRepresentation(), point
+				.getFormOfWay().getByteRepresentation(), last, result);
+	}
+
+	/**
+	 * Finds the candidate lines of a location reference point given by its
+	 * attributes. The list is cleared before and will contain at most
+	 * {@link MatchingParameters#getMaximumCandidates()} candidates afterwards.
+	 *
+	 * @param longitude
+	 *            the longitude of the location reference point in degree
+	 * @param latitude
+	 *            the latitude of the location reference point in degree
+	 * @param bearing
+	 *            the bearing of the location reference point in degree
+	 * @param frc
+	 *            the functional road class of the location reference point
+	 * @param fow
+	 *            the form of way of the location reference point
+	 * @param last
+	 *            <code>true</code> if the point is the last location reference
+	 *            point, whose bearing is measured against the direction of the
+	 *            line
+	 * @param result
+	 *            the list receiving the candidates
+	 */
+	public void find(final float longitude, final float latitude,
+			final float bearing, final int frc, final int fow,
+			final boolean last, final CandidateList result) {
+		result.clear(parameters.getMaximumCandidates());
+
+		RoadGraph graph = index.getGraph();
+		double radius = parameters.getCandidateRadius();
+		double cosLatitude = Math.cos(Math.toRadians(latitude));
+		double latitudeRadius = radius / METERS_PER_DEGREE;
+		double longitudeRadius = latitudeRadius / Math.max(cosLatitude, 0.01);
+
+		int fromRow = index.getRow(latitude - latitudeRadius);
+		int toRow = index.getRow(latitude + latitudeRadius);
+		int fromColumn = index.getColumn(longitude - longitudeRadius);
+		int toColumn = index.getColumn(longitude + longitudeRadius);
+
+		for (int row = fromRow; row <= toRow; row++) {
+			for (int column = fromColumn; column <= toColumn; column++) {
+				int cell = index.getCell(row, column);
+				for (int i = index.getCellStart(cell); i < index
+						.getCellEnd(cell); i++) {
+					rate(graph, index.getCellEdge(i), longitude, latitude,
+							cosLatitude, bearing, frc, fow, last, result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rates a single edge and offers it to the list if it is a candidate
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param edge
+	 *            the edge
+	 * @param longitude
+	 *            the longitude of the location reference point
+	 * @param latitude
+	 *            the latitude of the location reference point
+	 * @param cosLatitude
+	 *            the cosine of the latitude
+	 * @param bearing
+	 *            the bearing of the location reference point
+	 * @param frc
+	 *            the functional road class of the location reference point
+	 * @param fow
+	 *            the form of way of the location reference point
+	 * @param last
+	 *            <code>true</code> for the last location reference point
+	 * @param result
+	 *            the list receiving the candidates
+	 */
+	private void rate(final RoadGraph graph, final int edge,
+			final double longitude, final double latitude,
+			final double cosLatitude, final float bearing, final int frc,
+			final int fow, final boolean last, final CandidateList result) {
+		// project the point onto the geometry in a local metric frame
+		int size = graph.getGeometrySize(edge);
+		double bestDistance = Double.MAX_VALUE;
+		double bestOffset = 0;
+		double position = 0;
+		double x1 = (graph.getGeometryLongitude(edge, 0) - longitude)
+				* cosLatitude * METERS_PER_DEGREE;
+		double y1 = (graph.getGeometryLatitude(edge, 0) - latitude)
+				* METERS_PER_DEGREE;
+		for (int i = 1; i < size; i++) {
+			double x2 = (graph.getGeometryLongitude(edge, i) - longitude)
+					* cosLatitude * METERS_PER_DEGREE;
+			double y2 = (graph.getGeometryLatitude(edge, i) - latitude)
+					* METERS_PER_DEGREE;
+			double dx = x2 - x1;
+			double dy = y2 - y1;
+			double squaredLength = dx * dx + dy * dy;
+			double t = squaredLength == 0 ? 0 : -(x1 * dx + y1 * dy)
+					/ squaredLength;
+			t = t < 0 ? 0 : t > 1 ? 1 : t;
+			double px = x1 + t * dx;
+			double py = y1 + t * dy;
+			double distance = Math.sqrt(px * px + py * py);
+			double length = Math.sqrt(squaredLength);
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				bestOffset = position + t * length;
+			}
+			position += length;
+			x1 = x2;
+			y1 = y2;
+		}
+
+		double radius = parameters.getCandidateRadius();
+		if (bestDistance > radius) {
+			return;
+		}
+
+		// a bearing can't be measured at the very end (or start) of an edge,
+		// the adjacent edges are found as candidates instead
+		if (last ? bestOffset < MINIMUM_BEARING_LENGTH : position - bestOffset
+				< MINIMUM_BEARING_LENGTH) {
+			return;
+		}
+
+		float lineBearing = EdgeGeometry.getBearing(graph, edge, bestOffset,
+				!last);
+		if (Float.isNaN(lineBearing)) {
+			return;
+		}
+		float bearingDifference = EdgeGeometry.getBearingDifference(bearing,
+				lineBearing);
+		float maximumBearingDifference = parameters
+				.getMaximumBearingDifference();
+		if (bearingDifference > maximumBearingDifference) {
+			return;
+		}
+
+		float score = DISTANCE_WEIGHT * (float) (1 - bestDistance / radius);
+		if (maximumBearingDifference > 0) {
+			score += BEARING_WEIGHT
+					* (1 - bearingDifference / maximumBearingDifference);
+		} else {
+			score += BEARING_WEIGHT;
+		}
+		score += FRC_WEIGHT
+				* (1 - Math.abs(graph.getFrc(edge) - frc)
+						/ MAXIMUM_FRC_DIFFERENCE);
+		if (graph.getFow(edge) == fow) {
+			score += FOW_WEIGHT;
+		}
+
+		// the offset is scaled from the geometry to the length attribute
+		int offset = position > 0 ? (int) Math.round(bestOffset
+				* graph.getLength(edge) / position) : 0;
+		result.offer(edge, score / TOTAL_WEIGHT, offset);
+	}
+}
@@ -0,0 +1,199 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * A <b>candidate list</b> holds the best candidate lines found for a location
+ * reference point, ordered by their score, best first. Each candidate consists
+ * of an edge of the {@link RoadGraph}, its score and the offset in meters from
+ * the start of the edge to the position closest to the location reference
+ * point.
+ *
+ * The list has a fixed capacity and only keeps the best candidates offered to
+ * it. The candidates are held in primitive arrays, so that a list can be
+ * reused by calling {@link #clear(int)} without creating any objects.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class CandidateList {
+
+	/** Holds the maximum number of candidates */
+	private int capacity;
+
+	/** Holds the number of candidates */
+	private int size;
+
+	/** Holds the edges of the candidates */
+	private int[] edges;
+
+	/** Holds the scores of the candidates */
+	private float[] scores;
+
+	/** Holds the offsets of the candidates in meters */
+	private int[] offsets;
+
+	/**
+	 * Constructs a new, empty candidate list
+	 *
+	 * @param capacity
+	 *            the maximum number of candidates
+	 */
+	public CandidateList(final int capacity) {
+		edges = new int[0];
+		scores = new float[0];
+		offsets = new int[0];
+		clear(capacity);
+	}
+
+	/**
+	 * Removes all candidates and sets a new capacity
+	 *
+	 * @param capacity
+	 *            the maximum number of candidates
+	 */
+	public void clear(final int capacity) {
+		if (capacity > edges.length) {
+			edges = new int[capacity];
+			scores = new float[capacity];
+			offsets = new int[capacity];
+		}
+		this.capacity = capacity;
+		this.size = 0;
+	}
+
+	/**
+	 * Offers a new candidate. It is kept if the list isn't full yet or if its
+	 * score is higher than the one of the worst candidate. If the edge is
+	 * already part of the list, only the better of both is kept.
+	 *
+	 * @param edge
+	 *            the edge
+	 * @param score
+	 *            the score, the higher the better
+	 * @param offset
+	 *            the offset from the start of the edge in meters
+	 * @return <code>true</code> if the candidate was kept, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean offer(final int edge, final float score, final int offset) {
+		for (int i = 0; i < size; i++) {
+			if (edges[i] == edge) {
+				if (scores[i] >= score) {
+					return false;
+				}
+				remove(i);
+				break;
+			}
+		}
+
+		if (size == capacity && (size == 0 || scores[size - 1] >= score)) {
+			return false;
+		}
+
+		int i = size == capacity ? size - 1 : size++;
+		while (i > 0 && scores[i - 1] < score) {
+			edges[i] = edges[i - 1];
+			scores[i] = scores[i - 1];
+			offsets[i] = offsets[i - 1];
+			i--;
+		}
+		edges[i] = edge;
+		scores[i] = score;
+		offsets[i] = offset;
+		return true;
+	}
+
+	/**
+	 * Returns the number of candidates
+	 *
+	 * @return the number of candidates
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if there are no candidates
+	 *
+	 * @return <code>true</code> if there are no candidates, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the edge of the candidate at the given rank
+	 *
+	 * @param index
+	 *            the rank, starting with <code>0</code> for the best candidate
+	 * @return the edge id
+	 */
+	public int getEdge(final int index) {
+		checkIndex(index);
+		return edges[index];
+	}
+
+	/**
+	 * Returns the score of the candidate at the given rank
+	 *
+	 * @param index
+	 *            the rank, starting with <code>0</code> for the best candidate
+	 * @return the score
+	 */
+	public float getScore(final int index) {
+		checkIndex(index);
+		return scores[index];
+	}
+
+	/**
+	 * Returns the offset in meters from the start of the edge to the position
+	 * closest to the location reference point, for the candidate at the given
+	 * rank
+	 *
+	 * @param index
+	 *            the rank, starting with <code>0</code> for the best candidate
+	 * @return the offset in meters
+	 */
+	public int getOffset(final int index) {
+		checkIndex(index);
+		return offsets[index];
+	}
+
+	/**
+	 * Removes the candidate at the given index
+	 *
+	 * @param index
+	 *            the index
+	 */
+	private void remove(final int index) {
+		size--;
+		System.arraycopy(edges, index + 1, edges, index, size - index);
+		System.arraycopy(scores, index + 1, scores, index, size - index);
+		System.arraycopy(offsets, index + 1, offsets, index, size - index);
+	}
+
+	/**
+	 * Checks if the given index is valid
+	 *
+	 * @param index
+	 *            the index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is equal to or larger than {@link #size()}
+	 */
+	private void checkIndex(final int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Candidates: \n"); //$NON-NLS-1$
+		for (int i = 0; i < size; i++) {
+			sb.append("\tEdge: ").append(edges[i]).append(", Score: ").append( //$NON-NLS-1$ //$NON-NLS-2$
+					scores[i]).append(", Offset: ").append(offsets[i]).append( //$NON-NLS-1$
+					" m\n"); //$NON-NLS-1$
+		}
+		return sb.toString();
+	}
+}
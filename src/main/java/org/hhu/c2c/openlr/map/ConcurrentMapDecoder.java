@@ -0,0 +1,276 @@
+package org.hhu.c2c.openlr.map;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>concurrent map decoder</b> decodes location references from any
+ * number of threads while its {@link DecodingContext} may be replaced at any
+ * time, e.g. when the matching parameters are reconfigured or an updated road
+ * graph is loaded (see {@link RoadGraphUpdater}).
+ *
+ * The context is published through an atomic reference. Each decode call
+ * reads it once at the start and decodes entirely on that context, so a
+ * location reference is never decoded half on the old and half on the new
+ * one. Neither decoding nor replacing the context takes a lock: decoding
+ * threads never wait for a reconfiguration or for each other, and a new
+ * context is seen by the next decode call of every thread.
+ *
+ * Each thread keeps its own {@link MapDecoder} for the context it used last
+ * and only creates a new one when the context has changed. The routing
+ * scratch memory, for the {@link DijkstraRouter} as well as both searches of
+ * the {@link HierarchyRouter}, is kept across contexts as long as the road
+ * graph doesn't grow beyond it.
+ *
+ * The decoder of a thread is referenced weakly, so it is freed along with a
+ * thread that ends. A thread that stays alive but stops decoding, e.g. one of
+ * a pool that is handed other work, should call {@link #release()} to free
+ * its decoder and scratch memory.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ConcurrentMapDecoder {
+
+	/** Holds the current context */
+	private final AtomicReference<DecodingContext> context;
+
+	/** Holds the decoder of each thread */
+	private final ThreadLocal<Worker> worker;
+
+	/** Holds the decoders of all threads, for the statistics */
+	private final List<WeakReference<Worker>> workers;
+
+	/** Holds the statistics of the released decoders */
+	private final MapDecoderStatistics released;
+
+	/**
+	 * Constructs a new concurrent map decoder
+	 *
+	 * @param context
+	 *            the initial context
+	 */
+	public ConcurrentMapDecoder(final DecodingContext context) {
+		if (context == null) {
+			throw new IllegalArgumentException(
+					"The decoding context must not be null."); //$NON-NLS-1$
+		}
+		this.context = new AtomicReference<DecodingContext>(context);
+		this.workers = new ArrayList<WeakReference<Worker>>();
+		this.released = new MapDecoderStatistics();
+		this.worker = new ThreadLocal<Worker>() {
+			@Override
+			protected Worker initialValue() {
+				Worker worker = new Worker();
+				synchronized (workers) {
+					// drop the references to the decoders of ended threads
+					Iterator<WeakReference<Worker>> iterator = workers
+							.iterator();
+					while (iterator.hasNext()) {
+						if (iterator.next().get() == null) {
+							iterator.remove();
+						}
+					}
+					workers.add(new WeakReference<Worker>(worker));
+				}
+				return worker;
+			}
+		};
+	}
+
+	/**
+	 * Returns the current context
+	 *
+	 * @return the context used by the next decode calls
+	 */
+	public DecodingContext getContext() {
+		return context.get();
+	}
+
+	/**
+	 * Replaces the current context. Decode calls already running finish on the
+	 * previous context.
+	 *
+	 * @param context
+	 *            the new context
+	 * @return the previous context
+	 */
+	public DecodingContext setContext(final DecodingContext context) {
+		if (context == null) {
+			throw new IllegalArgumentException(
+					"The decoding context must not be null."); //$NON-NLS-1$
+		}
+		return this.context.getAndSet(context);
+	}
+
+	/**
+	 * Replaces the current context only if it is still the expected one, so
+	 * that concurrent reconfigurations derived from the same context don't
+	 * silently undo each other
+	 *
+	 * @param expected
+	 *            the context the new one was derived from
+	 * @param context
+	 *            the new context
+	 * @return <code>true</code> if the context was replaced,
+	 *         <code>false</code> if the current context is another one
+	 */
+	public boolean compareAndSetContext(final DecodingContext expected,
+			final DecodingContext context) {
+		if (context == null) {
+			throw new IllegalArgumentException(
+					"The decoding context must not be null."); //$NON-NLS-1$
+		}
+		return this.context.compareAndSet(expected, context);
+	}
+
+	/**
+	 * Decodes the given location reference on the current context
+	 *
+	 * @param reference
+	 *            the location reference
+	 * @return the path covered by the location on the road graph of the
+	 *         current context
+	 * @throws LocationReferenceException
+	 *             if the location reference can't be matched onto the road
+	 *             graph, see {@link MapDecoder#decode(LocationReference)}
+	 */
+	public MatchedPath decode(final LocationReference reference)
+			throws LocationReferenceException {
+		return worker.get().getDecoder(context.get()).decode(reference);
+	}
+
+	/**
+	 * Releases the decoder and the scratch memory of the calling thread. Its
+	 * statistics are kept, and a new decoder is created if the thread decodes
+	 * again.
+	 */
+	public void release() {
+		Worker worker = this.worker.get();
+		this.worker.remove();
+		synchronized (workers) {
+			Iterator<WeakReference<Worker>> iterator = workers.iterator();
+			while (iterator.hasNext()) {
+				Worker other = iterator.next().get();
+				if (other == null || other == worker) {
+					iterator.remove();
+				}
+			}
+			worker.addStatistics(released);
+		}
+	}
+
+	/**
+	 * Returns the sum of the statistics of all threads still holding a
+	 * decoder and of the released decoders. The statistics of a thread that
+	 * ended without calling {@link #release()} are lost once its decoder is
+	 * freed.
+	 *
+	 * The counters are plain fields written by the decoding threads without
+	 * synchronization, so while location references are being decoded the
+	 * result is only approximate: counters may be stale or inconsistent with
+	 * each other. It is exact once the decoding threads have finished and the
+	 * calling thread has synchronized with them, e.g. by
+	 * {@link Thread#join()} or
+	 * {@link java.util.concurrent.ExecutorService#awaitTermination(long, java.util.concurrent.TimeUnit)}
+	 * .
+	 *
+	 * @return the statistics
+	 */
+	public MapDecoderStatistics getStatistics() {
+		MapDecoderStatistics statistics = new MapDecoderStatistics();
+		synchronized (workers) {
+			statistics.add(released);
+			for (WeakReference<Worker> reference : workers) {
+				Worker worker = reference.get();
+				if (worker != null) {
+					worker.addStatistics(statistics);
+				}
+			}
+		}
+		return statistics;
+	}
+
+	/**
+	 * The <b>worker</b> holds the decoder of one thread
+	 */
+	private static class Worker {
+
+		/** Holds the context the decoder was created for */
+		private DecodingContext context;
+
+		/** Holds the decoder, or <code>null</code> */
+		private MapDecoder decoder;
+
+		/**
+		 * Holds the routing scratch memory, for the Dijkstra router or the
+		 * forward search of the hierarchy router
+		 */
+		private RoutingScratch scratch;
+
+		/**
+		 * Holds the routing scratch memory for the backward search of the
+		 * hierarchy router, or <code>null</code>
+		 */
+		private RoutingScratch backward;
+
+		/** Holds the statistics of the previous decoders */
+		private final MapDecoderStatistics statistics = new MapDecoderStatistics();
+
+		/**
+		 * Returns the decoder for the given context, creating a new one if the
+		 * context has changed
+		 *
+		 * @param context
+		 *            the current context
+		 * @return the decoder
+		 */
+		private MapDecoder getDecoder(final DecodingContext context) {
+			if (context == this.context) {
+				return decoder;
+			}
+			int nodeCount = context.getGraph().getNodeCount();
+			if (scratch == null || scratch.getCapacity() < nodeCount) {
+				scratch = new RoutingScratch(nodeCount);
+			}
+			Router router;
+			if (context.getHierarchy() != null) {
+				if (backward == null || backward.getCapacity() < nodeCount) {
+					backward = new RoutingScratch(nodeCount);
+				}
+				router = new HierarchyRouter(context.getHierarchy(), scratch,
+						backward);
+			} else {
+				router = new DijkstraRouter(context.getGraph(), scratch);
+			}
+			MapDecoder decoder = new MapDecoder(context.getIndex(), context
+					.getParameters(), router, context.getCache());
+			if (this.decoder != null) {
+				statistics.add(this.decoder.getStatistics());
+			}
+			this.decoder = decoder;
+			this.context = context;
+			return decoder;
+		}
+
+		/**
+		 * Adds the statistics of this worker to the given ones
+		 *
+		 * @param sum
+		 *            the statistics to add to
+		 */
+		private void addStatistics(final MapDecoderStatistics sum) {
+			sum.add(statistics);
+			MapDecoder decoder = this.decoder;
+			if (decoder != null) {
+				sum.add(decoder.getStatistics());
+			}
+		}
+	}
+}
@@ -0,0 +1,483 @@
+package org.hhu.c2c.openlr.map;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A <b>contraction hierarchy</b> speeds up shortest-path queries on a
+ * {@link RoadGraph} by preprocessing. The nodes are ordered by importance and
+ * contracted one after the other; whenever the shortest path between two
+ * neighbours of a contracted node leads through it, a shortcut arc replacing
+ * both arcs is added. A query then only has to follow arcs leading to more
+ * important nodes, from both ends (see {@link HierarchyRouter}).
+ *
+ * The hierarchy respects functional road class restrictions: each arc carries
+ * the least important functional road class of the edges it replaces, and a
+ * shortcut is only left out if there is a witness path that is not longer and
+ * doesn't use less important roads. So a query ignoring all arcs below a given
+ * functional road class finds the shortest path on the restricted road graph.
+ *
+ * The arcs are numbered so that the first <code>getEdgeCount()</code> arcs are
+ * the edges of the road graph, with the same ids; every other arc is a
+ * shortcut and refers to the two arcs it replaces. Like the road graph, the
+ * arcs leading upwards and downwards are stored in compressed sparse row form.
+ *
+ * A contraction hierarchy belongs to the exact road graph it was built for.
+ * Edges already removed from that road graph are left out of the arcs leading
+ * upwards and downwards, but the shortcuts know nothing about later changes:
+ * when a road graph is updated (see {@link RoadGraphUpdater}), its hierarchy
+ * has to be built again. The reader rejects a hierarchy whose road graph stamp
+ * (see {@link RoadGraph#getStamp()}) differs from the given road graph.
+ *
+ * A contraction hierarchy is immutable and can safely be shared between
+ * threads. It is created by a {@link ContractionHierarchyBuilder} or read by
+ * {@link RoadGraphReader#readHierarchy(java.io.InputStream, RoadGraph)}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ContractionHierarchy {
+
+	/** Holds the road graph */
+	private final RoadGraph graph;
+
+	/** Holds the rank of each node, the higher the more important */
+	private final IntBuffer ranks;
+
+	/** Holds the start node of each arc */
+	private final IntBuffer arcSources;
+
+	/** Holds the end node of each arc */
+	private final IntBuffer arcTargets;
+
+	/** Holds the length of each arc in meters */
+	private final IntBuffer arcLengths;
+
+	/**
+	 * Holds the first arc replaced by each shortcut, or <code>-1</code> for an
+	 * edge
+	 */
+	private final IntBuffer arcFirsts;
+
+	/**
+	 * Holds the second arc replaced by each shortcut, or <code>-1</code> for an
+	 * edge
+	 */
+	private final IntBuffer arcSeconds;
+
+	/** Holds the least important functional road class of each arc */
+	private final ByteBuffer arcFrcs;
+
+	/**
+	 * Holds for each node the index of its first arc in {@link #upwardArcs}
+	 */
+	private final int[] upwardOffsets;
+
+	/**
+	 * Holds the arcs leading to a more important node, grouped by their start
+	 * node
+	 */
+	private final int[] upwardArcs;
+
+	/**
+	 * Holds for each node the index of its first arc in {@link #downwardArcs}
+	 */
+	private final int[] downwardOffsets;
+
+	/**
+	 * Holds the arcs coming from a more important node, grouped by their end
+	 * node
+	 */
+	private final int[] downwardArcs;
+
+	/**
+	 * Constructs a new contraction hierarchy from the given arrays. The arrays
+	 * are used directly and must not be modified afterwards.
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param ranks
+	 *            the rank of each node
+	 * @param arcSources
+	 *            the start node of each arc
+	 * @param arcTargets
+	 *            the end node of each arc
+	 * @param arcLengths
+	 *            the length of each arc
+	 * @param arcFirsts
+	 *            the first arc replaced by each shortcut
+	 * @param arcSeconds
+	 *            the second arc replaced by each shortcut
+	 * @param arcFrcs
+	 *            the least important functional road class of each arc
+	 */
+	ContractionHierarchy(final RoadGraph graph, final int[] ranks,
+			final int[] arcSources, final int[] arcTargets,
+			final int[] arcLengths, final int[] arcFirsts,
+			final int[] arcSeconds, final byte[] arcFrcs) {
+		this(graph, IntBuffer.wrap(ranks), IntBuffer.wrap(arcSources),
+				IntBuffer.wrap(arcTargets), IntBuffer.wrap(arcLengths),
+				IntBuffer.wrap(arcFirsts), IntBuffer.wrap(arcSeconds),
+				ByteBuffer.wrap(arcFrcs));
+	}
+
+	/**
+	 * Constructs a new contraction hierarchy from the given buffers, which
+	 * hold their values from index <code>0</code> to their capacity. The
+	 * buffers are only read by absolute index and must not be modified
+	 * afterwards.
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param ranks
+	 *            the rank of each node
+	 * @param arcSources
+	 *            the start node of each arc
+	 * @param arcTargets
+	 *            the end node of each arc
+	 * @param arcLengths
+	 *            the length of each arc
+	 * @param arcFirsts
+	 *            the first arc replaced by each shortcut
+	 * @param arcSeconds
+	 *            the second arc replaced by each shortcut
+	 * @param arcFrcs
+	 *            the least important functional road class of each arc
+	 */
+	ContractionHierarchy(final RoadGraph graph, final IntBuffer ranks,
+			final IntBuffer arcSources, final IntBuffer arcTargets,
+			final IntBuffer arcLengths, final IntBuffer arcFirsts,
+			final IntBuffer arcSeconds, final ByteBuffer arcFrcs) {
+		this.graph = graph;
+		this.ranks = ranks;
+		this.arcSources = arcSources;
+		this.arcTargets = arcTargets;
+		this.arcLengths = arcLengths;
+		this.arcFirsts = arcFirsts;
+		this.arcSeconds = arcSeconds;
+		this.arcFrcs = arcFrcs;
+
+		int nodeCount = graph.getNodeCount();
+		int arcCount = arcSources.capacity();
+		this.upwardOffsets = new int[nodeCount + 1];
+		this.downwardOffsets = new int[nodeCount + 1];
+		for (int arc = 0; arc < arcCount; arc++) {
+			if (isUpward(arc)) {
+				upwardOffsets[arcSources.get(arc) + 1]++;
+			} else if (isDownward(arc)) {
+				downwardOffsets[arcTargets.get(arc) + 1]++;
+			}
+		}
+		for (int i = 1; i <= nodeCount; i++) {
+			upwardOffsets[i] += upwardOffsets[i - 1];
+			downwardOffsets[i] += downwardOffsets[i - 1];
+		}
+		this.upwardArcs = new int[upwardOffsets[nodeCount]];
+		this.downwardArcs = new int[downwardOffsets[nodeCount]];
+		int[] nextUpward = new int[nodeCount];
+		int[] nextDownward = new int[nodeCount];
+		System.arraycopy(upwardOffsets, 0, nextUpward, 0, nodeCount);
+		System.arraycopy(downwardOffsets, 0, nextDownward, 0, nodeCount);
+		for (int arc = 0; arc < arcCount; arc++) {
+			if (isUpward(arc)) {
+				upwardArcs[nextUpward[arcSources.get(arc)]++] = arc;
+			} else if (isDownward(arc)) {
+				downwardArcs[nextDownward[arcTargets.get(arc)]++] = arc;
+			}
+		}
+	}
+
+	/**
+	 * Returns the road graph
+	 *
+	 * @return the road graph
+	 */
+	public RoadGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the number of arcs, edges and shortcuts
+	 *
+	 * @return the number of arcs
+	 */
+	public int getArcCount() {
+		return arcSources.capacity();
+	}
+
+	/**
+	 * Returns the number of shortcuts
+	 *
+	 * @return the number of shortcuts
+	 */
+	public int getShortcutCount() {
+		return arcSources.capacity() - graph.getEdgeCount();
+	}
+
+	/**
+	 * Returns the rank of the given node. The more important a node, the
+	 * later it was contracted and the higher its rank.
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the rank
+	 */
+	public int getRank(final int node) {
+		return ranks.get(node);
+	}
+
+	/**
+	 * Returns the start node of the given arc
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return the node id
+	 */
+	public int getSource(final int arc) {
+		return arcSources.get(arc);
+	}
+
+	/**
+	 * Returns the end node of the given arc
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return the node id
+	 */
+	public int getTarget(final int arc) {
+		return arcTargets.get(arc);
+	}
+
+	/**
+	 * Returns the length of the given arc
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return the length in meters
+	 */
+	public int getLength(final int arc) {
+		return arcLengths.get(arc);
+	}
+
+	/**
+	 * Returns the least important functional road class of the edges
+	 * represented by the given arc
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return the byte representation of the functional road class
+	 */
+	public int getFrc(final int arc) {
+		return arcFrcs.get(arc);
+	}
+
+	/**
+	 * Returns <code>true</code> if the given arc is a shortcut
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return <code>true</code> for a shortcut, <code>false</code> for an edge
+	 */
+	public boolean isShortcut(final int arc) {
+		return arcFirsts.get(arc) >= 0;
+	}
+
+	/**
+	 * Returns the first arc replaced by the given shortcut
+	 *
+	 * @param arc
+	 *            the shortcut
+	 * @return the arc id, or <code>-1</code> if the arc is an edge
+	 */
+	public int getFirst(final int arc) {
+		return arcFirsts.get(arc);
+	}
+
+	/**
+	 * Returns the second arc replaced by the given shortcut
+	 *
+	 * @param arc
+	 *            the shortcut
+	 * @return the arc id, or <code>-1</code> if the arc is an edge
+	 */
+	public int getSecond(final int arc) {
+		return arcSeconds.get(arc);
+	}
+
+	/**
+	 * Returns the index of the first arc leading upwards from the given node,
+	 * to be used with {@link #getUpwardArc(int)}
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index of the first upward arc
+	 */
+	public int getUpwardStart(final int node) {
+		return upwardOffsets[node];
+	}
+
+	/**
+	 * Returns the index after the last arc leading upwards from the given node
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index after the last upward arc
+	 */
+	public int getUpwardEnd(final int node) {
+		return upwardOffsets[node + 1];
+	}
+
+	/**
+	 * Returns the upward arc at the given index
+	 *
+	 * @param index
+	 *            an index between {@link #getUpwardStart(int)} and
+	 *            {@link #getUpwardEnd(int)}
+	 * @return the arc id
+	 */
+	public int getUpwardArc(final int index) {
+		return upwardArcs[index];
+	}
+
+	/**
+	 * Returns the index of the first arc coming down to the given node, to be
+	 * used with {@link #getDownwardArc(int)}
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index of the first downward arc
+	 */
+	public int getDownwardStart(final int node) {
+		return downwardOffsets[node];
+	}
+
+	/**
+	 * Returns the index after the last arc coming down to the given node
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index after the last downward arc
+	 */
+	public int getDownwardEnd(final int node) {
+		return downwardOffsets[node + 1];
+	}
+
+	/**
+	 * Returns the downward arc at the given index
+	 *
+	 * @param index
+	 *            an index between {@link #getDownwardStart(int)} and
+	 *            {@link #getDownwardEnd(int)}
+	 * @return the arc id
+	 */
+	public int getDownwardArc(final int index) {
+		return downwardArcs[index];
+	}
+
+	/**
+	 * Returns the ranks, for the writer
+	 *
+	 * @return the rank of each node
+	 */
+	IntBuffer getRanks() {
+		return ranks;
+	}
+
+	/**
+	 * Returns the arc sources, for the writer
+	 *
+	 * @return the start node of each arc
+	 */
+	IntBuffer getArcSources() {
+		return arcSources;
+	}
+
+	/**
+	 * Returns the arc targets, for the writer
+	 *
+	 * @return the end node of each arc
+	 */
+	IntBuffer getArcTargets() {
+		return arcTargets;
+	}
+
+	/**
+	 * Returns the arc lengths, for the writer
+	 *
+	 * @return the length of each arc
+	 */
+	IntBuffer getArcLengths() {
+		return arcLengths;
+	}
+
+	/**
+	 * Returns the first replaced arcs, for the writer
+	 *
+	 * @return the first arc replaced by each shortcut
+	 */
+	IntBuffer getArcFirsts() {
+		return arcFirsts;
+	}
+
+	/**
+	 * Returns the second replaced arcs, for the writer
+	 *
+	 * @return the second arc replaced by each shortcut
+	 */
+	IntBuffer getArcSeconds() {
+		return arcSeconds;
+	}
+
+	/**
+	 * Returns the functional road classes of the arcs, for the writer
+	 *
+	 * @return the functional road class of each arc
+	 */
+	ByteBuffer getArcFrcs() {
+		return arcFrcs;
+	}
+
+	/**
+	 * Returns <code>true</code> if the arc leads to a more important node
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return <code>true</code> if the arc leads upwards
+	 */
+	private boolean isUpward(final int arc) {
+		return ranks.get(arcSources.get(arc)) < ranks.get(arcTargets.get(arc))
+				&& !isRemoved(arc);
+	}
+
+	/**
+	 * Returns <code>true</code> if the arc leads to a less important node
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return <code>true</code> if the arc leads downwards
+	 */
+	private boolean isDownward(final int arc) {
+		return ranks.get(arcSources.get(arc)) > ranks.get(arcTargets.get(arc))
+				&& !isRemoved(arc);
+	}
+
+	/**
+	 * Returns <code>true</code> if the arc is an edge that was already removed
+	 * from the road graph the hierarchy was built for. Shortcuts never replace
+	 * such an edge, so this only concerns the edge arcs themselves.
+	 *
+	 * @param arc
+	 *            the arc id
+	 * @return <code>true</code> if the arc must not be used
+	 */
+	private boolean isRemoved(final int arc) {
+		return arc < graph.getEdgeCount() && graph.isRemoved(arc);
+	}
+
+	@Override
+	public String toString() {
+		return "ContractionHierarchy: \n" + "\tNodes: " + graph.getNodeCount()
+				+ "\n" + "\tEdges: " + graph.getEdgeCount() + "\n"
+				+ "\tShortcuts: " + getShortcutCount() + "\n";
+	}
+}
@@ -0,0 +1,393 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.IndexedIntHeap;
+import org.hhu.c2c.openlr.util.IntHeap;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link ContractionHierarchyBuilder} builds the
+ * {@link ContractionHierarchy} of a {@link RoadGraph}.
+ *
+ * The nodes are contracted in the order of their priority, which is the
+ * number of shortcuts needed to contract a node minus the number of its arcs,
+ * plus the number of its already contracted neighbours (to spread the
+ * contraction evenly over the graph). Priorities are updated lazily: a node is
+ * only contracted if its current priority is still the smallest one.
+ *
+ * Contracting a node <code>v</code> replaces each pair of arcs
+ * <code>u &rarr; v &rarr; w</code> by a shortcut, unless a witness search from
+ * <code>u</code> finds a path to <code>w</code> avoiding <code>v</code> that is
+ * not longer and doesn't use less important roads than the pair. The witness
+ * search gives up after settling a limited number of nodes, which can only
+ * add superfluous shortcuts but never lose a shortest path.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ContractionHierarchyBuilder implements
+		Builder<ContractionHierarchyBuilder, ContractionHierarchy> {
+
+	/**
+	 * The default maximum number of nodes settled by a witness search
+	 */
+	private static final int WITNESS_LIMIT_DEFAULT = 256;
+
+	/**
+	 * The number of functional road classes
+	 */
+	private static final int FRC_COUNT = 8;
+
+	/**
+	 * Holds the road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * Holds the maximum number of nodes settled by a witness search
+	 */
+	private int witnessLimit;
+
+	/** Holds the start node of each arc while building */
+	private IntList arcSources;
+
+	/** Holds the end node of each arc while building */
+	private IntList arcTargets;
+
+	/** Holds the length of each arc while building */
+	private IntList arcLengths;
+
+	/** Holds the first arc replaced by each arc while building */
+	private IntList arcFirsts;
+
+	/** Holds the second arc replaced by each arc while building */
+	private IntList arcSeconds;
+
+	/** Holds the functional road class of each arc while building */
+	private IntList arcFrcs;
+
+	/** Holds the outgoing arcs of each node while building */
+	private IntList[] outgoing;
+
+	/** Holds the incoming arcs of each node while building */
+	private IntList[] incoming;
+
+	/** Holds for each node whether it has been contracted */
+	private boolean[] contracted;
+
+	/** Holds the state of the witness search */
+	private RoutingScratch scratch;
+
+	/**
+	 * Constructs a new {@link ContractionHierarchyBuilder}
+	 */
+	public ContractionHierarchyBuilder() {
+		init();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public ContractionHierarchy build() throws LocationReferenceException {
+		validate();
+
+		int nodeCount = graph.getNodeCount();
+		arcSources = new IntList(graph.getEdgeCount());
+		arcTargets = new IntList(graph.getEdgeCount());
+		arcLengths = new IntList(graph.getEdgeCount());
+		arcFirsts = new IntList(graph.getEdgeCount());
+		arcSeconds = new IntList(graph.getEdgeCount());
+		arcFrcs = new IntList(graph.getEdgeCount());
+		outgoing = new IntList[nodeCount];
+		incoming = new IntList[nodeCount];
+		for (int node = 0; node < nodeCount; node++) {
+			outgoing[node] = new IntList(graph.getOutgoingEnd(node)
+					- graph.getOutgoingStart(node));
+			incoming[node] = new IntList(graph.getIncomingEnd(node)
+					- graph.getIncomingStart(node));
+		}
+		for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+			addArc(graph.getSource(edge), graph.getTarget(edge), graph
+					.getLength(edge), graph.getFrc(edge), -1, -1);
+			if (graph.isRemoved(edge)
+					&& graph.getSource(edge) != graph.getTarget(edge)) {
+				// keep the id but never use the edge
+				outgoing[graph.getSource(edge)].removeLast();
+				incoming[graph.getTarget(edge)].removeLast();
+			}
+		}
+
+		contracted = new boolean[nodeCount];
+		scratch = new RoutingScratch(nodeCount);
+
+		int[] ranks = new int[nodeCount];
+		int[] deleted = new int[nodeCount];
+		IntHeap queue = new IntHeap(nodeCount);
+		for (int node = 0; node < nodeCount; node++) {
+			queue.add(node, priority(node, deleted));
+		}
+		int rank = 0;
+		while (!queue.isEmpty()) {
+			int priority = queue.getMinimumKey();
+			int node = queue.removeMinimum();
+			if (contracted[node]) {
+				continue;
+			}
+			int current = priority(node, deleted);
+			if (current > priority && !queue.isEmpty()
+					&& current > queue.getMinimumKey()) {
+				queue.add(node, current);
+				continue;
+			}
+
+			contract(node, false);
+			contracted[node] = true;
+			ranks[node] = rank++;
+			for (int i = 0; i < outgoing[node].size(); i++) {
+				deleted[arcTargets.get(outgoing[node].get(i))]++;
+			}
+			for (int i = 0; i < incoming[node].size(); i++) {
+				deleted[arcSources.get(incoming[node].get(i))]++;
+			}
+		}
+
+		byte[] frcs = new byte[arcFrcs.size()];
+		for (int arc = 0; arc < frcs.length; arc++) {
+			frcs[arc] = (byte) arcFrcs.get(arc);
+		}
+		ContractionHierarchy hierarchy = new ContractionHierarchy(graph,
+				ranks, arcSources.toArray(), arcTargets.toArray(), arcLengths
+						.toArray(), arcFirsts.toArray(), arcSeconds.toArray(),
+				frcs);
+
+		// release the memory used while building
+		RoadGraph graph = this.graph;
+		int witnessLimit = this.witnessLimit;
+		init();
+		this.graph = graph;
+		this.witnessLimit = witnessLimit;
+		return hierarchy;
+	}
+
+	/**
+	 * Resets the builder
+	 */
+	private void init() {
+		graph = null;
+		witnessLimit = WITNESS_LIMIT_DEFAULT;
+		arcSources = null;
+		arcTargets = null;
+		arcLengths = null;
+		arcFirsts = null;
+		arcSeconds = null;
+		arcFrcs = null;
+		outgoing = null;
+		incoming = null;
+		contracted = null;
+		scratch = null;
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public ContractionHierarchyBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * Sets the road graph
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @return the same instance of this {@link ContractionHierarchyBuilder}
+	 *         for use in a fluid interface
+	 */
+	public ContractionHierarchyBuilder setRoadGraph(final RoadGraph graph) {
+		this.graph = graph;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of nodes settled by a witness search. A smaller
+	 * limit speeds up building but adds more shortcuts.
+	 *
+	 * @param witnessLimit
+	 *            the maximum number of settled nodes
+	 * @return the same instance of this {@link ContractionHierarchyBuilder}
+	 *         for use in a fluid interface
+	 */
+	public ContractionHierarchyBuilder setWitnessLimit(final int witnessLimit) {
+		this.witnessLimit = witnessLimit;
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		if (graph == null) {
+			throw new LocationReferenceException(Messages
+					.getString("ContractionHierarchyBuilder.Exception.ROAD_GRAPH_NOT_SET")); //$NON-NLS-1$
+		}
+
+		if (witnessLimit <= 0) {
+			throw new LocationReferenceException(Messages
+					.getString("ContractionHierarchyBuilder.Exception.WITNESS_LIMIT")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Adds an arc between two nodes
+	 *
+	 * @param source
+	 *            the start node
+	 * @param target
+	 *            the end node
+	 * @param length
+	 *            the length in meters
+	 * @param frc
+	 *            the least important functional road class
+	 * @param first
+	 *            the first replaced arc, or <code>-1</code>
+	 * @param second
+	 *            the second replaced arc, or <code>-1</code>
+	 */
+	private void addArc(final int source, final int target, final int length,
+			final int frc, final int first, final int second) {
+		int arc = arcSources.size();
+		arcSources.add(source);
+		arcTargets.add(target);
+		arcLengths.add(length);
+		arcFrcs.add(frc);
+		arcFirsts.add(first);
+		arcSeconds.add(second);
+		if (source != target) {
+			outgoing[source].add(arc);
+			incoming[target].add(arc);
+		}
+	}
+
+	/**
+	 * Returns the priority of the given node, the smaller the earlier it is
+	 * contracted
+	 *
+	 * @param node
+	 *            the node
+	 * @param deleted
+	 *            the number of contracted neighbours of each node
+	 * @return the priority
+	 */
+	private int priority(final int node, final int[] deleted) {
+		int degree = 0;
+		for (int i = 0; i < outgoing[node].size(); i++) {
+			if (!contracted[arcTargets.get(outgoing[node].get(i))]) {
+				degree++;
+			}
+		}
+		for (int i = 0; i < incoming[node].size(); i++) {
+			if (!contracted[arcSources.get(incoming[node].get(i))]) {
+				degree++;
+			}
+		}
+		return contract(node, true) - degree + deleted[node];
+	}
+
+	/**
+	 * Contracts the given node by adding the necessary shortcuts between its
+	 * neighbours, or only counts the shortcuts
+	 *
+	 * @param node
+	 *            the node
+	 * @param simulate
+	 *            <code>true</code> to only count the shortcuts
+	 * @return the number of shortcuts
+	 */
+	private int contract(final int node, final boolean simulate) {
+		int shortcuts = 0;
+		IntList in = incoming[node];
+		IntList out = outgoing[node];
+		for (int i = 0; i < in.size(); i++) {
+			int first = in.get(i);
+			int source = arcSources.get(first);
+			if (contracted[source]) {
+				continue;
+			}
+
+			// one witness search for each functional road class of a shortcut
+			for (int frc = arcFrcs.get(first); frc < FRC_COUNT; frc++) {
+				int maximumLength = -1;
+				for (int j = 0; j < out.size(); j++) {
+					int second = out.get(j);
+					int target = arcTargets.get(second);
+					if (!contracted[target] && target != source
+							&& Math.max(arcFrcs.get(first), arcFrcs.get(second)) == frc) {
+						maximumLength = Math.max(maximumLength, arcLengths
+								.get(first)
+								+ arcLengths.get(second));
+					}
+				}
+				if (maximumLength < 0) {
+					continue;
+				}
+
+				search(source, node, frc, maximumLength);
+				for (int j = 0; j < out.size(); j++) {
+					int second = out.get(j);
+					int target = arcTargets.get(second);
+					int length = arcLengths.get(first) + arcLengths.get(second);
+					if (!contracted[target] && target != source
+							&& Math.max(arcFrcs.get(first), arcFrcs.get(second)) == frc
+							&& scratch.getDistance(target) > length) {
+						shortcuts++;
+						if (!simulate) {
+							addArc(source, target, length, frc, first, second);
+						}
+					}
+				}
+			}
+		}
+		return shortcuts;
+	}
+
+	/**
+	 * Runs a witness search, a bounded Dijkstra search on the arcs between
+	 * uncontracted nodes. The distances are left in {@link #scratch}.
+	 *
+	 * @param source
+	 *            the node to start at
+	 * @param excluded
+	 *            the node being contracted, which must not be used
+	 * @param frc
+	 *            the least important functional road class allowed
+	 * @param maximumLength
+	 *            the maximum length of a witness
+	 */
+	private void search(final int source, final int excluded, final int frc,
+			final int maximumLength) {
+		scratch.clear();
+		scratch.relax(source, 0, -1);
+		IndexedIntHeap heap = scratch.getHeap();
+		int settled = 0;
+		while (!heap.isEmpty() && settled < witnessLimit) {
+			int distance = heap.getMinimumKey();
+			int node = heap.removeMinimum();
+			settled++;
+			IntList out = outgoing[node];
+			for (int i = 0; i < out.size(); i++) {
+				int arc = out.get(i);
+				int target = arcTargets.get(arc);
+				int length = distance + arcLengths.get(arc);
+				if (target != excluded && !contracted[target]
+						&& arcFrcs.get(arc) <= frc && length <= maximumLength) {
+					scratch.relax(target, length, arc);
+				}
+			}
+		}
+	}
+}
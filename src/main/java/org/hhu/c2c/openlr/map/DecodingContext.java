@@ -0,0 +1,106 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * The <b>decoding context</b> holds everything decoding depends on besides
+ * the location reference: the road graph with its {@link SpatialIndex}, the
+ * {@link MatchingParameters} and optionally a {@link ContractionHierarchy} to
+ * route on and a {@link RouteCache}. It is immutable, so a context can be
+ * published to all decoding threads at once and replaced as a whole when the
+ * parameters are reconfigured or the road graph is updated (see
+ * {@link ConcurrentMapDecoder}). New contexts are created by a
+ * {@link DecodingContextBuilder}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class DecodingContext {
+
+	/** Holds the spatial index */
+	private final SpatialIndex index;
+
+	/** Holds the matching parameters */
+	private final MatchingParameters parameters;
+
+	/** Holds the contraction hierarchy, or <code>null</code> */
+	private final ContractionHierarchy hierarchy;
+
+	/** Holds the route cache, or <code>null</code> */
+	private final RouteCache cache;
+
+	/**
+	 * Constructs a new decoding context
+	 *
+	 * @param index
+	 *            the spatial index of the road graph
+	 * @param parameters
+	 *            the matching parameters
+	 * @param hierarchy
+	 *            the contraction hierarchy of the road graph, or
+	 *            <code>null</code> to route by Dijkstra's algorithm
+	 * @param cache
+	 *            the route cache, or <code>null</code>
+	 */
+	protected DecodingContext(final SpatialIndex index,
+			final MatchingParameters parameters,
+			final ContractionHierarchy hierarchy, final RouteCache cache) {
+		this.index = index;
+		this.parameters = parameters;
+		this.hierarchy = hierarchy;
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns the road graph
+	 *
+	 * @return the road graph
+	 */
+	public RoadGraph getGraph() {
+		return index.getGraph();
+	}
+
+	/**
+	 * Returns the spatial index of the road graph
+	 *
+	 * @return the spatial index
+	 */
+	public SpatialIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the matching parameters
+	 *
+	 * @return the matching parameters
+	 */
+	public MatchingParameters getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Returns the contraction hierarchy
+	 *
+	 * @return the contraction hierarchy, or <code>null</code> if routing by
+	 *         Dijkstra's algorithm
+	 */
+	public ContractionHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * Returns the route cache
+	 *
+	 * @return the route cache, or <code>null</code>
+	 */
+	public RouteCache getCache() {
+		return cache;
+	}
+
+	@Override
+	public String toString() {
+		return "DecodingContext: \n" + "\tNodes: " //$NON-NLS-1$ //$NON-NLS-2$
+				+ index.getGraph().getNodeCount() + "\n" + "\tEdges: " //$NON-NLS-1$ //$NON-NLS-2$
+				+ index.getGraph().getEdgeCount() + "\n" + "\tHierarchy: " //$NON-NLS-1$ //$NON-NLS-2$
+				+ (hierarchy != null) + "\n" + "\tCache: " + (cache != null) //$NON-NLS-1$ //$NON-NLS-2$
+				+ "\n" + parameters; //$NON-NLS-1$
+	}
+}
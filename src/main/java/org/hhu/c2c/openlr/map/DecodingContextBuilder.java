@@ -0,0 +1,171 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link DecodingContextBuilder} helps building valid
+ * {@link DecodingContext}s. The spatial index and the matching parameters
+ * have to be set, the contraction hierarchy and the route cache are optional.
+ * To change a single value of a context in use, start from a copy of it (see
+ * {@link #setContext(DecodingContext)}).
+ *
+ * @see DecodingContext
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class DecodingContextBuilder implements
+		Builder<DecodingContextBuilder, DecodingContext> {
+
+	/** Holds the spatial index */
+	private SpatialIndex index;
+
+	/** Holds the matching parameters */
+	private MatchingParameters parameters;
+
+	/** Holds the contraction hierarchy */
+	private ContractionHierarchy hierarchy;
+
+	/** Holds the route cache */
+	private RouteCache cache;
+
+	/**
+	 * Constructs a new {@link DecodingContextBuilder}
+	 */
+	public DecodingContextBuilder() {
+		init();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public DecodingContext build() throws LocationReferenceException {
+		validate();
+		return new DecodingContext(index, parameters, hierarchy, cache);
+	}
+
+	/**
+	 * Resets the context
+	 */
+	private void init() {
+		index = null;
+		parameters = null;
+		hierarchy = null;
+		cache = null;
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public DecodingContextBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * Copies all values of the given context
+	 *
+	 * @param context
+	 *            the context
+	 * @return the same instance of this {@link DecodingContextBuilder} for use
+	 *         in a fluid interface
+	 */
+	public DecodingContextBuilder setContext(final DecodingContext context) {
+		this.index = context.getIndex();
+		this.parameters = context.getParameters();
+		this.hierarchy = context.getHierarchy();
+		this.cache = context.getCache();
+		return this;
+	}
+
+	/**
+	 * Sets the spatial index of the road graph. If the index belongs to
+	 * another version of the road graph than the one set before, the route
+	 * cache is dropped, as its routes may no longer exist; set a new one by
+	 * {@link #setRouteCache(RouteCache)} afterwards.
+	 *
+	 * @param index
+	 *            the spatial index
+	 * @return the same instance of this {@link DecodingContextBuilder} for use
+	 *         in a fluid interface
+	 */
+	public DecodingContextBuilder setIndex(final SpatialIndex index) {
+		if (this.index != null
+				&& this.index.getGraph().getStamp() != index.getGraph()
+						.getStamp()) {
+			cache = null;
+		}
+		this.index = index;
+		return this;
+	}
+
+	/**
+	 * Sets the matching parameters
+	 *
+	 * @param parameters
+	 *            the matching parameters
+	 * @return the same instance of this {@link DecodingContextBuilder} for use
+	 *         in a fluid interface
+	 */
+	public DecodingContextBuilder setParameters(
+			final MatchingParameters parameters) {
+		this.parameters = parameters;
+		return this;
+	}
+
+	/**
+	 * Sets the contraction hierarchy to route on
+	 *
+	 * @param hierarchy
+	 *            the contraction hierarchy of the road graph, or
+	 *            <code>null</code> to route by Dijkstra's algorithm
+	 * @return the same instance of this {@link DecodingContextBuilder} for use
+	 *         in a fluid interface
+	 */
+	public DecodingContextBuilder setHierarchy(
+			final ContractionHierarchy hierarchy) {
+		this.hierarchy = hierarchy;
+		return this;
+	}
+
+	/**
+	 * Sets the route cache. A context for an updated road graph needs a new
+	 * route cache, as the routes of the previous one may no longer exist, so
+	 * set the route cache after the index (see {@link #setIndex(SpatialIndex)}
+	 * ).
+	 *
+	 * @param cache
+	 *            the route cache, or <code>null</code>
+	 * @return the same instance of this {@link DecodingContextBuilder} for use
+	 *         in a fluid interface
+	 */
+	public DecodingContextBuilder setRouteCache(final RouteCache cache) {
+		this.cache = cache;
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		if (index == null) {
+			throw new LocationReferenceException(Messages
+					.getString("DecodingContextBuilder.Exception.INDEX_NOT_SET")); //$NON-NLS-1$
+		}
+
+		if (parameters == null) {
+			throw new LocationReferenceException(Messages
+					.getString("DecodingContextBuilder.Exception.PARAMETERS_NOT_SET")); //$NON-NLS-1$
+		}
+
+		if (hierarchy != null && hierarchy.getGraph() != index.getGraph()) {
+			throw new LocationReferenceException(Messages
+					.getString("DecodingContextBuilder.Exception.HIERARCHY_MISMATCH")); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.util.IndexedIntHeap;
+import org.hhu.c2c.openlr.util.IntList;
+
+/**
+ * The <b>Dijkstra router</b> computes shortest paths by Dijkstra's algorithm.
+ * The search is bounded by the maximum length of the path, so that it only
+ * visits the part of the road graph around the source node which is actually
+ * needed (see the first rule of the data format rules, limiting the distance
+ * between two location reference points).
+ *
+ * The state of a search is held in a {@link RoutingScratch} sized to the road
+ * graph, which is allocated once and cleared in constant time before each
+ * search, so that a single search doesn't cost more than the area it explores
+ * and doesn't allocate any memory. A Dijkstra router is not thread-safe; each
+ * thread should use its own instance.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class DijkstraRouter implements Router {
+
+	/** Holds the road graph */
+	private final RoadGraph graph;
+
+	/** Holds the state of the search */
+	private final RoutingScratch scratch;
+
+	/**
+	 * Constructs a new router for the given road graph
+	 *
+	 * @param graph
+	 *            the road graph
+	 */
+	public DijkstraRouter(final RoadGraph graph) {
+		this(graph, new RoutingScratch(graph.getNodeCount()));
+	}
+
+	/**
+	 * Constructs a new router for the given road graph, using the given
+	 * scratch, e.g. one shared with other routers of the same thread
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param scratch
+	 *            the scratch, holding at least the nodes of the road graph
+	 */
+	public DijkstraRouter(final RoadGraph graph, final RoutingScratch scratch) {
+		if (scratch.getCapacity() < graph.getNodeCount()) {
+			throw new IllegalArgumentException(
+					"The scratch is too small for the road graph."); //$NON-NLS-1$
+		}
+		this.graph = graph;
+		this.scratch = scratch;
+	}
+
+	/**
+	 * {@link Router#getGraph()}
+	 */
+	@Override
+	public RoadGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * {@link Router#route(int, int, int, int, IntList)}
+	 */
+	@Override
+	public int route(final int source, final int target, final int lowestFrc,
+			final int maximumLength, final IntList path) {
+		path.clear();
+		if (source == target) {
+			return 0;
+		}
+		if (maximumLength < 0) {
+			return NO_ROUTE;
+		}
+
+		scratch.clear();
+		scratch.relax(source, 0, -1);
+		IndexedIntHeap heap = scratch.getHeap();
+		while (!heap.isEmpty()) {
+			int distance = heap.getMinimumKey();
+			int node = heap.removeMinimum();
+			if (node == target) {
+				break;
+			}
+			for (int i = graph.getOutgoingStart(node); i < graph
+					.getOutgoingEnd(node); i++) {
+				int edge = graph.getOutgoingEdge(i);
+				if (graph.getFrc(edge) > lowestFrc) {
+					continue;
+				}
+				int length = distance + graph.getLength(edge);
+				if (length <= maximumLength) {
+					scratch.relax(graph.getTarget(edge), length, edge);
+				}
+			}
+		}
+
+		if (!scratch.isReached(target)) {
+			return NO_ROUTE;
+		}
+		for (int node = target; node != source; node = graph
+				.getSource(scratch.getPredecessor(node))) {
+			path.add(scratch.getPredecessor(node));
+		}
+		path.reverse();
+		return scratch.getDistance(target);
+	}
+}
@@ -0,0 +1,234 @@
+package org.hhu.c2c.openlr.map;
+
+import java.util.Arrays;
+
+/**
+ * The <b>edge coverage</b> describes which stretches of a {@link RoadGraph} a
+ * {@link MatchedPath} covers, e.g. to find out whether two traffic messages
+ * report the same jam. Each covered edge is stored with the interval of its
+ * length that is covered, which is the whole edge except for the first and
+ * last edge of the path, where the offsets cut it. The edges are sorted by id,
+ * so the overlap of two coverages is computed by a single merge of both,
+ * without creating any objects.
+ *
+ * Edges are directed, so two paths along the same road in opposite
+ * directions don't overlap. An edge covered twice by a path which turns back
+ * on itself is counted once. An edge coverage is immutable.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class EdgeCoverage {
+
+	/** Holds the covered edges, sorted by id */
+	private final int[] edges;
+
+	/** Holds the start of the covered interval of each edge in meters */
+	private final int[] starts;
+
+	/** Holds the end of the covered interval of each edge in meters */
+	private final int[] ends;
+
+	/** Holds the covered length in meters */
+	private final int length;
+
+	/**
+	 * Constructs the coverage of the given path
+	 *
+	 * @param graph
+	 *            the road graph the path was matched onto
+	 * @param path
+	 *            the path
+	 */
+	public EdgeCoverage(final RoadGraph graph, final MatchedPath path) {
+		int count = path.getEdgeCount();
+		int last = count - 1;
+
+		// sort the positions of the path by edge, keeping their order
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = (long) path.getEdge(i) << 32 | i;
+		}
+		Arrays.sort(keys);
+
+		int[] edges = new int[count];
+		int[] starts = new int[count];
+		int[] ends = new int[count];
+		int size = 0;
+		int length = 0;
+		for (int run = 0; run < count;) {
+			int edge = (int) (keys[run] >>> 32);
+			int end = run + 1;
+			while (end < count && (int) (keys[end] >>> 32) == edge) {
+				end++;
+			}
+
+			// the intervals of the edge, sorted by their start
+			int first = size;
+			for (int i = run; i < end; i++) {
+				int position = (int) keys[i];
+				int from = position == 0 ? path.getPositiveOffset() : 0;
+				int to = graph.getLength(edge)
+						- (position == last ? path.getNegativeOffset() : 0);
+				int j = size++;
+				while (j > first && starts[j - 1] > from) {
+					starts[j] = starts[j - 1];
+					ends[j] = ends[j - 1];
+					j--;
+				}
+				edges[j] = edge;
+				starts[j] = from;
+				ends[j] = to;
+			}
+
+			// merge overlapping intervals
+			int merged = first;
+			for (int i = first + 1; i < size; i++) {
+				if (starts[i] <= ends[merged]) {
+					ends[merged] = Math.max(ends[merged], ends[i]);
+				} else {
+					merged++;
+					starts[merged] = starts[i];
+					ends[merged] = ends[i];
+				}
+			}
+			size = merged + 1;
+			for (int i = first; i < size; i++) {
+				length += ends[i] - starts[i];
+			}
+			run = end;
+		}
+
+		this.edges = Arrays.copyOf(edges, size);
+		this.starts = Arrays.copyOf(starts, size);
+		this.ends = Arrays.copyOf(ends, size);
+		this.length = length;
+	}
+
+	/**
+	 * Returns the covered length
+	 *
+	 * @return the length in meters
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of covered intervals, which is the number of covered
+	 * edges unless an edge is covered in two separate pieces
+	 *
+	 * @return the number of intervals
+	 */
+	public int getIntervalCount() {
+		return edges.length;
+	}
+
+	/**
+	 * Returns the edge of an interval
+	 *
+	 * @param index
+	 *            the index of the interval
+	 * @return the edge id
+	 */
+	public int getEdge(final int index) {
+		return edges[index];
+	}
+
+	/**
+	 * Returns the start of an interval
+	 *
+	 * @param index
+	 *            the index of the interval
+	 * @return the distance from the start of the edge in meters
+	 */
+	public int getStart(final int index) {
+		return starts[index];
+	}
+
+	/**
+	 * Returns the end of an interval
+	 *
+	 * @param index
+	 *            the index of the interval
+	 * @return the distance from the start of the edge in meters
+	 */
+	public int getEnd(final int index) {
+		return ends[index];
+	}
+
+	/**
+	 * Returns the length of road covered by both this and the given coverage
+	 *
+	 * @param other
+	 *            the other coverage on the same road graph
+	 * @return the overlap in meters
+	 */
+	public int getOverlap(final EdgeCoverage other) {
+		int overlap = 0;
+		int i = 0;
+		int j = 0;
+		while (i < edges.length && j < other.edges.length) {
+			if (edges[i] < other.edges[j]) {
+				i++;
+			} else if (edges[i] > other.edges[j]) {
+				j++;
+			} else {
+				int edge = edges[i];
+				int iEnd = i;
+				while (iEnd < edges.length && edges[iEnd] == edge) {
+					iEnd++;
+				}
+				int jEnd = j;
+				while (jEnd < other.edges.length && other.edges[jEnd] == edge) {
+					jEnd++;
+				}
+				// the intervals of each side are disjoint, so they add up
+				for (int a = i; a < iEnd; a++) {
+					for (int b = j; b < jEnd; b++) {
+						overlap += Math.max(0, Math.min(ends[a], other.ends[b])
+								- Math.max(starts[a], other.starts[b]));
+					}
+				}
+				i = iEnd;
+				j = jEnd;
+			}
+		}
+		return overlap;
+	}
+
+	/**
+	 * Returns <code>true</code> if this and the given coverage share a
+	 * stretch of road
+	 *
+	 * @param other
+	 *            the other coverage on the same road graph
+	 * @return <code>true</code> if the overlap is positive
+	 */
+	public boolean overlaps(final EdgeCoverage other) {
+		return getOverlap(other) > 0;
+	}
+
+	/**
+	 * Returns the fraction of this coverage which is also covered by the given
+	 * one
+	 *
+	 * @param other
+	 *            the other coverage on the same road graph
+	 * @return the overlap divided by the length of this coverage, between
+	 *         <code>0</code> and <code>1</code>
+	 */
+	public float getCoverage(final EdgeCoverage other) {
+		return length == 0 ? 0 : (float) getOverlap(other) / length;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("EdgeCoverage: \n"); //$NON-NLS-1$
+		for (int i = 0; i < edges.length; i++) {
+			builder.append("\tEdge " + edges[i] + ": " + starts[i] + " - " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ ends[i] + " m\n"); //$NON-NLS-1$
+		}
+		return builder.append("\tLength: " + length + " m\n").toString(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,135 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.geo.GeoHelper;
+
+/**
+ * <b>EdgeGeometry</b> is a collection of small helper functions for measuring
+ * the geometry of the edges of a {@link RoadGraph}. All offsets used here are
+ * geometric offsets, measured along the geometry of an edge, which may differ
+ * slightly from the length attribute of the edge.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class EdgeGeometry {
+
+	/**
+	 * The <code>BEARDIST</code>: the bearing of a line is measured between a
+	 * point on the line and the point 20 meters further along the line
+	 */
+	public static final int BEARING_DISTANCE = 20;
+
+	/**
+	 * Prevents class from being instantiated
+	 */
+	private EdgeGeometry() {
+	}
+
+	/**
+	 * Returns the geometric length of the given edge in meters
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param edge
+	 *            the edge id
+	 * @return the geometric length in meters
+	 */
+	public static double getLength(final RoadGraph graph, final int edge) {
+		int size = graph.getGeometrySize(edge);
+		double length = 0;
+		for (int i = 1; i < size; i++) {
+			length += GeoHelper.equirectangular(graph.getGeometryLongitude(
+					edge, i - 1), graph.getGeometryLatitude(edge, i - 1), graph
+					.getGeometryLongitude(edge, i), graph.getGeometryLatitude(
+					edge, i));
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the bearing of the given edge at the given offset. If
+	 * <code>forward</code> is set, the bearing is measured towards the point
+	 * {@link #BEARING_DISTANCE} meters further along the edge, otherwise
+	 * towards the point {@link #BEARING_DISTANCE} meters back along the edge.
+	 * If the edge ends (or starts) earlier, its end (or start) is used.
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param edge
+	 *            the edge id
+	 * @param offset
+	 *            the geometric offset from the start of the edge in meters
+	 * @param forward
+	 *            <code>true</code> to measure along the direction of the edge,
+	 *            <code>false</code> to measure against it
+	 * @return the bearing in degree, or {@link Float#NaN} if both points
+	 *         coincide
+	 */
+	public static float getBearing(final RoadGraph graph, final int edge,
+			final double offset, final boolean forward) {
+		double from = forward ? offset : Math.max(0, offset - BEARING_DISTANCE);
+		double to = forward ? offset + BEARING_DISTANCE : offset;
+
+		int size = graph.getGeometrySize(edge);
+		double fromLongitude = graph.getGeometryLongitude(edge, 0);
+		double fromLatitude = graph.getGeometryLatitude(edge, 0);
+		double toLongitude = fromLongitude;
+		double toLatitude = fromLatitude;
+		double position = 0;
+
+		for (int i = 1; i < size; i++) {
+			double longitude1 = graph.getGeometryLongitude(edge, i - 1);
+			double latitude1 = graph.getGeometryLatitude(edge, i - 1);
+			double longitude2 = graph.getGeometryLongitude(edge, i);
+			double latitude2 = graph.getGeometryLatitude(edge, i);
+			double length = GeoHelper.equirectangular(longitude1, latitude1,
+					longitude2, latitude2);
+
+			if (position + length <= from) {
+				fromLongitude = longitude2;
+				fromLatitude = latitude2;
+			} else if (position < from) {
+				double ratio = (from - position) / length;
+				fromLongitude = longitude1 + (longitude2 - longitude1) * ratio;
+				fromLatitude = latitude1 + (latitude2 - latitude1) * ratio;
+			}
+
+			if (position + length <= to) {
+				toLongitude = longitude2;
+				toLatitude = latitude2;
+			} else {
+				double ratio = (to - position) / length;
+				toLongitude = longitude1 + (longitude2 - longitude1) * ratio;
+				toLatitude = latitude1 + (latitude2 - latitude1) * ratio;
+				break;
+			}
+			position += length;
+		}
+
+		if (fromLongitude == toLongitude && fromLatitude == toLatitude) {
+			return Float.NaN;
+		}
+		if (forward) {
+			return (float) GeoHelper.bearing(fromLongitude, fromLatitude,
+					toLongitude, toLatitude, true);
+		}
+		return (float) GeoHelper.bearing(toLongitude, toLatitude,
+				fromLongitude, fromLatitude, true);
+	}
+
+	/**
+	 * Returns the smallest difference between the two given bearings, a value
+	 * between 0&#xB0; and 180&#xB0;
+	 *
+	 * @param bearing1
+	 *            the first bearing in degree
+	 * @param bearing2
+	 *            the second bearing in degree
+	 * @return the difference in degree
+	 */
+	public static float getBearingDifference(final float bearing1,
+			final float bearing2) {
+		float difference = Math.abs(bearing1 - bearing2) % 360;
+		return difference > 180 ? 360 - difference : difference;
+	}
+}
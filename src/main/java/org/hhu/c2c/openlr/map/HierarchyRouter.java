@@ -0,0 +1,212 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.util.IndexedIntHeap;
+import org.hhu.c2c.openlr.util.IntList;
+
+/**
+ * The <b>hierarchy router</b> computes shortest paths on a
+ * {@link ContractionHierarchy}. It searches from both ends at once, forward
+ * from the source node on arcs leading upwards and backward from the target
+ * node on arcs coming downwards, so that both searches only ever move towards
+ * more important nodes and meet at the most important node of the shortest
+ * path. The shortcuts of the path found are then unpacked into the edges of
+ * the road graph.
+ *
+ * The searches are bounded by the maximum length of the path and stop as soon
+ * as neither of them can improve the shortest path found so far. Like the
+ * {@link DijkstraRouter}, a hierarchy router holds the state of both searches
+ * in a {@link RoutingScratch} each and is not thread-safe; each thread should
+ * use its own instance, while the contraction hierarchy itself can be shared.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class HierarchyRouter implements Router {
+
+	/** Holds the contraction hierarchy */
+	private final ContractionHierarchy hierarchy;
+
+	/** Holds the state of the forward search */
+	private final RoutingScratch forward;
+
+	/** Holds the state of the backward search */
+	private final RoutingScratch backward;
+
+	/** Holds the arcs still to be unpacked */
+	private final IntList stack;
+
+	/**
+	 * Constructs a new router for the given contraction hierarchy
+	 *
+	 * @param hierarchy
+	 *            the contraction hierarchy
+	 */
+	public HierarchyRouter(final ContractionHierarchy hierarchy) {
+		this(hierarchy, new RoutingScratch(hierarchy.getGraph().getNodeCount()),
+				new RoutingScratch(hierarchy.getGraph().getNodeCount()));
+	}
+
+	/**
+	 * Constructs a new router for the given contraction hierarchy, using the
+	 * given scratches, e.g. ones kept by a thread across road graphs
+	 *
+	 * @param hierarchy
+	 *            the contraction hierarchy
+	 * @param forward
+	 *            the scratch of the forward search, holding at least the
+	 *            nodes of the road graph
+	 * @param backward
+	 *            the scratch of the backward search, another one of the same
+	 *            size
+	 */
+	public HierarchyRouter(final ContractionHierarchy hierarchy,
+			final RoutingScratch forward, final RoutingScratch backward) {
+		int nodeCount = hierarchy.getGraph().getNodeCount();
+		if (forward == backward) {
+			throw new IllegalArgumentException(
+					"The searches need a scratch each."); //$NON-NLS-1$
+		}
+		if (forward.getCapacity() < nodeCount
+				|| backward.getCapacity() < nodeCount) {
+			throw new IllegalArgumentException(
+					"The scratch is too small for the road graph."); //$NON-NLS-1$
+		}
+		this.hierarchy = hierarchy;
+		this.forward = forward;
+		this.backward = backward;
+		this.stack = new IntList();
+	}
+
+	/**
+	 * Returns the contraction hierarchy
+	 *
+	 * @return the contraction hierarchy
+	 */
+	public ContractionHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * {@link Router#getGraph()}
+	 */
+	@Override
+	public RoadGraph getGraph() {
+		return hierarchy.getGraph();
+	}
+
+	/**
+	 * {@link Router#route(int, int, int, int, IntList)}
+	 */
+	@Override
+	public int route(final int source, final int target, final int lowestFrc,
+			final int maximumLength, final IntList path) {
+		path.clear();
+		if (source == target) {
+			return 0;
+		}
+		if (maximumLength < 0) {
+			return NO_ROUTE;
+		}
+
+		forward.clear();
+		backward.clear();
+		stack.clear();
+		forward.relax(source, 0, -1);
+		backward.relax(target, 0, -1);
+		IndexedIntHeap forwardHeap = forward.getHeap();
+		IndexedIntHeap backwardHeap = backward.getHeap();
+
+		long best = (long) maximumLength + 1;
+		int meeting = -1;
+		while (true) {
+			boolean forwardStep = !forwardHeap.isEmpty()
+					&& forwardHeap.getMinimumKey() < best;
+			boolean backwardStep = !backwardHeap.isEmpty()
+					&& backwardHeap.getMinimumKey() < best;
+			if (!forwardStep && !backwardStep) {
+				break;
+			}
+			if (forwardStep && backwardStep) {
+				// advance the search which is behind
+				forwardStep = forwardHeap.getMinimumKey() <= backwardHeap
+						.getMinimumKey();
+			}
+
+			int node;
+			if (forwardStep) {
+				int distance = forwardHeap.getMinimumKey();
+				node = forwardHeap.removeMinimum();
+				for (int i = hierarchy.getUpwardStart(node); i < hierarchy
+						.getUpwardEnd(node); i++) {
+					int arc = hierarchy.getUpwardArc(i);
+					int length = distance + hierarchy.getLength(arc);
+					if (hierarchy.getFrc(arc) <= lowestFrc
+							&& length <= maximumLength) {
+						forward.relax(hierarchy.getTarget(arc), length, arc);
+					}
+				}
+			} else {
+				int distance = backwardHeap.getMinimumKey();
+				node = backwardHeap.removeMinimum();
+				for (int i = hierarchy.getDownwardStart(node); i < hierarchy
+						.getDownwardEnd(node); i++) {
+					int arc = hierarchy.getDownwardArc(i);
+					int length = distance + hierarchy.getLength(arc);
+					if (hierarchy.getFrc(arc) <= lowestFrc
+							&& length <= maximumLength) {
+						backward.relax(hierarchy.getSource(arc), length, arc);
+					}
+				}
+			}
+
+			if (forward.isReached(node) && backward.isReached(node)) {
+				long length = (long) forward.getDistance(node)
+						+ backward.getDistance(node);
+				if (length < best) {
+					best = length;
+					meeting = node;
+				}
+			}
+		}
+
+		if (meeting < 0) {
+			return NO_ROUTE;
+		}
+
+		// the arcs from the source node to the meeting node, last one first
+		for (int node = meeting; node != source; node = hierarchy
+				.getSource(forward.getPredecessor(node))) {
+			stack.add(forward.getPredecessor(node));
+		}
+		while (!stack.isEmpty()) {
+			unpack(stack.removeLast(), path);
+		}
+		for (int node = meeting; node != target; node = hierarchy
+				.getTarget(backward.getPredecessor(node))) {
+			unpack(backward.getPredecessor(node), path);
+		}
+		return (int) best;
+	}
+
+	/**
+	 * Appends the edges represented by the given arc to the path
+	 *
+	 * @param arc
+	 *            an edge or a shortcut
+	 * @param path
+	 *            the path
+	 */
+	private void unpack(final int arc, final IntList path) {
+		int bottom = stack.size();
+		stack.add(arc);
+		while (stack.size() > bottom) {
+			int next = stack.removeLast();
+			if (hierarchy.isShortcut(next)) {
+				stack.add(hierarchy.getSecond(next));
+				stack.add(hierarchy.getFirst(next));
+			} else {
+				path.add(next);
+			}
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.util.IntIntMap;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.IntObjectMap;
+
+/**
+ * The <b>list overlay</b> replaces some of the lists of a structure stored in
+ * compressed sparse row form, like the adjacency lists of a {@link RoadGraph}
+ * or the cells of a {@link SpatialIndex}, without copying the others. The
+ * replaced lists are stored in compressed sparse row form themselves and are
+ * found by their key (the node or the cell) in an {@link IntIntMap}.
+ *
+ * Indices into the overlay start after the last index of the base structure,
+ * so that callers iterating a list by index don't need to know where it is
+ * stored; see {@link RoadGraph#getOutgoingStart(int)} for an example. An
+ * overlay derived from a previous one copies its lists, so its size grows
+ * with all updates since the base structure was built, not with the base
+ * structure.
+ *
+ * A list overlay is immutable and can safely be shared between threads.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+final class ListOverlay {
+
+	/** Holds the slot of each replaced list */
+	private final IntIntMap slots;
+
+	/** Holds for each slot the index of its first value */
+	private final int[] offsets;
+
+	/** Holds the values, grouped by slot */
+	private final int[] values;
+
+	/**
+	 * Constructs a new list overlay holding the lists of the previous overlay
+	 * and the given replaced lists, which take precedence
+	 *
+	 * @param previous
+	 *            the previous overlay, or <code>null</code>
+	 * @param replaced
+	 *            the replaced lists by their key
+	 */
+	ListOverlay(final ListOverlay previous, final IntObjectMap<IntList> replaced) {
+		int[] keys = replaced.keys();
+		int[] previousKeys = previous == null ? new int[0] : previous.slots
+				.keys();
+		slots = new IntIntMap(keys.length + previousKeys.length);
+
+		int size = 0;
+		for (int key : keys) {
+			size += replaced.get(key).size();
+		}
+		for (int key : previousKeys) {
+			if (!replaced.containsKey(key)) {
+				int slot = previous.getSlot(key);
+				size += previous.getEnd(slot) - previous.getStart(slot);
+			}
+		}
+
+		offsets = new int[keys.length + previousKeys.length + 1];
+		values = new int[size];
+		int slot = 0;
+		for (int key : keys) {
+			IntList list = replaced.get(key);
+			slots.put(key, slot);
+			offsets[slot + 1] = offsets[slot] + list.size();
+			for (int i = 0; i < list.size(); i++) {
+				values[offsets[slot] + i] = list.get(i);
+			}
+			slot++;
+		}
+		for (int key : previousKeys) {
+			if (!replaced.containsKey(key)) {
+				int from = previous.getSlot(key);
+				int start = previous.getStart(from);
+				int length = previous.getEnd(from) - start;
+				slots.put(key, slot);
+				offsets[slot + 1] = offsets[slot] + length;
+				System.arraycopy(previous.values, start, values,
+						offsets[slot], length);
+				slot++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of the list with the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the slot, or <code>-1</code> if the list isn't replaced
+	 */
+	int getSlot(final int key) {
+		return slots.get(key, -1);
+	}
+
+	/**
+	 * Returns the index of the first value of the given slot
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the index of the first value
+	 */
+	int getStart(final int slot) {
+		return offsets[slot];
+	}
+
+	/**
+	 * Returns the index after the last value of the given slot
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the index after the last value
+	 */
+	int getEnd(final int slot) {
+		return offsets[slot + 1];
+	}
+
+	/**
+	 * Returns the value at the given index
+	 *
+	 * @param index
+	 *            the index
+	 * @return the value
+	 */
+	int get(final int index) {
+		return values[index];
+	}
+
+	/**
+	 * Returns the number of replaced lists
+	 *
+	 * @return the number of replaced lists
+	 */
+	int size() {
+		return slots.size();
+	}
+}
@@ -0,0 +1,558 @@
+package org.hhu.c2c.openlr.map;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>map decoder</b> resolves a {@link LocationReference} into a
+ * {@link MatchedPath} on a {@link RoadGraph}. Decoding follows the steps of
+ * the OpenLR<sup><small>TM</small></sup> decoder:
+ * <ol>
+ * <li>For each location reference point the candidate lines are searched and
+ * rated (see {@link CandidateFinder}).</li>
+ * <li>For each pair of consecutive location reference points the candidate
+ * lines are combined, best first, until a shortest path between them is found
+ * whose length matches the distance to the next point within the distance
+ * tolerance and which uses no road less important than the lowest functional
+ * road class to the next point. The end of a pair is the start of the next
+ * one. If the next pair can't be connected from that start, the decoder
+ * backtracks and tries the next best pairs of the previous points; a
+ * candidate from which the rest of the location can't be connected is
+ * remembered as a dead end and not tried again.</li>
+ * <li>The paths are concatenated and trimmed by the positive and negative
+ * offsets.</li>
+ * </ol>
+ *
+ * Routes can be shared between decoders through a {@link RouteCache}. The
+ * time spent in each step is recorded in the {@link MapDecoderStatistics} of
+ * the decoder. A map decoder keeps scratch memory between two calls and is
+ * therefore not thread-safe; each thread should use its own instance. The
+ * road graph, index and parameters may be shared.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MapDecoder {
+
+	/** Holds the road graph */
+	private final RoadGraph graph;
+
+	/** Holds the matching parameters */
+	private final MatchingParameters parameters;
+
+	/** Holds the candidate finder */
+	private final CandidateFinder finder;
+
+	/** Holds the router */
+	private final Router router;
+
+	/** Holds the route cache, or <code>null</code> */
+	private final RouteCache cache;
+
+	/** Holds the statistics */
+	private final MapDecoderStatistics statistics;
+
+	/** Holds the candidates for each location reference point */
+	private CandidateList[] candidates;
+
+	/**
+	 * Holds for each pair of consecutive location reference points the
+	 * candidate pairs still to be tried, ordered by score
+	 */
+	private int[][] pairs;
+
+	/** Holds the number of candidate pairs of each step */
+	private int[] pairCounts;
+
+	/** Holds the index of the next candidate pair to try in each step */
+	private int[] nextPairs;
+
+	/** Holds the candidate pair chosen in each step */
+	private int[] chosenPairs;
+
+	/** Holds the route of the candidate pair chosen in each step */
+	private IntList[] routes;
+
+	/**
+	 * Holds for each location reference point the candidates from which the
+	 * rest of the location can't be connected
+	 */
+	private boolean[][] deadEnds;
+
+	/** Holds the scores of the candidate pairs while they are ordered */
+	private final float[] pairScores;
+
+	/** Holds the edges of the current route */
+	private final IntList route;
+
+	/** Holds the edges of the location reference path */
+	private final IntList path;
+
+	/**
+	 * Constructs a new map decoder routing by Dijkstra's algorithm
+	 *
+	 * @param index
+	 *            the spatial index of the road graph
+	 * @param parameters
+	 *            the matching parameters
+	 */
+	public MapDecoder(final SpatialIndex index,
+			final MatchingParameters parameters) {
+		this(index, parameters, new DijkstraRouter(index.getGraph()));
+	}
+
+	/**
+	 * Constructs a new map decoder
+	 *
+	 * @param index
+	 *            the spatial index of the road graph
+	 * @param parameters
+	 *            the matching parameters
+	 * @param router
+	 *            the router, which must not be used by any other thread
+	 */
+	public MapDecoder(final SpatialIndex index,
+			final MatchingParameters parameters, final Router router) {
+		this(index, parameters, router, null);
+	}
+
+	/**
+	 * Constructs a new map decoder looking up routes in the given cache before
+	 * computing them
+	 *
+	 * @param index
+	 *            the spatial index of the road graph
+	 * @param parameters
+	 *            the matching parameters
+	 * @param router
+	 *            the router, which must not be used by any other thread
+	 * @param cache
+	 *            the route cache, which may be shared with other decoders on
+	 *            the same road graph, or <code>null</code>
+	 */
+	public MapDecoder(final SpatialIndex index,
+			final MatchingParameters parameters, final Router router,
+			final RouteCache cache) {
+		this.graph = index.getGraph();
+		this.parameters = parameters;
+		this.finder = new CandidateFinder(index, parameters);
+		this.router = router;
+		this.cache = cache;
+		this.statistics = new MapDecoderStatistics();
+		this.candidates = new CandidateList[0];
+
+		int maximumCandidates = parameters.getMaximumCandidates();
+		this.pairs = new int[0][];
+		this.pairCounts = new int[0];
+		this.nextPairs = new int[0];
+		this.chosenPairs = new int[0];
+		this.routes = new IntList[0];
+		this.deadEnds = new boolean[0][];
+		this.pairScores = new float[maximumCandidates * maximumCandidates];
+		this.route = new IntList();
+		this.path = new IntList();
+	}
+
+	/**
+	 * Returns the statistics of this decoder
+	 *
+	 * @return the statistics
+	 */
+	public MapDecoderStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Decodes the given location reference onto the road graph
+	 *
+	 * @param reference
+	 *            the location reference
+	 * @return the path covered by the location
+	 * @throws LocationReferenceException
+	 *             if no candidate lines are found for a location reference
+	 *             point, if two location reference points can't be connected
+	 *             or if the offsets are longer than the location reference
+	 *             path
+	 */
+	public MatchedPath decode(final LocationReference reference)
+			throws LocationReferenceException {
+		boolean success = false;
+		try {
+			MatchedPath result = match(reference);
+			success = true;
+			return result;
+		} finally {
+			statistics.count(success);
+		}
+	}
+
+	/**
+	 * Finds the candidates, connects them and trims the path
+	 *
+	 * @param reference
+	 *            the location reference
+	 * @return the path covered by the location
+	 * @throws LocationReferenceException
+	 *             if the location reference can't be decoded
+	 */
+	private MatchedPath match(final LocationReference reference)
+			throws LocationReferenceException {
+		List<LocationReferencePoint> points = reference
+				.getLocationReferencePoints();
+		int count = points.size();
+
+		long time = System.nanoTime();
+		try {
+			findCandidates(points);
+		} finally {
+			long now = System.nanoTime();
+			statistics.addCandidateTime(now - time);
+			time = now;
+		}
+
+		int firstOffset;
+		int lastOffset;
+		try {
+			connect(points);
+
+			path.clear();
+			firstOffset = 0;
+			lastOffset = 0;
+			for (int i = 0; i + 1 < count; i++) {
+				CandidateList from = candidates[i];
+				CandidateList to = candidates[i + 1];
+				int a = chosenPairs[i] / to.size();
+				int b = chosenPairs[i] % to.size();
+				int edgeA = from.getEdge(a);
+				int edgeB = to.getEdge(b);
+				if (i == 0) {
+					path.add(edgeA);
+					firstOffset = from.getOffset(a);
+				}
+				path.addAll(routes[i]);
+				if (!isSameEdge(edgeA, from.getOffset(a), edgeB, to
+						.getOffset(b))) {
+					path.add(edgeB);
+				}
+				lastOffset = to.getOffset(b);
+			}
+		} finally {
+			long now = System.nanoTime();
+			statistics.addRoutingTime(now - time);
+			time = now;
+		}
+
+		try {
+			return trim(firstOffset + reference.getPositiveOffset().getDistance(),
+					graph.getLength(path.get(path.size() - 1)) - lastOffset
+							+ reference.getNegativeOffset().getDistance());
+		} finally {
+			statistics.addTrimmingTime(System.nanoTime() - time);
+		}
+	}
+
+	/**
+	 * Finds the candidate lines of all location reference points
+	 *
+	 * @param points
+	 *            the location reference points
+	 * @throws LocationReferenceException
+	 *             if there are no candidates for a point
+	 */
+	private void findCandidates(final List<LocationReferencePoint> points)
+			throws LocationReferenceException {
+		int count = points.size();
+		if (candidates.length < count) {
+			CandidateList[] grown = new CandidateList[count];
+			System.arraycopy(candidates, 0, grown, 0, candidates.length);
+			for (int i = candidates.length; i < count; i++) {
+				grown[i] = new CandidateList(parameters.getMaximumCandidates());
+			}
+			candidates = grown;
+		}
+
+		for (int i = 0; i < count; i++) {
+			finder.find(points.get(i), i == count - 1, candidates[i]);
+			if (candidates[i].isEmpty()) {
+				throw new LocationReferenceException(Messages.getString(
+						"MapDecoder.Exception.NO_CANDIDATES", i)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Chooses a candidate pair for each pair of consecutive location reference
+	 * points, so that all of them are connected. The pairs of each step are
+	 * tried best first, starting from the candidate chosen by the previous
+	 * step. If no pair of a step can be connected, the previous step goes on
+	 * with its next best pair. The chosen pairs are left in
+	 * {@link #chosenPairs}, their routes in {@link #routes}.
+	 *
+	 * @param points
+	 *            the location reference points
+	 * @throws LocationReferenceException
+	 *             if the location reference points can't be connected
+	 */
+	private void connect(final List<LocationReferencePoint> points)
+			throws LocationReferenceException {
+		int steps = points.size() - 1;
+		prepare(steps);
+
+		// the furthest failing step tells where the location can't be connected
+		int failed = 0;
+		order(0, -1);
+		int step = 0;
+		while (step >= 0 && step < steps) {
+			LocationReferencePoint point = points.get(step);
+			int pair = next(step, point.getDistanceToNextPoint()
+					.getDistance(), Math.min(7, point.getLowestFRCToNextPoint()
+					.getByteRepresentation()
+					+ parameters.getFrcVariance()));
+			if (pair < 0) {
+				failed = Math.max(failed, step);
+				if (step > 0) {
+					// the chosen start of this step leads nowhere
+					CandidateList from = candidates[step];
+					deadEnds[step][chosenPairs[step - 1] % from.size()] = true;
+				}
+				step--;
+				continue;
+			}
+			chosenPairs[step] = pair;
+			routes[step].clear();
+			routes[step].addAll(route);
+			step++;
+			if (step < steps) {
+				order(step, pair % candidates[step].size());
+			}
+		}
+		if (step < 0) {
+			throw new LocationReferenceException(Messages.getString(
+					"MapDecoder.Exception.NO_ROUTE", failed, failed + 1)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Provides the memory to connect the given number of steps
+	 *
+	 * @param steps
+	 *            the number of pairs of consecutive location reference points
+	 */
+	private void prepare(final int steps) {
+		int maximumCandidates = parameters.getMaximumCandidates();
+		if (pairs.length < steps) {
+			int[][] grownPairs = new int[steps][];
+			IntList[] grownRoutes = new IntList[steps];
+			boolean[][] grownDeadEnds = new boolean[steps + 1][];
+			System.arraycopy(pairs, 0, grownPairs, 0, pairs.length);
+			System.arraycopy(routes, 0, grownRoutes, 0, routes.length);
+			System.arraycopy(deadEnds, 0, grownDeadEnds, 0, deadEnds.length);
+			for (int i = pairs.length; i < steps; i++) {
+				grownPairs[i] = new int[maximumCandidates * maximumCandidates];
+				grownRoutes[i] = new IntList();
+			}
+			for (int i = deadEnds.length; i <= steps; i++) {
+				grownDeadEnds[i] = new boolean[maximumCandidates];
+			}
+			pairs = grownPairs;
+			routes = grownRoutes;
+			deadEnds = grownDeadEnds;
+			pairCounts = new int[steps];
+			nextPairs = new int[steps];
+			chosenPairs = new int[steps];
+		}
+		for (int i = 0; i <= steps; i++) {
+			Arrays.fill(deadEnds[i], false);
+		}
+	}
+
+	/**
+	 * Orders the candidate pairs of a step by the product of their scores,
+	 * best first
+	 *
+	 * @param step
+	 *            the step, i.e. the index of its first location reference
+	 *            point
+	 * @param chosen
+	 *            the candidate of the first point chosen by the previous step,
+	 *            or <code>-1</code> to try all candidates
+	 */
+	private void order(final int step, final int chosen) {
+		CandidateList from = candidates[step];
+		CandidateList to = candidates[step + 1];
+		int[] stepPairs = pairs[step];
+		int size = 0;
+		int first = chosen < 0 ? 0 : chosen;
+		int last = chosen < 0 ? from.size() : chosen + 1;
+		for (int a = first; a < last; a++) {
+			for (int b = 0; b < to.size(); b++) {
+				float score = from.getScore(a) * to.getScore(b);
+				int i = size++;
+				while (i > 0 && pairScores[i - 1] < score) {
+					stepPairs[i] = stepPairs[i - 1];
+					pairScores[i] = pairScores[i - 1];
+					i--;
+				}
+				stepPairs[i] = a * to.size() + b;
+				pairScores[i] = score;
+			}
+		}
+		pairCounts[step] = size;
+		nextPairs[step] = 0;
+	}
+
+	/**
+	 * Tries the remaining pairs of candidates of a step, best first, until
+	 * one of them can be connected. Pairs ending in a dead end are skipped.
+	 * The route of the pair is left in {@link #route}.
+	 *
+	 * @param step
+	 *            the step, i.e. the index of its first location reference
+	 *            point
+	 * @param distance
+	 *            the distance to the next point in meters
+	 * @param lowestFrc
+	 *            the least important functional road class allowed
+	 * @return the pair as <code>a * to.size() + b</code>, or <code>-1</code>
+	 *         if no remaining pair can be connected
+	 */
+	private int next(final int step, final int distance, final int lowestFrc) {
+		CandidateList from = candidates[step];
+		CandidateList to = candidates[step + 1];
+		boolean[] ends = deadEnds[step + 1];
+		int[] stepPairs = pairs[step];
+		while (nextPairs[step] < pairCounts[step]) {
+			int pair = stepPairs[nextPairs[step]++];
+			int a = pair / to.size();
+			int b = pair % to.size();
+			if (!ends[b]
+					&& route(from.getEdge(a), from.getOffset(a), to.getEdge(b),
+							to.getOffset(b), distance, lowestFrc) != Router.NO_ROUTE) {
+				return pair;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Computes the route between two candidates and checks its length. The
+	 * edges between both candidate lines are left in {@link #route}.
+	 *
+	 * @param edgeA
+	 *            the edge of the first candidate
+	 * @param offsetA
+	 *            the offset of the first candidate
+	 * @param edgeB
+	 *            the edge of the second candidate
+	 * @param offsetB
+	 *            the offset of the second candidate
+	 * @param distance
+	 *            the distance to the next point in meters
+	 * @param lowestFrc
+	 *            the least important functional road class allowed
+	 * @return the length of the route, or {@link Router#NO_ROUTE} if there is
+	 *         no route matching the distance
+	 */
+	private int route(final int edgeA, final int offsetA, final int edgeB,
+			final int offsetB, final int distance, final int lowestFrc) {
+		int tolerance = parameters.getDistanceTolerance();
+		int length;
+		if (isSameEdge(edgeA, offsetA, edgeB, offsetB)) {
+			route.clear();
+			length = offsetB - offsetA;
+		} else {
+			int head = graph.getLength(edgeA) - offsetA + offsetB;
+			int maximumLength = distance + tolerance - head;
+			int routeLength = Router.NO_ROUTE;
+			if (cache != null) {
+				routeLength = cache.get(edgeA, edgeB, lowestFrc, route);
+				if (routeLength > maximumLength) {
+					// the shortest path is too long
+					return Router.NO_ROUTE;
+				}
+			}
+			if (routeLength == Router.NO_ROUTE) {
+				statistics.countRoute();
+				routeLength = router.route(graph.getTarget(edgeA), graph
+						.getSource(edgeB), lowestFrc, maximumLength, route);
+				if (routeLength == Router.NO_ROUTE) {
+					return Router.NO_ROUTE;
+				}
+				if (cache != null) {
+					cache.put(edgeA, edgeB, lowestFrc, route, routeLength);
+				}
+			}
+			length = head + routeLength;
+		}
+		return Math.abs(length - distance) <= tolerance ? length
+				: Router.NO_ROUTE;
+	}
+
+	/**
+	 * Returns <code>true</code> if the second candidate lies on the same edge
+	 * behind the first one, so that no routing is needed
+	 *
+	 * @param edgeA
+	 *            the edge of the first candidate
+	 * @param offsetA
+	 *            the offset of the first candidate
+	 * @param edgeB
+	 *            the edge of the second candidate
+	 * @param offsetB
+	 *            the offset of the second candidate
+	 * @return <code>true</code> if both candidates lie on the same edge in
+	 *         order
+	 */
+	private static boolean isSameEdge(final int edgeA, final int offsetA,
+			final int edgeB, final int offsetB) {
+		return edgeA == edgeB && offsetB >= offsetA;
+	}
+
+	/**
+	 * Removes the edges covered by the offsets from the location reference
+	 * path
+	 *
+	 * @param positiveOffset
+	 *            the distance between the start of the first edge and the
+	 *            start of the location
+	 * @param negativeOffset
+	 *            the distance between the end of the location and the end of
+	 *            the last edge
+	 * @return the matched path
+	 * @throws LocationReferenceException
+	 *             if the offsets are longer than the path
+	 */
+	private MatchedPath trim(final int positiveOffset, final int negativeOffset)
+			throws LocationReferenceException {
+		int first = 0;
+		int last = path.size() - 1;
+		int positive = positiveOffset;
+		int negative = negativeOffset;
+		while (first <= last && positive >= graph.getLength(path.get(first))
+				&& positive > 0) {
+			positive -= graph.getLength(path.get(first++));
+		}
+		while (last >= first && negative >= graph.getLength(path.get(last))
+				&& negative > 0) {
+			negative -= graph.getLength(path.get(last--));
+		}
+
+		int length = -positive - negative;
+		int[] edges = new int[Math.max(0, last - first + 1)];
+		for (int i = first; i <= last; i++) {
+			edges[i - first] = path.get(i);
+			length += graph.getLength(edges[i - first]);
+		}
+		if (edges.length == 0 || length < 0) {
+			throw new LocationReferenceException(Messages
+					.getString("MapDecoder.Exception.OFFSETS_TOO_LONG")); //$NON-NLS-1$
+		}
+		return new MatchedPath(edges, positive, negative, length);
+	}
+}
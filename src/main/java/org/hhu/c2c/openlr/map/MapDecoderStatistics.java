@@ -0,0 +1,189 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * The <b>map decoder statistics</b> count the location references decoded by a
+ * {@link MapDecoder} and the time spent in each stage of decoding:
+ * <ol>
+ * <li>finding the candidate lines of the location reference points,</li>
+ * <li>routing between the candidate lines and</li>
+ * <li>concatenating and trimming the path by the offsets.</li>
+ * </ol>
+ *
+ * Like the decoder, the statistics are not thread-safe. They are meant to be
+ * read by the thread owning the decoder, e.g. after each batch.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MapDecoderStatistics {
+
+	/** Holds the number of location references decoded successfully */
+	private long decoded;
+
+	/** Holds the number of location references that couldn't be decoded */
+	private long failed;
+
+	/** Holds the number of shortest-path computations */
+	private long routes;
+
+	/** Holds the time spent finding candidates in nanoseconds */
+	private long candidateTime;
+
+	/** Holds the time spent routing in nanoseconds */
+	private long routingTime;
+
+	/** Holds the time spent trimming in nanoseconds */
+	private long trimmingTime;
+
+	/**
+	 * Returns the number of location references decoded successfully
+	 *
+	 * @return the number of decoded location references
+	 */
+	public long getDecoded() {
+		return decoded;
+	}
+
+	/**
+	 * Returns the number of location references that couldn't be decoded
+	 *
+	 * @return the number of failed location references
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * Returns the number of shortest-path computations
+	 *
+	 * @return the number of routes
+	 */
+	public long getRoutes() {
+		return routes;
+	}
+
+	/**
+	 * Returns the time spent finding candidate lines
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getCandidateTime() {
+		return candidateTime;
+	}
+
+	/**
+	 * Returns the time spent routing between candidate lines
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getRoutingTime() {
+		return routingTime;
+	}
+
+	/**
+	 * Returns the time spent concatenating and trimming paths
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getTrimmingTime() {
+		return trimmingTime;
+	}
+
+	/**
+	 * Returns the total time spent decoding
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getTotalTime() {
+		return candidateTime + routingTime + trimmingTime;
+	}
+
+	/**
+	 * Sets all counters back to zero
+	 */
+	public void reset() {
+		decoded = 0;
+		failed = 0;
+		routes = 0;
+		candidateTime = 0;
+		routingTime = 0;
+		trimmingTime = 0;
+	}
+
+	/**
+	 * Adds the counters of the given statistics to these ones, e.g. to sum up
+	 * the statistics of several decoders
+	 *
+	 * @param statistics
+	 *            the statistics to add
+	 */
+	public void add(final MapDecoderStatistics statistics) {
+		decoded += statistics.decoded;
+		failed += statistics.failed;
+		routes += statistics.routes;
+		candidateTime += statistics.candidateTime;
+		routingTime += statistics.routingTime;
+		trimmingTime += statistics.trimmingTime;
+	}
+
+	/**
+	 * Counts a decoded or failed location reference
+	 *
+	 * @param success
+	 *            <code>true</code> if the location reference was decoded
+	 */
+	void count(final boolean success) {
+		if (success) {
+			decoded++;
+		} else {
+			failed++;
+		}
+	}
+
+	/**
+	 * Counts a shortest-path computation
+	 */
+	void countRoute() {
+		routes++;
+	}
+
+	/**
+	 * Adds time spent finding candidates
+	 *
+	 * @param nanos
+	 *            the time in nanoseconds
+	 */
+	void addCandidateTime(final long nanos) {
+		candidateTime += nanos;
+	}
+
+	/**
+	 * Adds time spent routing
+	 *
+	 * @param nanos
+	 *            the time in nanoseconds
+	 */
+	void addRoutingTime(final long nanos) {
+		routingTime += nanos;
+	}
+
+	/**
+	 * Adds time spent trimming
+	 *
+	 * @param nanos
+	 *            the time in nanoseconds
+	 */
+	void addTrimmingTime(final long nanos) {
+		trimmingTime += nanos;
+	}
+
+	@Override
+	public String toString() {
+		long count = Math.max(1, decoded + failed);
+		return "MapDecoderStatistics: \n" + "\tDecoded: " + decoded + "\n"
+				+ "\tFailed: " + failed + "\n" + "\tRoutes: " + routes + "\n"
+				+ "\tCandidates: " + candidateTime / count + " ns/location\n"
+				+ "\tRouting: " + routingTime / count + " ns/location\n"
+				+ "\tTrimming: " + trimmingTime / count + " ns/location\n";
+	}
+}
@@ -0,0 +1,306 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.core.Rules.MAXIMUM_DISTANCE_BETWEEN_TWO_LR_POINTS;
+
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferenceBuilder;
+import org.hhu.c2c.openlr.core.LocationReferencePointBuilder;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>map encoder</b> derives a {@link LocationReference} from a path on a
+ * {@link RoadGraph}, given as a sequence of connected edges. The location
+ * reference points are placed on the start nodes of edges of the path, so
+ * that
+ * <ul>
+ * <li>the path between two consecutive location reference points is the
+ * shortest path between them and</li>
+ * <li>the distance between two consecutive location reference points doesn't
+ * exceed {@link org.hhu.c2c.openlr.core.Rules#MAXIMUM_DISTANCE_BETWEEN_TWO_LR_POINTS}.</li>
+ * </ul>
+ * Starting with the first edge, the path is followed as long as both
+ * conditions hold. Where one of them is violated, an intermediate location
+ * reference point is inserted at the start of the last edge that still
+ * satisfied them. The last location reference point is placed on the end node
+ * of the last edge.
+ *
+ * The bearing of each location reference point is measured along the edge
+ * following it (against the edge preceding it for the last point), the lowest
+ * functional road class to the next point is the least important class of the
+ * edges up to the next point.
+ *
+ * A map encoder keeps the scratch memory of its router between two calls and
+ * is therefore not thread-safe; each thread should use its own instance.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MapEncoder {
+
+	/** Holds the road graph */
+	private final RoadGraph graph;
+
+	/** Holds the router */
+	private final Router router;
+
+	/** Holds the indices of the edges starting at a location reference point */
+	private final IntList points;
+
+	/** Holds the edges of the current route */
+	private final IntList route;
+
+	/**
+	 * Constructs a new map encoder routing by Dijkstra's algorithm
+	 *
+	 * @param graph
+	 *            the road graph
+	 */
+	public MapEncoder(final RoadGraph graph) {
+		this(new DijkstraRouter(graph));
+	}
+
+	/**
+	 * Constructs a new map encoder
+	 *
+	 * @param router
+	 *            the router, which must not be used by any other thread
+	 */
+	public MapEncoder(final Router router) {
+		this.graph = router.getGraph();
+		this.router = router;
+		this.points = new IntList();
+		this.route = new IntList();
+	}
+
+	/**
+	 * Encodes the given matched path, including its offsets
+	 *
+	 * @param path
+	 *            the path
+	 * @return the location reference
+	 * @throws LocationReferenceException
+	 *             if the path can't be encoded
+	 * @see #encode(int[], int, int)
+	 */
+	public LocationReference encode(final MatchedPath path)
+			throws LocationReferenceException {
+		return encode(path.getEdges(), path.getPositiveOffset(), path
+				.getNegativeOffset());
+	}
+
+	/**
+	 * Encodes the given path without offsets
+	 *
+	 * @param edges
+	 *            the edges of the path
+	 * @return the location reference
+	 * @throws LocationReferenceException
+	 *             if the path can't be encoded
+	 * @see #encode(int[], int, int)
+	 */
+	public LocationReference encode(final int[] edges)
+			throws LocationReferenceException {
+		return encode(edges, 0, 0);
+	}
+
+	/**
+	 * Encodes the given path. Edges completely covered by the offsets are
+	 * removed from the path before encoding.
+	 *
+	 * @param edges
+	 *            the edges of the path
+	 * @param positiveOffset
+	 *            the distance between the start of the first edge and the
+	 *            start of the location in meters
+	 * @param negativeOffset
+	 *            the distance between the end of the location and the end of
+	 *            the last edge in meters
+	 * @return the location reference
+	 * @throws LocationReferenceException
+	 *             if the path is empty or not connected, if a single edge
+	 *             exceeds the maximum distance between two location reference
+	 *             points or if the offsets are longer than the path
+	 */
+	public LocationReference encode(final int[] edges,
+			final int positiveOffset, final int negativeOffset)
+			throws LocationReferenceException {
+		if (edges.length == 0) {
+			throw new LocationReferenceException(Messages
+					.getString("MapEncoder.Exception.EMPTY_PATH")); //$NON-NLS-1$
+		}
+		for (int i = 1; i < edges.length; i++) {
+			if (graph.getTarget(edges[i - 1]) != graph.getSource(edges[i])) {
+				throw new LocationReferenceException(Messages.getString(
+						"MapEncoder.Exception.NOT_CONNECTED", edges[i - 1], //$NON-NLS-1$
+						edges[i]));
+			}
+		}
+
+		// drop the edges covered by the offsets
+		int first = 0;
+		int last = edges.length - 1;
+		int positive = positiveOffset;
+		int negative = negativeOffset;
+		while (first < last && positive >= graph.getLength(edges[first])) {
+			positive -= graph.getLength(edges[first++]);
+		}
+		while (last > first && negative >= graph.getLength(edges[last])) {
+			negative -= graph.getLength(edges[last--]);
+		}
+		if (positive + negative > length(edges, first, last + 1)) {
+			throw new LocationReferenceException(Messages
+					.getString("MapEncoder.Exception.OFFSETS_TOO_LONG")); //$NON-NLS-1$
+		}
+
+		placePoints(edges, first, last + 1);
+
+		LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+		for (int i = 0; i < points.size(); i++) {
+			int start = points.get(i);
+			int end = i + 1 < points.size() ? points.get(i + 1) : last + 1;
+			int edge = edges[start];
+			int node = graph.getSource(edge);
+
+			int lowestFrc = 0;
+			for (int j = start; j < end; j++) {
+				lowestFrc = Math.max(lowestFrc, graph.getFrc(edges[j]));
+			}
+
+			lrb.addLocationReferencePoint(lrpb.reset().setCoordinate(
+					graph.getNodeLongitude(node), graph.getNodeLatitude(node))
+					.setFrc(graph.getFunctionalRoadClass(edge)).setFow(
+							graph.getFormOfWay(edge)).setLfrcnp(
+							FunctionalRoadClass
+									.getFunctionalRoadClass((byte) lowestFrc))
+					.setBearing(bearing(edge, 0, true)).setDnp(
+							length(edges, start, end)).build());
+		}
+
+		int edge = edges[last];
+		int node = graph.getTarget(edge);
+		lrb.close(graph.getNodeLongitude(node), graph.getNodeLatitude(node),
+				graph.getFunctionalRoadClass(edge), graph.getFormOfWay(edge),
+				bearing(edge, EdgeGeometry.getLength(graph, edge), false));
+
+		return lrb.setPositiveOffset(positive).setNegativeOffset(negative)
+				.build();
+	}
+
+	/**
+	 * Chooses the edges starting at a location reference point and stores
+	 * their indices in {@link #points}
+	 *
+	 * @param edges
+	 *            the edges of the path
+	 * @param from
+	 *            the index of the first edge
+	 * @param to
+	 *            the index after the last edge
+	 * @throws LocationReferenceException
+	 *             if a single edge exceeds the maximum distance between two
+	 *             location reference points
+	 */
+	private void placePoints(final int[] edges, final int from, final int to)
+			throws LocationReferenceException {
+		points.clear();
+		points.add(from);
+		int start = from;
+		int length = 0;
+		int end = from + 1;
+		while (end <= to) {
+			// the candidate next point lies on the start of edges[end], or on
+			// the end of the path if end == to
+			int candidate = length + graph.getLength(edges[end - 1]);
+			if (candidate <= MAXIMUM_DISTANCE_BETWEEN_TWO_LR_POINTS
+					&& (end == to || isShortestPath(edges, start, end, candidate
+							- graph.getLength(edges[start])))) {
+				length = candidate;
+				end++;
+				continue;
+			}
+
+			if (end - 1 == start) {
+				throw new LocationReferenceException(Messages.getString(
+						"MapEncoder.Exception.EDGE_TOO_LONG", edges[start], //$NON-NLS-1$
+						MAXIMUM_DISTANCE_BETWEEN_TWO_LR_POINTS));
+			}
+			start = end - 1;
+			points.add(start);
+			length = 0;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the edges between the first edge and the
+	 * given edge are the unique shortest path between the end of the first
+	 * edge and the start of the given edge. This is the path a decoder finds
+	 * between location reference points placed on both edges.
+	 *
+	 * @param edges
+	 *            the edges of the path
+	 * @param start
+	 *            the index of the first edge
+	 * @param end
+	 *            the index of the given edge
+	 * @param length
+	 *            the length of the edges in between
+	 * @return <code>true</code> if the path is the shortest path
+	 */
+	private boolean isShortestPath(final int[] edges, final int start,
+			final int end, final int length) {
+		int found = router.route(graph.getTarget(edges[start]), graph
+				.getSource(edges[end]), FunctionalRoadClass.OTHER_CLASS_ROAD
+				.getByteRepresentation(), length, route);
+		if (found != length || route.size() != end - start - 1) {
+			return false;
+		}
+		for (int i = 0; i < route.size(); i++) {
+			if (route.get(i) != edges[start + 1 + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the bearing of the given edge, or <code>0</code> if it can't be
+	 * measured
+	 *
+	 * @param edge
+	 *            the edge
+	 * @param offset
+	 *            the geometric offset
+	 * @param forward
+	 *            the direction
+	 * @return the bearing in degree
+	 * @see EdgeGeometry#getBearing(RoadGraph, int, double, boolean)
+	 */
+	private float bearing(final int edge, final double offset,
+			final boolean forward) {
+		float bearing = EdgeGeometry.getBearing(graph, edge, offset, forward);
+		return Float.isNaN(bearing) ? 0 : bearing;
+	}
+
+	/**
+	 * Returns the total length of a range of edges
+	 *
+	 * @param edges
+	 *            the edges
+	 * @param from
+	 *            the index of the first edge
+	 * @param to
+	 *            the index after the last edge
+	 * @return the length in meters
+	 */
+	private int length(final int[] edges, final int from, final int to) {
+		int length = 0;
+		for (int i = from; i < to; i++) {
+			length += graph.getLength(edges[i]);
+		}
+		return length;
+	}
+}
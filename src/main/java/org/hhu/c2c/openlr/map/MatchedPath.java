@@ -0,0 +1,148 @@
+package org.hhu.c2c.openlr.map;
+
+import java.util.Arrays;
+
+/**
+ * A <b>matched path</b> is the result of decoding a location reference onto a
+ * {@link RoadGraph}. It consists of the sequence of edges covered by the
+ * location and two offsets: the positive offset is the distance between the
+ * start of the first edge and the start of the location, the negative offset
+ * the distance between the end of the location and the end of the last edge.
+ * Both offsets are smaller than the length of the edge they refer to.
+ *
+ * A matched path is immutable.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MatchedPath {
+
+	/** Holds the edges */
+	private final int[] edges;
+
+	/** Holds the positive offset in meters */
+	private final int positiveOffset;
+
+	/** Holds the negative offset in meters */
+	private final int negativeOffset;
+
+	/** Holds the length of the location in meters */
+	private final int length;
+
+	/**
+	 * Constructs a new matched path
+	 *
+	 * @param edges
+	 *            the edges, which are not copied
+	 * @param positiveOffset
+	 *            the distance between the start of the first edge and the start
+	 *            of the location in meters
+	 * @param negativeOffset
+	 *            the distance between the end of the location and the end of
+	 *            the last edge in meters
+	 * @param length
+	 *            the length of the location in meters
+	 */
+	protected MatchedPath(final int[] edges, final int positiveOffset,
+			final int negativeOffset, final int length) {
+		this.edges = edges;
+		this.positiveOffset = positiveOffset;
+		this.negativeOffset = negativeOffset;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the number of edges
+	 *
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return edges.length;
+	}
+
+	/**
+	 * Returns the edge at the given index
+	 *
+	 * @param index
+	 *            the index
+	 * @return the edge id
+	 */
+	public int getEdge(final int index) {
+		return edges[index];
+	}
+
+	/**
+	 * Returns a copy of the edges
+	 *
+	 * @return the edges
+	 */
+	public int[] getEdges() {
+		return edges.clone();
+	}
+
+	/**
+	 * Returns the distance between the start of the first edge and the start
+	 * of the location
+	 *
+	 * @return the positive offset in meters
+	 */
+	public int getPositiveOffset() {
+		return positiveOffset;
+	}
+
+	/**
+	 * Returns the distance between the end of the location and the end of the
+	 * last edge
+	 *
+	 * @return the negative offset in meters
+	 */
+	public int getNegativeOffset() {
+		return negativeOffset;
+	}
+
+	/**
+	 * Returns the length of the location, that is the length of all edges
+	 * without the offsets
+	 *
+	 * @return the length in meters
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(edges);
+		result = prime * result + negativeOffset;
+		result = prime * result + positiveOffset;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		MatchedPath other = (MatchedPath) obj;
+		if (!Arrays.equals(edges, other.edges))
+			return false;
+		if (negativeOffset != other.negativeOffset)
+			return false;
+		if (positiveOffset != other.positiveOffset)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "MatchedPath: \n" + "\tEdges: " + Arrays.toString(edges) + "\n"
+				+ "\tPositive Offset: " + positiveOffset + " m\n"
+				+ "\tNegative Offset: " + negativeOffset + " m\n"
+				+ "\tLength: " + length + " m\n";
+	}
+}
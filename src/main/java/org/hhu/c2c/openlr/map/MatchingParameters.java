@@ -0,0 +1,133 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * The <b>matching parameters</b> define the tolerances used when matching
+ * location reference points onto a {@link RoadGraph}. They are immutable and
+ * can be shared between threads. New parameters are created by a
+ * {@link MatchingParametersBuilder}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MatchingParameters {
+
+	/**
+	 * The maximum distance in meters between a location reference point and a
+	 * candidate line
+	 */
+	private final int candidateRadius;
+
+	/**
+	 * The maximum number of candidate lines kept for each location reference
+	 * point
+	 */
+	private final int maximumCandidates;
+
+	/**
+	 * The maximum difference in degree between the bearing of a location
+	 * reference point and the bearing of a candidate line
+	 */
+	private final float maximumBearingDifference;
+
+	/**
+	 * The maximum difference in meters between the distance to the next point
+	 * of a location reference point and the length of the path found on the
+	 * road graph
+	 */
+	private final int distanceTolerance;
+
+	/**
+	 * The number of functional road classes a road may be less important than
+	 * the lowest functional road class to the next point
+	 */
+	private final int frcVariance;
+
+	/**
+	 * Constructs new matching parameters
+	 *
+	 * @param candidateRadius
+	 *            the maximum distance between a location reference point and a
+	 *            candidate line in meters
+	 * @param maximumCandidates
+	 *            the maximum number of candidate lines for each location
+	 *            reference point
+	 * @param maximumBearingDifference
+	 *            the maximum bearing difference in degree
+	 * @param distanceTolerance
+	 *            the maximum difference between the distance to the next point
+	 *            and the length of the path in meters
+	 * @param frcVariance
+	 *            the number of functional road classes a road may be less
+	 *            important than the lowest functional road class to the next
+	 *            point
+	 */
+	protected MatchingParameters(final int candidateRadius,
+			final int maximumCandidates, final float maximumBearingDifference,
+			final int distanceTolerance, final int frcVariance) {
+		this.candidateRadius = candidateRadius;
+		this.maximumCandidates = maximumCandidates;
+		this.maximumBearingDifference = maximumBearingDifference;
+		this.distanceTolerance = distanceTolerance;
+		this.frcVariance = frcVariance;
+	}
+
+	/**
+	 * Returns the maximum distance in meters between a location reference
+	 * point and a candidate line
+	 *
+	 * @return the candidate radius in meters
+	 */
+	public int getCandidateRadius() {
+		return candidateRadius;
+	}
+
+	/**
+	 * Returns the maximum number of candidate lines kept for each location
+	 * reference point
+	 *
+	 * @return the maximum number of candidates
+	 */
+	public int getMaximumCandidates() {
+		return maximumCandidates;
+	}
+
+	/**
+	 * Returns the maximum difference in degree between the bearing of a
+	 * location reference point and the bearing of a candidate line
+	 *
+	 * @return the maximum bearing difference in degree
+	 */
+	public float getMaximumBearingDifference() {
+		return maximumBearingDifference;
+	}
+
+	/**
+	 * Returns the maximum difference in meters between the distance to the
+	 * next point of a location reference point and the length of the path
+	 * found on the road graph
+	 *
+	 * @return the distance tolerance in meters
+	 */
+	public int getDistanceTolerance() {
+		return distanceTolerance;
+	}
+
+	/**
+	 * Returns the number of functional road classes a road may be less
+	 * important than the lowest functional road class to the next point
+	 *
+	 * @return the functional road class variance
+	 */
+	public int getFrcVariance() {
+		return frcVariance;
+	}
+
+	@Override
+	public String toString() {
+		return "MatchingParameters: \n" + "\tRadius: " + candidateRadius
+				+ " m\n" + "\tCandidates: " + maximumCandidates + "\n"
+				+ "\tBearing: " + maximumBearingDifference + "\uc2b0\n"
+				+ "\tDistance tolerance: " + distanceTolerance + " m\n"
+				+ "\tFRC variance: " + frcVariance + "\n";
+	}
+}
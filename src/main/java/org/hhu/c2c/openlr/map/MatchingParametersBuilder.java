@@ -0,0 +1,214 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link MatchingParametersBuilder} helps building valid
+ * {@link MatchingParameters}. Every parameter has a default value, so that
+ * only the ones differing from the default have to be set.
+ *
+ * @see MatchingParameters
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MatchingParametersBuilder implements
+		Builder<MatchingParametersBuilder, MatchingParameters> {
+
+	/**
+	 * The default candidate radius in meters
+	 */
+	private static final int CANDIDATE_RADIUS_DEFAULT = 100;
+
+	/**
+	 * The default maximum number of candidates
+	 */
+	private static final int MAXIMUM_CANDIDATES_DEFAULT = 8;
+
+	/**
+	 * The default maximum bearing difference in degree
+	 */
+	private static final float MAXIMUM_BEARING_DIFFERENCE_DEFAULT = 45f;
+
+	/**
+	 * The default distance tolerance in meters, covering the resolution of the
+	 * distance to the next point in the physical data format
+	 */
+	private static final int DISTANCE_TOLERANCE_DEFAULT = 100;
+
+	/**
+	 * The default functional road class variance
+	 */
+	private static final int FRC_VARIANCE_DEFAULT = 1;
+
+	/**
+	 * Holds the candidate radius
+	 */
+	private int candidateRadius;
+
+	/**
+	 * Holds the maximum number of candidates
+	 */
+	private int maximumCandidates;
+
+	/**
+	 * Holds the maximum bearing difference
+	 */
+	private float maximumBearingDifference;
+
+	/**
+	 * Holds the distance tolerance
+	 */
+	private int distanceTolerance;
+
+	/**
+	 * Holds the functional road class variance
+	 */
+	private int frcVariance;
+
+	/**
+	 * Constructs a new {@link MatchingParametersBuilder} using the default
+	 * values
+	 */
+	public MatchingParametersBuilder() {
+		init();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public MatchingParameters build() throws LocationReferenceException {
+		validate();
+		return new MatchingParameters(candidateRadius, maximumCandidates,
+				maximumBearingDifference, distanceTolerance, frcVariance);
+	}
+
+	/**
+	 * Resets the parameters to their default values
+	 */
+	private void init() {
+		candidateRadius = CANDIDATE_RADIUS_DEFAULT;
+		maximumCandidates = MAXIMUM_CANDIDATES_DEFAULT;
+		maximumBearingDifference = MAXIMUM_BEARING_DIFFERENCE_DEFAULT;
+		distanceTolerance = DISTANCE_TOLERANCE_DEFAULT;
+		frcVariance = FRC_VARIANCE_DEFAULT;
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public MatchingParametersBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * Sets the maximum distance between a location reference point and a
+	 * candidate line
+	 *
+	 * @param candidateRadius
+	 *            the candidate radius in meters
+	 * @return the same instance of this {@link MatchingParametersBuilder} for
+	 *         use in a fluid interface
+	 */
+	public MatchingParametersBuilder setCandidateRadius(
+			final int candidateRadius) {
+		this.candidateRadius = candidateRadius;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of candidate lines kept for each location
+	 * reference point
+	 *
+	 * @param maximumCandidates
+	 *            the maximum number of candidates
+	 * @return the same instance of this {@link MatchingParametersBuilder} for
+	 *         use in a fluid interface
+	 */
+	public MatchingParametersBuilder setMaximumCandidates(
+			final int maximumCandidates) {
+		this.maximumCandidates = maximumCandidates;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum difference between the bearing of a location reference
+	 * point and the bearing of a candidate line
+	 *
+	 * @param maximumBearingDifference
+	 *            the maximum bearing difference in degree
+	 * @return the same instance of this {@link MatchingParametersBuilder} for
+	 *         use in a fluid interface
+	 */
+	public MatchingParametersBuilder setMaximumBearingDifference(
+			final float maximumBearingDifference) {
+		this.maximumBearingDifference = maximumBearingDifference;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum difference between the distance to the next point of a
+	 * location reference point and the length of the path found on the road
+	 * graph
+	 *
+	 * @param distanceTolerance
+	 *            the distance tolerance in meters
+	 * @return the same instance of this {@link MatchingParametersBuilder} for
+	 *         use in a fluid interface
+	 */
+	public MatchingParametersBuilder setDistanceTolerance(
+			final int distanceTolerance) {
+		this.distanceTolerance = distanceTolerance;
+		return this;
+	}
+
+	/**
+	 * Sets the number of functional road classes a road may be less important
+	 * than the lowest functional road class to the next point
+	 *
+	 * @param frcVariance
+	 *            the functional road class variance
+	 * @return the same instance of this {@link MatchingParametersBuilder} for
+	 *         use in a fluid interface
+	 */
+	public MatchingParametersBuilder setFrcVariance(final int frcVariance) {
+		this.frcVariance = frcVariance;
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		if (candidateRadius <= 0) {
+			throw new LocationReferenceException(Messages
+					.getString("MatchingParametersBuilder.Exception.CANDIDATE_RADIUS")); //$NON-NLS-1$
+		}
+
+		if (maximumCandidates <= 0) {
+			throw new LocationReferenceException(Messages
+					.getString("MatchingParametersBuilder.Exception.MAXIMUM_CANDIDATES")); //$NON-NLS-1$
+		}
+
+		if (maximumBearingDifference < 0 || maximumBearingDifference > 180) {
+			throw new LocationReferenceException(Messages
+					.getString("MatchingParametersBuilder.Exception.MAXIMUM_BEARING_DIFFERENCE")); //$NON-NLS-1$
+		}
+
+		if (distanceTolerance < 0) {
+			throw new LocationReferenceException(Messages
+					.getString("MatchingParametersBuilder.Exception.DISTANCE_TOLERANCE")); //$NON-NLS-1$
+		}
+
+		if (frcVariance < 0) {
+			throw new LocationReferenceException(Messages
+					.getString("MatchingParametersBuilder.Exception.FRC_VARIANCE")); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package org.hhu.c2c.openlr.map;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.IntObjectMap;
+
+/**
+ * The <b>reference index</b> answers which of the currently active location
+ * references cover an edge of a {@link RoadGraph}, e.g. to penalize jammed
+ * edges while routing. Location references are added with their
+ * {@link EdgeCoverage} under an id chosen by the caller (e.g. a message id)
+ * and removed again when they expire.
+ *
+ * For each edge the index holds one primitive array of entries, each the id
+ * of a location reference and the interval of the edge it covers. Adding or
+ * removing a location reference replaces the arrays of its edges by updated
+ * copies, so the arrays are never changed once they can be seen by a reader.
+ * Readers therefore never lock and never wait for the writer, while each
+ * edge is always seen in a consistent state. A location reference being added
+ * or removed may be seen on some of its edges but not yet on others.
+ *
+ * Any number of threads may read, while updates must be made by one thread
+ * at a time; they are synchronized against each other, but not against the
+ * readers.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ReferenceIndex {
+
+	/** The number of values of an entry: id, start and end */
+	private static final int ENTRY_SIZE = 3;
+
+	/** Holds the entries of each edge, or <code>null</code> */
+	private final AtomicReferenceArray<int[]> entries;
+
+	/** Holds the coverage of each location reference, for removing it */
+	private final IntObjectMap<EdgeCoverage> coverages;
+
+	/** Holds the number of location references */
+	private volatile int size;
+
+	/**
+	 * Constructs a new empty reference index
+	 *
+	 * @param graph
+	 *            the road graph the location references are decoded onto
+	 */
+	public ReferenceIndex(final RoadGraph graph) {
+		this.entries = new AtomicReferenceArray<int[]>(graph.getEdgeCount());
+		this.coverages = new IntObjectMap<EdgeCoverage>();
+		this.size = 0;
+	}
+
+	/**
+	 * Adds a location reference, replacing a location reference with the same
+	 * id
+	 *
+	 * @param id
+	 *            the id of the location reference
+	 * @param coverage
+	 *            the coverage of the location reference
+	 */
+	public synchronized void add(final int id, final EdgeCoverage coverage) {
+		EdgeCoverage previous = coverages.put(id, coverage);
+		if (previous != null) {
+			removeEntries(id, previous);
+		}
+		for (int i = 0; i < coverage.getIntervalCount(); i++) {
+			int edge = coverage.getEdge(i);
+			int[] current = entries.get(edge);
+			int length = current == null ? 0 : current.length;
+			int[] updated = new int[length + ENTRY_SIZE];
+			if (current != null) {
+				System.arraycopy(current, 0, updated, 0, length);
+			}
+			updated[length] = id;
+			updated[length + 1] = coverage.getStart(i);
+			updated[length + 2] = coverage.getEnd(i);
+			entries.set(edge, updated);
+		}
+		size = coverages.size();
+	}
+
+	/**
+	 * Removes a location reference
+	 *
+	 * @param id
+	 *            the id of the location reference
+	 * @return <code>true</code> if the location reference was in the index
+	 */
+	public synchronized boolean remove(final int id) {
+		EdgeCoverage coverage = coverages.remove(id);
+		if (coverage == null) {
+			return false;
+		}
+		removeEntries(id, coverage);
+		size = coverages.size();
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if a location reference with the given id is
+	 * in the index
+	 *
+	 * @param id
+	 *            the id of the location reference
+	 * @return <code>true</code> if the location reference is in the index
+	 */
+	public synchronized boolean contains(final int id) {
+		return coverages.containsKey(id);
+	}
+
+	/**
+	 * Returns the number of location references
+	 *
+	 * @return the number of location references
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if any location reference covers the given
+	 * edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return <code>true</code> if the edge is covered
+	 */
+	public boolean isCovered(final int edge) {
+		return entries.get(edge) != null;
+	}
+
+	/**
+	 * Appends the ids of the location references covering the given edge to
+	 * the given list. A location reference covering the edge twice is
+	 * appended twice.
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @param ids
+	 *            receives the ids
+	 * @return the number of ids appended
+	 */
+	public int getReferences(final int edge, final IntList ids) {
+		int[] current = entries.get(edge);
+		if (current == null) {
+			return 0;
+		}
+		for (int i = 0; i < current.length; i += ENTRY_SIZE) {
+			ids.add(current[i]);
+		}
+		return current.length / ENTRY_SIZE;
+	}
+
+	/**
+	 * Appends the ids of the location references covering the given position
+	 * of an edge to the given list
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @param offset
+	 *            the distance from the start of the edge in meters
+	 * @param ids
+	 *            receives the ids
+	 * @return the number of ids appended
+	 */
+	public int getReferences(final int edge, final int offset,
+			final IntList ids) {
+		int[] current = entries.get(edge);
+		if (current == null) {
+			return 0;
+		}
+		int count = 0;
+		for (int i = 0; i < current.length; i += ENTRY_SIZE) {
+			if (current[i + 1] <= offset && offset <= current[i + 2]) {
+				ids.add(current[i]);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the length of the given edge covered by at least one location
+	 * reference
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the covered length in meters
+	 */
+	public int getCoveredLength(final int edge) {
+		int[] current = entries.get(edge);
+		if (current == null) {
+			return 0;
+		}
+		if (current.length == ENTRY_SIZE) {
+			return current[2] - current[1];
+		}
+
+		// the union of the intervals, sorted by their start
+		int count = current.length / ENTRY_SIZE;
+		long[] intervals = new long[count];
+		for (int i = 0; i < count; i++) {
+			intervals[i] = (long) current[i * ENTRY_SIZE + 1] << 32
+					| current[i * ENTRY_SIZE + 2];
+		}
+		Arrays.sort(intervals);
+		int length = 0;
+		int start = (int) (intervals[0] >>> 32);
+		int end = (int) intervals[0];
+		for (int i = 1; i < count; i++) {
+			int nextStart = (int) (intervals[i] >>> 32);
+			int nextEnd = (int) intervals[i];
+			if (nextStart > end) {
+				length += end - start;
+				start = nextStart;
+			}
+			end = Math.max(end, nextEnd);
+		}
+		return length + end - start;
+	}
+
+	/**
+	 * Removes the entries of a location reference from its edges
+	 *
+	 * @param id
+	 *            the id of the location reference
+	 * @param coverage
+	 *            the coverage of the location reference
+	 */
+	private void removeEntries(final int id, final EdgeCoverage coverage) {
+		for (int i = 0; i < coverage.getIntervalCount(); i++) {
+			int edge = coverage.getEdge(i);
+			int[] current = entries.get(edge);
+			if (current == null) {
+				// an edge covered in two pieces, already removed
+				continue;
+			}
+			int kept = 0;
+			for (int j = 0; j < current.length; j += ENTRY_SIZE) {
+				if (current[j] != id) {
+					kept += ENTRY_SIZE;
+				}
+			}
+			if (kept == current.length) {
+				continue;
+			}
+			int[] updated = null;
+			if (kept > 0) {
+				updated = new int[kept];
+				int k = 0;
+				for (int j = 0; j < current.length; j += ENTRY_SIZE) {
+					if (current[j] != id) {
+						System.arraycopy(current, j, updated, k, ENTRY_SIZE);
+						k += ENTRY_SIZE;
+					}
+				}
+			}
+			entries.set(edge, updated);
+		}
+	}
+}
@@ -0,0 +1,952 @@
+package org.hhu.c2c.openlr.map;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+
+/**
+ * The <b>road graph</b> is the digital map a location reference is encoded on
+ * and decoded onto. It consists of nodes (junctions) and directed edges (lines)
+ * connecting them. Each edge carries the attributes used by the location
+ * referencing method: the {@link FunctionalRoadClass}, the {@link FormOfWay},
+ * its length in meters and its geometry.
+ *
+ * The graph is stored in compressed sparse row form. All data lives in
+ * primitive arrays indexed by node or edge id, so that a graph doesn't consist
+ * of millions of small objects. The outgoing and incoming edges of a node are
+ * stored as consecutive ranges of edge ids, which can be iterated like this:
+ *
+ * <pre>
+ * for (int i = graph.getOutgoingStart(node); i &lt; graph.getOutgoingEnd(node); i++) {
+ * 	int edge = graph.getOutgoingEdge(i);
+ * 	...
+ * }
+ * </pre>
+ *
+ * Node ids range from <code>0</code> to <code>getNodeCount() - 1</code>, edge
+ * ids from <code>0</code> to <code>getEdgeCount() - 1</code>. Coordinates are
+ * stored as integers in decamicrodegrees, the resolution used by the physical
+ * data format. An edge takes 25 bytes (source, target, length, attributes and
+ * its entries in both adjacency lists) plus 8 bytes for each intermediate
+ * shape point, so that a network of 50 million edges fits into less than two
+ * gigabytes plus its geometry.
+ *
+ * The arrays are held as buffers, so that a road graph read by
+ * {@link RoadGraphReader#read(java.io.File)} can use the mapped file directly
+ * instead of a copy on the heap. A road graph created by a
+ * {@link RoadGraphBuilder} wraps heap arrays.
+ *
+ * Each road graph carries a stamp identifying its content (see
+ * {@link #getStamp()}), so that data derived from it, like a
+ * {@link ContractionHierarchy} stored in a file, can't be used with a
+ * different or updated road graph of the same size.
+ *
+ * A road graph is immutable and can safely be shared between threads. It is
+ * created by a {@link RoadGraphBuilder} or read by a {@link RoadGraphReader}.
+ * A {@link RoadGraphDelta} derives an updated road graph sharing all buffers
+ * of the previous one and keeping the changes in a patch: added nodes and
+ * edges are appended as a tail, and the adjacency lists of the touched nodes
+ * are replaced (see {@link RoadGraphPatch}), so an update costs as much as
+ * its changes rather than as much as the road graph. Edges removed by a delta
+ * keep their id, so that ids stay stable across updates, but are left out of
+ * the adjacency lists (see {@link #isRemoved(int)}). After many updates,
+ * {@link #compact()} copies the road graph into plain arrays again.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraph {
+
+	/**
+	 * Used to convert coordinates between degrees and their integer
+	 * representation in decamicrodegrees
+	 */
+	public static final int COORDINATE_MULTIPLIER = 100000;
+
+	/**
+	 * The form of way is stored in the three least significant bits of the
+	 * edge attribute, as in the first attribute of the physical data format
+	 */
+	static final int FORM_OF_WAY_BITMASK = 1 + 2 + 4;
+
+	/**
+	 * The functional road class is stored in bit 5 to 3 of the edge attribute,
+	 * as in the first attribute of the physical data format
+	 */
+	static final int FRC_BITSHIFT = 3;
+
+	/**
+	 * The functional road class is a three bit value once shifted to the least
+	 * significant bits of the edge attribute
+	 */
+	static final int FUNCTIONAL_ROAD_CLASS_BITMASK = 1 + 2 + 4;
+
+	/**
+	 * Marks a removed edge in bit 6 of the edge attribute, which is unused by
+	 * the functional road class and the form of way
+	 */
+	static final int REMOVED_FLAG = 1 << 6;
+
+	/**
+	 * The initial stamp, the offset basis of the 64 bit FNV-1a hash
+	 */
+	private static final long STAMP_BASIS = 0xCBF29CE484222325L;
+
+	/**
+	 * The multiplier of the stamp, the prime of the 64 bit FNV-1a hash
+	 */
+	private static final long STAMP_PRIME = 0x100000001B3L;
+
+	/** Holds the stamp identifying the content */
+	private final long stamp;
+
+	/** Holds the number of nodes */
+	private final int nodeCount;
+
+	/** Holds the number of edges */
+	private final int edgeCount;
+
+	/** Holds the longitudes of the nodes in decamicrodegrees */
+	private final IntBuffer nodeLongitudes;
+
+	/** Holds the latitudes of the nodes in decamicrodegrees */
+	private final IntBuffer nodeLatitudes;
+
+	/** Holds the start node of each edge */
+	private final IntBuffer edgeSources;
+
+	/** Holds the end node of each edge */
+	private final IntBuffer edgeTargets;
+
+	/** Holds the length of each edge in meters */
+	private final IntBuffer edgeLengths;
+
+	/**
+	 * Holds the functional road class (bit 5 to 3) and form of way (bit 2 to
+	 * 0) of each edge
+	 */
+	private final ByteBuffer edgeAttributes;
+
+	/**
+	 * Holds for each edge the index of its first intermediate shape point. The
+	 * shape points of edge <code>e</code> range from
+	 * <code>shapeOffsets.get(e)</code> to <code>shapeOffsets.get(e + 1)</code>.
+	 */
+	private final IntBuffer shapeOffsets;
+
+	/** Holds the longitudes of the shape points in decamicrodegrees */
+	private final IntBuffer shapeLongitudes;
+
+	/** Holds the latitudes of the shape points in decamicrodegrees */
+	private final IntBuffer shapeLatitudes;
+
+	/**
+	 * Holds for each node the index of its first outgoing edge in
+	 * {@link #outgoingEdges}
+	 */
+	private final IntBuffer outgoingOffsets;
+
+	/** Holds the outgoing edges, grouped by their start node */
+	private final IntBuffer outgoingEdges;
+
+	/**
+	 * Holds for each node the index of its first incoming edge in
+	 * {@link #incomingEdges}
+	 */
+	private final IntBuffer incomingOffsets;
+
+	/** Holds the incoming edges, grouped by their end node */
+	private final IntBuffer incomingEdges;
+
+	/** Holds the number of nodes in the buffers */
+	private final int bufferNodeCount;
+
+	/** Holds the number of edges in the buffers */
+	private final int bufferEdgeCount;
+
+	/** Holds the number of outgoing edges in the buffers */
+	private final int bufferOutgoingCount;
+
+	/** Holds the number of incoming edges in the buffers */
+	private final int bufferIncomingCount;
+
+	/**
+	 * Holds the changes of the updates since the buffers were built, or
+	 * <code>null</code>
+	 */
+	private final RoadGraphPatch patch;
+
+	/**
+	 * Constructs a new road graph from the given arrays, stamped by their
+	 * content. The arrays are used directly and must not be modified
+	 * afterwards.
+	 *
+	 * @param nodeLongitudes
+	 *            the longitudes of the nodes
+	 * @param nodeLatitudes
+	 *            the latitudes of the nodes
+	 * @param edgeSources
+	 *            the start node of each edge
+	 * @param edgeTargets
+	 *            the end node of each edge
+	 * @param edgeLengths
+	 *            the length of each edge
+	 * @param edgeAttributes
+	 *            the functional road class and form of way of each edge
+	 * @param shapeOffsets
+	 *            the index of the first shape point of each edge
+	 * @param shapeLongitudes
+	 *            the longitudes of the shape points
+	 * @param shapeLatitudes
+	 *            the latitudes of the shape points
+	 * @param outgoingOffsets
+	 *            the index of the first outgoing edge of each node
+	 * @param outgoingEdges
+	 *            the outgoing edges
+	 * @param incomingOffsets
+	 *            the index of the first incoming edge of each node
+	 * @param incomingEdges
+	 *            the incoming edges
+	 */
+	RoadGraph(final int[] nodeLongitudes, final int[] nodeLatitudes,
+			final int[] edgeSources, final int[] edgeTargets,
+			final int[] edgeLengths, final byte[] edgeAttributes,
+			final int[] shapeOffsets, final int[] shapeLongitudes,
+			final int[] shapeLatitudes, final int[] outgoingOffsets,
+			final int[] outgoingEdges, final int[] incomingOffsets,
+			final int[] incomingEdges) {
+		this(IntBuffer.wrap(nodeLongitudes), IntBuffer.wrap(nodeLatitudes),
+				IntBuffer.wrap(edgeSources), IntBuffer.wrap(edgeTargets),
+				IntBuffer.wrap(edgeLengths), ByteBuffer.wrap(edgeAttributes),
+				IntBuffer.wrap(shapeOffsets), IntBuffer.wrap(shapeLongitudes),
+				IntBuffer.wrap(shapeLatitudes), IntBuffer
+						.wrap(outgoingOffsets), IntBuffer.wrap(outgoingEdges),
+				IntBuffer.wrap(incomingOffsets), IntBuffer.wrap(incomingEdges),
+				stamp(nodeLongitudes, nodeLatitudes, edgeSources, edgeTargets,
+						edgeLengths, edgeAttributes, shapeOffsets,
+						shapeLongitudes, shapeLatitudes));
+	}
+
+	/**
+	 * Constructs a new road graph from the given buffers, which hold their
+	 * values from index <code>0</code> to their capacity. The buffers are
+	 * only read by absolute index and must not be modified afterwards.
+	 *
+	 * @param nodeLongitudes
+	 *            the longitudes of the nodes
+	 * @param nodeLatitudes
+	 *            the latitudes of the nodes
+	 * @param edgeSources
+	 *            the start node of each edge
+	 * @param edgeTargets
+	 *            the end node of each edge
+	 * @param edgeLengths
+	 *            the length of each edge
+	 * @param edgeAttributes
+	 *            the functional road class and form of way of each edge
+	 * @param shapeOffsets
+	 *            the index of the first shape point of each edge
+	 * @param shapeLongitudes
+	 *            the longitudes of the shape points
+	 * @param shapeLatitudes
+	 *            the latitudes of the shape points
+	 * @param outgoingOffsets
+	 *            the index of the first outgoing edge of each node
+	 * @param outgoingEdges
+	 *            the outgoing edges
+	 * @param incomingOffsets
+	 *            the index of the first incoming edge of each node
+	 * @param incomingEdges
+	 *            the incoming edges
+	 * @param stamp
+	 *            the stamp identifying the content
+	 */
+	RoadGraph(final IntBuffer nodeLongitudes, final IntBuffer nodeLatitudes,
+			final IntBuffer edgeSources, final IntBuffer edgeTargets,
+			final IntBuffer edgeLengths, final ByteBuffer edgeAttributes,
+			final IntBuffer shapeOffsets, final IntBuffer shapeLongitudes,
+			final IntBuffer shapeLatitudes, final IntBuffer outgoingOffsets,
+			final IntBuffer outgoingEdges, final IntBuffer incomingOffsets,
+			final IntBuffer incomingEdges, final long stamp) {
+		this(nodeLongitudes, nodeLatitudes, edgeSources, edgeTargets,
+				edgeLengths, edgeAttributes, shapeOffsets, shapeLongitudes,
+				shapeLatitudes, outgoingOffsets, outgoingEdges,
+				incomingOffsets, incomingEdges, stamp, null);
+	}
+
+	/**
+	 * Constructs a new road graph updated by a {@link RoadGraphDelta}, sharing
+	 * the buffers of the given road graph
+	 *
+	 * @param previous
+	 *            the road graph the update applies to
+	 * @param patch
+	 *            the changes of all updates since the buffers were built
+	 * @param stamp
+	 *            the stamp identifying the content
+	 */
+	RoadGraph(final RoadGraph previous, final RoadGraphPatch patch,
+			final long stamp) {
+		this(previous.nodeLongitudes, previous.nodeLatitudes,
+				previous.edgeSources, previous.edgeTargets,
+				previous.edgeLengths, previous.edgeAttributes,
+				previous.shapeOffsets, previous.shapeLongitudes,
+				previous.shapeLatitudes, previous.outgoingOffsets,
+				previous.outgoingEdges, previous.incomingOffsets,
+				previous.incomingEdges, stamp, patch);
+	}
+
+	/**
+	 * Constructs a new road graph from the given buffers and patch
+	 *
+	 * @param nodeLongitudes
+	 *            the longitudes of the nodes
+	 * @param nodeLatitudes
+	 *            the latitudes of the nodes
+	 * @param edgeSources
+	 *            the start node of each edge
+	 * @param edgeTargets
+	 *            the end node of each edge
+	 * @param edgeLengths
+	 *            the length of each edge
+	 * @param edgeAttributes
+	 *            the functional road class and form of way of each edge
+	 * @param shapeOffsets
+	 *            the index of the first shape point of each edge
+	 * @param shapeLongitudes
+	 *            the longitudes of the shape points
+	 * @param shapeLatitudes
+	 *            the latitudes of the shape points
+	 * @param outgoingOffsets
+	 *            the index of the first outgoing edge of each node
+	 * @param outgoingEdges
+	 *            the outgoing edges
+	 * @param incomingOffsets
+	 *            the index of the first incoming edge of each node
+	 * @param incomingEdges
+	 *            the incoming edges
+	 * @param stamp
+	 *            the stamp identifying the content
+	 * @param patch
+	 *            the changes of the updates since the buffers were built, or
+	 *            <code>null</code>
+	 */
+	private RoadGraph(final IntBuffer nodeLongitudes,
+			final IntBuffer nodeLatitudes, final IntBuffer edgeSources,
+			final IntBuffer edgeTargets, final IntBuffer edgeLengths,
+			final ByteBuffer edgeAttributes, final IntBuffer shapeOffsets,
+			final IntBuffer shapeLongitudes, final IntBuffer shapeLatitudes,
+			final IntBuffer outgoingOffsets, final IntBuffer outgoingEdges,
+			final IntBuffer incomingOffsets, final IntBuffer incomingEdges,
+			final long stamp, final RoadGraphPatch patch) {
+		this.stamp = stamp;
+		this.patch = patch;
+		this.bufferNodeCount = nodeLongitudes.capacity();
+		this.bufferEdgeCount = edgeSources.capacity();
+		this.bufferOutgoingCount = outgoingEdges.capacity();
+		this.bufferIncomingCount = incomingEdges.capacity();
+		this.nodeCount = bufferNodeCount
+				+ (patch == null ? 0 : patch.nodeLongitudes.length);
+		this.edgeCount = bufferEdgeCount
+				+ (patch == null ? 0 : patch.edgeSources.length);
+		this.nodeLongitudes = nodeLongitudes;
+		this.nodeLatitudes = nodeLatitudes;
+		this.edgeSources = edgeSources;
+		this.edgeTargets = edgeTargets;
+		this.edgeLengths = edgeLengths;
+		this.edgeAttributes = edgeAttributes;
+		this.shapeOffsets = shapeOffsets;
+		this.shapeLongitudes = shapeLongitudes;
+		this.shapeLatitudes = shapeLatitudes;
+		this.outgoingOffsets = outgoingOffsets;
+		this.outgoingEdges = outgoingEdges;
+		this.incomingOffsets = incomingOffsets;
+		this.incomingEdges = incomingEdges;
+	}
+
+	/**
+	 * Returns the stamp identifying the content of this road graph. Road
+	 * graphs built from the same nodes and edges have the same stamp, and an
+	 * update by a {@link RoadGraphDelta} derives a new stamp from the stamp of
+	 * the base road graph and the changes.
+	 *
+	 * @return the stamp
+	 */
+	public long getStamp() {
+		return stamp;
+	}
+
+	/**
+	 * Returns the number of nodes
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the number of edges
+	 *
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Returns the longitude of the given node in degree
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the longitude in degree
+	 */
+	public float getNodeLongitude(final int node) {
+		return (float) getNodeCoordinate(node, nodeLongitudes,
+				patch == null ? null : patch.nodeLongitudes)
+				/ COORDINATE_MULTIPLIER;
+	}
+
+	/**
+	 * Returns the latitude of the given node in degree
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the latitude in degree
+	 */
+	public float getNodeLatitude(final int node) {
+		return (float) getNodeCoordinate(node, nodeLatitudes,
+				patch == null ? null : patch.nodeLatitudes)
+				/ COORDINATE_MULTIPLIER;
+	}
+
+	/**
+	 * Returns the start node of the given edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the start node
+	 */
+	public int getSource(final int edge) {
+		return edge < bufferEdgeCount ? edgeSources.get(edge)
+				: patch.edgeSources[edge - bufferEdgeCount];
+	}
+
+	/**
+	 * Returns the end node of the given edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the end node
+	 */
+	public int getTarget(final int edge) {
+		return edge < bufferEdgeCount ? edgeTargets.get(edge)
+				: patch.edgeTargets[edge - bufferEdgeCount];
+	}
+
+	/**
+	 * Returns the length of the given edge in meters
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the length in meters
+	 */
+	public int getLength(final int edge) {
+		if (patch == null) {
+			return edgeLengths.get(edge);
+		}
+		return edge < bufferEdgeCount ? patch.lengths.get(edge, edgeLengths
+				.get(edge)) : patch.edgeLengths[edge - bufferEdgeCount];
+	}
+
+	/**
+	 * Returns the byte representation of the functional road class of the
+	 * given edge, ranging from 0 (main road) to 7 (other class road). Lower
+	 * values denote more important roads.
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the byte representation of the functional road class
+	 */
+	public int getFrc(final int edge) {
+		return (getAttributes(edge) >> FRC_BITSHIFT)
+				& FUNCTIONAL_ROAD_CLASS_BITMASK;
+	}
+
+	/**
+	 * Returns the byte representation of the form of way of the given edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the byte representation of the form of way
+	 */
+	public int getFow(final int edge) {
+		return getAttributes(edge) & FORM_OF_WAY_BITMASK;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given edge has been removed by a
+	 * {@link RoadGraphDelta}. A removed edge is neither an outgoing nor an
+	 * incoming edge of any node.
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return <code>true</code> if the edge has been removed
+	 */
+	public boolean isRemoved(final int edge) {
+		return (getAttributes(edge) & REMOVED_FLAG) != 0;
+	}
+
+	/**
+	 * Returns the functional road class of the given edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the functional road class
+	 */
+	public FunctionalRoadClass getFunctionalRoadClass(final int edge) {
+		return FunctionalRoadClass.getFunctionalRoadClass((byte) getFrc(edge));
+	}
+
+	/**
+	 * Returns the form of way of the given edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the form of way
+	 */
+	public FormOfWay getFormOfWay(final int edge) {
+		return FormOfWay.getFormOfWay((byte) getFow(edge));
+	}
+
+	/**
+	 * Returns the number of points describing the geometry of the given edge,
+	 * including its start and its end node. This is at least 2.
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the number of points of the geometry
+	 */
+	public int getGeometrySize(final int edge) {
+		if (edge < bufferEdgeCount) {
+			return shapeOffsets.get(edge + 1) - shapeOffsets.get(edge) + 2;
+		}
+		int added = edge - bufferEdgeCount;
+		return patch.shapeOffsets[added + 1] - patch.shapeOffsets[added] + 2;
+	}
+
+	/**
+	 * Returns the longitude of a point of the geometry of the given edge in
+	 * degree. The point with index <code>0</code> is the start node, the point
+	 * with index <code>getGeometrySize(edge) - 1</code> is the end node.
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @param index
+	 *            the index of the point
+	 * @return the longitude in degree
+	 */
+	public float getGeometryLongitude(final int edge, final int index) {
+		return (float) getGeometryCoordinate(edge, index, nodeLongitudes,
+				shapeLongitudes, patch == null ? null : patch.nodeLongitudes,
+				patch == null ? null : patch.shapeLongitudes)
+				/ COORDINATE_MULTIPLIER;
+	}
+
+	/**
+	 * Returns the latitude of a point of the geometry of the given edge in
+	 * degree.
+	 *
+	 * @see #getGeometryLongitude(int, int)
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @param index
+	 *            the index of the point
+	 * @return the latitude in degree
+	 */
+	public float getGeometryLatitude(final int edge, final int index) {
+		return (float) getGeometryCoordinate(edge, index, nodeLatitudes,
+				shapeLatitudes, patch == null ? null : patch.nodeLatitudes,
+				patch == null ? null : patch.shapeLatitudes)
+				/ COORDINATE_MULTIPLIER;
+	}
+
+	/**
+	 * Returns the index of the first outgoing edge of the given node, to be
+	 * used with {@link #getOutgoingEdge(int)}
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index of the first outgoing edge
+	 */
+	public int getOutgoingStart(final int node) {
+		if (patch == null) {
+			return outgoingOffsets.get(node);
+		}
+		int slot = patch.outgoing.getSlot(node);
+		return slot < 0 ? outgoingOffsets.get(node) : bufferOutgoingCount
+				+ patch.outgoing.getStart(slot);
+	}
+
+	/**
+	 * Returns the index after the last outgoing edge of the given node
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index after the last outgoing edge
+	 */
+	public int getOutgoingEnd(final int node) {
+		if (patch == null) {
+			return outgoingOffsets.get(node + 1);
+		}
+		int slot = patch.outgoing.getSlot(node);
+		return slot < 0 ? outgoingOffsets.get(node + 1) : bufferOutgoingCount
+				+ patch.outgoing.getEnd(slot);
+	}
+
+	/**
+	 * Returns the outgoing edge at the given index
+	 *
+	 * @param index
+	 *            an index between {@link #getOutgoingStart(int)} and
+	 *            {@link #getOutgoingEnd(int)}
+	 * @return the edge id
+	 */
+	public int getOutgoingEdge(final int index) {
+		return index < bufferOutgoingCount ? outgoingEdges.get(index) : patch.outgoing
+				.get(index - bufferOutgoingCount);
+	}
+
+	/**
+	 * Returns the index of the first incoming edge of the given node, to be
+	 * used with {@link #getIncomingEdge(int)}
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index of the first incoming edge
+	 */
+	public int getIncomingStart(final int node) {
+		if (patch == null) {
+			return incomingOffsets.get(node);
+		}
+		int slot = patch.incoming.getSlot(node);
+		return slot < 0 ? incomingOffsets.get(node) : bufferIncomingCount
+				+ patch.incoming.getStart(slot);
+	}
+
+	/**
+	 * Returns the index after the last incoming edge of the given node
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the index after the last incoming edge
+	 */
+	public int getIncomingEnd(final int node) {
+		if (patch == null) {
+			return incomingOffsets.get(node + 1);
+		}
+		int slot = patch.incoming.getSlot(node);
+		return slot < 0 ? incomingOffsets.get(node + 1) : bufferIncomingCount
+				+ patch.incoming.getEnd(slot);
+	}
+
+	/**
+	 * Returns the incoming edge at the given index
+	 *
+	 * @param index
+	 *            an index between {@link #getIncomingStart(int)} and
+	 *            {@link #getIncomingEnd(int)}
+	 * @return the edge id
+	 */
+	public int getIncomingEdge(final int index) {
+		return index < bufferIncomingCount ? incomingEdges.get(index) : patch.incoming
+				.get(index - bufferIncomingCount);
+	}
+
+	/**
+	 * Returns the attributes of the given edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the functional road class, form of way and removed flag
+	 */
+	private int getAttributes(final int edge) {
+		if (patch == null) {
+			return edgeAttributes.get(edge);
+		}
+		return edge < bufferEdgeCount ? patch.attributes.get(edge,
+				edgeAttributes.get(edge)) : patch.edgeAttributes[edge
+				- bufferEdgeCount];
+	}
+
+	/**
+	 * Returns a coordinate of the given node
+	 *
+	 * @param node
+	 *            the node id
+	 * @param nodeValues
+	 *            the node longitudes or latitudes of the buffers
+	 * @param addedValues
+	 *            the node longitudes or latitudes of the patch
+	 * @return the coordinate in decamicrodegrees
+	 */
+	private int getNodeCoordinate(final int node, final IntBuffer nodeValues,
+			final int[] addedValues) {
+		return node < bufferNodeCount ? nodeValues.get(node)
+				: addedValues[node - bufferNodeCount];
+	}
+
+	/**
+	 * Returns a coordinate of a point of the geometry of the given edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @param index
+	 *            the index of the point
+	 * @param nodeValues
+	 *            the node longitudes or latitudes of the buffers
+	 * @param shapeValues
+	 *            the shape point longitudes or latitudes of the buffers
+	 * @param addedNodeValues
+	 *            the node longitudes or latitudes of the patch
+	 * @param addedShapeValues
+	 *            the shape point longitudes or latitudes of the patch
+	 * @return the coordinate in decamicrodegrees
+	 */
+	private int getGeometryCoordinate(final int edge, final int index,
+			final IntBuffer nodeValues, final IntBuffer shapeValues,
+			final int[] addedNodeValues, final int[] addedShapeValues) {
+		if (index == 0) {
+			return getNodeCoordinate(getSource(edge), nodeValues,
+					addedNodeValues);
+		}
+		if (edge < bufferEdgeCount) {
+			int shape = shapeOffsets.get(edge) + index - 1;
+			if (shape < shapeOffsets.get(edge + 1)) {
+				return shapeValues.get(shape);
+			}
+		} else {
+			int added = edge - bufferEdgeCount;
+			int shape = patch.shapeOffsets[added] + index - 1;
+			if (shape < patch.shapeOffsets[added + 1]) {
+				return addedShapeValues[shape];
+			}
+		}
+		return getNodeCoordinate(getTarget(edge), nodeValues, addedNodeValues);
+	}
+
+	/**
+	 * Returns a road graph with the same content and stamp which holds all
+	 * nodes and edges in plain arrays. A road graph updated by
+	 * {@link RoadGraphDelta}s keeps the changes apart from the buffers it
+	 * shares with the previous versions, which makes each further update
+	 * and each access to a changed node or edge a bit more expensive; once
+	 * many updates have been applied, the road graph should be compacted.
+	 *
+	 * @return this road graph if it hasn't been updated, a compacted copy
+	 *         otherwise
+	 */
+	public RoadGraph compact() {
+		if (patch == null) {
+			return this;
+		}
+
+		int[] nodeLongitudes = new int[nodeCount];
+		int[] nodeLatitudes = new int[nodeCount];
+		for (int node = 0; node < nodeCount; node++) {
+			nodeLongitudes[node] = getNodeCoordinate(node, this.nodeLongitudes,
+					patch.nodeLongitudes);
+			nodeLatitudes[node] = getNodeCoordinate(node, this.nodeLatitudes,
+					patch.nodeLatitudes);
+		}
+
+		int[] edgeSources = new int[edgeCount];
+		int[] edgeTargets = new int[edgeCount];
+		int[] edgeLengths = new int[edgeCount];
+		byte[] edgeAttributes = new byte[edgeCount];
+		int[] shapeOffsets = new int[edgeCount + 1];
+		for (int edge = 0; edge < edgeCount; edge++) {
+			edgeSources[edge] = getSource(edge);
+			edgeTargets[edge] = getTarget(edge);
+			edgeLengths[edge] = getLength(edge);
+			edgeAttributes[edge] = (byte) getAttributes(edge);
+			shapeOffsets[edge + 1] = shapeOffsets[edge]
+					+ getGeometrySize(edge) - 2;
+		}
+		int[] shapeLongitudes = new int[shapeOffsets[edgeCount]];
+		int[] shapeLatitudes = new int[shapeOffsets[edgeCount]];
+		for (int edge = 0; edge < edgeCount; edge++) {
+			for (int i = shapeOffsets[edge]; i < shapeOffsets[edge + 1]; i++) {
+				int index = i - shapeOffsets[edge] + 1;
+				shapeLongitudes[i] = getGeometryCoordinate(edge, index,
+						this.nodeLongitudes, this.shapeLongitudes,
+						patch.nodeLongitudes, patch.shapeLongitudes);
+				shapeLatitudes[i] = getGeometryCoordinate(edge, index,
+						this.nodeLatitudes, this.shapeLatitudes,
+						patch.nodeLatitudes, patch.shapeLatitudes);
+			}
+		}
+
+		int[] outgoingOffsets = new int[nodeCount + 1];
+		int[] incomingOffsets = new int[nodeCount + 1];
+		for (int node = 0; node < nodeCount; node++) {
+			outgoingOffsets[node + 1] = outgoingOffsets[node]
+					+ getOutgoingEnd(node) - getOutgoingStart(node);
+			incomingOffsets[node + 1] = incomingOffsets[node]
+					+ getIncomingEnd(node) - getIncomingStart(node);
+		}
+		int[] outgoingEdges = new int[outgoingOffsets[nodeCount]];
+		int[] incomingEdges = new int[incomingOffsets[nodeCount]];
+		for (int node = 0; node < nodeCount; node++) {
+			int start = getOutgoingStart(node);
+			for (int i = start; i < getOutgoingEnd(node); i++) {
+				outgoingEdges[outgoingOffsets[node] + i - start] = getOutgoingEdge(
+						i);
+			}
+			start = getIncomingStart(node);
+			for (int i = start; i < getIncomingEnd(node); i++) {
+				incomingEdges[incomingOffsets[node] + i - start] = getIncomingEdge(
+						i);
+			}
+		}
+
+		return new RoadGraph(IntBuffer.wrap(nodeLongitudes), IntBuffer
+				.wrap(nodeLatitudes), IntBuffer.wrap(edgeSources), IntBuffer
+				.wrap(edgeTargets), IntBuffer.wrap(edgeLengths), ByteBuffer
+				.wrap(edgeAttributes), IntBuffer.wrap(shapeOffsets), IntBuffer
+				.wrap(shapeLongitudes), IntBuffer.wrap(shapeLatitudes),
+				IntBuffer.wrap(outgoingOffsets), IntBuffer.wrap(outgoingEdges),
+				IntBuffer.wrap(incomingOffsets), IntBuffer.wrap(incomingEdges),
+				stamp);
+	}
+
+	/**
+	 * Mixes the given value into a stamp
+	 *
+	 * @param stamp
+	 *            the stamp
+	 * @param value
+	 *            the value
+	 * @return the new stamp
+	 */
+	static long mix(final long stamp, final int value) {
+		return (stamp ^ (value & 0xFFFFFFFFL)) * STAMP_PRIME;
+	}
+
+	/**
+	 * Computes the stamp of the content of a road graph. The adjacency lists
+	 * are left out, as they follow from the edges.
+	 *
+	 * @param nodeLongitudes
+	 *            the longitudes of the nodes
+	 * @param nodeLatitudes
+	 *            the latitudes of the nodes
+	 * @param edgeSources
+	 *            the start node of each edge
+	 * @param edgeTargets
+	 *            the end node of each edge
+	 * @param edgeLengths
+	 *            the length of each edge
+	 * @param edgeAttributes
+	 *            the functional road class and form of way of each edge
+	 * @param shapeOffsets
+	 *            the index of the first shape point of each edge
+	 * @param shapeLongitudes
+	 *            the longitudes of the shape points
+	 * @param shapeLatitudes
+	 *            the latitudes of the shape points
+	 * @return the stamp
+	 */
+	private static long stamp(final int[] nodeLongitudes,
+			final int[] nodeLatitudes, final int[] edgeSources,
+			final int[] edgeTargets, final int[] edgeLengths,
+			final byte[] edgeAttributes, final int[] shapeOffsets,
+			final int[] shapeLongitudes, final int[] shapeLatitudes) {
+		long stamp = STAMP_BASIS;
+		int[][] arrays = { nodeLongitudes, nodeLatitudes, edgeSources,
+				edgeTargets, edgeLengths, shapeOffsets, shapeLongitudes,
+				shapeLatitudes };
+		for (int[] array : arrays) {
+			stamp = mix(stamp, array.length);
+			for (int value : array) {
+				stamp = mix(stamp, value);
+			}
+		}
+		for (byte value : edgeAttributes) {
+			stamp = mix(stamp, value);
+		}
+		return stamp;
+	}
+
+	/*
+	 * The raw buffers are handed out to the classes of this package only, so
+	 * that they can be written and copied in bulk. They must only be read by
+	 * absolute index or through a duplicate, as the graph is shared between
+	 * threads. They don't hold the changes of the patch, so a road graph which
+	 * has been updated has to be compacted before.
+	 */
+
+	RoadGraphPatch getPatch() {
+		return patch;
+	}
+
+	IntBuffer getNodeLongitudes() {
+		return nodeLongitudes;
+	}
+
+	IntBuffer getNodeLatitudes() {
+		return nodeLatitudes;
+	}
+
+	IntBuffer getEdgeSources() {
+		return edgeSources;
+	}
+
+	IntBuffer getEdgeTargets() {
+		return edgeTargets;
+	}
+
+	IntBuffer getEdgeLengths() {
+		return edgeLengths;
+	}
+
+	ByteBuffer getEdgeAttributes() {
+		return edgeAttributes;
+	}
+
+	IntBuffer getShapeOffsets() {
+		return shapeOffsets;
+	}
+
+	IntBuffer getShapeLongitudes() {
+		return shapeLongitudes;
+	}
+
+	IntBuffer getShapeLatitudes() {
+		return shapeLatitudes;
+	}
+
+	IntBuffer getOutgoingOffsets() {
+		return outgoingOffsets;
+	}
+
+	IntBuffer getOutgoingEdges() {
+		return outgoingEdges;
+	}
+
+	IntBuffer getIncomingOffsets() {
+		return incomingOffsets;
+	}
+
+	IntBuffer getIncomingEdges() {
+		return incomingEdges;
+	}
+
+	@Override
+	public String toString() {
+		return "RoadGraph: " + nodeCount + " nodes, " + edgeCount + " edges"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -0,0 +1,354 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.RoadGraph.COORDINATE_MULTIPLIER;
+import static org.hhu.c2c.openlr.map.RoadGraph.FRC_BITSHIFT;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.geo.GeoHelper;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The {@link RoadGraphBuilder} helps building {@link RoadGraph}s. Nodes and
+ * edges can be added in any order, the adjacency lists are computed when
+ * calling {@link #build()}. Nodes are identified by the order in which they
+ * were added, starting with <code>0</code>, and so are edges.
+ *
+ * @see RoadGraph
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphBuilder implements Builder<RoadGraphBuilder, RoadGraph> {
+
+	/**
+	 * The highest valid value of an edge attribute, a functional road class
+	 * and a form of way of 7 each
+	 */
+	private static final int MAXIMUM_ATTRIBUTE = (7 << FRC_BITSHIFT) | 7;
+
+	/** Holds the longitudes of the nodes */
+	private IntList nodeLongitudes;
+
+	/** Holds the latitudes of the nodes */
+	private IntList nodeLatitudes;
+
+	/** Holds the start node of each edge */
+	private IntList edgeSources;
+
+	/** Holds the end node of each edge */
+	private IntList edgeTargets;
+
+	/** Holds the length of each edge */
+	private IntList edgeLengths;
+
+	/** Holds the functional road class and form of way of each edge */
+	private IntList edgeAttributes;
+
+	/** Holds the index of the first shape point of each edge */
+	private IntList shapeOffsets;
+
+	/** Holds the longitudes of the shape points */
+	private IntList shapeLongitudes;
+
+	/** Holds the latitudes of the shape points */
+	private IntList shapeLatitudes;
+
+	/**
+	 * Constructs a new {@link RoadGraphBuilder}
+	 */
+	public RoadGraphBuilder() {
+		init();
+	}
+
+	/**
+	 * Adds a new node. The id of the node is the number of nodes added before.
+	 *
+	 * @param longitude
+	 *            the longitude of the node in degree
+	 * @param latitude
+	 *            the latitude of the node in degree
+	 * @return the same instance of this {@link RoadGraphBuilder} for use in a
+	 *         fluid interface
+	 */
+	public RoadGraphBuilder addNode(final float longitude, final float latitude) {
+		nodeLongitudes.add(toInt(longitude));
+		nodeLatitudes.add(toInt(latitude));
+		return this;
+	}
+
+	/**
+	 * Adds a new edge with a straight geometry between its nodes. The id of the
+	 * edge is the number of edges added before.
+	 *
+	 * @param source
+	 *            the start node
+	 * @param target
+	 *            the end node
+	 * @param frc
+	 *            the functional road class
+	 * @param fow
+	 *            the form of way
+	 * @param length
+	 *            the length in meters
+	 * @return the same instance of this {@link RoadGraphBuilder} for use in a
+	 *         fluid interface
+	 */
+	public RoadGraphBuilder addEdge(final int source, final int target,
+			final FunctionalRoadClass frc, final FormOfWay fow, final int length) {
+		return addEdge(source, target, frc, fow, length, null, null);
+	}
+
+	/**
+	 * Adds a new edge whose geometry runs from its start node over the given
+	 * intermediate shape points to its end node. The id of the edge is the
+	 * number of edges added before.
+	 *
+	 * @param source
+	 *            the start node
+	 * @param target
+	 *            the end node
+	 * @param frc
+	 *            the functional road class
+	 * @param fow
+	 *            the form of way
+	 * @param length
+	 *            the length in meters
+	 * @param longitudes
+	 *            the longitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @param latitudes
+	 *            the latitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @return the same instance of this {@link RoadGraphBuilder} for use in a
+	 *         fluid interface
+	 * @throws IllegalArgumentException
+	 *             if the number of longitudes and latitudes differ
+	 */
+	public RoadGraphBuilder addEdge(final int source, final int target,
+			final FunctionalRoadClass frc, final FormOfWay fow,
+			final int length, final float[] longitudes, final float[] latitudes) {
+		int shapeSize = longitudes == null ? 0 : longitudes.length;
+		if ((latitudes == null ? 0 : latitudes.length) != shapeSize) {
+			throw new IllegalArgumentException(
+					"Number of longitudes and latitudes must be equal."); //$NON-NLS-1$
+		}
+
+		edgeSources.add(source);
+		edgeTargets.add(target);
+		edgeLengths.add(length);
+		edgeAttributes.add(frc.getByteRepresentation() << FRC_BITSHIFT
+				| fow.getByteRepresentation());
+		for (int i = 0; i < shapeSize; i++) {
+			shapeLongitudes.add(toInt(longitudes[i]));
+			shapeLatitudes.add(toInt(latitudes[i]));
+		}
+		shapeOffsets.add(shapeLongitudes.size());
+		return this;
+	}
+
+	/**
+	 * Adds a new edge whose length is computed from its geometry
+	 *
+	 * @see #addEdge(int, int, FunctionalRoadClass, FormOfWay, int, float[],
+	 *      float[])
+	 *
+	 * @param source
+	 *            the start node, which must have been added before
+	 * @param target
+	 *            the end node, which must have been added before
+	 * @param frc
+	 *            the functional road class
+	 * @param fow
+	 *            the form of way
+	 * @param longitudes
+	 *            the longitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @param latitudes
+	 *            the latitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @return the same instance of this {@link RoadGraphBuilder} for use in a
+	 *         fluid interface
+	 * @throws IllegalArgumentException
+	 *             if the number of longitudes and latitudes differ
+	 * @throws IndexOutOfBoundsException
+	 *             if one of the nodes hasn't been added yet
+	 */
+	public RoadGraphBuilder addEdge(final int source, final int target,
+			final FunctionalRoadClass frc, final FormOfWay fow,
+			final float[] longitudes, final float[] latitudes) {
+		int shapeSize = longitudes == null ? 0 : longitudes.length;
+		float[] lons = new float[shapeSize + 2];
+		float[] lats = new float[shapeSize + 2];
+		lons[0] = toFloat(nodeLongitudes.get(source));
+		lats[0] = toFloat(nodeLatitudes.get(source));
+		for (int i = 0; i < shapeSize; i++) {
+			lons[i + 1] = longitudes[i];
+			lats[i + 1] = latitudes[i];
+		}
+		lons[shapeSize + 1] = toFloat(nodeLongitudes.get(target));
+		lats[shapeSize + 1] = toFloat(nodeLatitudes.get(target));
+
+		int length = (int) Math.round(GeoHelper.length(lons, lats, 0,
+				lons.length, false));
+		return addEdge(source, target, frc, fow, length, longitudes, latitudes);
+	}
+
+	/**
+	 * Returns the number of nodes added so far, which is also the id of the
+	 * next node
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return nodeLongitudes.size();
+	}
+
+	/**
+	 * Returns the number of edges added so far, which is also the id of the
+	 * next edge
+	 *
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return edgeSources.size();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public RoadGraph build() throws LocationReferenceException {
+		validate();
+
+		int nodeCount = nodeLongitudes.size();
+		int edgeCount = edgeSources.size();
+		int[] sources = edgeSources.toArray();
+		int[] targets = edgeTargets.toArray();
+
+		byte[] attributes = new byte[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			attributes[i] = (byte) edgeAttributes.get(i);
+		}
+
+		int[] outgoingOffsets = new int[nodeCount + 1];
+		int[] outgoingEdges = new int[edgeCount];
+		group(sources, outgoingOffsets, outgoingEdges);
+
+		int[] incomingOffsets = new int[nodeCount + 1];
+		int[] incomingEdges = new int[edgeCount];
+		group(targets, incomingOffsets, incomingEdges);
+
+		return new RoadGraph(nodeLongitudes.toArray(), nodeLatitudes.toArray(),
+				sources, targets, edgeLengths.toArray(), attributes,
+				shapeOffsets.toArray(), shapeLongitudes.toArray(),
+				shapeLatitudes.toArray(), outgoingOffsets, outgoingEdges,
+				incomingOffsets, incomingEdges);
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public RoadGraphBuilder reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		int nodeCount = nodeLongitudes.size();
+		for (int edge = 0; edge < edgeSources.size(); edge++) {
+			int source = edgeSources.get(edge);
+			int target = edgeTargets.get(edge);
+			if (source < 0 || source >= nodeCount) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphBuilder.Exception.UNKNOWN_NODE", edge, source)); //$NON-NLS-1$
+			}
+			if (target < 0 || target >= nodeCount) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphBuilder.Exception.UNKNOWN_NODE", edge, target)); //$NON-NLS-1$
+			}
+			if (edgeLengths.get(edge) < 0) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphBuilder.Exception.NEGATIVE_LENGTH", edge)); //$NON-NLS-1$
+			}
+			if (edgeAttributes.get(edge) > MAXIMUM_ATTRIBUTE) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphBuilder.Exception.UNDEFINED_FRC", edge)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Groups the edges by the given node array (either their start or their
+	 * end node) using a counting sort. Within a group the edges keep their
+	 * order.
+	 *
+	 * @param nodes
+	 *            the node of each edge to group by
+	 * @param offsets
+	 *            receives the index of the first edge of each node, has to be
+	 *            of the size of the number of nodes plus one
+	 * @param edges
+	 *            receives the grouped edges, has to be of the size of the
+	 *            number of edges
+	 */
+	static void group(final int[] nodes, final int[] offsets, final int[] edges) {
+		for (int i = 0; i < nodes.length; i++) {
+			offsets[nodes[i] + 1]++;
+		}
+		for (int i = 1; i < offsets.length; i++) {
+			offsets[i] += offsets[i - 1];
+		}
+		int[] next = new int[offsets.length - 1];
+		System.arraycopy(offsets, 0, next, 0, next.length);
+		for (int edge = 0; edge < nodes.length; edge++) {
+			edges[next[nodes[edge]]++] = edge;
+		}
+	}
+
+	/**
+	 * Resets the road graph
+	 */
+	private void init() {
+		nodeLongitudes = new IntList();
+		nodeLatitudes = new IntList();
+		edgeSources = new IntList();
+		edgeTargets = new IntList();
+		edgeLengths = new IntList();
+		edgeAttributes = new IntList();
+		shapeOffsets = new IntList();
+		shapeOffsets.add(0);
+		shapeLongitudes = new IntList();
+		shapeLatitudes = new IntList();
+	}
+
+	/**
+	 * Converts a longitude or latitude into decamicrodegrees
+	 *
+	 * @param degree
+	 *            the longitude or latitude in degree
+	 * @return the longitude or latitude in decamicrodegrees
+	 */
+	static int toInt(final float degree) {
+		return (int) Math.round((double) degree * COORDINATE_MULTIPLIER);
+	}
+
+	/**
+	 * Converts a longitude or latitude from decamicrodegrees into degree
+	 *
+	 * @param decamicrodegree
+	 *            the longitude or latitude in decamicrodegrees
+	 * @return the longitude or latitude in degree
+	 */
+	static float toFloat(final int decamicrodegree) {
+		return (float) decamicrodegree / COORDINATE_MULTIPLIER;
+	}
+}
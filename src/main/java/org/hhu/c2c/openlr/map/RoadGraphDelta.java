@@ -0,0 +1,624 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.RoadGraph.FRC_BITSHIFT;
+import static org.hhu.c2c.openlr.map.RoadGraph.REMOVED_FLAG;
+import static org.hhu.c2c.openlr.map.RoadGraph.mix;
+import static org.hhu.c2c.openlr.map.RoadGraphBuilder.toFloat;
+import static org.hhu.c2c.openlr.map.RoadGraphBuilder.toInt;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.geo.GeoHelper;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.Builder;
+import org.hhu.c2c.openlr.util.IntIntMap;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.IntObjectMap;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>road graph delta</b> collects changes to a {@link RoadGraph}, e.g. a
+ * closed road or a new roundabout from a map update, and applies them by
+ * deriving an updated road graph on {@link #build()}. The base road graph
+ * isn't changed, so decoders still using it keep a consistent view.
+ *
+ * The updated road graph shares all buffers of the base road graph and keeps
+ * the changes in a {@link RoadGraphPatch}: added nodes and edges get the next
+ * free ids and are appended as a tail, changed lengths and attributes
+ * override the shared ones, and only the adjacency lists of the nodes touched
+ * by added or removed edges are replaced. Removed edges keep their id (see
+ * {@link RoadGraph#isRemoved(int)}), so the ids of all other nodes and edges
+ * stay the same. Building an update costs as much as the changes of all
+ * updates since the buffers were built, not as much as the road graph; see
+ * {@link RoadGraph#compact()} for starting over.
+ *
+ * @see RoadGraphUpdater
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphDelta implements Builder<RoadGraphDelta, RoadGraph> {
+
+	/** Holds the road graph the changes apply to */
+	private final RoadGraph base;
+
+	/** Holds the longitudes of the added nodes */
+	private IntList nodeLongitudes;
+
+	/** Holds the latitudes of the added nodes */
+	private IntList nodeLatitudes;
+
+	/** Holds the start node of each added edge */
+	private IntList edgeSources;
+
+	/** Holds the end node of each added edge */
+	private IntList edgeTargets;
+
+	/** Holds the length of each added edge */
+	private IntList edgeLengths;
+
+	/** Holds the functional road class and form of way of each added edge */
+	private IntList edgeAttributes;
+
+	/** Holds the index after the last shape point of each added edge */
+	private IntList shapeEnds;
+
+	/** Holds the longitudes of the shape points of the added edges */
+	private IntList shapeLongitudes;
+
+	/** Holds the latitudes of the shape points of the added edges */
+	private IntList shapeLatitudes;
+
+	/** Holds the removed edges */
+	private IntList removedEdges;
+
+	/** Holds the edges whose attributes are changed */
+	private IntList attributeEdges;
+
+	/** Holds the new attributes of these edges */
+	private IntList attributes;
+
+	/** Holds the edges whose length is changed */
+	private IntList lengthEdges;
+
+	/** Holds the new lengths of these edges */
+	private IntList lengths;
+
+	/**
+	 * Constructs a new empty {@link RoadGraphDelta}
+	 *
+	 * @param base
+	 *            the road graph the changes apply to
+	 */
+	public RoadGraphDelta(final RoadGraph base) {
+		this.base = base;
+		init();
+	}
+
+	/**
+	 * Returns the road graph the changes apply to
+	 *
+	 * @return the base road graph
+	 */
+	public RoadGraph getBase() {
+		return base;
+	}
+
+	/**
+	 * Adds a new node. The id of the node is the number of nodes of the base
+	 * road graph and the nodes added before.
+	 *
+	 * @param longitude
+	 *            the longitude of the node in degree
+	 * @param latitude
+	 *            the latitude of the node in degree
+	 * @return the same instance of this {@link RoadGraphDelta} for use in a
+	 *         fluid interface
+	 */
+	public RoadGraphDelta addNode(final float longitude, final float latitude) {
+		nodeLongitudes.add(toInt(longitude));
+		nodeLatitudes.add(toInt(latitude));
+		return this;
+	}
+
+	/**
+	 * Adds a new edge whose geometry runs from its start node over the given
+	 * intermediate shape points to its end node. The id of the edge is the
+	 * number of edges of the base road graph and the edges added before.
+	 *
+	 * @param source
+	 *            the start node
+	 * @param target
+	 *            the end node
+	 * @param frc
+	 *            the functional road class
+	 * @param fow
+	 *            the form of way
+	 * @param length
+	 *            the length in meters
+	 * @param longitudes
+	 *            the longitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @param latitudes
+	 *            the latitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @return the same instance of this {@link RoadGraphDelta} for use in a
+	 *         fluid interface
+	 * @throws IllegalArgumentException
+	 *             if the number of longitudes and latitudes differ
+	 */
+	public RoadGraphDelta addEdge(final int source, final int target,
+			final FunctionalRoadClass frc, final FormOfWay fow,
+			final int length, final float[] longitudes, final float[] latitudes) {
+		int shapeSize = longitudes == null ? 0 : longitudes.length;
+		if ((latitudes == null ? 0 : latitudes.length) != shapeSize) {
+			throw new IllegalArgumentException(
+					"Number of longitudes and latitudes must be equal."); //$NON-NLS-1$
+		}
+
+		edgeSources.add(source);
+		edgeTargets.add(target);
+		edgeLengths.add(length);
+		edgeAttributes.add(frc.getByteRepresentation() << FRC_BITSHIFT
+				| fow.getByteRepresentation());
+		for (int i = 0; i < shapeSize; i++) {
+			shapeLongitudes.add(toInt(longitudes[i]));
+			shapeLatitudes.add(toInt(latitudes[i]));
+		}
+		shapeEnds.add(shapeLongitudes.size());
+		return this;
+	}
+
+	/**
+	 * Adds a new edge whose length is computed from its geometry
+	 *
+	 * @see #addEdge(int, int, FunctionalRoadClass, FormOfWay, int, float[],
+	 *      float[])
+	 *
+	 * @param source
+	 *            the start node, which must exist in the base road graph or
+	 *            have been added before
+	 * @param target
+	 *            the end node, which must exist in the base road graph or have
+	 *            been added before
+	 * @param frc
+	 *            the functional road class
+	 * @param fow
+	 *            the form of way
+	 * @param longitudes
+	 *            the longitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @param latitudes
+	 *            the latitudes of the intermediate shape points, may be
+	 *            <code>null</code>
+	 * @return the same instance of this {@link RoadGraphDelta} for use in a
+	 *         fluid interface
+	 */
+	public RoadGraphDelta addEdge(final int source, final int target,
+			final FunctionalRoadClass frc, final FormOfWay fow,
+			final float[] longitudes, final float[] latitudes) {
+		int shapeSize = longitudes == null ? 0 : longitudes.length;
+		float[] lons = new float[shapeSize + 2];
+		float[] lats = new float[shapeSize + 2];
+		lons[0] = getNodeLongitude(source);
+		lats[0] = getNodeLatitude(source);
+		for (int i = 0; i < shapeSize; i++) {
+			lons[i + 1] = longitudes[i];
+			lats[i + 1] = latitudes[i];
+		}
+		lons[shapeSize + 1] = getNodeLongitude(target);
+		lats[shapeSize + 1] = getNodeLatitude(target);
+
+		int length = (int) Math.round(GeoHelper.length(lons, lats, 0,
+				lons.length, false));
+		return addEdge(source, target, frc, fow, length, longitudes, latitudes);
+	}
+
+	/**
+	 * Removes an edge, e.g. a closed road. The edge keeps its id but is no
+	 * longer connected to its nodes.
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @return the same instance of this {@link RoadGraphDelta} for use in a
+	 *         fluid interface
+	 */
+	public RoadGraphDelta removeEdge(final int edge) {
+		removedEdges.add(edge);
+		return this;
+	}
+
+	/**
+	 * Changes the functional road class and form of way of an edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @param frc
+	 *            the new functional road class
+	 * @param fow
+	 *            the new form of way
+	 * @return the same instance of this {@link RoadGraphDelta} for use in a
+	 *         fluid interface
+	 */
+	public RoadGraphDelta setAttributes(final int edge,
+			final FunctionalRoadClass frc, final FormOfWay fow) {
+		attributeEdges.add(edge);
+		attributes.add(frc.getByteRepresentation() << FRC_BITSHIFT
+				| fow.getByteRepresentation());
+		return this;
+	}
+
+	/**
+	 * Changes the length of an edge
+	 *
+	 * @param edge
+	 *            the edge id
+	 * @param length
+	 *            the new length in meters
+	 * @return the same instance of this {@link RoadGraphDelta} for use in a
+	 *         fluid interface
+	 */
+	public RoadGraphDelta setLength(final int edge, final int length) {
+		lengthEdges.add(edge);
+		lengths.add(length);
+		return this;
+	}
+
+	/**
+	 * Returns the number of nodes of the updated road graph, which is also the
+	 * id of the next node
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return base.getNodeCount() + nodeLongitudes.size();
+	}
+
+	/**
+	 * Returns the number of edges of the updated road graph, which is also the
+	 * id of the next edge
+	 *
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return base.getEdgeCount() + edgeSources.size();
+	}
+
+	/**
+	 * Returns <code>true</code> if no changes have been made
+	 *
+	 * @return <code>true</code> if the updated road graph would equal the base
+	 *         road graph
+	 */
+	public boolean isEmpty() {
+		return nodeLongitudes.isEmpty() && edgeSources.isEmpty()
+				&& removedEdges.isEmpty() && attributeEdges.isEmpty()
+				&& lengthEdges.isEmpty();
+	}
+
+	/**
+	 * {@link Builder#build()}
+	 */
+	@Override
+	public RoadGraph build() throws LocationReferenceException {
+		validate();
+
+		RoadGraphPatch previous = base.getPatch();
+		int bufferEdgeCount = base.getEdgeSources().capacity();
+		int baseEdgeCount = base.getEdgeCount();
+		int[] removed = removedEdges.toArray();
+		Arrays.sort(removed);
+
+		// append the added nodes and edges to the tail of the previous patch
+		int[] nodeLongitudes = append(previous == null ? null
+				: previous.nodeLongitudes, this.nodeLongitudes, false);
+		int[] nodeLatitudes = append(previous == null ? null
+				: previous.nodeLatitudes, this.nodeLatitudes, false);
+		int[] sources = append(previous == null ? null : previous.edgeSources,
+				edgeSources, false);
+		int[] targets = append(previous == null ? null : previous.edgeTargets,
+				edgeTargets, false);
+		int[] lengths = append(previous == null ? null : previous.edgeLengths,
+				edgeLengths, true);
+		int[] attributes = append(null, this.edgeAttributes, false);
+		byte[] edgeAttributes = new byte[sources.length];
+		int addedBefore = baseEdgeCount - bufferEdgeCount;
+		if (previous != null) {
+			System.arraycopy(previous.edgeAttributes, 0, edgeAttributes, 0,
+					addedBefore);
+		}
+		for (int i = 0; i < attributes.length; i++) {
+			edgeAttributes[addedBefore + i] = (byte) attributes[i];
+		}
+		int shapeCount = previous == null ? 0
+				: previous.shapeLongitudes.length;
+		int[] shapeOffsets = new int[sources.length + 1];
+		if (previous != null) {
+			System.arraycopy(previous.shapeOffsets, 0, shapeOffsets, 0,
+					addedBefore + 1);
+		}
+		for (int i = 0; i < shapeEnds.size(); i++) {
+			shapeOffsets[addedBefore + i + 1] = shapeCount + shapeEnds.get(i);
+		}
+		int[] shapeLongitudes = append(previous == null ? null
+				: previous.shapeLongitudes, this.shapeLongitudes, false);
+		int[] shapeLatitudes = append(previous == null ? null
+				: previous.shapeLatitudes, this.shapeLatitudes, false);
+
+		// change the lengths and attributes of the edges
+		IntIntMap changedLengths = previous == null ? new IntIntMap()
+				: new IntIntMap(previous.lengths);
+		IntIntMap changedAttributes = previous == null ? new IntIntMap()
+				: new IntIntMap(previous.attributes);
+		ByteBuffer bufferAttributes = base.getEdgeAttributes();
+		for (int i = 0; i < lengthEdges.size(); i++) {
+			int edge = lengthEdges.get(i);
+			if (edge < bufferEdgeCount) {
+				changedLengths.put(edge, this.lengths.get(i));
+			} else {
+				lengths[edge - bufferEdgeCount] = this.lengths.get(i);
+			}
+		}
+		for (int i = 0; i < attributeEdges.size(); i++) {
+			int edge = attributeEdges.get(i);
+			if (edge < bufferEdgeCount) {
+				changedAttributes.put(edge, changedAttributes.get(edge,
+						bufferAttributes.get(edge))
+						& REMOVED_FLAG | this.attributes.get(i));
+			} else {
+				edge -= bufferEdgeCount;
+				edgeAttributes[edge] = (byte) (edgeAttributes[edge]
+						& REMOVED_FLAG | this.attributes.get(i));
+			}
+		}
+		for (int edge : removed) {
+			if (edge < bufferEdgeCount) {
+				changedAttributes.put(edge, changedAttributes.get(edge,
+						bufferAttributes.get(edge))
+						| REMOVED_FLAG);
+			} else {
+				edgeAttributes[edge - bufferEdgeCount] |= REMOVED_FLAG;
+			}
+		}
+
+		// replace the adjacency lists of the touched nodes
+		IntObjectMap<IntList> outgoing = new IntObjectMap<IntList>();
+		IntObjectMap<IntList> incoming = new IntObjectMap<IntList>();
+		for (int edge : removed) {
+			// edges added by this update are touched when they are added
+			if (edge < baseEdgeCount) {
+				touch(outgoing, base.getSource(edge), true, removed);
+				touch(incoming, base.getTarget(edge), false, removed);
+			}
+		}
+		for (int node = base.getNodeCount(); node < getNodeCount(); node++) {
+			touch(outgoing, node, true, removed);
+			touch(incoming, node, false, removed);
+		}
+		for (int i = 0; i < edgeSources.size(); i++) {
+			int edge = baseEdgeCount + i;
+			IntList sourceEdges = touch(outgoing, edgeSources.get(i), true,
+					removed);
+			IntList targetEdges = touch(incoming, edgeTargets.get(i), false,
+					removed);
+			if (Arrays.binarySearch(removed, edge) < 0) {
+				sourceEdges.add(edge);
+				targetEdges.add(edge);
+			}
+		}
+
+		RoadGraphPatch patch = new RoadGraphPatch(base.getStamp(), removed,
+				nodeLongitudes, nodeLatitudes, sources, targets, lengths,
+				edgeAttributes, shapeOffsets, shapeLongitudes, shapeLatitudes,
+				changedLengths, changedAttributes, new ListOverlay(
+						previous == null ? null : previous.outgoing, outgoing),
+				new ListOverlay(previous == null ? null : previous.incoming,
+						incoming));
+		return new RoadGraph(base, patch, stamp());
+	}
+
+	/**
+	 * {@link Builder#reset()}
+	 */
+	@Override
+	public RoadGraphDelta reset() {
+		init();
+		return this;
+	}
+
+	/**
+	 * {@link Builder#validate()}
+	 */
+	@Override
+	public void validate() throws LocationReferenceException {
+		int nodeCount = getNodeCount();
+		for (int i = 0; i < edgeSources.size(); i++) {
+			int edge = base.getEdgeCount() + i;
+			int source = edgeSources.get(i);
+			int target = edgeTargets.get(i);
+			if (source < 0 || source >= nodeCount) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphDelta.Exception.UNKNOWN_NODE", edge, source)); //$NON-NLS-1$
+			}
+			if (target < 0 || target >= nodeCount) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphDelta.Exception.UNKNOWN_NODE", edge, target)); //$NON-NLS-1$
+			}
+			if (edgeLengths.get(i) < 0) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphDelta.Exception.NEGATIVE_LENGTH", edge)); //$NON-NLS-1$
+			}
+		}
+
+		checkEdges(removedEdges);
+		checkEdges(attributeEdges);
+		checkEdges(lengthEdges);
+		for (int i = 0; i < lengths.size(); i++) {
+			if (lengths.get(i) < 0) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphDelta.Exception.NEGATIVE_LENGTH", lengthEdges //$NON-NLS-1$
+								.get(i)));
+			}
+		}
+	}
+
+	/**
+	 * Checks that the given edges exist in the updated road graph
+	 *
+	 * @param edges
+	 *            the edge ids
+	 * @throws LocationReferenceException
+	 *             if an edge doesn't exist
+	 */
+	private void checkEdges(final IntList edges)
+			throws LocationReferenceException {
+		int edgeCount = getEdgeCount();
+		for (int i = 0; i < edges.size(); i++) {
+			int edge = edges.get(i);
+			if (edge < 0 || edge >= edgeCount) {
+				throw new LocationReferenceException(Messages.getString(
+						"RoadGraphDelta.Exception.UNKNOWN_EDGE", edge)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Returns the longitude of a node of the base road graph or of an added
+	 * node
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the longitude in degree
+	 */
+	private float getNodeLongitude(final int node) {
+		return node < base.getNodeCount() ? base.getNodeLongitude(node)
+				: toFloat(nodeLongitudes.get(node - base.getNodeCount()));
+	}
+
+	/**
+	 * Returns the latitude of a node of the base road graph or of an added
+	 * node
+	 *
+	 * @param node
+	 *            the node id
+	 * @return the latitude in degree
+	 */
+	private float getNodeLatitude(final int node) {
+		return node < base.getNodeCount() ? base.getNodeLatitude(node)
+				: toFloat(nodeLatitudes.get(node - base.getNodeCount()));
+	}
+
+	/**
+	 * Derives the stamp of the updated road graph from the stamp of the base
+	 * road graph and the changes
+	 *
+	 * @return the stamp
+	 */
+	private long stamp() {
+		long stamp = base.getStamp();
+		if (isEmpty()) {
+			return stamp;
+		}
+		IntList[] changes = { nodeLongitudes, nodeLatitudes, edgeSources,
+				edgeTargets, edgeLengths, edgeAttributes, shapeEnds,
+				shapeLongitudes, shapeLatitudes, removedEdges, attributeEdges,
+				attributes, lengthEdges, lengths };
+		for (IntList values : changes) {
+			stamp = mix(stamp, values.size());
+			for (int i = 0; i < values.size(); i++) {
+				stamp = mix(stamp, values.get(i));
+			}
+		}
+		return stamp;
+	}
+
+	/**
+	 * Returns the adjacency list of the given node in the updated road graph,
+	 * copying it from the base road graph without the removed edges when the
+	 * node is touched first
+	 *
+	 * @param lists
+	 *            the adjacency lists of the touched nodes
+	 * @param node
+	 *            the node
+	 * @param outgoing
+	 *            <code>true</code> for the outgoing edges, <code>false</code>
+	 *            for the incoming edges
+	 * @param removed
+	 *            the removed edges, sorted
+	 * @return the adjacency list
+	 */
+	private IntList touch(final IntObjectMap<IntList> lists, final int node,
+			final boolean outgoing, final int[] removed) {
+		IntList list = lists.get(node);
+		if (list == null) {
+			list = new IntList();
+			if (node < base.getNodeCount()) {
+				int start = outgoing ? base.getOutgoingStart(node) : base
+						.getIncomingStart(node);
+				int end = outgoing ? base.getOutgoingEnd(node) : base
+						.getIncomingEnd(node);
+				for (int i = start; i < end; i++) {
+					int edge = outgoing ? base.getOutgoingEdge(i) : base
+							.getIncomingEdge(i);
+					if (Arrays.binarySearch(removed, edge) < 0) {
+						list.add(edge);
+					}
+				}
+			}
+			lists.put(node, list);
+		}
+		return list;
+	}
+
+	/**
+	 * Appends the added values to an array of the previous patch
+	 *
+	 * @param array
+	 *            the array of the previous patch, or <code>null</code>
+	 * @param added
+	 *            the added values
+	 * @param copy
+	 *            <code>true</code> if the array is changed afterwards and
+	 *            must be copied even if no values were added
+	 * @return the array itself if it can be shared, a new array otherwise
+	 */
+	private static int[] append(final int[] array, final IntList added,
+			final boolean copy) {
+		int length = array == null ? 0 : array.length;
+		if (array != null && added.isEmpty() && !copy) {
+			return array;
+		}
+		int[] result = new int[length + added.size()];
+		if (array != null) {
+			System.arraycopy(array, 0, result, 0, length);
+		}
+		for (int i = 0; i < added.size(); i++) {
+			result[length + i] = added.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Forgets all changes
+	 */
+	private void init() {
+		nodeLongitudes = new IntList();
+		nodeLatitudes = new IntList();
+		edgeSources = new IntList();
+		edgeTargets = new IntList();
+		edgeLengths = new IntList();
+		edgeAttributes = new IntList();
+		shapeEnds = new IntList();
+		shapeLongitudes = new IntList();
+		shapeLatitudes = new IntList();
+		removedEdges = new IntList();
+		attributeEdges = new IntList();
+		attributes = new IntList();
+		lengthEdges = new IntList();
+		lengths = new IntList();
+	}
+}
@@ -0,0 +1,94 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * This class offers static definitions of the binary road graph format shared
+ * between the {@link RoadGraphWriter} and the {@link RoadGraphReader}.
+ * 
+ * The format starts with a header of the magic number and the format version,
+ * the stamp of the road graph as a long (see {@link RoadGraph#getStamp()}),
+ * and the number of nodes, the number of edges and the number of shape points.
+ * It is followed by the arrays of the {@link RoadGraph}, each written as a
+ * sequence of integers in this order: node longitudes, node latitudes, edge
+ * sources, edge targets, edge lengths, shape offsets, shape longitudes, shape
+ * latitudes, outgoing offsets, outgoing edges, incoming offsets and incoming
+ * edges. The edge attributes are
+ * written last, one byte per edge, so that every integer array starts at a
+ * position divisible by four. The adjacency lists leave out the edges removed
+ * by a {@link RoadGraphDelta}, so the number of outgoing and incoming edges is
+ * given by the last outgoing and incoming offset, not by the number of edges.
+ * 
+ * A {@link ContractionHierarchy} is stored separately from its road graph, in
+ * the same manner. Its header consists of the magic number, the format
+ * version, the stamp and the number of nodes and edges of the road graph it
+ * was built for and the number of arcs. It is followed by the node ranks, arc sources, arc
+ * targets, arc lengths, first replaced arcs and second replaced arcs, and
+ * finally by the functional road classes of the arcs, one byte per arc.
+ * 
+ * A {@link RoadGraphTile} starts with a header of six integers: the magic
+ * number, the format version, the column and row of the tile and its
+ * number of nodes and edges. It is followed by the ids of the nodes and of the
+ * edges in the partitioned road graph and by the road graph of the tile in
+ * the format described above.
+ * 
+ * All integers and longs of a road graph, a contraction hierarchy or a tile
+ * header are written in the same byte order, either big or little endian (see
+ * {@link RoadGraphWriter#RoadGraphWriter(java.nio.ByteOrder)}). The magic
+ * number at the beginning of the header records the byte order: read as a big
+ * endian integer it is either the magic number itself or the magic number
+ * with its bytes reversed. Files written before the byte order was
+ * configurable are big endian and are read unchanged.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class RoadGraphFormat {
+
+	/**
+	 * The size of the buffer used for reading and writing
+	 */
+	protected static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The number of bytes of the header
+	 */
+	protected static final int HEADER_SIZE = 4 + 4 + 8 + 3 * 4;
+
+	/**
+	 * The number of bytes of the header of a contraction hierarchy
+	 */
+	protected static final int HIERARCHY_HEADER_SIZE = 4 + 4 + 8 + 3 * 4;
+
+	/**
+	 * The magic number identifying a binary contraction hierarchy, the ASCII
+	 * characters <code>OLCH</code>
+	 */
+	protected static final int HIERARCHY_MAGIC_NUMBER = 0x4F4C4348;
+
+	/**
+	 * The number of bytes of the header of a road graph tile
+	 */
+	protected static final int TILE_HEADER_SIZE = 6 * 4;
+
+	/**
+	 * The magic number identifying a binary road graph tile, the ASCII
+	 * characters <code>OLTL</code>
+	 */
+	protected static final int TILE_MAGIC_NUMBER = 0x4F4C544C;
+
+	/**
+	 * The magic number identifying a binary road graph, the ASCII characters
+	 * <code>OLRG</code>
+	 */
+	protected static final int MAGIC_NUMBER = 0x4F4C5247;
+
+	/**
+	 * The version of the binary road graph format
+	 */
+	protected static final int VERSION = 2;
+
+	/**
+	 * This class should not be instantiated
+	 */
+	private RoadGraphFormat() {
+	}
+}
@@ -0,0 +1,129 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.util.IntIntMap;
+
+/**
+ * The <b>road graph patch</b> holds everything in which a road graph updated
+ * by one or more {@link RoadGraphDelta}s differs from the buffers it shares
+ * with the road graph it was derived from: the added nodes, edges and shape
+ * points are appended as a tail, the changed lengths and attributes of the
+ * shared edges override their values, and the adjacency lists of the nodes
+ * touched by an update replace the shared ones (see {@link ListOverlay}).
+ *
+ * Ids of the tail continue the ids of the shared buffers, e.g. the first
+ * added edge is the edge at index <code>0</code> of the edge arrays of the
+ * patch. The shape offsets of the added edges point into the shape points of
+ * the patch.
+ *
+ * A patch is immutable and only read by the classes of this package.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+final class RoadGraphPatch {
+
+	/** Holds the stamp of the road graph the last update applied to */
+	final long previousStamp;
+
+	/** Holds the edges removed by the last update, sorted */
+	final int[] removedEdges;
+
+	/** Holds the longitudes of the added nodes */
+	final int[] nodeLongitudes;
+
+	/** Holds the latitudes of the added nodes */
+	final int[] nodeLatitudes;
+
+	/** Holds the start node of each added edge */
+	final int[] edgeSources;
+
+	/** Holds the end node of each added edge */
+	final int[] edgeTargets;
+
+	/** Holds the length of each added edge */
+	final int[] edgeLengths;
+
+	/** Holds the attributes of each added edge */
+	final byte[] edgeAttributes;
+
+	/** Holds for each added edge the index of its first shape point */
+	final int[] shapeOffsets;
+
+	/** Holds the longitudes of the shape points of the added edges */
+	final int[] shapeLongitudes;
+
+	/** Holds the latitudes of the shape points of the added edges */
+	final int[] shapeLatitudes;
+
+	/** Holds the changed lengths of shared edges */
+	final IntIntMap lengths;
+
+	/** Holds the changed attributes of shared edges */
+	final IntIntMap attributes;
+
+	/** Holds the replaced outgoing edges of the touched nodes */
+	final ListOverlay outgoing;
+
+	/** Holds the replaced incoming edges of the touched nodes */
+	final ListOverlay incoming;
+
+	/**
+	 * Constructs a new road graph patch. The arrays are used directly and
+	 * must not be modified afterwards.
+	 *
+	 * @param previousStamp
+	 *            the stamp of the road graph the last update applied to
+	 * @param removedEdges
+	 *            the edges removed by the last update, sorted
+	 * @param nodeLongitudes
+	 *            the longitudes of the added nodes
+	 * @param nodeLatitudes
+	 *            the latitudes of the added nodes
+	 * @param edgeSources
+	 *            the start node of each added edge
+	 * @param edgeTargets
+	 *            the end node of each added edge
+	 * @param edgeLengths
+	 *            the length of each added edge
+	 * @param edgeAttributes
+	 *            the attributes of each added edge
+	 * @param shapeOffsets
+	 *            the index of the first shape point of each added edge
+	 * @param shapeLongitudes
+	 *            the longitudes of the shape points of the added edges
+	 * @param shapeLatitudes
+	 *            the latitudes of the shape points of the added edges
+	 * @param lengths
+	 *            the changed lengths of shared edges
+	 * @param attributes
+	 *            the changed attributes of shared edges
+	 * @param outgoing
+	 *            the replaced outgoing edges
+	 * @param incoming
+	 *            the replaced incoming edges
+	 */
+	RoadGraphPatch(final long previousStamp, final int[] removedEdges,
+			final int[] nodeLongitudes, final int[] nodeLatitudes,
+			final int[] edgeSources, final int[] edgeTargets,
+			final int[] edgeLengths, final byte[] edgeAttributes,
+			final int[] shapeOffsets, final int[] shapeLongitudes,
+			final int[] shapeLatitudes, final IntIntMap lengths,
+			final IntIntMap attributes, final ListOverlay outgoing,
+			final ListOverlay incoming) {
+		this.previousStamp = previousStamp;
+		this.removedEdges = removedEdges;
+		this.nodeLongitudes = nodeLongitudes;
+		this.nodeLatitudes = nodeLatitudes;
+		this.edgeSources = edgeSources;
+		this.edgeTargets = edgeTargets;
+		this.edgeLengths = edgeLengths;
+		this.edgeAttributes = edgeAttributes;
+		this.shapeOffsets = shapeOffsets;
+		this.shapeLongitudes = shapeLongitudes;
+		this.shapeLatitudes = shapeLatitudes;
+		this.lengths = lengths;
+		this.attributes = attributes;
+		this.outgoing = outgoing;
+		this.incoming = incoming;
+	}
+}
@@ -0,0 +1,736 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.BUFFER_SIZE;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.HEADER_SIZE;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.HIERARCHY_HEADER_SIZE;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.HIERARCHY_MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.TILE_HEADER_SIZE;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.TILE_MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.VERSION;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * Used for reading a {@link RoadGraph}, either from its binary format as
+ * described by {@link RoadGraphFormat} or from a simple text format, and for
+ * reading the {@link ContractionHierarchy} and the {@link RoadGraphTile}s of a
+ * road graph. Files in the binary format are best read by {@link #read(File)},
+ * which maps them into memory instead of streaming them.
+ *
+ * The text format consists of one record per line, with values separated by
+ * commas. Empty lines and lines starting with <code>#</code> are ignored.
+ *
+ * <pre>
+ * N,&lt;longitude&gt;,&lt;latitude&gt;
+ * E,&lt;source&gt;,&lt;target&gt;,&lt;frc&gt;,&lt;fow&gt;[,&lt;length&gt;[,&lt;shape&gt;]]
+ * </pre>
+ *
+ * Nodes (<code>N</code>) and edges (<code>E</code>) get their ids in the order
+ * of their appearance. An edge references its nodes by id, so they have to
+ * appear before the edge. The functional road class and the form of way are
+ * given by their byte representation (0 to 7). If the length in meters is
+ * empty or missing it is computed from the geometry. The optional shape lists
+ * the intermediate shape points as <code>longitude latitude</code> pairs, all
+ * separated by spaces.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphReader {
+
+	/**
+	 * Reads a road graph in its binary format from the given input stream. The
+	 * stream is not closed.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @return the road graph
+	 * @throws IOException
+	 *             if there are problems with the input stream or if it doesn't
+	 *             contain a road graph
+	 */
+	public RoadGraph read(final InputStream in) throws IOException {
+		return read(new StreamInput(in));
+	}
+
+	/**
+	 * Reads a road graph in its binary format from the given file. The file is
+	 * mapped into memory and the road graph reads its arrays straight from
+	 * the mapping instead of copying them onto the heap. So loading takes no
+	 * time beyond checking the header, the operating system pages the arrays
+	 * in as they are used, and all processes reading the same file share the
+	 * same pages of the page cache. The file must not be modified while the
+	 * road graph is in use.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the road graph
+	 * @throws IOException
+	 *             if the file can't be read or doesn't contain a road graph
+	 */
+	public RoadGraph read(final File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			return read(new MappedInput(in.getChannel()));
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a road graph tile in its binary format from the given input
+	 * stream. The stream is not closed.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @return the road graph tile
+	 * @throws IOException
+	 *             if there are problems with the input stream or if it doesn't
+	 *             contain a road graph tile
+	 */
+	public RoadGraphTile readTile(final InputStream in) throws IOException {
+		StreamInput input = new StreamInput(in);
+		ByteBuffer header = input.readHeader(TILE_HEADER_SIZE);
+		checkHeader(input, header, TILE_MAGIC_NUMBER,
+				"RoadGraphReader.Exception.NO_ROAD_GRAPH_TILE"); //$NON-NLS-1$
+		int column = header.getInt();
+		int row = header.getInt();
+		int nodeCount = readCount(header);
+		int edgeCount = readCount(header);
+		int[] nodeIds = input.readInts(nodeCount).array();
+		int[] edgeIds = input.readInts(edgeCount).array();
+		RoadGraph graph = read(input);
+		checkGraph(graph, graph.getStamp(), nodeCount, edgeCount);
+
+		return new RoadGraphTile(column, row, graph, nodeIds, edgeIds);
+	}
+
+	/**
+	 * Reads a contraction hierarchy in its binary format from the given input
+	 * stream. The stream is not closed.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @param graph
+	 *            the road graph the contraction hierarchy was built for
+	 * @return the contraction hierarchy
+	 * @throws IOException
+	 *             if there are problems with the input stream, if it doesn't
+	 *             contain a contraction hierarchy or if the contraction
+	 *             hierarchy was built for a different road graph
+	 */
+	public ContractionHierarchy readHierarchy(final InputStream in,
+			final RoadGraph graph) throws IOException {
+		return readHierarchy(new StreamInput(in), graph);
+	}
+
+	/**
+	 * Reads a contraction hierarchy in its binary format from the given file,
+	 * which is mapped into memory like by {@link #read(File)}.
+	 *
+	 * @param file
+	 *            the file
+	 * @param graph
+	 *            the road graph the contraction hierarchy was built for
+	 * @return the contraction hierarchy
+	 * @throws IOException
+	 *             if the file can't be read, if it doesn't contain a
+	 *             contraction hierarchy or if the contraction hierarchy was
+	 *             built for a different road graph
+	 */
+	public ContractionHierarchy readHierarchy(final File file,
+			final RoadGraph graph) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			return readHierarchy(new MappedInput(in.getChannel()), graph);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a road graph in its binary format from the given input
+	 *
+	 * @param input
+	 *            the input
+	 * @return the road graph
+	 * @throws IOException
+	 *             if there are problems with the input or if it doesn't
+	 *             contain a road graph
+	 */
+	private RoadGraph read(final Input input) throws IOException {
+		ByteBuffer header = input.readHeader(HEADER_SIZE);
+		checkHeader(input, header, MAGIC_NUMBER,
+				"RoadGraphReader.Exception.NO_ROAD_GRAPH"); //$NON-NLS-1$
+		long stamp = header.getLong();
+		int nodeCount = readCount(header);
+		int edgeCount = readCount(header);
+		int shapeCount = readCount(header);
+
+		IntBuffer nodeLongitudes = input.readInts(nodeCount);
+		IntBuffer nodeLatitudes = input.readInts(nodeCount);
+		IntBuffer edgeSources = input.readInts(edgeCount);
+		IntBuffer edgeTargets = input.readInts(edgeCount);
+		IntBuffer edgeLengths = input.readInts(edgeCount);
+		IntBuffer shapeOffsets = input.readInts(edgeCount + 1);
+		IntBuffer shapeLongitudes = input.readInts(shapeCount);
+		IntBuffer shapeLatitudes = input.readInts(shapeCount);
+		IntBuffer outgoingOffsets = input.readInts(nodeCount + 1);
+		IntBuffer outgoingEdges = input.readInts(readAdjacencyCount(
+				outgoingOffsets, edgeCount));
+		IntBuffer incomingOffsets = input.readInts(nodeCount + 1);
+		IntBuffer incomingEdges = input.readInts(readAdjacencyCount(
+				incomingOffsets, edgeCount));
+		ByteBuffer edgeAttributes = input.readBytes(edgeCount);
+
+		return new RoadGraph(nodeLongitudes, nodeLatitudes, edgeSources,
+				edgeTargets, edgeLengths, edgeAttributes, shapeOffsets,
+				shapeLongitudes, shapeLatitudes, outgoingOffsets,
+				outgoingEdges, incomingOffsets, incomingEdges, stamp);
+	}
+
+	/**
+	 * Reads a contraction hierarchy in its binary format from the given input
+	 *
+	 * @param input
+	 *            the input
+	 * @param graph
+	 *            the road graph the contraction hierarchy was built for
+	 * @return the contraction hierarchy
+	 * @throws IOException
+	 *             if there are problems with the input, if it doesn't contain
+	 *             a contraction hierarchy or if the contraction hierarchy was
+	 *             built for a different road graph
+	 */
+	private ContractionHierarchy readHierarchy(final Input input,
+			final RoadGraph graph) throws IOException {
+		ByteBuffer header = input.readHeader(HIERARCHY_HEADER_SIZE);
+		checkHeader(input, header, HIERARCHY_MAGIC_NUMBER,
+				"RoadGraphReader.Exception.NO_CONTRACTION_HIERARCHY"); //$NON-NLS-1$
+		long stamp = header.getLong();
+		int nodeCount = readCount(header);
+		int edgeCount = readCount(header);
+		int arcCount = readCount(header);
+		checkGraph(graph, stamp, nodeCount, edgeCount);
+
+		IntBuffer ranks = input.readInts(nodeCount);
+		IntBuffer arcSources = input.readInts(arcCount);
+		IntBuffer arcTargets = input.readInts(arcCount);
+		IntBuffer arcLengths = input.readInts(arcCount);
+		IntBuffer arcFirsts = input.readInts(arcCount);
+		IntBuffer arcSeconds = input.readInts(arcCount);
+		ByteBuffer arcFrcs = input.readBytes(arcCount);
+
+		return new ContractionHierarchy(graph, ranks, arcSources, arcTargets,
+				arcLengths, arcFirsts, arcSeconds, arcFrcs);
+	}
+
+	/**
+	 * Reads a road graph in its text format from the given reader. The reader
+	 * is not closed.
+	 *
+	 * @param in
+	 *            the reader
+	 * @return the road graph
+	 * @throws IOException
+	 *             if there are problems with the reader or if a line is
+	 *             malformed
+	 * @throws LocationReferenceException
+	 *             if the road graph is not valid
+	 */
+	public RoadGraph readText(final Reader in) throws IOException,
+			LocationReferenceException {
+		BufferedReader reader = new BufferedReader(in);
+		RoadGraphBuilder builder = new RoadGraphBuilder();
+		String[] fields = new String[7];
+		String line;
+		int lineNumber = 0;
+
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.charAt(0) == '#') {
+				continue;
+			}
+
+			int size = split(line, fields);
+			try {
+				if (size == 3 && "N".equals(fields[0])) { //$NON-NLS-1$
+					builder.addNode(Float.parseFloat(fields[1]), Float
+							.parseFloat(fields[2]));
+				} else if (size >= 5 && "E".equals(fields[0])) { //$NON-NLS-1$
+					addEdge(builder, fields, size);
+				} else {
+					throw new IOException(Messages.getString(
+							"RoadGraphReader.Exception.MALFORMED_LINE", //$NON-NLS-1$
+							lineNumber, line));
+				}
+			} catch (RuntimeException e) {
+				// number format exceptions, unknown nodes or
+				// inconsistent shape points
+				throw new IOException(Messages.getString(
+						"RoadGraphReader.Exception.MALFORMED_LINE", //$NON-NLS-1$
+						lineNumber, line));
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Adds the edge described by the given fields of a line in text format
+	 *
+	 * @param builder
+	 *            the road graph builder
+	 * @param fields
+	 *            the fields of the line
+	 * @param size
+	 *            the number of fields
+	 */
+	private void addEdge(final RoadGraphBuilder builder,
+			final String[] fields, final int size) {
+		int source = Integer.parseInt(fields[1]);
+		int target = Integer.parseInt(fields[2]);
+		FunctionalRoadClass frc = FunctionalRoadClass
+				.getFunctionalRoadClass(parseAttribute(fields[3]));
+		FormOfWay fow = FormOfWay.getFormOfWay(parseAttribute(fields[4]));
+
+		float[] longitudes = null;
+		float[] latitudes = null;
+		if (size > 6 && fields[6].length() > 0) {
+			String[] values = fields[6].split(" +"); //$NON-NLS-1$
+			if (values.length % 2 != 0) {
+				throw new IllegalArgumentException();
+			}
+			longitudes = new float[values.length / 2];
+			latitudes = new float[values.length / 2];
+			for (int i = 0; i < longitudes.length; i++) {
+				longitudes[i] = Float.parseFloat(values[2 * i]);
+				latitudes[i] = Float.parseFloat(values[2 * i + 1]);
+			}
+		}
+
+		if (size > 5 && fields[5].length() > 0) {
+			builder.addEdge(source, target, frc, fow, Integer
+					.parseInt(fields[5]), longitudes, latitudes);
+		} else {
+			builder.addEdge(source, target, frc, fow, longitudes, latitudes);
+		}
+	}
+
+	/**
+	 * Parses the byte representation of a functional road class or form of
+	 * way
+	 *
+	 * @param field
+	 *            the field
+	 * @return the byte representation
+	 * @throws IllegalArgumentException
+	 *             if the value is not between 0 and 7
+	 */
+	private byte parseAttribute(final String field) {
+		int value = Integer.parseInt(field);
+		if (value < 0 || value > 7) {
+			throw new IllegalArgumentException();
+		}
+		return (byte) value;
+	}
+
+	/**
+	 * Splits the given line at commas into the given array, without using
+	 * regular expressions. Surplus fields are ignored.
+	 *
+	 * @param line
+	 *            the line
+	 * @param fields
+	 *            receives the trimmed fields
+	 * @return the number of fields found
+	 */
+	private int split(final String line, final String[] fields) {
+		int size = 0;
+		int start = 0;
+		while (size < fields.length) {
+			int end = line.indexOf(',', start);
+			if (end < 0) {
+				fields[size++] = line.substring(start).trim();
+				break;
+			}
+			fields[size++] = line.substring(start, end).trim();
+			start = end + 1;
+		}
+		return size;
+	}
+
+	/**
+	 * Checks the magic number and the version at the beginning of a header.
+	 * The byte order of the magic number is the byte order of the section, it
+	 * is set on the header and on the input.
+	 *
+	 * @param input
+	 *            the input
+	 * @param buffer
+	 *            the buffer holding the header
+	 * @param magicNumber
+	 *            the expected magic number
+	 * @param key
+	 *            the message key if the magic number doesn't match
+	 * @throws IOException
+	 *             if the magic number or version don't match
+	 */
+	private void checkHeader(final Input input, final ByteBuffer buffer,
+			final int magicNumber, final String key) throws IOException {
+		int magic = buffer.order(ByteOrder.BIG_ENDIAN).getInt();
+		ByteOrder order;
+		if (magic == magicNumber) {
+			order = ByteOrder.BIG_ENDIAN;
+		} else if (magic == Integer.reverseBytes(magicNumber)) {
+			order = ByteOrder.LITTLE_ENDIAN;
+		} else {
+			throw new IOException(Messages.getString(key));
+		}
+		buffer.order(order);
+		input.setOrder(order);
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException(Messages.getString(
+					"RoadGraphReader.Exception.VERSION_NOT_SUPPORTED", version)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Checks that a contraction hierarchy or tile belongs to the given road
+	 * graph
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param stamp
+	 *            the stamp of the road graph given by the header
+	 * @param nodeCount
+	 *            the number of nodes given by the header
+	 * @param edgeCount
+	 *            the number of edges given by the header
+	 * @throws IOException
+	 *             if the stamp or the numbers don't match the road graph
+	 */
+	private void checkGraph(final RoadGraph graph, final long stamp,
+			final int nodeCount, final int edgeCount) throws IOException {
+		if (stamp != graph.getStamp() || nodeCount != graph.getNodeCount()
+				|| edgeCount != graph.getEdgeCount()) {
+			throw new IOException(Messages
+					.getString("RoadGraphReader.Exception.GRAPH_MISMATCH")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Reads a number of nodes, edges, shape points or arcs from a header
+	 *
+	 * @param header
+	 *            the buffer holding the header
+	 * @return the number
+	 * @throws IOException
+	 *             if the number is negative or too large to be the size of an
+	 *             array plus one
+	 */
+	private int readCount(final ByteBuffer header) throws IOException {
+		int count = header.getInt();
+		if (count < 0 || count == Integer.MAX_VALUE) {
+			throw new IOException(Messages.getString(
+					"RoadGraphReader.Exception.INVALID_COUNT", count)); //$NON-NLS-1$
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of entries of an adjacency list, which is the last
+	 * of its offsets. It is less than the number of edges if edges have been
+	 * removed by a {@link RoadGraphDelta}.
+	 *
+	 * @param offsets
+	 *            the offsets of the adjacency list
+	 * @param edgeCount
+	 *            the number of edges
+	 * @return the number of entries
+	 * @throws IOException
+	 *             if the number is negative or larger than the number of edges
+	 */
+	private int readAdjacencyCount(final IntBuffer offsets,
+			final int edgeCount) throws IOException {
+		int count = offsets.get(offsets.capacity() - 1);
+		if (count < 0 || count > edgeCount) {
+			throw new IOException(Messages.getString(
+					"RoadGraphReader.Exception.INVALID_COUNT", count)); //$NON-NLS-1$
+		}
+		return count;
+	}
+
+	/**
+	 * The sections of the binary format, read either from a stream or from a
+	 * mapped file
+	 */
+	private interface Input {
+
+		/**
+		 * Reads a header
+		 *
+		 * @param size
+		 *            the number of bytes of the header
+		 * @return the header
+		 * @throws IOException
+		 *             if the input ends before
+		 */
+		ByteBuffer readHeader(int size) throws IOException;
+
+		/**
+		 * Sets the byte order of the integers of the current section, as
+		 * given by its header
+		 *
+		 * @param order
+		 *            the byte order
+		 */
+		void setOrder(ByteOrder order);
+
+		/**
+		 * Reads the given number of integers in the byte order of the current
+		 * section
+		 *
+		 * @param count
+		 *            the number of integers
+		 * @return the integers, from index <code>0</code> to the capacity
+		 * @throws IOException
+		 *             if the input ends before
+		 */
+		IntBuffer readInts(int count) throws IOException;
+
+		/**
+		 * Reads the given number of bytes
+		 *
+		 * @param count
+		 *            the number of bytes
+		 * @return the bytes, from index <code>0</code> to the capacity
+		 * @throws IOException
+		 *             if the input ends before
+		 */
+		ByteBuffer readBytes(int count) throws IOException;
+	}
+
+	/**
+	 * Reads an input stream through a buffer, copying every array onto the
+	 * heap
+	 */
+	private static class StreamInput implements Input {
+
+		/** Holds the channel of the input stream */
+		private final ReadableByteChannel channel;
+
+		/** Holds the buffer in read mode */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Constructs a new stream input
+		 *
+		 * @param in
+		 *            the input stream
+		 */
+		private StreamInput(final InputStream in) {
+			this.channel = Channels.newChannel(in);
+			this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			buffer.flip();
+		}
+
+		/**
+		 * {@link Input#readHeader(int)}
+		 */
+		@Override
+		public ByteBuffer readHeader(final int size) throws IOException {
+			while (buffer.remaining() < size) {
+				refill();
+			}
+			ByteBuffer header = buffer.slice();
+			header.limit(size);
+			buffer.position(buffer.position() + size);
+			return header;
+		}
+
+		/**
+		 * {@link Input#setOrder(ByteOrder)}
+		 */
+		@Override
+		public void setOrder(final ByteOrder order) {
+			buffer.order(order);
+		}
+
+		/**
+		 * {@link Input#readInts(int)}, backed by an array
+		 */
+		@Override
+		public IntBuffer readInts(final int count) throws IOException {
+			int[] values = new int[count];
+			int offset = 0;
+			while (offset < count) {
+				if (buffer.remaining() < 4) {
+					refill();
+					continue;
+				}
+				int length = Math.min(count - offset, buffer.remaining() / 4);
+				buffer.asIntBuffer().get(values, offset, length);
+				buffer.position(buffer.position() + length * 4);
+				offset += length;
+			}
+			return IntBuffer.wrap(values);
+		}
+
+		/**
+		 * {@link Input#readBytes(int)}, backed by an array
+		 */
+		@Override
+		public ByteBuffer readBytes(final int count) throws IOException {
+			byte[] values = new byte[count];
+			int offset = 0;
+			while (offset < count) {
+				if (!buffer.hasRemaining()) {
+					refill();
+				}
+				int length = Math.min(count - offset, buffer.remaining());
+				buffer.get(values, offset, length);
+				offset += length;
+			}
+			return ByteBuffer.wrap(values);
+		}
+
+		/**
+		 * Moves the remaining bytes of the buffer to its beginning and reads
+		 * as many bytes as possible, but at least one.
+		 *
+		 * @throws IOException
+		 *             if the end of the channel was reached before
+		 */
+		private void refill() throws IOException {
+			int remaining = buffer.remaining();
+			buffer.compact();
+			while (buffer.position() == remaining) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException(Messages
+							.getString("RoadGraphReader.Exception.UNEXPECTED_END")); //$NON-NLS-1$
+				}
+			}
+			buffer.flip();
+		}
+	}
+
+	/**
+	 * Reads a file by mapping it into memory section by section. Every array
+	 * is a view of its own mapping. Only an array larger than the maximum
+	 * size of a mapping is copied onto the heap piece by piece.
+	 */
+	private static class MappedInput implements Input {
+
+		/**
+		 * The number of bytes copied at once if an array doesn't fit into a
+		 * single mapping, divisible by four
+		 */
+		private static final int MAXIMUM_PIECE = 1 << 30;
+
+		/** Holds the channel of the file */
+		private final FileChannel channel;
+
+		/** Holds the position of the next byte to read */
+		private long position;
+
+		/** Holds the byte order of the current section */
+		private ByteOrder order;
+
+		/**
+		 * Constructs a new mapped input reading from the beginning of the
+		 * given channel
+		 *
+		 * @param channel
+		 *            the channel
+		 */
+		private MappedInput(final FileChannel channel) {
+			this.channel = channel;
+			this.position = 0;
+			this.order = ByteOrder.BIG_ENDIAN;
+		}
+
+		/**
+		 * {@link Input#readHeader(int)}
+		 */
+		@Override
+		public ByteBuffer readHeader(final int size) throws IOException {
+			return map(size);
+		}
+
+		/**
+		 * {@link Input#setOrder(ByteOrder)}
+		 */
+		@Override
+		public void setOrder(final ByteOrder order) {
+			this.order = order;
+		}
+
+		/**
+		 * {@link Input#readInts(int)}, backed by the mapping
+		 */
+		@Override
+		public IntBuffer readInts(final int count) throws IOException {
+			long size = 4L * count;
+			if (size <= Integer.MAX_VALUE) {
+				return map((int) size).order(order).asIntBuffer();
+			}
+			int[] values = new int[count];
+			int offset = 0;
+			while (offset < count) {
+				int length = Math.min(count - offset, MAXIMUM_PIECE / 4);
+				map(length * 4).order(order).asIntBuffer().get(values,
+						offset, length);
+				offset += length;
+			}
+			return IntBuffer.wrap(values);
+		}
+
+		/**
+		 * {@link Input#readBytes(int)}, backed by the mapping
+		 */
+		@Override
+		public ByteBuffer readBytes(final int count) throws IOException {
+			return map(count);
+		}
+
+		/**
+		 * Maps the next bytes of the file
+		 *
+		 * @param size
+		 *            the number of bytes
+		 * @return the mapped bytes
+		 * @throws IOException
+		 *             if the file ends before
+		 */
+		private ByteBuffer map(final int size) throws IOException {
+			if (position + size > channel.size()) {
+				throw new EOFException(Messages
+						.getString("RoadGraphReader.Exception.UNEXPECTED_END")); //$NON-NLS-1$
+			}
+			ByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, size);
+			position += size;
+			return buffer;
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * A <b>road graph region</b> is a part of a larger road graph, e.g. a tile (see
+ * {@link RoadGraphTile}) or several tiles stitched together (see
+ * {@link RoadGraphTiler#stitch(java.util.List)}). It is a {@link RoadGraph} of
+ * its own, with node and edge ids starting at <code>0</code>, which remembers
+ * for each of its nodes and edges the id in the larger road graph.
+ *
+ * A region contains the edges it owns and all their end nodes, so the end
+ * node of an edge leaving the region is part of the region although it lies
+ * outside. Such boundary nodes are merged with the nodes of the neighbouring
+ * region when regions are stitched.
+ *
+ * A road graph region is immutable and can safely be shared between threads.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphRegion {
+
+	/** Holds the road graph of the region */
+	private final RoadGraph graph;
+
+	/** Holds the id of each node in the larger road graph */
+	private final int[] nodeIds;
+
+	/** Holds the id of each edge in the larger road graph */
+	private final int[] edgeIds;
+
+	/**
+	 * Constructs a new road graph region. The arrays are used directly and
+	 * must not be modified afterwards.
+	 *
+	 * @param graph
+	 *            the road graph of the region
+	 * @param nodeIds
+	 *            the id of each node in the larger road graph
+	 * @param edgeIds
+	 *            the id of each edge in the larger road graph
+	 */
+	protected RoadGraphRegion(final RoadGraph graph, final int[] nodeIds,
+			final int[] edgeIds) {
+		this.graph = graph;
+		this.nodeIds = nodeIds;
+		this.edgeIds = edgeIds;
+	}
+
+	/**
+	 * Returns the road graph of the region
+	 *
+	 * @return the road graph
+	 */
+	public RoadGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the id of the given node in the larger road graph
+	 *
+	 * @param node
+	 *            the node id in this region
+	 * @return the node id in the larger road graph
+	 */
+	public int getNodeId(final int node) {
+		return nodeIds[node];
+	}
+
+	/**
+	 * Returns the id of the given edge in the larger road graph
+	 *
+	 * @param edge
+	 *            the edge id in this region
+	 * @return the edge id in the larger road graph
+	 */
+	public int getEdgeId(final int edge) {
+		return edgeIds[edge];
+	}
+
+	/**
+	 * Returns the approximate number of bytes held by this region, i.e. the
+	 * size of all its arrays
+	 *
+	 * @return the memory size in bytes
+	 */
+	public long getMemorySize() {
+		long nodes = graph.getNodeCount();
+		long edges = graph.getEdgeCount();
+		long shapes = graph.getShapeLongitudes().capacity();
+		// coordinates, adjacency offsets and ids of the nodes
+		long size = nodes * (4 + 4 + 4) + 2 * (nodes + 1) * 4;
+		// source, target, length, attributes, shape offset, adjacency and id
+		size += edges * (4 + 4 + 4 + 1 + 4 + 4 + 4 + 4) + 4;
+		// shape points
+		return size + shapes * (4 + 4);
+	}
+
+	/*
+	 * The raw arrays are handed out to the reader, writer and tiler of this
+	 * package only.
+	 */
+
+	int[] getNodeIds() {
+		return nodeIds;
+	}
+
+	int[] getEdgeIds() {
+		return edgeIds;
+	}
+
+	@Override
+	public String toString() {
+		return "RoadGraphRegion: " + graph.getNodeCount() + " nodes, "
+				+ graph.getEdgeCount() + " edges";
+	}
+}
@@ -0,0 +1,70 @@
+package org.hhu.c2c.openlr.map;
+
+/**
+ * A <b>road graph tile</b> is the part of a road graph within one cell of a
+ * {@link TileGrid}. It contains the nodes lying in the cell and owns the edges
+ * starting at them. Edges leaving the cell end at boundary nodes which belong
+ * to a neighbouring tile (see {@link RoadGraphRegion}).
+ *
+ * Tiles are created by a {@link RoadGraphTiler}, stored in the binary format
+ * described by {@link RoadGraphFormat} and loaded on demand by a
+ * {@link TileCache}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphTile extends RoadGraphRegion {
+
+	/** Holds the column of the tile */
+	private final int column;
+
+	/** Holds the row of the tile */
+	private final int row;
+
+	/**
+	 * Constructs a new road graph tile. The arrays are used directly and must
+	 * not be modified afterwards.
+	 *
+	 * @param column
+	 *            the column of the tile
+	 * @param row
+	 *            the row of the tile
+	 * @param graph
+	 *            the road graph of the tile
+	 * @param nodeIds
+	 *            the id of each node in the larger road graph
+	 * @param edgeIds
+	 *            the id of each edge in the larger road graph
+	 */
+	protected RoadGraphTile(final int column, final int row,
+			final RoadGraph graph, final int[] nodeIds, final int[] edgeIds) {
+		super(graph, nodeIds, edgeIds);
+		this.column = column;
+		this.row = row;
+	}
+
+	/**
+	 * Returns the column of the tile
+	 *
+	 * @return the column
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Returns the row of the tile
+	 *
+	 * @return the row
+	 */
+	public int getRow() {
+		return row;
+	}
+
+	@Override
+	public String toString() {
+		return "RoadGraphTile (" + column + ", " + row + "): "
+				+ getGraph().getNodeCount() + " nodes, "
+				+ getGraph().getEdgeCount() + " edges";
+	}
+}
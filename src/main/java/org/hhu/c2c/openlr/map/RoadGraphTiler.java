@@ -0,0 +1,317 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.RoadGraphBuilder.group;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hhu.c2c.openlr.util.IntList;
+
+/**
+ * The <b>road graph tiler</b> partitions a road graph into the tiles of a
+ * {@link TileGrid} and stitches tiles back together.
+ *
+ * Each node belongs to the tile containing its coordinate and each edge to
+ * the tile of its start node. An edge leaving its tile keeps its end node as a
+ * boundary node of the tile. When tiles are stitched, nodes with the same id
+ * in the partitioned road graph are merged, so that edges crossing the border
+ * between two stitched tiles are connected again.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphTiler {
+
+	/** Holds the tile grid */
+	private final TileGrid grid;
+
+	/**
+	 * Constructs a new road graph tiler
+	 *
+	 * @param grid
+	 *            the tile grid
+	 */
+	public RoadGraphTiler(final TileGrid grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * Returns the tile grid
+	 *
+	 * @return the tile grid
+	 */
+	public TileGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Partitions the given road graph into tiles. Empty tiles are left out. A
+	 * road graph updated by a {@link RoadGraphDelta} is compacted first (see
+	 * {@link RoadGraph#compact()}).
+	 *
+	 * @param roadGraph
+	 *            the road graph
+	 * @return the tiles, ordered by their key
+	 */
+	public List<RoadGraphTile> split(final RoadGraph roadGraph) {
+		RoadGraph graph = roadGraph.compact();
+		int nodeCount = graph.getNodeCount();
+		IntBuffer longitudes = graph.getNodeLongitudes();
+		IntBuffer latitudes = graph.getNodeLatitudes();
+
+		// number the tiles and group the nodes by tile
+		long[] nodeKeys = new long[nodeCount];
+		for (int node = 0; node < nodeCount; node++) {
+			nodeKeys[node] = TileGrid.getKey(grid.getColumn(longitudes.get(node)),
+					grid.getRow(latitudes.get(node)));
+		}
+		long[] keys = nodeKeys.clone();
+		Arrays.sort(keys);
+		keys = unique(keys);
+		int[] nodeTiles = new int[nodeCount];
+		for (int node = 0; node < nodeCount; node++) {
+			nodeTiles[node] = Arrays.binarySearch(keys, nodeKeys[node]);
+		}
+		int[] tileOffsets = new int[keys.length + 1];
+		int[] tileNodes = new int[nodeCount];
+		group(nodeTiles, tileOffsets, tileNodes);
+
+		List<RoadGraphTile> tiles = new ArrayList<RoadGraphTile>(keys.length);
+		int[] local = new int[nodeCount];
+		Arrays.fill(local, -1);
+		IntList nodes = new IntList();
+		IntList edges = new IntList();
+		for (int tile = 0; tile < keys.length; tile++) {
+			nodes.clear();
+			edges.clear();
+			for (int i = tileOffsets[tile]; i < tileOffsets[tile + 1]; i++) {
+				int node = tileNodes[i];
+				local[node] = nodes.size();
+				nodes.add(node);
+			}
+			for (int i = tileOffsets[tile]; i < tileOffsets[tile + 1]; i++) {
+				int node = tileNodes[i];
+				for (int j = graph.getOutgoingStart(node); j < graph
+						.getOutgoingEnd(node); j++) {
+					int edge = graph.getOutgoingEdge(j);
+					int target = graph.getTarget(edge);
+					if (local[target] < 0) {
+						// boundary node
+						local[target] = nodes.size();
+						nodes.add(target);
+					}
+					edges.add(edge);
+				}
+			}
+
+			int[] nodeIds = nodes.toArray();
+			int[] edgeIds = edges.toArray();
+			int[] tileLongitudes = new int[nodeIds.length];
+			int[] tileLatitudes = new int[nodeIds.length];
+			for (int i = 0; i < nodeIds.length; i++) {
+				tileLongitudes[i] = longitudes.get(nodeIds[i]);
+				tileLatitudes[i] = latitudes.get(nodeIds[i]);
+			}
+			RoadGraph tileGraph = build(new RoadGraph[] { graph }, new int[] {
+					0, edgeIds.length }, edgeIds, new int[][] { local },
+					tileLongitudes, tileLatitudes);
+			tiles.add(new RoadGraphTile(TileGrid.getKeyColumn(keys[tile]),
+					TileGrid.getKeyRow(keys[tile]), tileGraph, nodeIds, edgeIds));
+			for (int node : nodeIds) {
+				local[node] = -1;
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * Partitions the given road graph into tiles and writes each tile into a
+	 * file of the given directory, named by {@link TileGrid#getFileName(int, int)}
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param directory
+	 *            the directory
+	 * @throws IOException
+	 *             if a file can't be written
+	 */
+	public void write(final RoadGraph graph, final File directory)
+			throws IOException {
+		RoadGraphWriter writer = new RoadGraphWriter();
+		for (RoadGraphTile tile : split(graph)) {
+			writer.write(new File(directory, TileGrid.getFileName(tile
+					.getColumn(), tile.getRow())), tile);
+		}
+	}
+
+	/**
+	 * Stitches the given regions into one. Nodes with the same id in the
+	 * larger road graph are merged. The regions must not share edges, which
+	 * holds for tiles.
+	 *
+	 * @param regions
+	 *            the regions
+	 * @return the stitched region
+	 */
+	public RoadGraphRegion stitch(final List<? extends RoadGraphRegion> regions) {
+		int nodeCount = 0;
+		int edgeCount = 0;
+		for (RoadGraphRegion region : regions) {
+			nodeCount += region.getGraph().getNodeCount();
+			edgeCount += region.getGraph().getEdgeCount();
+		}
+
+		// merge the nodes by their id in the larger road graph
+		int[] allNodes = new int[nodeCount];
+		int position = 0;
+		for (RoadGraphRegion region : regions) {
+			int[] ids = region.getNodeIds();
+			System.arraycopy(ids, 0, allNodes, position, ids.length);
+			position += ids.length;
+		}
+		Arrays.sort(allNodes);
+		int[] nodeIds = unique(allNodes);
+
+		// map the nodes and edges of each region
+		RoadGraph[] graphs = new RoadGraph[regions.size()];
+		int[] edgeOffsets = new int[regions.size() + 1];
+		int[] edges = new int[edgeCount];
+		int[] edgeIds = new int[edgeCount];
+		int[][] locals = new int[regions.size()][];
+		for (int r = 0; r < graphs.length; r++) {
+			RoadGraphRegion region = regions.get(r);
+			graphs[r] = region.getGraph();
+			edgeOffsets[r + 1] = edgeOffsets[r] + graphs[r].getEdgeCount();
+			for (int edge = 0; edge < graphs[r].getEdgeCount(); edge++) {
+				edges[edgeOffsets[r] + edge] = edge;
+				edgeIds[edgeOffsets[r] + edge] = region.getEdgeId(edge);
+			}
+			locals[r] = new int[graphs[r].getNodeCount()];
+			for (int node = 0; node < locals[r].length; node++) {
+				locals[r][node] = Arrays.binarySearch(nodeIds, region
+						.getNodeId(node));
+			}
+		}
+
+		int[] longitudes = new int[nodeIds.length];
+		int[] latitudes = new int[nodeIds.length];
+		for (int r = 0; r < graphs.length; r++) {
+			for (int node = 0; node < locals[r].length; node++) {
+				longitudes[locals[r][node]] = graphs[r].getNodeLongitudes()
+						.get(node);
+				latitudes[locals[r][node]] = graphs[r].getNodeLatitudes().get(
+						node);
+			}
+		}
+
+		return new RoadGraphRegion(build(graphs, edgeOffsets, edges, locals,
+				longitudes, latitudes), nodeIds, edgeIds);
+	}
+
+	/**
+	 * Builds a road graph from edges of several road graphs
+	 *
+	 * @param graphs
+	 *            the road graphs
+	 * @param edgeOffsets
+	 *            for each road graph the index of its first edge in
+	 *            <code>edges</code>
+	 * @param edges
+	 *            the edges, grouped by road graph
+	 * @param locals
+	 *            for each road graph the new id of each node
+	 * @param longitudes
+	 *            the longitudes of the new nodes
+	 * @param latitudes
+	 *            the latitudes of the new nodes
+	 * @return the road graph
+	 */
+	private RoadGraph build(final RoadGraph[] graphs, final int[] edgeOffsets,
+			final int[] edges, final int[][] locals, final int[] longitudes,
+			final int[] latitudes) {
+		int edgeCount = edges.length;
+		int[] sources = new int[edgeCount];
+		int[] targets = new int[edgeCount];
+		int[] lengths = new int[edgeCount];
+		byte[] attributes = new byte[edgeCount];
+		int[] shapeOffsets = new int[edgeCount + 1];
+		for (int r = 0; r < graphs.length; r++) {
+			RoadGraph graph = graphs[r];
+			for (int i = edgeOffsets[r]; i < edgeOffsets[r + 1]; i++) {
+				int edge = edges[i];
+				sources[i] = locals[r][graph.getSource(edge)];
+				targets[i] = locals[r][graph.getTarget(edge)];
+				lengths[i] = graph.getLength(edge);
+				attributes[i] = graph.getEdgeAttributes().get(edge);
+				shapeOffsets[i + 1] = shapeOffsets[i]
+						+ graph.getShapeOffsets().get(edge + 1)
+						- graph.getShapeOffsets().get(edge);
+			}
+		}
+
+		int[] shapeLongitudes = new int[shapeOffsets[edgeCount]];
+		int[] shapeLatitudes = new int[shapeOffsets[edgeCount]];
+		for (int r = 0; r < graphs.length; r++) {
+			RoadGraph graph = graphs[r];
+			IntBuffer lons = graph.getShapeLongitudes().duplicate();
+			IntBuffer lats = graph.getShapeLatitudes().duplicate();
+			for (int i = edgeOffsets[r]; i < edgeOffsets[r + 1]; i++) {
+				int start = graph.getShapeOffsets().get(edges[i]);
+				int size = shapeOffsets[i + 1] - shapeOffsets[i];
+				lons.position(start);
+				lons.get(shapeLongitudes, shapeOffsets[i], size);
+				lats.position(start);
+				lats.get(shapeLatitudes, shapeOffsets[i], size);
+			}
+		}
+
+		int[] outgoingOffsets = new int[longitudes.length + 1];
+		int[] outgoingEdges = new int[edgeCount];
+		group(sources, outgoingOffsets, outgoingEdges);
+		int[] incomingOffsets = new int[longitudes.length + 1];
+		int[] incomingEdges = new int[edgeCount];
+		group(targets, incomingOffsets, incomingEdges);
+
+		return new RoadGraph(longitudes, latitudes, sources, targets, lengths,
+				attributes, shapeOffsets, shapeLongitudes, shapeLatitudes,
+				outgoingOffsets, outgoingEdges, incomingOffsets, incomingEdges);
+	}
+
+	/**
+	 * Removes duplicates from the given sorted values
+	 *
+	 * @param values
+	 *            the sorted values, which are modified
+	 * @return the distinct values in ascending order
+	 */
+	private static long[] unique(final long[] values) {
+		int size = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (size == 0 || values[size - 1] != values[i]) {
+				values[size++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Removes duplicates from the given sorted values
+	 *
+	 * @param values
+	 *            the sorted values, which are modified
+	 * @return the distinct values in ascending order
+	 */
+	private static int[] unique(final int[] values) {
+		int size = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (size == 0 || values[size - 1] != values[i]) {
+				values[size++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, size);
+	}
+}
@@ -0,0 +1,194 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>road graph updater</b> holds the current version of a road graph and
+ * its {@link SpatialIndex} while the road graph is being updated, e.g. by live
+ * road closures. Changes are collected in a {@link RoadGraphDelta} obtained
+ * from {@link #newDelta()} and applied by {@link #apply(RoadGraphDelta)},
+ * which derives the updated road graph and its index from the current ones
+ * and then replaces them in a single step.
+ *
+ * Decoders take the current index when they start and keep using it (see
+ * {@link ConcurrentMapDecoder} for switching decoders to a new version), so a
+ * location reference is always decoded on one consistent version of the road
+ * graph, however many updates are applied meanwhile. Updates are applied one
+ * at a time; a delta made for an older version is rejected, as its edge ids
+ * may refer to a different road graph.
+ *
+ * A {@link ContractionHierarchy} isn't updated along with the road graph, as
+ * its shortcuts may lead through removed edges. Applying a delta drops the
+ * current hierarchy, so {@link #getHierarchy()} returns <code>null</code>
+ * until a hierarchy built for the updated road graph is installed by
+ * {@link #setHierarchy(ContractionHierarchy)}. The index and the hierarchy
+ * are published together as one immutable version, so
+ * {@link #newContextBuilder()} never pairs the index of one version with the
+ * hierarchy of another; the single getters may each see a different version
+ * while an update is applied. A {@link RouteCache} should be replaced by a
+ * new one rather than cleared, as decoders still working on the previous
+ * version could add routes that are no longer valid.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphUpdater {
+
+	/** Holds the current version of the road graph */
+	private volatile Version current;
+
+	/**
+	 * Constructs a new road graph updater without a contraction hierarchy
+	 *
+	 * @param index
+	 *            the spatial index of the initial version of the road graph
+	 */
+	public RoadGraphUpdater(final SpatialIndex index) {
+		this(index, null);
+	}
+
+	/**
+	 * Constructs a new road graph updater
+	 *
+	 * @param index
+	 *            the spatial index of the initial version of the road graph
+	 * @param hierarchy
+	 *            the contraction hierarchy of the initial version of the road
+	 *            graph, or <code>null</code>
+	 */
+	public RoadGraphUpdater(final SpatialIndex index,
+			final ContractionHierarchy hierarchy) {
+		if (hierarchy != null && hierarchy.getGraph() != index.getGraph()) {
+			throw new IllegalArgumentException(
+					"The contraction hierarchy doesn't belong to the road graph of the index."); //$NON-NLS-1$
+		}
+		this.current = new Version(index, hierarchy);
+	}
+
+	/**
+	 * Returns the spatial index of the current version of the road graph
+	 *
+	 * @return the spatial index
+	 */
+	public SpatialIndex getIndex() {
+		return current.index;
+	}
+
+	/**
+	 * Returns the current version of the road graph
+	 *
+	 * @return the road graph
+	 */
+	public RoadGraph getGraph() {
+		return current.index.getGraph();
+	}
+
+	/**
+	 * Returns the contraction hierarchy of the current version of the road
+	 * graph
+	 *
+	 * @return the contraction hierarchy, or <code>null</code> if there is none
+	 *         or it was dropped by an update
+	 */
+	public ContractionHierarchy getHierarchy() {
+		return current.hierarchy;
+	}
+
+	/**
+	 * Returns a new {@link DecodingContextBuilder} set to the spatial index
+	 * and the contraction hierarchy of the current version of the road graph.
+	 * Both are read from the same version, however many updates are applied
+	 * meanwhile.
+	 *
+	 * @return the decoding context builder, still lacking the matching
+	 *         parameters
+	 */
+	public DecodingContextBuilder newContextBuilder() {
+		Version version = current;
+		return new DecodingContextBuilder().setIndex(version.index)
+				.setHierarchy(version.hierarchy);
+	}
+
+	/**
+	 * Installs a contraction hierarchy built for the current version of the
+	 * road graph
+	 *
+	 * @param hierarchy
+	 *            the contraction hierarchy
+	 * @throws LocationReferenceException
+	 *             if the contraction hierarchy wasn't built for the current
+	 *             version, e.g. because an update was applied meanwhile
+	 */
+	public synchronized void setHierarchy(final ContractionHierarchy hierarchy)
+			throws LocationReferenceException {
+		SpatialIndex index = current.index;
+		if (hierarchy.getGraph() != index.getGraph()) {
+			throw new LocationReferenceException(Messages
+					.getString("RoadGraphUpdater.Exception.OUTDATED_HIERARCHY")); //$NON-NLS-1$
+		}
+		current = new Version(index, hierarchy);
+	}
+
+	/**
+	 * Returns a new empty delta for the current version of the road graph
+	 *
+	 * @return the delta
+	 */
+	public RoadGraphDelta newDelta() {
+		return new RoadGraphDelta(current.index.getGraph());
+	}
+
+	/**
+	 * Applies the changes of the given delta and makes the updated road graph
+	 * the current version
+	 *
+	 * @param delta
+	 *            the changes to the current version
+	 * @return the spatial index of the updated road graph
+	 * @throws LocationReferenceException
+	 *             if the delta doesn't apply to the current version or is
+	 *             invalid
+	 */
+	public synchronized SpatialIndex apply(final RoadGraphDelta delta)
+			throws LocationReferenceException {
+		SpatialIndex index = current.index;
+		if (delta.getBase() != index.getGraph()) {
+			throw new LocationReferenceException(Messages
+					.getString("RoadGraphUpdater.Exception.OUTDATED_DELTA")); //$NON-NLS-1$
+		}
+		if (delta.isEmpty()) {
+			return index;
+		}
+		SpatialIndex updated = new SpatialIndex(index, delta.build());
+		current = new Version(updated, null);
+		return updated;
+	}
+
+	/**
+	 * A version of the road graph, i.e. its spatial index together with its
+	 * contraction hierarchy
+	 */
+	private static final class Version {
+
+		/** Holds the spatial index */
+		private final SpatialIndex index;
+
+		/** Holds the contraction hierarchy, or <code>null</code> */
+		private final ContractionHierarchy hierarchy;
+
+		/**
+		 * Constructs a new version
+		 *
+		 * @param index
+		 *            the spatial index
+		 * @param hierarchy
+		 *            the contraction hierarchy, or <code>null</code>
+		 */
+		private Version(final SpatialIndex index,
+				final ContractionHierarchy hierarchy) {
+			this.index = index;
+			this.hierarchy = hierarchy;
+		}
+	}
+}
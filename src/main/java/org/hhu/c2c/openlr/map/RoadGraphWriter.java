@@ -0,0 +1,305 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.BUFFER_SIZE;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.HIERARCHY_MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.TILE_MAGIC_NUMBER;
+import static org.hhu.c2c.openlr.map.RoadGraphFormat.VERSION;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Used for marshalling a {@link RoadGraph}, a {@link ContractionHierarchy} or
+ * a {@link RoadGraphTile} into its binary format, as described by
+ * {@link RoadGraphFormat}.
+ * 
+ * By default the integers are written in the native byte order of the
+ * platform, so that a file mapped by {@link RoadGraphReader#read(File)} on the
+ * same platform is read without swapping the bytes of every integer. A file
+ * written in one byte order is read correctly on any platform, but swapping
+ * the bytes on every access makes routing on a mapped road graph noticeably
+ * slower.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class RoadGraphWriter {
+
+	/**
+	 * Holds the byte order of the integers
+	 */
+	private final ByteOrder order;
+
+	/**
+	 * Constructs a new road graph writer using the native byte order
+	 */
+	public RoadGraphWriter() {
+		this(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Constructs a new road graph writer using the given byte order, e.g.
+	 * {@link ByteOrder#BIG_ENDIAN} for files mainly read on big endian
+	 * platforms
+	 * 
+	 * @param order
+	 *            the byte order of the integers
+	 */
+	public RoadGraphWriter(final ByteOrder order) {
+		if (order == null) {
+			throw new IllegalArgumentException("Byte order mustn't be null."); //$NON-NLS-1$
+		}
+		this.order = order;
+	}
+
+	/**
+	 * Writes the given road graph to the given output stream. The stream is
+	 * not closed. A road graph updated by a {@link RoadGraphDelta} is written
+	 * compacted (see {@link RoadGraph#compact()}).
+	 * 
+	 * @param out
+	 *            the output stream
+	 * @param graph
+	 *            the road graph
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void write(final OutputStream out, final RoadGraph graph)
+			throws IOException {
+		RoadGraph compacted = graph.compact();
+		WritableByteChannel channel = Channels.newChannel(out);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(order);
+
+		buffer.putInt(MAGIC_NUMBER);
+		buffer.putInt(VERSION);
+		buffer.putLong(compacted.getStamp());
+		buffer.putInt(compacted.getNodeCount());
+		buffer.putInt(compacted.getEdgeCount());
+		buffer.putInt(compacted.getShapeLongitudes().capacity());
+
+		writeInts(channel, buffer, compacted.getNodeLongitudes());
+		writeInts(channel, buffer, compacted.getNodeLatitudes());
+		writeInts(channel, buffer, compacted.getEdgeSources());
+		writeInts(channel, buffer, compacted.getEdgeTargets());
+		writeInts(channel, buffer, compacted.getEdgeLengths());
+		writeInts(channel, buffer, compacted.getShapeOffsets());
+		writeInts(channel, buffer, compacted.getShapeLongitudes());
+		writeInts(channel, buffer, compacted.getShapeLatitudes());
+		writeInts(channel, buffer, compacted.getOutgoingOffsets());
+		writeInts(channel, buffer, compacted.getOutgoingEdges());
+		writeInts(channel, buffer, compacted.getIncomingOffsets());
+		writeInts(channel, buffer, compacted.getIncomingEdges());
+
+		writeBytes(channel, buffer, compacted.getEdgeAttributes());
+		flush(channel, buffer);
+		out.flush();
+	}
+
+	/**
+	 * Writes the given road graph to the given file, replacing its content.
+	 * The file can be loaded quickly by {@link RoadGraphReader#read(File)}.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param graph
+	 *            the road graph
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void write(final File file, final RoadGraph graph)
+			throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			write(out, graph);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the given contraction hierarchy to the given file, replacing its
+	 * content.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param hierarchy
+	 *            the contraction hierarchy
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void write(final File file, final ContractionHierarchy hierarchy)
+			throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			write(out, hierarchy);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the given contraction hierarchy to the given output stream,
+	 * without its road graph. The stream is not closed.
+	 * 
+	 * @param out
+	 *            the output stream
+	 * @param hierarchy
+	 *            the contraction hierarchy
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void write(final OutputStream out,
+			final ContractionHierarchy hierarchy) throws IOException {
+		WritableByteChannel channel = Channels.newChannel(out);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(order);
+
+		buffer.putInt(HIERARCHY_MAGIC_NUMBER);
+		buffer.putInt(VERSION);
+		buffer.putLong(hierarchy.getGraph().getStamp());
+		buffer.putInt(hierarchy.getGraph().getNodeCount());
+		buffer.putInt(hierarchy.getGraph().getEdgeCount());
+		buffer.putInt(hierarchy.getArcCount());
+
+		writeInts(channel, buffer, hierarchy.getRanks());
+		writeInts(channel, buffer, hierarchy.getArcSources());
+		writeInts(channel, buffer, hierarchy.getArcTargets());
+		writeInts(channel, buffer, hierarchy.getArcLengths());
+		writeInts(channel, buffer, hierarchy.getArcFirsts());
+		writeInts(channel, buffer, hierarchy.getArcSeconds());
+		writeBytes(channel, buffer, hierarchy.getArcFrcs());
+		flush(channel, buffer);
+		out.flush();
+	}
+
+	/**
+	 * Writes the given road graph tile to the given output stream. The stream
+	 * is not closed.
+	 * 
+	 * @param out
+	 *            the output stream
+	 * @param tile
+	 *            the road graph tile
+	 * @throws IOException
+	 *             if there are problems with the output stream
+	 */
+	public void write(final OutputStream out, final RoadGraphTile tile)
+			throws IOException {
+		WritableByteChannel channel = Channels.newChannel(out);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(order);
+
+		buffer.putInt(TILE_MAGIC_NUMBER);
+		buffer.putInt(VERSION);
+		buffer.putInt(tile.getColumn());
+		buffer.putInt(tile.getRow());
+		buffer.putInt(tile.getGraph().getNodeCount());
+		buffer.putInt(tile.getGraph().getEdgeCount());
+
+		writeInts(channel, buffer, IntBuffer.wrap(tile.getNodeIds()));
+		writeInts(channel, buffer, IntBuffer.wrap(tile.getEdgeIds()));
+		flush(channel, buffer);
+		write(out, tile.getGraph());
+	}
+
+	/**
+	 * Writes the given road graph tile to the given file, replacing its
+	 * content.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param tile
+	 *            the road graph tile
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void write(final File file, final RoadGraphTile tile)
+			throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			write(out, tile);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the content of the buffer to the channel and clears the buffer
+	 * 
+	 * @param channel
+	 *            the channel
+	 * @param buffer
+	 *            the buffer
+	 * @throws IOException
+	 *             if there are problems with the channel
+	 */
+	private void flush(final WritableByteChannel channel,
+			final ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the given bytes, using the buffer
+	 * 
+	 * @param channel
+	 *            the channel
+	 * @param buffer
+	 *            the buffer
+	 * @param values
+	 *            the bytes
+	 * @throws IOException
+	 *             if there are problems with the channel
+	 */
+	private void writeBytes(final WritableByteChannel channel,
+			final ByteBuffer buffer, final ByteBuffer values)
+			throws IOException {
+		ByteBuffer source = values.duplicate();
+		while (source.hasRemaining()) {
+			if (!buffer.hasRemaining()) {
+				flush(channel, buffer);
+			}
+			int length = Math.min(source.remaining(), buffer.remaining());
+			source.limit(source.position() + length);
+			buffer.put(source);
+			source.limit(source.capacity());
+		}
+	}
+
+	/**
+	 * Writes the given integers in the byte order of the buffer, using the
+	 * buffer
+	 * 
+	 * @param channel
+	 *            the channel
+	 * @param buffer
+	 *            the buffer
+	 * @param values
+	 *            the integers
+	 * @throws IOException
+	 *             if there are problems with the channel
+	 */
+	private void writeInts(final WritableByteChannel channel,
+			final ByteBuffer buffer, final IntBuffer values) throws IOException {
+		IntBuffer source = values.duplicate();
+		while (source.hasRemaining()) {
+			if (buffer.remaining() < 4) {
+				flush(channel, buffer);
+			}
+			int length = Math.min(source.remaining(), buffer.remaining() / 4);
+			source.limit(source.position() + length);
+			buffer.asIntBuffer().put(source);
+			source.limit(source.capacity());
+			buffer.position(buffer.position() + length * 4);
+		}
+	}
+}
@@ -0,0 +1,429 @@
+package org.hhu.c2c.openlr.map;
+
+import java.util.Arrays;
+
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LongIntMap;
+
+/**
+ * The <b>route cache</b> remembers the shortest paths found between pairs of
+ * candidate lines, so that decoding similar location references (e.g.
+ * repeated traffic messages) doesn't compute the same routes again. A route is
+ * identified by the edge it starts behind, the edge it ends before and the
+ * least important functional road class allowed on it.
+ *
+ * Only routes that have been found are cached. As a shortest path found within
+ * some maximum length is the shortest path regardless of the maximum, a cached
+ * route answers any later query: if it is longer than the maximum length of
+ * the query, there is no route within the maximum either.
+ *
+ * The cache is bounded and evicts the least recently used routes. It is split
+ * into segments, each guarded by its own lock, and can be shared by all
+ * threads decoding on the same road graph. A segment finds its routes by their
+ * key in a {@link LongIntMap} and keeps them in preallocated arrays, so
+ * neither keys nor entries are boxed, and it counts its hits, misses and
+ * evictions under its own lock, so that no counter is shared between the
+ * threads. The cache must be cleared whenever the road graph changes.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RouteCache {
+
+	/** The default number of segments */
+	private static final int SEGMENTS_DEFAULT = 16;
+
+	/** The number of bits used for each edge in a key */
+	private static final int EDGE_BITS = 30;
+
+	/** The number of bits used for the functional road class in a key */
+	private static final int FRC_BITS = 3;
+
+	/** The largest edge id that can be part of a key */
+	private static final int MAXIMUM_EDGE = (1 << EDGE_BITS) - 1;
+
+	/** Holds the segments */
+	private final Segment[] segments;
+
+	/**
+	 * Constructs a new route cache with the default number of segments
+	 *
+	 * @param capacity
+	 *            the maximum number of routes
+	 */
+	public RouteCache(final int capacity) {
+		this(capacity, SEGMENTS_DEFAULT);
+	}
+
+	/**
+	 * Constructs a new route cache
+	 *
+	 * @param capacity
+	 *            the maximum number of routes
+	 * @param concurrency
+	 *            the number of segments, i.e. the number of threads that may
+	 *            access the cache without waiting for each other
+	 */
+	public RouteCache(final int capacity, final int concurrency) {
+		if (capacity <= 0 || concurrency <= 0) {
+			throw new IllegalArgumentException(
+					"Capacity and concurrency must be positive."); //$NON-NLS-1$
+		}
+		int count = Math.min(capacity, concurrency);
+		this.segments = new Segment[count];
+		for (int i = 0; i < count; i++) {
+			// distribute the capacity, the first segments take the remainder
+			segments[i] = new Segment(capacity / count
+					+ (i < capacity % count ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Looks up a route
+	 *
+	 * @param startEdge
+	 *            the edge the route starts behind
+	 * @param endEdge
+	 *            the edge the route ends before
+	 * @param lowestFrc
+	 *            the least important functional road class allowed
+	 * @param path
+	 *            receives the edges of the route if it is cached
+	 * @return the length of the route, or {@link Router#NO_ROUTE} if it isn't
+	 *         cached
+	 */
+	public int get(final int startEdge, final int endEdge, final int lowestFrc,
+			final IntList path) {
+		long key = key(startEdge, endEdge, lowestFrc);
+		Segment segment = segment(key);
+		synchronized (segment) {
+			if (!isCacheable(startEdge, endEdge)) {
+				segment.misses++;
+				return Router.NO_ROUTE;
+			}
+			return segment.get(key, path);
+		}
+	}
+
+	/**
+	 * Adds a route
+	 *
+	 * @param startEdge
+	 *            the edge the route starts behind
+	 * @param endEdge
+	 *            the edge the route ends before
+	 * @param lowestFrc
+	 *            the least important functional road class allowed
+	 * @param path
+	 *            the edges of the route
+	 * @param length
+	 *            the length of the route in meters
+	 */
+	public void put(final int startEdge, final int endEdge,
+			final int lowestFrc, final IntList path, final int length) {
+		if (!isCacheable(startEdge, endEdge)) {
+			return;
+		}
+		long key = key(startEdge, endEdge, lowestFrc);
+		Segment segment = segment(key);
+		int[] edges = path.toArray();
+		synchronized (segment) {
+			segment.put(key, edges, length);
+		}
+	}
+
+	/**
+	 * Removes all routes, e.g. after the road graph has changed. The counters
+	 * are kept.
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of cached routes
+	 *
+	 * @return the number of routes
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.entries.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of queries answered by the cache
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		long hits = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				hits += segment.hits;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Returns the number of queries not answered by the cache
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		long misses = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				misses += segment.misses;
+			}
+		}
+		return misses;
+	}
+
+	/**
+	 * Returns the number of routes evicted to stay within the capacity
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		long evictions = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				evictions += segment.evictions;
+			}
+		}
+		return evictions;
+	}
+
+	/**
+	 * Returns the ratio of queries answered by the cache
+	 *
+	 * @return the hit rate between <code>0</code> and <code>1</code>
+	 */
+	public double getHitRate() {
+		long hits = 0;
+		long total = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				hits += segment.hits;
+				total += segment.hits + segment.misses;
+			}
+		}
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Returns <code>true</code> if both edges fit into a key
+	 *
+	 * @param startEdge
+	 *            the start edge
+	 * @param endEdge
+	 *            the end edge
+	 * @return <code>true</code> if the route can be cached
+	 */
+	private static boolean isCacheable(final int startEdge, final int endEdge) {
+		return startEdge <= MAXIMUM_EDGE && endEdge <= MAXIMUM_EDGE;
+	}
+
+	/**
+	 * Packs the given values into a key
+	 *
+	 * @param startEdge
+	 *            the start edge
+	 * @param endEdge
+	 *            the end edge
+	 * @param lowestFrc
+	 *            the functional road class
+	 * @return the key
+	 */
+	private static long key(final int startEdge, final int endEdge,
+			final int lowestFrc) {
+		return ((long) startEdge << (EDGE_BITS + FRC_BITS))
+				| ((long) endEdge << FRC_BITS) | (lowestFrc & 7);
+	}
+
+	/**
+	 * Returns the segment responsible for the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the segment
+	 */
+	private Segment segment(final long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return segments[(int) ((hash >>> 33) % segments.length)];
+	}
+
+	/**
+	 * A segment of the cache. Its routes are stored in entries of parallel
+	 * arrays, which are linked in access order from the most recently used
+	 * to the least recently used one. The fields are guarded by the lock of
+	 * the segment.
+	 */
+	private static class Segment {
+
+		/** Marks the end of the access order */
+		private static final int NONE = -1;
+
+		/** Holds the entry of each key */
+		private final LongIntMap entries;
+
+		/** Holds the key of each entry */
+		private final long[] keys;
+
+		/** Holds the edges of each entry */
+		private final int[][] edges;
+
+		/** Holds the length of each entry in meters */
+		private final int[] lengths;
+
+		/** Holds for each entry the more recently used entry */
+		private final int[] previous;
+
+		/** Holds for each entry the less recently used entry */
+		private final int[] next;
+
+		/** Holds the most recently used entry */
+		private int head;
+
+		/** Holds the least recently used entry */
+		private int tail;
+
+		/** Counts the queries answered by the segment */
+		private long hits;
+
+		/** Counts the queries not answered by the segment */
+		private long misses;
+
+		/** Counts the routes evicted from the segment */
+		private long evictions;
+
+		/**
+		 * Constructs a new segment
+		 *
+		 * @param capacity
+		 *            the maximum number of routes
+		 */
+		private Segment(final int capacity) {
+			this.entries = new LongIntMap(capacity);
+			this.keys = new long[capacity];
+			this.edges = new int[capacity][];
+			this.lengths = new int[capacity];
+			this.previous = new int[capacity];
+			this.next = new int[capacity];
+			this.head = NONE;
+			this.tail = NONE;
+		}
+
+		/**
+		 * Looks up a route and marks it as the most recently used one
+		 *
+		 * @param key
+		 *            the key
+		 * @param path
+		 *            receives the edges of the route if it is cached
+		 * @return the length of the route, or {@link Router#NO_ROUTE} if it
+		 *         isn't cached
+		 */
+		private int get(final long key, final IntList path) {
+			int entry = entries.get(key, NONE);
+			if (entry == NONE) {
+				misses++;
+				return Router.NO_ROUTE;
+			}
+			hits++;
+			unlink(entry);
+			link(entry);
+			path.clear();
+			for (int edge : edges[entry]) {
+				path.add(edge);
+			}
+			return lengths[entry];
+		}
+
+		/**
+		 * Adds a route as the most recently used one, evicting the least
+		 * recently used route if the segment is full
+		 *
+		 * @param key
+		 *            the key
+		 * @param route
+		 *            the edges of the route
+		 * @param length
+		 *            the length of the route in meters
+		 */
+		private void put(final long key, final int[] route, final int length) {
+			int entry = entries.get(key, NONE);
+			if (entry != NONE) {
+				unlink(entry);
+			} else if (entries.size() < keys.length) {
+				entry = entries.size();
+			} else {
+				entry = tail;
+				unlink(entry);
+				entries.remove(keys[entry]);
+				evictions++;
+			}
+			keys[entry] = key;
+			edges[entry] = route;
+			lengths[entry] = length;
+			entries.put(key, entry);
+			link(entry);
+		}
+
+		/**
+		 * Removes all routes, keeping the counters
+		 */
+		private void clear() {
+			entries.clear();
+			Arrays.fill(edges, null);
+			head = NONE;
+			tail = NONE;
+		}
+
+		/**
+		 * Links the given entry as the most recently used one
+		 *
+		 * @param entry
+		 *            the entry
+		 */
+		private void link(final int entry) {
+			previous[entry] = NONE;
+			next[entry] = head;
+			if (head != NONE) {
+				previous[head] = entry;
+			} else {
+				tail = entry;
+			}
+			head = entry;
+		}
+
+		/**
+		 * Removes the given entry from the access order
+		 *
+		 * @param entry
+		 *            the entry
+		 */
+		private void unlink(final int entry) {
+			if (previous[entry] != NONE) {
+				next[previous[entry]] = next[entry];
+			} else {
+				head = next[entry];
+			}
+			if (next[entry] != NONE) {
+				previous[next[entry]] = previous[entry];
+			} else {
+				tail = previous[entry];
+			}
+		}
+	}
+}
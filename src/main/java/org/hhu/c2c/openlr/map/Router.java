@@ -0,0 +1,52 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.util.IntList;
+
+/**
+ * A <b>router</b> computes shortest paths between two nodes of a
+ * {@link RoadGraph}. The length of a path is the sum of the length attributes
+ * of its edges.
+ *
+ * Implementations usually keep scratch memory between two calls and are
+ * therefore not safe for use by multiple threads at once.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public interface Router {
+
+	/**
+	 * Returned by {@link #route(int, int, int, int, IntList)} if there is no
+	 * path
+	 */
+	int NO_ROUTE = -1;
+
+	/**
+	 * Returns the road graph the paths are computed on
+	 *
+	 * @return the road graph
+	 */
+	RoadGraph getGraph();
+
+	/**
+	 * Computes the shortest path between the two given nodes, using only edges
+	 * whose functional road class is at least as important as the given one
+	 * and not exceeding the given length.
+	 *
+	 * @param source
+	 *            the node the path starts at
+	 * @param target
+	 *            the node the path ends at
+	 * @param lowestFrc
+	 *            the byte representation of the least important functional
+	 *            road class allowed on the path
+	 * @param maximumLength
+	 *            the maximum length of the path in meters
+	 * @param path
+	 *            receives the edges of the path in order; it is cleared before
+	 * @return the length of the path in meters, or {@link #NO_ROUTE} if there
+	 *         is no such path
+	 */
+	int route(int source, int target, int lowestFrc, int maximumLength,
+			IntList path);
+}
@@ -0,0 +1,175 @@
+package org.hhu.c2c.openlr.map;
+
+import java.util.Arrays;
+
+import org.hhu.c2c.openlr.util.IndexedIntHeap;
+import org.hhu.c2c.openlr.util.IntList;
+
+/**
+ * The <b>routing scratch</b> holds the state of a shortest-path search: the
+ * distance and predecessor of each node reached, the priority queue and the
+ * list of nodes reached. It is sized to the road graph once and then reused
+ * by every search, so that routing doesn't allocate any memory.
+ *
+ * Clearing the scratch between two searches takes constant time. Every entry
+ * is stamped with the generation of the search that wrote it, and clearing
+ * just starts a new generation; entries with an older stamp count as not
+ * reached. Only when the generation counter overflows all stamps are reset.
+ *
+ * A routing scratch is not thread-safe. It belongs to one router, or to
+ * several routers used one after the other by the same thread.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoutingScratch {
+
+	/** Holds for each node the generation of its entry */
+	private final int[] stamps;
+
+	/** Holds for each node the length of the shortest path found so far */
+	private final int[] distances;
+
+	/** Holds for each node the last edge or arc of that path */
+	private final int[] predecessors;
+
+	/** Holds the nodes reached by the current search */
+	private final IntList touched;
+
+	/** Holds the priority queue */
+	private final IndexedIntHeap heap;
+
+	/** Holds the generation of the current search */
+	private int generation;
+
+	/**
+	 * Constructs a new routing scratch
+	 *
+	 * @param nodeCount
+	 *            the number of nodes of the road graph
+	 */
+	public RoutingScratch(final int nodeCount) {
+		this.stamps = new int[nodeCount];
+		this.distances = new int[nodeCount];
+		this.predecessors = new int[nodeCount];
+		this.touched = new IntList();
+		this.heap = new IndexedIntHeap(nodeCount);
+		this.generation = 1;
+	}
+
+	/**
+	 * Returns the number of nodes this scratch can hold
+	 *
+	 * @return the number of nodes
+	 */
+	public int getCapacity() {
+		return stamps.length;
+	}
+
+	/**
+	 * Forgets the state of the previous search
+	 */
+	public void clear() {
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamps, 0);
+			generation = 0;
+		}
+		generation++;
+		touched.clear();
+		heap.clear();
+	}
+
+	/**
+	 * Returns <code>true</code> if the node has been reached by the current
+	 * search
+	 *
+	 * @param node
+	 *            the node
+	 * @return <code>true</code> if the node has a distance
+	 */
+	public boolean isReached(final int node) {
+		return stamps[node] == generation;
+	}
+
+	/**
+	 * Returns the distance of the given node
+	 *
+	 * @param node
+	 *            the node
+	 * @return the length of the shortest path found so far, or
+	 *         {@link Integer#MAX_VALUE} if the node hasn't been reached
+	 */
+	public int getDistance(final int node) {
+		return stamps[node] == generation ? distances[node] : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the predecessor of the given node
+	 *
+	 * @param node
+	 *            the node
+	 * @return the last edge or arc of the shortest path found so far, or
+	 *         <code>-1</code> if the node hasn't been reached or is the start
+	 *         of the search
+	 */
+	public int getPredecessor(final int node) {
+		return stamps[node] == generation ? predecessors[node] : -1;
+	}
+
+	/**
+	 * Sets the distance and predecessor of the given node and queues it, if
+	 * the distance is shorter than the one found so far
+	 *
+	 * @param node
+	 *            the node
+	 * @param distance
+	 *            the new distance
+	 * @param predecessor
+	 *            the new predecessor edge or arc
+	 * @return <code>true</code> if the distance was shorter
+	 */
+	public boolean relax(final int node, final int distance,
+			final int predecessor) {
+		if (stamps[node] != generation) {
+			stamps[node] = generation;
+			touched.add(node);
+		} else if (distances[node] <= distance) {
+			return false;
+		}
+		distances[node] = distance;
+		predecessors[node] = predecessor;
+		heap.update(node, distance);
+		return true;
+	}
+
+	/**
+	 * Returns the priority queue, holding the nodes reached but not yet
+	 * settled, ordered by their distance
+	 *
+	 * @return the priority queue
+	 */
+	public IndexedIntHeap getHeap() {
+		return heap;
+	}
+
+	/**
+	 * Returns the number of nodes reached by the current search
+	 *
+	 * @return the number of nodes
+	 */
+	public int getTouchedCount() {
+		return touched.size();
+	}
+
+	/**
+	 * Returns a node reached by the current search
+	 *
+	 * @param index
+	 *            an index between <code>0</code> and
+	 *            {@link #getTouchedCount()}
+	 * @return the node, in the order the nodes were reached
+	 */
+	public int getTouchedNode(final int index) {
+		return touched.get(index);
+	}
+}
@@ -0,0 +1,461 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.RoadGraph.COORDINATE_MULTIPLIER;
+import static org.hhu.c2c.openlr.map.RoadGraphBuilder.toInt;
+
+import java.util.Arrays;
+
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.IntObjectMap;
+
+/**
+ * The <b>spatial index</b> allows finding the edges of a {@link RoadGraph}
+ * near a given position. It divides the bounding box of the road graph into a
+ * regular grid of cells and stores for each cell the edges whose geometry
+ * passes through it. Like the road graph itself, the cells are stored in
+ * compressed sparse row form, so that the index consists of two integer arrays
+ * only. An edge spanning several cells is listed in each of them.
+ *
+ * The cells of a query window are iterated like this:
+ *
+ * <pre>
+ * for (int row = index.getRow(south); row &lt;= index.getRow(north); row++) {
+ * 	for (int column = index.getColumn(west); column &lt;= index.getColumn(east); column++) {
+ * 		int cell = index.getCell(row, column);
+ * 		for (int i = index.getCellStart(cell); i &lt; index.getCellEnd(cell); i++) {
+ * 			int edge = index.getCellEdge(i);
+ * 			...
+ * 		}
+ * 	}
+ * }
+ * </pre>
+ *
+ * Removed edges (see {@link RoadGraph#isRemoved(int)}) are never listed. When
+ * the road graph is updated by a {@link RoadGraphDelta}, the index of the
+ * updated road graph can be derived from the previous index, see
+ * {@link #SpatialIndex(SpatialIndex, RoadGraph)}. It shares the cells of the
+ * previous index and only replaces the cells touched by the update (see
+ * {@link ListOverlay}).
+ *
+ * A spatial index is immutable and can safely be shared between threads.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class SpatialIndex {
+
+	/**
+	 * The default size of a cell in degree, about a kilometer in north-south
+	 * direction
+	 */
+	public static final float CELL_SIZE_DEFAULT = 0.01f;
+
+	/** Holds the road graph */
+	private final RoadGraph graph;
+
+	/** Holds the size of a cell in decamicrodegrees */
+	private final int cellSize;
+
+	/** Holds the western border of the grid in decamicrodegrees */
+	private final int west;
+
+	/** Holds the southern border of the grid in decamicrodegrees */
+	private final int south;
+
+	/** Holds the number of columns of the grid */
+	private final int columns;
+
+	/** Holds the number of rows of the grid */
+	private final int rows;
+
+	/** Holds for each cell the index of its first edge */
+	private final int[] cellOffsets;
+
+	/** Holds the edges, grouped by cell */
+	private final int[] cellEdges;
+
+	/**
+	 * Holds the cells replaced by updates since the arrays were built, or
+	 * <code>null</code>
+	 */
+	private final ListOverlay cells;
+
+	/**
+	 * Constructs a new spatial index for the given road graph, using the
+	 * default cell size
+	 *
+	 * @param graph
+	 *            the road graph
+	 */
+	public SpatialIndex(final RoadGraph graph) {
+		this(graph, CELL_SIZE_DEFAULT);
+	}
+
+	/**
+	 * Constructs a new spatial index for the given road graph
+	 *
+	 * @param graph
+	 *            the road graph
+	 * @param cellSize
+	 *            the size of a cell in degree
+	 */
+	public SpatialIndex(final RoadGraph graph, final float cellSize) {
+		this.graph = graph;
+		this.cellSize = Math.max(1, toInt(cellSize));
+
+		int minLongitude = Integer.MAX_VALUE;
+		int minLatitude = Integer.MAX_VALUE;
+		int maxLongitude = Integer.MIN_VALUE;
+		int maxLatitude = Integer.MIN_VALUE;
+		for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+			if (graph.isRemoved(edge)) {
+				continue;
+			}
+			int size = graph.getGeometrySize(edge);
+			for (int i = 0; i < size; i++) {
+				int longitude = toInt(graph.getGeometryLongitude(edge, i));
+				int latitude = toInt(graph.getGeometryLatitude(edge, i));
+				minLongitude = Math.min(minLongitude, longitude);
+				minLatitude = Math.min(minLatitude, latitude);
+				maxLongitude = Math.max(maxLongitude, longitude);
+				maxLatitude = Math.max(maxLatitude, latitude);
+			}
+		}
+		if (minLongitude > maxLongitude) {
+			minLongitude = maxLongitude = minLatitude = maxLatitude = 0;
+		}
+
+		this.west = minLongitude;
+		this.south = minLatitude;
+		this.columns = (maxLongitude - minLongitude) / this.cellSize + 1;
+		this.rows = (maxLatitude - minLatitude) / this.cellSize + 1;
+		this.cells = null;
+
+		int cells = columns * rows;
+		this.cellOffsets = new int[cells + 1];
+		int[] lastEdge = new int[cells];
+		Arrays.fill(lastEdge, -1);
+
+		// first pass counts the edges of each cell, the second one fills them
+		for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+			if (!graph.isRemoved(edge)) {
+				addEdge(edge, lastEdge, null);
+			}
+		}
+		for (int i = 1; i <= cells; i++) {
+			cellOffsets[i] += cellOffsets[i - 1];
+		}
+		this.cellEdges = new int[cellOffsets[cells]];
+		int[] next = new int[cells];
+		System.arraycopy(cellOffsets, 0, next, 0, cells);
+		Arrays.fill(lastEdge, -1);
+		for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+			if (!graph.isRemoved(edge)) {
+				addEdge(edge, lastEdge, next);
+			}
+		}
+	}
+
+	/**
+	 * Constructs a new spatial index for an updated road graph (see
+	 * {@link RoadGraphDelta}) from the index of the road graph it was derived
+	 * from. The grid and all cells the update doesn't touch are shared with
+	 * the previous index; only the cells passed by removed or added edges are
+	 * copied, without the removed and with the added edges, so the geometry
+	 * of the other edges isn't looked at again. If the road graph wasn't
+	 * derived from the indexed one directly, the removed edges are found by
+	 * scanning all cells. Edges added outside the grid are inserted into its
+	 * border cells, where they are still found; after many such updates the
+	 * index should be built from scratch.
+	 *
+	 * @param previous
+	 *            the index of the road graph before the update
+	 * @param graph
+	 *            the updated road graph
+	 * @throws IllegalArgumentException
+	 *             if the road graph has fewer edges than the previous one
+	 */
+	public SpatialIndex(final SpatialIndex previous, final RoadGraph graph) {
+		if (graph.getEdgeCount() < previous.graph.getEdgeCount()) {
+			throw new IllegalArgumentException(
+					"The road graph isn't an update of the indexed one."); //$NON-NLS-1$
+		}
+		this.graph = graph;
+		this.cellSize = previous.cellSize;
+		this.west = previous.west;
+		this.south = previous.south;
+		this.columns = previous.columns;
+		this.rows = previous.rows;
+		this.cellOffsets = previous.cellOffsets;
+		this.cellEdges = previous.cellEdges;
+
+		int[] removed = getRemovedEdges(previous, graph);
+		IntObjectMap<IntList> replaced = new IntObjectMap<IntList>();
+		IntList touched = new IntList();
+		for (int edge : removed) {
+			getCells(edge, touched);
+			for (int i = 0; i < touched.size(); i++) {
+				replace(previous, touched.get(i), replaced, removed);
+			}
+		}
+		for (int edge = previous.graph.getEdgeCount(); edge < graph
+				.getEdgeCount(); edge++) {
+			if (graph.isRemoved(edge)) {
+				continue;
+			}
+			getCells(edge, touched);
+			for (int i = 0; i < touched.size(); i++) {
+				replace(previous, touched.get(i), replaced, removed).add(edge);
+			}
+		}
+		this.cells = replaced.isEmpty() ? previous.cells : new ListOverlay(
+				previous.cells, replaced);
+	}
+
+	/**
+	 * Returns the road graph this index was built for
+	 *
+	 * @return the road graph
+	 */
+	public RoadGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the column containing the given longitude. Longitudes outside
+	 * the grid are clamped to the first respectively the last column.
+	 *
+	 * @param longitude
+	 *            the longitude in degree
+	 * @return the column
+	 */
+	public int getColumn(final double longitude) {
+		return clamp((int) Math.floor((longitude * COORDINATE_MULTIPLIER - west)
+				/ cellSize), columns);
+	}
+
+	/**
+	 * Returns the row containing the given latitude. Latitudes outside the
+	 * grid are clamped to the first respectively the last row.
+	 *
+	 * @param latitude
+	 *            the latitude in degree
+	 * @return the row
+	 */
+	public int getRow(final double latitude) {
+		return clamp((int) Math.floor((latitude * COORDINATE_MULTIPLIER - south)
+				/ cellSize), rows);
+	}
+
+	/**
+	 * Returns the cell in the given row and column
+	 *
+	 * @param row
+	 *            the row
+	 * @param column
+	 *            the column
+	 * @return the cell
+	 */
+	public int getCell(final int row, final int column) {
+		return row * columns + column;
+	}
+
+	/**
+	 * Returns the index of the first edge of the given cell, to be used with
+	 * {@link #getCellEdge(int)}
+	 *
+	 * @param cell
+	 *            the cell
+	 * @return the index of the first edge
+	 */
+	public int getCellStart(final int cell) {
+		if (cells == null) {
+			return cellOffsets[cell];
+		}
+		int slot = cells.getSlot(cell);
+		return slot < 0 ? cellOffsets[cell] : cellEdges.length
+				+ cells.getStart(slot);
+	}
+
+	/**
+	 * Returns the index after the last edge of the given cell
+	 *
+	 * @param cell
+	 *            the cell
+	 * @return the index after the last edge
+	 */
+	public int getCellEnd(final int cell) {
+		if (cells == null) {
+			return cellOffsets[cell + 1];
+		}
+		int slot = cells.getSlot(cell);
+		return slot < 0 ? cellOffsets[cell + 1] : cellEdges.length
+				+ cells.getEnd(slot);
+	}
+
+	/**
+	 * Returns the edge at the given index
+	 *
+	 * @param index
+	 *            an index between {@link #getCellStart(int)} and
+	 *            {@link #getCellEnd(int)}
+	 * @return the edge id
+	 */
+	public int getCellEdge(final int index) {
+		return index < cellEdges.length ? cellEdges[index] : cells.get(index
+				- cellEdges.length);
+	}
+
+	/**
+	 * Counts or inserts the given edge into all cells its geometry passes
+	 * through. Each segment of the geometry is approximated by its bounding
+	 * box.
+	 *
+	 * @param edge
+	 *            the edge
+	 * @param lastEdge
+	 *            holds for each cell the edge inserted last, to avoid
+	 *            inserting an edge twice into the same cell
+	 * @param next
+	 *            holds for each cell the next free index, or <code>null</code>
+	 *            to count the edges only
+	 */
+	private void addEdge(final int edge, final int[] lastEdge, final int[] next) {
+		int size = graph.getGeometrySize(edge);
+		for (int i = 1; i < size; i++) {
+			int fromColumn = getColumn(graph.getGeometryLongitude(edge, i - 1));
+			int toColumn = getColumn(graph.getGeometryLongitude(edge, i));
+			int fromRow = getRow(graph.getGeometryLatitude(edge, i - 1));
+			int toRow = getRow(graph.getGeometryLatitude(edge, i));
+			for (int row = Math.min(fromRow, toRow); row <= Math.max(fromRow,
+					toRow); row++) {
+				for (int column = Math.min(fromColumn, toColumn); column <= Math
+						.max(fromColumn, toColumn); column++) {
+					int cell = getCell(row, column);
+					if (lastEdge[cell] == edge) {
+						continue;
+					}
+					lastEdge[cell] = edge;
+					if (next == null) {
+						cellOffsets[cell + 1]++;
+					} else {
+						cellEdges[next[cell]++] = edge;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the cells the geometry of the given edge passes through, like
+	 * {@link #addEdge(int, int[], int[])}
+	 *
+	 * @param edge
+	 *            the edge
+	 * @param cells
+	 *            receives the cells, each once
+	 */
+	private void getCells(final int edge, final IntList cells) {
+		cells.clear();
+		int size = graph.getGeometrySize(edge);
+		for (int i = 1; i < size; i++) {
+			int fromColumn = getColumn(graph.getGeometryLongitude(edge, i - 1));
+			int toColumn = getColumn(graph.getGeometryLongitude(edge, i));
+			int fromRow = getRow(graph.getGeometryLatitude(edge, i - 1));
+			int toRow = getRow(graph.getGeometryLatitude(edge, i));
+			for (int row = Math.min(fromRow, toRow); row <= Math.max(fromRow,
+					toRow); row++) {
+				for (int column = Math.min(fromColumn, toColumn); column <= Math
+						.max(fromColumn, toColumn); column++) {
+					int cell = getCell(row, column);
+					boolean known = false;
+					for (int j = 0; j < cells.size() && !known; j++) {
+						known = cells.get(j) == cell;
+					}
+					if (!known) {
+						cells.add(cell);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the replaced list of the given cell, copying it from the
+	 * previous index without the removed edges when the cell is touched first
+	 *
+	 * @param previous
+	 *            the previous index
+	 * @param cell
+	 *            the cell
+	 * @param replaced
+	 *            the replaced cells
+	 * @param removed
+	 *            the removed edges, sorted
+	 * @return the edges of the cell
+	 */
+	private static IntList replace(final SpatialIndex previous,
+			final int cell, final IntObjectMap<IntList> replaced,
+			final int[] removed) {
+		IntList edges = replaced.get(cell);
+		if (edges == null) {
+			edges = new IntList();
+			for (int i = previous.getCellStart(cell); i < previous
+					.getCellEnd(cell); i++) {
+				int edge = previous.getCellEdge(i);
+				if (Arrays.binarySearch(removed, edge) < 0) {
+					edges.add(edge);
+				}
+			}
+			replaced.put(cell, edges);
+		}
+		return edges;
+	}
+
+	/**
+	 * Returns the edges of the indexed road graph which are removed in the
+	 * updated one. They are known if the updated road graph was derived from
+	 * the indexed one directly, otherwise all cells are scanned for them.
+	 *
+	 * @param previous
+	 *            the index of the road graph before the update
+	 * @param graph
+	 *            the updated road graph
+	 * @return the removed edges, sorted
+	 */
+	private static int[] getRemovedEdges(final SpatialIndex previous,
+			final RoadGraph graph) {
+		RoadGraphPatch patch = graph.getPatch();
+		if (patch != null && patch.previousStamp == previous.graph.getStamp()) {
+			return patch.removedEdges;
+		}
+		IntList removed = new IntList();
+		int cells = previous.columns * previous.rows;
+		for (int cell = 0; cell < cells; cell++) {
+			for (int i = previous.getCellStart(cell); i < previous
+					.getCellEnd(cell); i++) {
+				int edge = previous.getCellEdge(i);
+				if (graph.isRemoved(edge)) {
+					removed.add(edge);
+				}
+			}
+		}
+		int[] result = removed.toArray();
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Clamps the given value to the range from <code>0</code> to
+	 * <code>size - 1</code>
+	 *
+	 * @param value
+	 *            the value
+	 * @param size
+	 *            the size of the range
+	 * @return the clamped value
+	 */
+	private static int clamp(final int value, final int size) {
+		return value < 0 ? 0 : value >= size ? size - 1 : value;
+	}
+}
@@ -0,0 +1,348 @@
+package org.hhu.c2c.openlr.map;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The <b>tile cache</b> loads the tiles of a road graph partitioned by a
+ * {@link RoadGraphTiler} from a directory on demand and keeps the recently
+ * used ones in memory. The cache is bounded by a memory budget: whenever the
+ * tiles held exceed it, the least recently used tiles are evicted. A tile
+ * that has been handed out stays valid after its eviction; it is just loaded
+ * again the next time it is needed.
+ *
+ * Tiles without a file, e.g. in the sea, are remembered as empty. They are
+ * kept in the same least recently used order and charged a small fixed size
+ * against the memory budget, so they are evicted like any other tile. The tile
+ * cache is thread-safe. Tiles are loaded without holding the lock, so loading
+ * a tile doesn't block threads using tiles already in memory. A tile is loaded
+ * only once even if several threads ask for it at the same time: the first
+ * thread loads it, the others wait for its {@link FutureTask}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class TileCache {
+
+	/** Holds the tile grid */
+	private final TileGrid grid;
+
+	/** Holds the directory of the tile files */
+	private final File directory;
+
+	/** Holds the maximum number of bytes held by the tiles */
+	private final long memoryBudget;
+
+	/**
+	 * The number of bytes charged for remembering an empty tile, roughly the
+	 * entry of the map and its key
+	 */
+	private static final long EMPTY_TILE_SIZE = 64;
+
+	/**
+	 * Holds the tiles in access order, mapping the keys of empty tiles to
+	 * <code>null</code>
+	 */
+	private final LinkedHashMap<Long, RoadGraphTile> tiles;
+
+	/** Holds the loads in progress by the keys of their tiles */
+	private final Map<Long, FutureTask<RoadGraphTile>> loading;
+
+	/** Holds the number of bytes held by the tiles */
+	private long memorySize;
+
+	/** Counts the tiles found in the cache */
+	private long hits;
+
+	/** Counts the tiles loaded from their file */
+	private long loads;
+
+	/** Counts the tiles evicted from the cache */
+	private long evictions;
+
+	/**
+	 * Constructs a new tile cache
+	 *
+	 * @param grid
+	 *            the tile grid the road graph was partitioned by
+	 * @param directory
+	 *            the directory of the tile files
+	 * @param memoryBudget
+	 *            the maximum number of bytes held by the tiles
+	 */
+	public TileCache(final TileGrid grid, final File directory,
+			final long memoryBudget) {
+		this.grid = grid;
+		this.directory = directory;
+		this.memoryBudget = memoryBudget;
+		this.tiles = new LinkedHashMap<Long, RoadGraphTile>(16, 0.75f, true);
+		this.loading = new HashMap<Long, FutureTask<RoadGraphTile>>();
+	}
+
+	/**
+	 * Returns the tile grid
+	 *
+	 * @return the tile grid
+	 */
+	public TileGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Returns the tile in the given column and row, loading it if necessary.
+	 * If another thread is loading the tile already, waits for it instead.
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row
+	 * @return the tile, or <code>null</code> if the tile is empty
+	 * @throws IOException
+	 *             if the tile file can't be read, or if the thread was
+	 *             interrupted while waiting for another thread loading the
+	 *             tile
+	 */
+	public RoadGraphTile getTile(final int column, final int row)
+			throws IOException {
+		Long key = TileGrid.getKey(column, row);
+		FutureTask<RoadGraphTile> task;
+		boolean owner = false;
+		synchronized (this) {
+			RoadGraphTile tile = tiles.get(key);
+			if (tile != null || tiles.containsKey(key)) {
+				hits++;
+				return tile;
+			}
+			task = loading.get(key);
+			if (task != null) {
+				hits++;
+			} else {
+				task = new FutureTask<RoadGraphTile>(new Loader(column, row));
+				loading.put(key, task);
+				owner = true;
+			}
+		}
+
+		if (owner) {
+			task.run();
+		}
+		RoadGraphTile tile;
+		try {
+			tile = task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (owner) {
+				synchronized (this) {
+					if (loading.get(key) == task) {
+						loading.remove(key);
+					}
+				}
+			}
+			if (e.getCause() instanceof IOException) {
+				if (owner) {
+					throw (IOException) e.getCause();
+				}
+				throw new IOException(e.getCause().getMessage(), e.getCause());
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+
+		if (owner) {
+			synchronized (this) {
+				loads++;
+				// unless the cache was cleared in the meantime
+				if (loading.get(key) == task) {
+					loading.remove(key);
+					tiles.put(key, tile);
+					memorySize += getMemorySize(tile);
+					evict();
+				}
+			}
+		}
+		return tile;
+	}
+
+	/**
+	 * Returns the non-empty tiles within the given range of columns and rows
+	 *
+	 * @param west
+	 *            the first column
+	 * @param south
+	 *            the first row
+	 * @param east
+	 *            the last column
+	 * @param north
+	 *            the last row
+	 * @return the tiles
+	 * @throws IOException
+	 *             if a tile file can't be read
+	 */
+	public List<RoadGraphTile> getTiles(final int west, final int south,
+			final int east, final int north) throws IOException {
+		List<RoadGraphTile> result = new ArrayList<RoadGraphTile>();
+		for (int column = west; column <= east; column++) {
+			for (int row = south; row <= north; row++) {
+				RoadGraphTile tile = getTile(column, row);
+				if (tile != null) {
+					result.add(tile);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes all tiles, e.g. after the tile files have changed. The counters
+	 * are kept.
+	 */
+	public synchronized void clear() {
+		tiles.clear();
+		loading.clear();
+		memorySize = 0;
+	}
+
+	/**
+	 * Returns the number of tiles in memory, including the ones remembered as
+	 * empty
+	 *
+	 * @return the number of tiles
+	 */
+	public synchronized int size() {
+		return tiles.size();
+	}
+
+	/**
+	 * Returns the memory budget
+	 *
+	 * @return the maximum number of bytes held by the tiles
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * Returns the memory held by the tiles in memory
+	 *
+	 * @return the number of bytes
+	 */
+	public synchronized long getMemorySize() {
+		return memorySize;
+	}
+
+	/**
+	 * Returns the number of tiles found in the cache
+	 *
+	 * @return the number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of tiles loaded from their file
+	 *
+	 * @return the number of loads
+	 */
+	public synchronized long getLoads() {
+		return loads;
+	}
+
+	/**
+	 * Returns the number of tiles evicted to stay within the memory budget
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Evicts the least recently used tiles until the memory budget is kept,
+	 * but keeps at least the most recently used tile
+	 */
+	private void evict() {
+		Iterator<Map.Entry<Long, RoadGraphTile>> iterator = tiles.entrySet()
+				.iterator();
+		while (memorySize > memoryBudget && tiles.size() > 1) {
+			memorySize -= getMemorySize(iterator.next().getValue());
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Returns the number of bytes charged for the given tile
+	 *
+	 * @param tile
+	 *            the tile, or <code>null</code> for an empty tile
+	 * @return the number of bytes
+	 */
+	private static long getMemorySize(final RoadGraphTile tile) {
+		return tile == null ? EMPTY_TILE_SIZE : tile.getMemorySize();
+	}
+
+	/**
+	 * Loads a tile from its file
+	 */
+	private class Loader implements Callable<RoadGraphTile> {
+
+		/** Holds the column of the tile */
+		private final int column;
+
+		/** Holds the row of the tile */
+		private final int row;
+
+		/**
+		 * Constructs a new loader
+		 *
+		 * @param column
+		 *            the column of the tile
+		 * @param row
+		 *            the row of the tile
+		 */
+		private Loader(final int column, final int row) {
+			this.column = column;
+			this.row = row;
+		}
+
+		/**
+		 * Loads the tile
+		 *
+		 * @return the tile, or <code>null</code> if the tile has no file
+		 * @throws IOException
+		 *             if the tile file can't be read
+		 */
+		@Override
+		public RoadGraphTile call() throws IOException {
+			File file = new File(directory, TileGrid.getFileName(column, row));
+			if (!file.isFile()) {
+				return null;
+			}
+			FileInputStream in = new FileInputStream(file);
+			try {
+				return new RoadGraphReader().readTile(in);
+			} finally {
+				in.close();
+			}
+		}
+	}
+}
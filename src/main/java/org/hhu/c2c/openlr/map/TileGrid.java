@@ -0,0 +1,157 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.RoadGraphBuilder.toInt;
+
+/**
+ * The <b>tile grid</b> divides the world into square cells of a fixed size in
+ * degree, the tiles a large road graph is partitioned into. Column
+ * <code>0</code> starts at the prime meridian and row <code>0</code> at the
+ * equator; the columns and rows west and south of them are negative.
+ *
+ * A tile grid is immutable and can safely be shared between threads.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class TileGrid {
+
+	/**
+	 * The default size of a tile in degree, about 25 kilometers in
+	 * north-south direction
+	 */
+	public static final float TILE_SIZE_DEFAULT = 0.25f;
+
+	/** Holds the size of a tile in decamicrodegrees */
+	private final int tileSize;
+
+	/**
+	 * Constructs a new tile grid with the default tile size
+	 */
+	public TileGrid() {
+		this(TILE_SIZE_DEFAULT);
+	}
+
+	/**
+	 * Constructs a new tile grid
+	 *
+	 * @param tileSize
+	 *            the size of a tile in degree
+	 */
+	public TileGrid(final float tileSize) {
+		this.tileSize = Math.max(1, toInt(tileSize));
+	}
+
+	/**
+	 * Returns the size of a tile
+	 *
+	 * @return the size in decamicrodegrees
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Returns the column of the tiles containing the given longitude
+	 *
+	 * @param longitude
+	 *            the longitude in degree
+	 * @return the column
+	 */
+	public int getColumn(final float longitude) {
+		return getColumn(toInt(longitude));
+	}
+
+	/**
+	 * Returns the row of the tiles containing the given latitude
+	 *
+	 * @param latitude
+	 *            the latitude in degree
+	 * @return the row
+	 */
+	public int getRow(final float latitude) {
+		return getRow(toInt(latitude));
+	}
+
+	/**
+	 * Returns the column of the tiles containing the given longitude
+	 *
+	 * @param longitude
+	 *            the longitude in decamicrodegrees
+	 * @return the column
+	 */
+	int getColumn(final int longitude) {
+		return floor(longitude);
+	}
+
+	/**
+	 * Returns the row of the tiles containing the given latitude
+	 *
+	 * @param latitude
+	 *            the latitude in decamicrodegrees
+	 * @return the row
+	 */
+	int getRow(final int latitude) {
+		return floor(latitude);
+	}
+
+	/**
+	 * Returns a key identifying the tile in the given column and row
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row
+	 * @return the key
+	 */
+	public static long getKey(final int column, final int row) {
+		return ((long) column << 32) | (row & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the column of the tile identified by the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the column
+	 */
+	public static int getKeyColumn(final long key) {
+		return (int) (key >> 32);
+	}
+
+	/**
+	 * Returns the row of the tile identified by the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the row
+	 */
+	public static int getKeyRow(final long key) {
+		return (int) key;
+	}
+
+	/**
+	 * Returns the name of the file holding the tile in the given column and
+	 * row
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row
+	 * @return the file name
+	 */
+	public static String getFileName(final int column, final int row) {
+		return "tile_" + column + "_" + row + ".bin"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Divides the coordinate by the tile size, rounding down
+	 *
+	 * @param coordinate
+	 *            the coordinate in decamicrodegrees
+	 * @return the column or row
+	 */
+	private int floor(final int coordinate) {
+		int quotient = coordinate / tileSize;
+		return coordinate % tileSize < 0 ? quotient - 1 : quotient;
+	}
+}
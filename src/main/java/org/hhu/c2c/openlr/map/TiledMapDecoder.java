@@ -0,0 +1,269 @@
+package org.hhu.c2c.openlr.map;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+import org.hhu.c2c.openlr.geo.GeoHelper;
+import org.hhu.c2c.openlr.l10n.Messages;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * The <b>tiled map decoder</b> decodes location references on a road graph
+ * partitioned into tiles, of which only the tiles around the location
+ * reference need to be in memory (see {@link TileCache}).
+ *
+ * The shortest path between two location reference points is at most as long
+ * as the distance to the next point plus the distance tolerance, so it can't
+ * leave the bounding box of the points extended by half of that length. The
+ * tiles within this box, extended by the candidate radius, are stitched
+ * together and the location reference is decoded on them by a
+ * {@link MapDecoder}. The edges of the matched path are translated back to the
+ * edge ids of the partitioned road graph.
+ *
+ * The most recently used regions are kept along with their spatial index and
+ * decoder, so that location references close to each other, or alternating
+ * between a few areas, are decoded without stitching the tiles again. All
+ * regions share one routing scratch, grown to the largest region. Like a map
+ * decoder, a tiled map decoder is not thread-safe; each thread should use its
+ * own instance, while the tile cache can be shared.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class TiledMapDecoder {
+
+	/** The number of meters of a degree of latitude */
+	private static final double METERS_PER_DEGREE = GeoHelper.EARTH_RADIUS
+			* Math.PI / 180;
+
+	/** Holds the tile cache */
+	private final TileCache cache;
+
+	/** Holds the matching parameters */
+	private final MatchingParameters parameters;
+
+	/** Holds the tiler used for stitching */
+	private final RoadGraphTiler tiler;
+
+	/** The default number of regions kept */
+	public static final int DEFAULT_REGION_COUNT = 4;
+
+	/** Holds the maximum number of regions kept */
+	private final int regionCount;
+
+	/** Holds the statistics of the regions no longer kept */
+	private final MapDecoderStatistics statistics;
+
+	/** Holds the regions kept, the most recently used first */
+	private final List<StitchedRegion> regions;
+
+	/** Holds the routing scratch memory shared by the regions */
+	private RoutingScratch scratch;
+
+	/**
+	 * Constructs a new tiled map decoder keeping the default number of regions
+	 *
+	 * @param cache
+	 *            the tile cache
+	 * @param parameters
+	 *            the matching parameters
+	 */
+	public TiledMapDecoder(final TileCache cache,
+			final MatchingParameters parameters) {
+		this(cache, parameters, DEFAULT_REGION_COUNT);
+	}
+
+	/**
+	 * Constructs a new tiled map decoder
+	 *
+	 * @param cache
+	 *            the tile cache
+	 * @param parameters
+	 *            the matching parameters
+	 * @param regionCount
+	 *            the maximum number of stitched regions kept, at least one
+	 */
+	public TiledMapDecoder(final TileCache cache,
+			final MatchingParameters parameters, final int regionCount) {
+		if (regionCount < 1) {
+			throw new IllegalArgumentException(
+					"At least one region has to be kept."); //$NON-NLS-1$
+		}
+		this.cache = cache;
+		this.parameters = parameters;
+		this.tiler = new RoadGraphTiler(cache.getGrid());
+		this.regionCount = regionCount;
+		this.statistics = new MapDecoderStatistics();
+		this.regions = new ArrayList<StitchedRegion>(regionCount);
+	}
+
+	/**
+	 * Returns the region the last location reference was decoded on
+	 *
+	 * @return the region, or <code>null</code> if nothing has been decoded
+	 */
+	public RoadGraphRegion getRegion() {
+		return regions.isEmpty() ? null : regions.get(0).region;
+	}
+
+	/**
+	 * Returns the statistics of all location references decoded
+	 *
+	 * @return the statistics
+	 */
+	public MapDecoderStatistics getStatistics() {
+		MapDecoderStatistics result = new MapDecoderStatistics();
+		result.add(statistics);
+		for (StitchedRegion stitched : regions) {
+			result.add(stitched.decoder.getStatistics());
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes the given location reference
+	 *
+	 * @param reference
+	 *            the location reference
+	 * @return the path covered by the location, with the edge ids of the
+	 *         partitioned road graph
+	 * @throws LocationReferenceException
+	 *             if there are no tiles around the location reference or if it
+	 *             can't be decoded (see {@link MapDecoder#decode(LocationReference)})
+	 * @throws IOException
+	 *             if a tile can't be loaded
+	 */
+	public MatchedPath decode(final LocationReference reference)
+			throws LocationReferenceException, IOException {
+		StitchedRegion stitched = load(reference);
+		MatchedPath path = stitched.decoder.decode(reference);
+		int[] edges = new int[path.getEdgeCount()];
+		for (int i = 0; i < edges.length; i++) {
+			edges[i] = stitched.region.getEdgeId(path.getEdge(i));
+		}
+		return new MatchedPath(edges, path.getPositiveOffset(), path
+				.getNegativeOffset(), path.getLength());
+	}
+
+	/**
+	 * Returns a region covering the given location reference, stitching it if
+	 * it isn't kept
+	 *
+	 * @param reference
+	 *            the location reference
+	 * @return the region
+	 * @throws LocationReferenceException
+	 *             if there are no tiles around the location reference
+	 * @throws IOException
+	 *             if a tile can't be loaded
+	 */
+	private StitchedRegion load(final LocationReference reference)
+			throws LocationReferenceException, IOException {
+		List<LocationReferencePoint> points = reference
+				.getLocationReferencePoints();
+		float west = Float.MAX_VALUE;
+		float south = Float.MAX_VALUE;
+		float east = -Float.MAX_VALUE;
+		float north = -Float.MAX_VALUE;
+		int margin = 0;
+		for (LocationReferencePoint point : points) {
+			float longitude = point.getCoordinate().getLongitude();
+			float latitude = point.getCoordinate().getLatitude();
+			west = Math.min(west, longitude);
+			south = Math.min(south, latitude);
+			east = Math.max(east, longitude);
+			north = Math.max(north, latitude);
+			if (point.getDistanceToNextPoint() != null) {
+				margin = Math.max(margin, point.getDistanceToNextPoint()
+						.getDistance()
+						+ parameters.getDistanceTolerance());
+			}
+		}
+		double meters = margin / 2.0 + parameters.getCandidateRadius();
+		double latitudeMargin = meters / METERS_PER_DEGREE;
+		double longitudeMargin = latitudeMargin
+				/ Math.max(0.01, Math.cos(Math.toRadians(Math.max(Math
+						.abs(south), Math.abs(north)))));
+
+		TileGrid grid = cache.getGrid();
+		int westColumn = grid.getColumn((float) (west - longitudeMargin));
+		int southRow = grid.getRow((float) (south - latitudeMargin));
+		int eastColumn = grid.getColumn((float) (east + longitudeMargin));
+		int northRow = grid.getRow((float) (north + latitudeMargin));
+
+		List<RoadGraphTile> tiles = cache.getTiles(westColumn, southRow,
+				eastColumn, northRow);
+		if (tiles.isEmpty()) {
+			throw new LocationReferenceException(Messages
+					.getString("TiledMapDecoder.Exception.NO_TILES")); //$NON-NLS-1$
+		}
+		long[] required = new long[tiles.size()];
+		for (int i = 0; i < required.length; i++) {
+			required[i] = TileGrid.getKey(tiles.get(i).getColumn(), tiles
+					.get(i).getRow());
+		}
+		Arrays.sort(required);
+		for (int i = 0; i < regions.size(); i++) {
+			StitchedRegion stitched = regions.get(i);
+			if (Arrays.equals(stitched.keys, required)) {
+				if (i > 0) {
+					regions.remove(i);
+					regions.add(0, stitched);
+				}
+				return stitched;
+			}
+		}
+
+		if (regions.size() == regionCount) {
+			statistics.add(regions.remove(regionCount - 1).decoder
+					.getStatistics());
+		}
+		RoadGraphRegion region = tiler.stitch(tiles);
+		RoadGraph graph = region.getGraph();
+		if (scratch == null || scratch.getCapacity() < graph.getNodeCount()) {
+			scratch = new RoutingScratch(graph.getNodeCount());
+		}
+		StitchedRegion stitched = new StitchedRegion(required, region,
+				new MapDecoder(new SpatialIndex(graph), parameters,
+						new DijkstraRouter(graph, scratch)));
+		regions.add(0, stitched);
+		return stitched;
+	}
+
+	/**
+	 * The <b>stitched region</b> holds a region kept by the decoder along with
+	 * its decoder
+	 */
+	private static class StitchedRegion {
+
+		/** Holds the sorted keys of the tiles of the region */
+		private final long[] keys;
+
+		/** Holds the region */
+		private final RoadGraphRegion region;
+
+		/** Holds the decoder of the region */
+		private final MapDecoder decoder;
+
+		/**
+		 * Constructs a new stitched region
+		 *
+		 * @param keys
+		 *            the sorted keys of the tiles
+		 * @param region
+		 *            the region
+		 * @param decoder
+		 *            the decoder of the region
+		 */
+		private StitchedRegion(final long[] keys,
+				final RoadGraphRegion region, final MapDecoder decoder) {
+			this.keys = keys;
+			this.region = region;
+			this.decoder = decoder;
+		}
+	}
+}
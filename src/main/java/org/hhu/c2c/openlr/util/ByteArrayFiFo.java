@@ -16,6 +16,9 @@ public class ByteArrayFiFo {
 	/** Holds the byte array */
 	final private byte[] array;
 
+	/** Holds the number of bytes of the array that are accessed */
+	final private int length;
+
 	/** Hols the current position */
 	private int position;
 
@@ -31,6 +34,31 @@ public class ByteArrayFiFo {
 		}
 
 		this.array = array.clone();
+		this.length = array.length;
+		position = 0;
+	}
+
+	/**
+	 * Constructs a new {@link ByteArrayFiFo} accessing the first bytes of the
+	 * given byte array in place, e.g. of a scratch array reused for several
+	 * location references. Unlike {@link #ByteArrayFiFo(byte[])} the array is
+	 * not copied, so it mustn't be changed while the fifo is in use.
+	 * 
+	 * @param array
+	 *            the byte array that should be accessed
+	 * @param length
+	 *            the number of bytes to access
+	 */
+	public ByteArrayFiFo(final byte[] array, final int length) {
+		if (array == null) {
+			throw new IllegalArgumentException("Byte array mustn't be null."); //$NON-NLS-1$
+		}
+		if (length < 0 || length > array.length) {
+			throw new IllegalArgumentException("Length is out of bounds."); //$NON-NLS-1$
+		}
+
+		this.array = array;
+		this.length = length;
 		position = 0;
 	}
 
@@ -125,11 +153,12 @@ public class ByteArrayFiFo {
 	}
 
 	/**
-	 * Returns the length of the original byte array
+	 * Returns the number of bytes accessed, the length of the original byte
+	 * array unless a length was given
 	 * 
-	 * @return the length of the original byte array
+	 * @return the number of bytes accessed
 	 */
 	public int size() {
-		return array.length;
+		return length;
 	}
 }
@@ -0,0 +1,208 @@
+package org.hhu.c2c.openlr.util;
+
+import java.util.Arrays;
+
+/**
+ * <code>IndexedIntHeap</code> is a binary min-heap of primitive integer values
+ * between <code>0</code> and a fixed capacity, each ordered by an integer key.
+ * Unlike {@link IntHeap} it holds each value at most once and supports
+ * decreasing its key, by remembering the position of every value in the heap.
+ * So it never holds more entries than its capacity and never allocates after
+ * its construction, which makes it the priority queue of choice for repeated
+ * shortest-path searches where the values are node ids.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class IndexedIntHeap {
+
+	/** Holds the values in heap order */
+	private final int[] values;
+
+	/** Holds the keys in heap order */
+	private final int[] keys;
+
+	/**
+	 * Holds the position of each value in the heap, or <code>-1</code> if it
+	 * isn't in the heap
+	 */
+	private final int[] positions;
+
+	/** Holds the number of entries */
+	private int size;
+
+	/**
+	 * Constructs a new empty {@link IndexedIntHeap} for values from
+	 * <code>0</code> to <code>capacity - 1</code>
+	 *
+	 * @param capacity
+	 *            the number of possible values
+	 */
+	public IndexedIntHeap(final int capacity) {
+		values = new int[capacity];
+		keys = new int[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, -1);
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of possible values
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return positions.length;
+	}
+
+	/**
+	 * Adds a value with the given key, or decreases the key of the value if it
+	 * is already in the heap with a larger key
+	 *
+	 * @param value
+	 *            the value
+	 * @param key
+	 *            the key, the smallest key is removed first
+	 * @return <code>true</code> if the value was added or its key decreased
+	 */
+	public boolean update(final int value, final int key) {
+		int i = positions[value];
+		if (i < 0) {
+			i = size++;
+		} else if (keys[i] <= key) {
+			return false;
+		}
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= key) {
+				break;
+			}
+			move(parent, i);
+			i = parent;
+		}
+		values[i] = value;
+		keys[i] = key;
+		positions[value] = i;
+		return true;
+	}
+
+	/**
+	 * Removes all entries. This takes time proportional to the number of
+	 * entries, not to the capacity.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			positions[values[i]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns <code>true</code> if the value is in the heap
+	 *
+	 * @param value
+	 *            the value
+	 * @return <code>true</code> if the value is in the heap
+	 */
+	public boolean contains(final int value) {
+		return positions[value] >= 0;
+	}
+
+	/**
+	 * Returns the smallest key
+	 *
+	 * @return the smallest key
+	 * @throws IndexOutOfBoundsException
+	 *             if the heap is empty
+	 */
+	public int getMinimumKey() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		return keys[0];
+	}
+
+	/**
+	 * Returns the value with the smallest key
+	 *
+	 * @return the value with the smallest key
+	 * @throws IndexOutOfBoundsException
+	 *             if the heap is empty
+	 */
+	public int getMinimumValue() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		return values[0];
+	}
+
+	/**
+	 * Returns <code>true</code> if the heap holds no entries
+	 *
+	 * @return <code>true</code> if the heap holds no entries,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes the entry with the smallest key and returns its value
+	 *
+	 * @return the value with the smallest key
+	 * @throws IndexOutOfBoundsException
+	 *             if the heap is empty
+	 */
+	public int removeMinimum() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		int minimum = values[0];
+		positions[minimum] = -1;
+		int value = values[--size];
+		int key = keys[size];
+		if (size == 0) {
+			return minimum;
+		}
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = (i << 1) + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child]) {
+				child++;
+			}
+			if (key <= keys[child]) {
+				break;
+			}
+			move(child, i);
+			i = child;
+		}
+		values[i] = value;
+		keys[i] = key;
+		positions[value] = i;
+		return minimum;
+	}
+
+	/**
+	 * Returns the number of entries
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Moves the entry at one position of the heap to another one
+	 *
+	 * @param from
+	 *            the old position
+	 * @param to
+	 *            the new position
+	 */
+	private void move(final int from, final int to) {
+		values[to] = values[from];
+		keys[to] = keys[from];
+		positions[values[to]] = to;
+	}
+}
@@ -0,0 +1,162 @@
+package org.hhu.c2c.openlr.util;
+
+import java.util.Arrays;
+
+/**
+ * <code>IntHeap</code> is a binary min-heap of primitive integer values, each
+ * ordered by an integer key. It is meant to be used as the priority queue of a
+ * shortest-path search, where the values are node ids and the keys are
+ * distances. The heap doesn't support changing the key of a value; instead the
+ * value is added once more with the smaller key and outdated entries are
+ * skipped when they are removed ("lazy deletion").
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class IntHeap {
+
+	/** The capacity used if none is given */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/** Holds the values in heap order */
+	private int[] values;
+
+	/** Holds the keys in heap order */
+	private int[] keys;
+
+	/** Holds the number of entries */
+	private int size;
+
+	/**
+	 * Constructs a new empty {@link IntHeap} with a default capacity
+	 */
+	public IntHeap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new empty {@link IntHeap} with the given capacity
+	 *
+	 * @param capacity
+	 *            the initial capacity
+	 */
+	public IntHeap(final int capacity) {
+		values = new int[Math.max(1, capacity)];
+		keys = new int[values.length];
+		size = 0;
+	}
+
+	/**
+	 * Adds a value with the given key
+	 *
+	 * @param value
+	 *            the value
+	 * @param key
+	 *            the key, the smallest key is removed first
+	 */
+	public void add(final int value, final int key) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size << 1);
+			keys = Arrays.copyOf(keys, size << 1);
+		}
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= key) {
+				break;
+			}
+			values[i] = values[parent];
+			keys[i] = keys[parent];
+			i = parent;
+		}
+		values[i] = value;
+		keys[i] = key;
+	}
+
+	/**
+	 * Removes all entries, keeping the capacity
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the smallest key
+	 *
+	 * @return the smallest key
+	 * @throws IndexOutOfBoundsException
+	 *             if the heap is empty
+	 */
+	public int getMinimumKey() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		return keys[0];
+	}
+
+	/**
+	 * Returns the value with the smallest key
+	 *
+	 * @return the value with the smallest key
+	 * @throws IndexOutOfBoundsException
+	 *             if the heap is empty
+	 */
+	public int getMinimumValue() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		return values[0];
+	}
+
+	/**
+	 * Returns <code>true</code> if the heap holds no entries
+	 *
+	 * @return <code>true</code> if the heap holds no entries,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes the entry with the smallest key and returns its value
+	 *
+	 * @return the value with the smallest key
+	 * @throws IndexOutOfBoundsException
+	 *             if the heap is empty
+	 */
+	public int removeMinimum() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		int minimum = values[0];
+		int value = values[--size];
+		int key = keys[size];
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = (i << 1) + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child]) {
+				child++;
+			}
+			if (key <= keys[child]) {
+				break;
+			}
+			values[i] = values[child];
+			keys[i] = keys[child];
+			i = child;
+		}
+		values[i] = value;
+		keys[i] = key;
+		return minimum;
+	}
+
+	/**
+	 * Returns the number of entries
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+}
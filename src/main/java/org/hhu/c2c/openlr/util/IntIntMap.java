@@ -0,0 +1,212 @@
+package org.hhu.c2c.openlr.util;
+
+/**
+ * <code>IntIntMap</code> is a hash map from primitive integer keys to
+ * primitive integer values. Like {@link IntObjectMap} it uses open addressing
+ * with linear probing in parallel arrays, so neither keys nor values are
+ * boxed. Mappings can't be removed, as the maps this class is used for only
+ * grow until they are copied (see {@link #IntIntMap(IntIntMap)}).
+ *
+ * Like the collections of the JDK it is not thread-safe, but a map that isn't
+ * changed any more can be read by several threads.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class IntIntMap {
+
+	/** The capacity used if none is given */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Holds the keys */
+	private int[] keys;
+
+	/** Holds the values */
+	private int[] values;
+
+	/** Holds whether a slot is used */
+	private boolean[] used;
+
+	/** Holds the number of mappings */
+	private int size;
+
+	/**
+	 * Constructs a new empty {@link IntIntMap} with a default capacity
+	 */
+	public IntIntMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new empty {@link IntIntMap} which holds the given number of
+	 * mappings without growing
+	 *
+	 * @param capacity
+	 *            the expected number of mappings
+	 */
+	public IntIntMap(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity mustn't be negative."); //$NON-NLS-1$
+		}
+		// keep the load factor at most one half
+		int slots = DEFAULT_CAPACITY;
+		while (slots < 2 * capacity) {
+			slots <<= 1;
+		}
+		keys = new int[slots];
+		values = new int[slots];
+		used = new boolean[slots];
+		size = 0;
+	}
+
+	/**
+	 * Constructs a new {@link IntIntMap} holding the mappings of the given map
+	 *
+	 * @param map
+	 *            the map to copy
+	 */
+	public IntIntMap(final IntIntMap map) {
+		keys = map.keys.clone();
+		values = map.values.clone();
+		used = map.used.clone();
+		size = map.size;
+	}
+
+	/**
+	 * Returns the value of the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @param missing
+	 *            the value returned if the key isn't mapped
+	 * @return the value, or <code>missing</code> if the key isn't mapped
+	 */
+	public int get(final int key, final int missing) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return missing;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given key is mapped
+	 *
+	 * @param key
+	 *            the key
+	 * @return <code>true</code> if the key has a value
+	 */
+	public boolean containsKey(final int key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Maps the given key to the given value
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 */
+	public void put(final int key, final int value) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		used[slot] = true;
+		if (++size * 2 > keys.length) {
+			grow();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the map holds no mappings
+	 *
+	 * @return <code>true</code> if the map holds no mappings,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of mappings
+	 *
+	 * @return the number of mappings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns all keys, in no particular order
+	 *
+	 * @return a new array of the keys
+	 */
+	public int[] keys() {
+		int[] result = new int[size];
+		int i = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (used[slot]) {
+				result[i++] = keys[slot];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Doubles the number of slots
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		keys = new int[oldKeys.length << 1];
+		values = new int[oldValues.length << 1];
+		used = new boolean[oldUsed.length << 1];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (used[slot]) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				used[slot] = true;
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of the key, so that consecutive keys don't form long
+	 * probe sequences
+	 *
+	 * @param key
+	 *            the key
+	 * @return the hash
+	 */
+	private static int hash(final int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
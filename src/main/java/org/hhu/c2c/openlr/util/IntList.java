@@ -0,0 +1,190 @@
+package org.hhu.c2c.openlr.util;
+
+import java.util.Arrays;
+
+/**
+ * <code>IntList</code> is a growable list of primitive integer values. In
+ * contrast to a <code>List&lt;Integer&gt;</code> it doesn't box its values,
+ * which makes it suitable for collecting large amounts of ids or for being
+ * reused as a scratch buffer by calling {@link #clear()}.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class IntList {
+
+	/** The capacity used if none is given */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Holds the values */
+	private int[] values;
+
+	/** Holds the number of values */
+	private int size;
+
+	/**
+	 * Constructs a new empty {@link IntList} with a default capacity
+	 */
+	public IntList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new empty {@link IntList} with the given capacity
+	 *
+	 * @param capacity
+	 *            the initial capacity
+	 */
+	public IntList(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity mustn't be negative."); //$NON-NLS-1$
+		}
+		values = new int[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Appends the given value to the end of this list
+	 *
+	 * @param value
+	 *            the value
+	 */
+	public void add(final int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY,
+					values.length + (values.length >> 1)));
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Appends all values of the given list to the end of this list
+	 *
+	 * @param list
+	 *            the list whose values are appended
+	 */
+	public void addAll(final IntList list) {
+		ensureCapacity(size + list.size);
+		System.arraycopy(list.values, 0, values, size, list.size);
+		size += list.size;
+	}
+
+	/**
+	 * Removes all values, keeping the capacity
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Makes sure that the list can hold at least the given number of values
+	 * without growing
+	 *
+	 * @param capacity
+	 *            the minimum capacity
+	 */
+	public void ensureCapacity(final int capacity) {
+		if (capacity > values.length) {
+			values = Arrays.copyOf(values, Math.max(capacity, values.length
+					+ (values.length >> 1)));
+		}
+	}
+
+	/**
+	 * Returns the value at the given index
+	 *
+	 * @param index
+	 *            the index
+	 * @return the value at the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is equal to or larger than {@link #size()}
+	 */
+	public int get(final int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return values[index];
+	}
+
+	/**
+	 * Returns <code>true</code> if the list holds no values
+	 *
+	 * @return <code>true</code> if the list holds no values, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes and returns the last value of the list
+	 *
+	 * @return the last value
+	 * @throws IndexOutOfBoundsException
+	 *             if the list is empty
+	 */
+	public int removeLast() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		return values[--size];
+	}
+
+	/**
+	 * Reverses the order of the values
+	 */
+	public void reverse() {
+		for (int i = 0, j = size - 1; i < j; i++, j--) {
+			int value = values[i];
+			values[i] = values[j];
+			values[j] = value;
+		}
+	}
+
+	/**
+	 * Replaces the value at the given index
+	 *
+	 * @param index
+	 *            the index
+	 * @param value
+	 *            the new value
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is equal to or larger than {@link #size()}
+	 */
+	public void set(final int index, final int value) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		values[index] = value;
+	}
+
+	/**
+	 * Returns the number of values
+	 *
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a copy of the values as an array of the exact size
+	 *
+	 * @return a copy of the values
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("["); //$NON-NLS-1$
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", "); //$NON-NLS-1$
+			}
+			sb.append(values[i]);
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,248 @@
+package org.hhu.c2c.openlr.util;
+
+import java.util.Arrays;
+
+/**
+ * <code>IntObjectMap</code> is a hash map from primitive integer keys to
+ * objects. It uses open addressing with linear probing in two parallel
+ * arrays, so it doesn't box its keys and doesn't create an entry object per
+ * mapping. Removed entries don't leave tombstones behind; the following
+ * entries of the probe sequence are moved back instead.
+ *
+ * Values must not be <code>null</code>, an empty slot is one without a value.
+ * Like the collections of the JDK it is not thread-safe.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ * @param <V>
+ *            the class of the values
+ */
+public class IntObjectMap<V> {
+
+	/** The capacity used if none is given */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Holds the keys */
+	private int[] keys;
+
+	/** Holds the values, <code>null</code> marks an empty slot */
+	private Object[] values;
+
+	/** Holds the number of mappings */
+	private int size;
+
+	/**
+	 * Constructs a new empty {@link IntObjectMap} with a default capacity
+	 */
+	public IntObjectMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new empty {@link IntObjectMap} which holds the given number
+	 * of mappings without growing
+	 *
+	 * @param capacity
+	 *            the expected number of mappings
+	 */
+	public IntObjectMap(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity mustn't be negative."); //$NON-NLS-1$
+		}
+		// keep the load factor at most one half
+		int slots = DEFAULT_CAPACITY;
+		while (slots < 2 * capacity) {
+			slots <<= 1;
+		}
+		keys = new int[slots];
+		values = new Object[slots];
+		size = 0;
+	}
+
+	/**
+	 * Returns the value of the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the value, or <code>null</code> if the key isn't mapped
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(final int key) {
+		int slot = find(key);
+		return slot < 0 ? null : (V) values[slot];
+	}
+
+	/**
+	 * Returns <code>true</code> if the given key is mapped
+	 *
+	 * @param key
+	 *            the key
+	 * @return <code>true</code> if the key has a value
+	 */
+	public boolean containsKey(final int key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Maps the given key to the given value
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value, must not be <code>null</code>
+	 * @return the previous value of the key, or <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(final int key, final V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Value mustn't be null."); //$NON-NLS-1$
+		}
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (values[slot] != null) {
+			if (keys[slot] == key) {
+				V previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size * 2 > keys.length) {
+			grow();
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the mapping of the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the removed value, or <code>null</code> if the key wasn't mapped
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(final int key) {
+		int slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+		V previous = (V) values[slot];
+		size--;
+
+		// move back the entries which would no longer be found
+		int mask = keys.length - 1;
+		int empty = slot;
+		int next = (slot + 1) & mask;
+		while (values[next] != null) {
+			int home = hash(keys[next]) & mask;
+			// the entry stays if its home lies cyclically in (empty, next]
+			if (empty <= next ? (home <= empty || home > next)
+					: (home <= empty && home > next)) {
+				keys[empty] = keys[next];
+				values[empty] = values[next];
+				empty = next;
+			}
+			next = (next + 1) & mask;
+		}
+		values[empty] = null;
+		return previous;
+	}
+
+	/**
+	 * Removes all mappings, keeping the capacity
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Returns <code>true</code> if the map holds no mappings
+	 *
+	 * @return <code>true</code> if the map holds no mappings,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of mappings
+	 *
+	 * @return the number of mappings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns all keys, in no particular order
+	 *
+	 * @return a new array of the keys
+	 */
+	public int[] keys() {
+		int[] result = new int[size];
+		int i = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (values[slot] != null) {
+				result[i++] = keys[slot];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the slot of the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the slot, or <code>-1</code> if the key isn't mapped
+	 */
+	private int find(final int key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (values[slot] != null) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Doubles the number of slots
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[oldKeys.length << 1];
+		values = new Object[oldValues.length << 1];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of the key, so that consecutive keys don't form long
+	 * probe sequences
+	 *
+	 * @param key
+	 *            the key
+	 * @return the hash
+	 */
+	private static int hash(final int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
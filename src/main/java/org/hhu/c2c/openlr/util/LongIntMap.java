@@ -0,0 +1,229 @@
+package org.hhu.c2c.openlr.util;
+
+import java.util.Arrays;
+
+/**
+ * <code>LongIntMap</code> is a hash map from primitive long keys to primitive
+ * integer values. Like {@link IntIntMap} it uses open addressing with linear
+ * probing in parallel arrays, so neither keys nor values are boxed. Like
+ * {@link IntObjectMap} removed entries don't leave tombstones behind; the
+ * following entries of the probe sequence are moved back instead.
+ *
+ * Like the collections of the JDK it is not thread-safe.
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class LongIntMap {
+
+	/** The capacity used if none is given */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Holds the keys */
+	private long[] keys;
+
+	/** Holds the values */
+	private int[] values;
+
+	/** Holds whether a slot is used */
+	private boolean[] used;
+
+	/** Holds the number of mappings */
+	private int size;
+
+	/**
+	 * Constructs a new empty {@link LongIntMap} with a default capacity
+	 */
+	public LongIntMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new empty {@link LongIntMap} which holds the given number
+	 * of mappings without growing
+	 *
+	 * @param capacity
+	 *            the expected number of mappings
+	 */
+	public LongIntMap(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity mustn't be negative."); //$NON-NLS-1$
+		}
+		// keep the load factor at most one half
+		int slots = DEFAULT_CAPACITY;
+		while (slots < 2 * capacity) {
+			slots <<= 1;
+		}
+		keys = new long[slots];
+		values = new int[slots];
+		used = new boolean[slots];
+		size = 0;
+	}
+
+	/**
+	 * Returns the value of the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @param missing
+	 *            the value returned if the key isn't mapped
+	 * @return the value, or <code>missing</code> if the key isn't mapped
+	 */
+	public int get(final long key, final int missing) {
+		int slot = find(key);
+		return slot < 0 ? missing : values[slot];
+	}
+
+	/**
+	 * Returns <code>true</code> if the given key is mapped
+	 *
+	 * @param key
+	 *            the key
+	 * @return <code>true</code> if the key has a value
+	 */
+	public boolean containsKey(final long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Maps the given key to the given value
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 */
+	public void put(final long key, final int value) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		used[slot] = true;
+		if (++size * 2 > keys.length) {
+			grow();
+		}
+	}
+
+	/**
+	 * Removes the mapping of the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return <code>true</code> if the key was mapped
+	 */
+	public boolean remove(final long key) {
+		int slot = find(key);
+		if (slot < 0) {
+			return false;
+		}
+		size--;
+
+		// move back the entries which would no longer be found
+		int mask = keys.length - 1;
+		int empty = slot;
+		int next = (slot + 1) & mask;
+		while (used[next]) {
+			int home = hash(keys[next]) & mask;
+			// the entry stays if its home lies cyclically in (empty, next]
+			if (empty <= next ? (home <= empty || home > next)
+					: (home <= empty && home > next)) {
+				keys[empty] = keys[next];
+				values[empty] = values[next];
+				empty = next;
+			}
+			next = (next + 1) & mask;
+		}
+		used[empty] = false;
+		return true;
+	}
+
+	/**
+	 * Removes all mappings, keeping the capacity
+	 */
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	/**
+	 * Returns <code>true</code> if the map holds no mappings
+	 *
+	 * @return <code>true</code> if the map holds no mappings,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of mappings
+	 *
+	 * @return the number of mappings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the slot of the given key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the slot, or <code>-1</code> if the key isn't mapped
+	 */
+	private int find(final long key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Doubles the number of slots
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		keys = new long[oldKeys.length << 1];
+		values = new int[oldValues.length << 1];
+		used = new boolean[oldUsed.length << 1];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (used[slot]) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				used[slot] = true;
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of the key, so that consecutive keys don't form long
+	 * probe sequences
+	 *
+	 * @param key
+	 *            the key
+	 * @return the hash
+	 */
+	private static int hash(final long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,250 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hhu.c2c.openlr.io.ArchiveReader;
+import org.hhu.c2c.openlr.io.ArchiveWriter;
+import org.hhu.c2c.openlr.io.Encoder;
+import org.hhu.c2c.openlr.io.ReferenceArchive;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link ArchiveWriter}, {@link ArchiveReader} and
+ * {@link ReferenceArchive}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ArchiveTest {
+
+	/**
+	 * Tests reading single references, single blocks and all blocks in
+	 * parallel
+	 */
+	@Test
+	public void testRoundTrip() {
+		List<byte[]> references = createReferences(5000);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			File file = write(references, 128);
+			ReferenceArchive archive = new ArchiveReader().open(file);
+			try {
+				int size = 0;
+				for (byte[] reference : references) {
+					size += reference.length;
+				}
+				assertTrue(file.length() < size);
+
+				assertEquals(references.size(), archive.getReferenceCount());
+				assertEquals(40, archive.getBlockCount());
+				assertEquals(0, archive.getBlock(127));
+				assertEquals(1, archive.getBlock(128));
+				assertEquals(39, archive.getBlock(4999));
+				for (int i : new int[] { 0, 127, 128, 2500, 4999 }) {
+					assertArrayEquals(references.get(i), archive.get(i));
+				}
+				assertEquals(128, archive.getReferences(0).size());
+				assertEquals(8, archive.getReferences(39).size());
+
+				List<byte[]> read = archive.getReferences(0, archive
+						.getBlockCount(), executor);
+				assertEquals(references.size(), read.size());
+				for (int i = 0; i < read.size(); i++) {
+					assertArrayEquals(references.get(i), read.get(i));
+				}
+			} finally {
+				archive.close();
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Tests an archive with more blocks than the dictionary is sampled from,
+	 * getting every single reference one after the other
+	 */
+	@Test
+	public void testSampledDictionary() {
+		List<byte[]> references = createReferences(3000);
+		try {
+			File file = write(references, 50);
+			RandomAccessFile access = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+			try {
+				// the length of the dictionary
+				access.seek(12);
+				assertEquals(4096, access.readInt());
+			} finally {
+				access.close();
+			}
+
+			ReferenceArchive archive = new ArchiveReader().open(file);
+			try {
+				assertEquals(60, archive.getBlockCount());
+				for (int i = 0; i < references.size(); i++) {
+					byte[] reference = archive.get(i);
+					assertArrayEquals(references.get(i), reference);
+					// the references kept by the archive are not exposed
+					reference[0] = (byte) ~reference[0];
+					assertArrayEquals(references.get(i), archive.get(i));
+				}
+			} finally {
+				archive.close();
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests an archive without references
+	 */
+	@Test
+	public void testEmpty() {
+		try {
+			File file = write(new ArrayList<byte[]>(), 16);
+			ReferenceArchive archive = new ArchiveReader().open(file);
+			try {
+				assertEquals(0, archive.getReferenceCount());
+				assertEquals(0, archive.getBlockCount());
+			} finally {
+				archive.close();
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that malformed archives are rejected
+	 */
+	@Test
+	public void testMalformed() {
+		try {
+			File file = write(createReferences(100), 50);
+			try {
+				RandomAccessFile access = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+				try {
+					// damage the compressed second block
+					access.seek(access.length() - 12 - 20);
+					access.seek(access.readLong() + 10);
+					access.writeInt(0xDEADBEEF);
+				} finally {
+					access.close();
+				}
+				ReferenceArchive archive = new ArchiveReader().open(file);
+				try {
+					assertEquals(50, archive.getReferences(0).size());
+					archive.getReferences(1);
+					fail();
+				} catch (IOException e) {
+					// expected
+				} finally {
+					archive.close();
+				}
+
+				FileOutputStream out = new FileOutputStream(file);
+				out.write(new byte[64]);
+				out.close();
+				new ArchiveReader().open(file);
+				fail();
+			} catch (IOException e) {
+				// expected
+			} finally {
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		try {
+			new ArchiveWriter(new ByteArrayOutputStream(), 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Writes the given references to a new temporary file
+	 *
+	 * @param references
+	 *            the references
+	 * @param blockSize
+	 *            the number of references per block
+	 * @return the file
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	private File write(final List<byte[]> references, final int blockSize)
+			throws IOException {
+		File file = File.createTempFile("archive", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+		ArchiveWriter writer = new ArchiveWriter(new FileOutputStream(file),
+				blockSize);
+		try {
+			for (byte[] reference : references) {
+				writer.add(reference);
+			}
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Returns circles and rectangles scattered around a city
+	 *
+	 * @param count
+	 *            the number of references
+	 * @return the references in their physical data format
+	 */
+	private List<byte[]> createReferences(final int count) {
+		Random random = new Random(42);
+		List<byte[]> references = new ArrayList<byte[]>(count);
+		AreaLocationReferenceBuilder builder = new AreaLocationReferenceBuilder();
+		try {
+			for (int i = 0; i < count; i++) {
+				int longitude = 600000 + random.nextInt(30000);
+				int latitude = 4950000 + random.nextInt(20000);
+				if (i % 2 == 0) {
+					builder.setCircle(longitude, latitude, 1 + random
+							.nextInt(5000));
+				} else {
+					builder.setRectangle(longitude, latitude, longitude
+							+ random.nextInt(500) + 1, latitude
+							+ random.nextInt(500) + 1);
+				}
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				new Encoder().write(out, builder.build());
+				references.add(out.toByteArray());
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return references;
+	}
+}
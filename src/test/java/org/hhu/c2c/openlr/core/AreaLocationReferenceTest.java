@@ -0,0 +1,270 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.hhu.c2c.openlr.io.Decoder;
+import org.hhu.c2c.openlr.io.Encoder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests the {@link Area} location references, their encoding and decoding
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class AreaLocationReferenceTest {
+
+	/**
+	 * The longitude of the examples in decamicrodegrees
+	 */
+	private static final int LONGITUDE = 612683;
+
+	/**
+	 * The latitude of the examples in decamicrodegrees
+	 */
+	private static final int LATITUDE = 4960851;
+
+	/**
+	 * Tests encoding and decoding a circle and the positions it contains
+	 */
+	@Test
+	public void testCircle() {
+		try {
+			CircleLocationReference expected = (CircleLocationReference) new AreaLocationReferenceBuilder()
+					.setCircle(LONGITUDE, LATITUDE, 300).build();
+			assertEquals(LocationType.CIRCLE, expected.getLocationType());
+
+			// about 200 and 400 meters to the north and to the east
+			assertTrue(expected.contains(LONGITUDE, LATITUDE));
+			assertTrue(expected.contains(LONGITUDE, LATITUDE + 180));
+			assertFalse(expected.contains(LONGITUDE, LATITUDE + 360));
+			assertTrue(expected.contains(LONGITUDE + 270, LATITUDE));
+			assertFalse(expected.contains(LONGITUDE + 540, LATITUDE));
+
+			// the radius takes two bytes
+			byte[] bytes = encode(expected);
+			assertEquals(9, bytes.length);
+			assertEquals(3, bytes[0]);
+
+			Location location = new Decoder().decodeLocation(bytes);
+			assertTrue(location instanceof CircleLocationReference);
+			CircleLocationReference actual = (CircleLocationReference) location;
+			assertEquals(300, actual.getRadius());
+			assertEquals(LONGITUDE, actual.getLongitude(), 2);
+			assertEquals(LATITUDE, actual.getLatitude(), 2);
+			assertArrayEquals(bytes, encode(actual));
+
+			// a large radius takes three bytes
+			bytes = encode(new AreaLocationReferenceBuilder().setCircle(
+					LONGITUDE, LATITUDE, 70000).build());
+			assertEquals(10, bytes.length);
+			assertEquals(70000, ((CircleLocationReference) new Decoder()
+					.decodeArea(bytes)).getRadius());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests encoding and decoding rectangles with a relative and an absolute
+	 * upper right corner
+	 */
+	@Test
+	public void testRectangle() {
+		try {
+			RectangleLocationReference expected = (RectangleLocationReference) new AreaLocationReferenceBuilder()
+					.setRectangle(LONGITUDE, LATITUDE, LONGITUDE + 1000,
+							LATITUDE + 500).build();
+			assertTrue(expected.contains(LONGITUDE + 500, LATITUDE + 250));
+			assertFalse(expected.contains(LONGITUDE + 500, LATITUDE + 501));
+			assertFalse(expected.contains(LONGITUDE - 1, LATITUDE + 250));
+
+			byte[] bytes = encode(expected);
+			assertEquals(11, bytes.length);
+			assertEquals(0x43, bytes[0]);
+			RectangleLocationReference actual = (RectangleLocationReference) new Decoder()
+					.decodeLocation(bytes);
+			assertEquals(LocationType.RECTANGLE, actual.getLocationType());
+			assertEquals(1000, actual.getEast() - actual.getWest());
+			assertEquals(500, actual.getNorth() - actual.getSouth());
+			assertArrayEquals(bytes, encode(actual));
+
+			// too large for the relative format
+			bytes = encode(new AreaLocationReferenceBuilder().setRectangle(
+					LONGITUDE, LATITUDE, LONGITUDE + 100000, LATITUDE + 500)
+					.build());
+			assertEquals(13, bytes.length);
+			actual = (RectangleLocationReference) new Decoder()
+					.decodeArea(bytes);
+			assertEquals(LONGITUDE + 100000, actual.getEast(), 2);
+			assertArrayEquals(bytes, encode(actual));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests encoding and decoding a grid and the positions it contains
+	 */
+	@Test
+	public void testGrid() {
+		try {
+			GridLocationReference expected = (GridLocationReference) new AreaLocationReferenceBuilder()
+					.setGrid(LONGITUDE, LATITUDE, LONGITUDE + 100,
+							LATITUDE + 50, 3, 2).build();
+			assertEquals(LocationType.GRID, expected.getLocationType());
+			assertEquals(LONGITUDE + 300, expected.getGridEast());
+			assertEquals(LATITUDE + 100, expected.getGridNorth());
+			assertTrue(expected.contains(LONGITUDE + 250, LATITUDE + 75));
+			assertFalse(expected.contains(LONGITUDE + 350, LATITUDE + 75));
+			assertFalse(expected.contains(LONGITUDE + 250, LATITUDE + 125));
+
+			byte[] bytes = encode(expected);
+			assertEquals(15, bytes.length);
+			GridLocationReference actual = (GridLocationReference) new Decoder()
+					.decodeLocation(bytes);
+			assertEquals(3, actual.getColumns());
+			assertEquals(2, actual.getRows());
+			assertArrayEquals(bytes, encode(actual));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests encoding and decoding a concave polygon and the positions it
+	 * contains
+	 */
+	@Test
+	public void testPolygon() {
+		try {
+			// an L shape, open to the north east
+			PolygonLocationReference expected = (PolygonLocationReference) polygon()
+					.build();
+			assertEquals(LocationType.POLYGON, expected.getLocationType());
+			assertEquals(6, expected.getVertexCount());
+			assertEquals(-500, expected.getLongitudeDelta(3));
+			assertTrue(expected.contains(LONGITUDE + 250, LATITUDE + 750));
+			assertTrue(expected.contains(LONGITUDE + 750, LATITUDE + 250));
+			assertFalse(expected.contains(LONGITUDE + 750, LATITUDE + 750));
+			assertFalse(expected.contains(LONGITUDE - 250, LATITUDE + 250));
+			assertFalse(expected.contains(LONGITUDE + 250, LATITUDE + 1250));
+
+			byte[] bytes = encode(expected);
+			assertEquals(27, bytes.length);
+			assertEquals(0x13, bytes[0]);
+			PolygonLocationReference actual = (PolygonLocationReference) new Decoder()
+					.decodeLocation(bytes);
+			assertEquals(6, actual.getVertexCount());
+			for (int i = 1; i < 6; i++) {
+				assertEquals(expected.getLongitudeDelta(i), actual
+						.getLongitudeDelta(i));
+				assertEquals(expected.getLatitudeDelta(i), actual
+						.getLatitudeDelta(i));
+			}
+			assertArrayEquals(bytes, encode(actual));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that invalid areas are rejected
+	 */
+	@Test
+	public void testValidation() {
+		AreaLocationReferenceBuilder[] invalid = {
+				new AreaLocationReferenceBuilder(),
+				new AreaLocationReferenceBuilder().setCircle(LONGITUDE,
+						LATITUDE, 0),
+				new AreaLocationReferenceBuilder().setRectangle(LONGITUDE,
+						LATITUDE, LONGITUDE, LATITUDE + 1),
+				new AreaLocationReferenceBuilder().setGrid(LONGITUDE, LATITUDE,
+						LONGITUDE + 1, LATITUDE + 1, 0, 1),
+				new AreaLocationReferenceBuilder().addVertex(LONGITUDE,
+						LATITUDE).addVertex(LONGITUDE + 1, LATITUDE),
+				new AreaLocationReferenceBuilder().addVertex(LONGITUDE,
+						LATITUDE).addVertex(LONGITUDE + 40000, LATITUDE)
+						.addVertex(LONGITUDE, LATITUDE + 1),
+				polygon().setVersion((byte) 2) };
+		for (AreaLocationReferenceBuilder alrb : invalid) {
+			try {
+				alrb.build();
+				fail();
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+		}
+
+		try {
+			byte[] bytes = encode(polygon().build());
+			byte[] truncated = new byte[bytes.length - 1];
+			System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+			new Decoder().decodeArea(truncated);
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests that the bounding box read from the bytes of an area location is
+	 * the bounding box of the area
+	 */
+	@Test
+	public void testBoundingBox() {
+		try {
+			Area[] areas = {
+					new AreaLocationReferenceBuilder().setRectangle(LONGITUDE,
+							LATITUDE, LONGITUDE + 1000, LATITUDE + 500)
+							.build(),
+					new AreaLocationReferenceBuilder().setCircle(LONGITUDE,
+							LATITUDE, 300).build(), polygon().build() };
+			for (Area area : areas) {
+				byte[] bytes = encode(area);
+				assertEquals(new Decoder().decodeArea(bytes).getBoundingBox(),
+						new Decoder().decodeBoundingBox(bytes));
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a builder holding an L shaped polygon
+	 *
+	 * @return the builder
+	 */
+	private AreaLocationReferenceBuilder polygon() {
+		return new AreaLocationReferenceBuilder().addVertex(LONGITUDE,
+				LATITUDE).addVertex(LONGITUDE + 1000, LATITUDE).addVertex(
+				LONGITUDE + 1000, LATITUDE + 500).addVertex(LONGITUDE + 500,
+				LATITUDE + 500).addVertex(LONGITUDE + 500, LATITUDE + 1000)
+				.addVertex(LONGITUDE, LATITUDE + 1000);
+	}
+
+	/**
+	 * Returns the byte representation of the given area location reference
+	 *
+	 * @param area
+	 *            the area location reference
+	 * @return the bytes
+	 */
+	private byte[] encode(final Area area) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			new Encoder().write(out, area);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return out.toByteArray();
+	}
+}
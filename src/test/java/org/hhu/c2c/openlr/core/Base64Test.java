@@ -0,0 +1,90 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.hhu.c2c.openlr.io.Base64;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link Base64}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class Base64Test {
+
+	/**
+	 * The test vectors of RFC 4648, decoded
+	 */
+	private static final String[] DECODED = { "", "f", "fo", "foo", "foob", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			"fooba", "foobar" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * The test vectors of RFC 4648, encoded
+	 */
+	private static final String[] ENCODED = { "", "Zg==", "Zm8=", "Zm9v", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/**
+	 * Tests encoding and decoding the test vectors of RFC 4648
+	 */
+	@Test
+	public void testVectors() {
+		try {
+			for (int i = 0; i < DECODED.length; i++) {
+				byte[] bytes = DECODED[i].getBytes("US-ASCII"); //$NON-NLS-1$
+				assertEquals(ENCODED[i], Base64.encode(bytes));
+				assertArrayEquals(bytes, Base64.decode(ENCODED[i]));
+
+				// without padding, and from ASCII bytes into a larger buffer
+				byte[] ascii = ENCODED[i].replace("=", "").getBytes("US-ASCII"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				byte[] buffer = new byte[10];
+				assertEquals(bytes.length, Base64.decode(ascii, 0,
+						ascii.length, buffer, 2));
+				for (int j = 0; j < bytes.length; j++) {
+					assertEquals(bytes[j], buffer[j + 2]);
+				}
+			}
+		} catch (Exception e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that both alphabets are decoded to all byte values
+	 */
+	@Test
+	public void testAllBytes() {
+		byte[] bytes = new byte[256];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		try {
+			String encoded = Base64.encode(bytes);
+			assertArrayEquals(bytes, Base64.decode(encoded));
+			assertArrayEquals(bytes, Base64.decode(encoded.replace('+', '-')
+					.replace('/', '_')));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that invalid strings are rejected
+	 */
+	@Test
+	public void testInvalid() {
+		String[] invalid = { "Z", "Zm9vY", "Zg=", "Z===", "Zm9v!A==", "Zg==Zg==" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		for (String base64 : invalid) {
+			try {
+				Base64.decode(base64);
+				fail(base64);
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+		}
+	}
+}
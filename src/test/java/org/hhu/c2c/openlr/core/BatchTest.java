@@ -0,0 +1,228 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.hhu.c2c.openlr.geo.BoundingBox;
+import org.hhu.c2c.openlr.io.BatchReader;
+import org.hhu.c2c.openlr.io.BatchWriter;
+import org.hhu.c2c.openlr.io.Encoder;
+import org.hhu.c2c.openlr.io.ReferenceBatch;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link BatchWriter}, {@link BatchReader} and {@link ReferenceBatch}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BatchTest {
+
+	/**
+	 * Tests that a batch restores the exact bytes of its references and is
+	 * smaller than the references themselves
+	 */
+	@Test
+	public void testRoundTrip() {
+		List<byte[]> references = createReferences(1000);
+		byte[] bytes = write(new BatchWriter(64), references);
+
+		int size = 0;
+		for (byte[] reference : references) {
+			size += reference.length;
+		}
+		assertTrue(bytes.length < size);
+
+		try {
+			ReferenceBatch batch = new BatchReader().read(ByteBuffer
+					.wrap(bytes));
+			assertEquals(references.size(), batch.getReferenceCount());
+			assertEquals(16, batch.getBlockCount());
+			assertEquals(references.size(), batch.getReferences().size());
+			assertEquals(asStrings(references), asStrings(batch
+					.getReferences()));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests the random access to the blocks of a batch mapped from a file
+	 */
+	@Test
+	public void testRandomAccess() {
+		List<byte[]> references = createReferences(500);
+		try {
+			File file = File.createTempFile("batch", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				new BatchWriter(32).write(file, references);
+				ReferenceBatch batch = new BatchReader().read(file);
+
+				// the first reference lies at the center of the city
+				BoundingBox center = new BoundingBox(6.12f, 49.60f, 6.13f,
+						49.61f);
+				List<Integer> blocks = batch.getBlocks(center);
+				assertFalse(blocks.isEmpty());
+				assertTrue(blocks.size() < batch.getBlockCount());
+
+				List<String> found = new ArrayList<String>();
+				for (int block : blocks) {
+					List<byte[]> blockReferences = batch.getReferences(block);
+					assertEquals(batch.getReferenceCount(block),
+							blockReferences.size());
+					found.addAll(asStrings(blockReferences));
+				}
+				assertTrue(found.contains(Arrays.toString(references.get(0))));
+			} finally {
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that malformed input is rejected
+	 */
+	@Test
+	public void testMalformed() {
+		byte[] bytes = write(new BatchWriter(), createReferences(10));
+
+		byte[] magic = bytes.clone();
+		magic[0] = 0;
+		byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+		for (byte[] invalid : new byte[][] { magic, truncated, new byte[0] }) {
+			try {
+				new BatchReader().read(ByteBuffer.wrap(invalid));
+				fail();
+			} catch (IOException e) {
+				// expected
+			}
+		}
+
+		// a length running past the end of the block, found by skipping the
+		// header byte and the coordinate of the first reference
+		byte[] length = bytes.clone();
+		int position = 16 + 1;
+		for (int varints = 0; varints < 2; position++) {
+			if (length[position] >= 0) {
+				varints++;
+			}
+		}
+		length[position] = 0x7f;
+		try {
+			new BatchReader().read(ByteBuffer.wrap(length)).getReferences(0);
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+
+		try {
+			new BatchWriter(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Returns circles and rectangles scattered around a city, preceded by a
+	 * circle at its center
+	 *
+	 * @param count
+	 *            the number of references
+	 * @return the references in their physical data format
+	 */
+	private List<byte[]> createReferences(final int count) {
+		Random random = new Random(42);
+		List<byte[]> references = new ArrayList<byte[]>(count);
+		AreaLocationReferenceBuilder builder = new AreaLocationReferenceBuilder();
+		try {
+			references.add(encode(builder.setCircle(612683, 4960851, 300)
+					.build()));
+			for (int i = 1; i < count; i++) {
+				if (i % 2 == 0) {
+					references.add(encode(builder.setCircle(
+							600000 + random.nextInt(30000),
+							4950000 + random.nextInt(20000),
+							1 + random.nextInt(5000)).build()));
+				} else {
+					int longitude = 600000 + random.nextInt(30000);
+					int latitude = 4950000 + random.nextInt(20000);
+					references.add(encode(builder.setRectangle(longitude,
+							latitude, longitude + random.nextInt(500) + 1,
+							latitude + random.nextInt(500) + 1).build()));
+				}
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+		return references;
+	}
+
+	/**
+	 * Returns the byte representation of the given area
+	 *
+	 * @param area
+	 *            the area
+	 * @return the bytes
+	 */
+	private byte[] encode(final Area area) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			new Encoder().write(out, area);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Returns the batch of the given references
+	 *
+	 * @param writer
+	 *            the batch writer
+	 * @param references
+	 *            the references
+	 * @return the bytes of the batch
+	 */
+	private byte[] write(final BatchWriter writer, final List<byte[]> references) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			writer.write(out, references);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Returns the sorted string representations of the given references, to
+	 * compare them regardless of their order
+	 *
+	 * @param references
+	 *            the references
+	 * @return the sorted string representations
+	 */
+	private List<String> asStrings(final List<byte[]> references) {
+		List<String> strings = new ArrayList<String>(references.size());
+		for (byte[] reference : references) {
+			strings.add(Arrays.toString(reference));
+		}
+		Collections.sort(strings);
+		return strings;
+	}
+}
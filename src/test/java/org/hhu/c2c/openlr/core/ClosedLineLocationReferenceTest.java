@@ -0,0 +1,196 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.hhu.c2c.openlr.io.Decoder;
+import org.hhu.c2c.openlr.io.Encoder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link ClosedLineLocationReference} and its encoding and decoding
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ClosedLineLocationReferenceTest {
+
+	/**
+	 * Tests encoding and decoding a small ring
+	 */
+	@Test
+	public void testRing() {
+		try {
+			ClosedLineLocationReference expected = ring(4).build();
+			assertEquals(LocationType.CLOSED_LINE, expected.getLocationType());
+			assertEquals(5, expected.getLocationReferencePoints().size());
+
+			// header, absolute point, three relative points, closing line
+			byte[] bytes = encode(expected);
+			assertEquals(1 + 9 + 3 * 7 + 2, bytes.length);
+			assertEquals(0x5B, bytes[0]);
+
+			Location location = new Decoder().decodeLocation(bytes);
+			assertTrue(location instanceof ClosedLineLocationReference);
+			assertClose(expected, (ClosedLineLocationReference) location);
+			assertArrayEquals(bytes, encode((ClosedLineLocationReference) location));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the coordinates of a long cordon don't drift apart
+	 */
+	@Test
+	public void testCordon() {
+		try {
+			ClosedLineLocationReference expected = ring(48).build();
+			byte[] bytes = encode(expected);
+			ClosedLineLocationReference actual = new Decoder()
+					.decodeClosedLine(bytes);
+			assertEquals(49, actual.getLocationReferencePoints().size());
+			assertClose(expected, actual);
+			assertArrayEquals(bytes, encode(actual));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that invalid closed line locations are rejected
+	 */
+	@Test
+	public void testValidation() {
+		try {
+			new ClosedLineLocationReferenceBuilder().close(
+					FunctionalRoadClass.MAIN_ROAD,
+					FormOfWay.SINGLE_CARRIAGEWAY, new Bearing(0));
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			ring(3).setVersion((byte) 2).build();
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			ring(3).close(FunctionalRoadClass.MAIN_ROAD,
+					FormOfWay.SINGLE_CARRIAGEWAY, new Bearing(0)).build();
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			ClosedLineLocationReferenceBuilder clrb = ring(3);
+			clrb.addLocationReferencePoint(clrb.build()
+					.getLocationReferencePoints().get(1)).build();
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			byte[] bytes = encode(ring(3).build());
+			byte[] truncated = new byte[bytes.length - 1];
+			System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+			new Decoder().decodeLocation(truncated);
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Returns a builder holding a closed line through the given number of
+	 * points on a circle of about two kilometers radius
+	 *
+	 * @param numberOfPoints
+	 *            the number of points before closing
+	 * @return the builder
+	 * @throws LocationReferenceException
+	 *             if the closed line can't be built
+	 */
+	private ClosedLineLocationReferenceBuilder ring(final int numberOfPoints)
+			throws LocationReferenceException {
+		ClosedLineLocationReferenceBuilder clrb = new ClosedLineLocationReferenceBuilder();
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+		for (int i = 0; i < numberOfPoints; i++) {
+			double angle = 2 * Math.PI * i / numberOfPoints;
+			clrb.addLocationReferencePoint(lrpb.reset().setCoordinate(
+					(float) (6.12683 + 0.028 * Math.sin(angle)),
+					(float) (49.60851 + 0.018 * Math.cos(angle))).setFrc(
+					FunctionalRoadClass.SECOND_CLASS_ROAD).setFow(
+					FormOfWay.MULTIPLE_CARRIAGEWAY).setLfrcnp(
+					FunctionalRoadClass.THIRD_CLASS_ROAD).setBearing(
+					(float) Math.toDegrees(angle) + 90).setDnp(
+					Distance.newDistanceFromByteRepresentation(
+							12000 / numberOfPoints / 58)).build());
+		}
+		return clrb.close(FunctionalRoadClass.SECOND_CLASS_ROAD,
+				FormOfWay.MULTIPLE_CARRIAGEWAY, new Bearing(90));
+	}
+
+	/**
+	 * Returns the byte representation of the given closed line location
+	 * reference
+	 *
+	 * @param locationReference
+	 *            the closed line location reference
+	 * @return the bytes
+	 */
+	private byte[] encode(final ClosedLineLocationReference locationReference) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			new Encoder().write(out, locationReference);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Asserts that two closed lines have the same attributes and their
+	 * coordinates are equal within the resolution of the physical data format
+	 *
+	 * @param expected
+	 *            the expected closed line
+	 * @param actual
+	 *            the actual closed line
+	 */
+	private void assertClose(final ClosedLineLocationReference expected,
+			final ClosedLineLocationReference actual) {
+		List<LocationReferencePoint> expectedPoints = expected
+				.getLocationReferencePoints();
+		List<LocationReferencePoint> actualPoints = actual
+				.getLocationReferencePoints();
+		assertEquals(expectedPoints.size(), actualPoints.size());
+		for (int i = 0; i < expectedPoints.size(); i++) {
+			LocationReferencePoint e = expectedPoints.get(i);
+			LocationReferencePoint a = actualPoints.get(i);
+			assertEquals(e.getCoordinate().getLongitude(), a.getCoordinate()
+					.getLongitude(), 0.00002f);
+			assertEquals(e.getCoordinate().getLatitude(), a.getCoordinate()
+					.getLatitude(), 0.00002f);
+			assertEquals(e.getFunctionalRoadClass(), a
+					.getFunctionalRoadClass());
+			assertEquals(e.getFormOfWay(), a.getFormOfWay());
+			assertEquals(e.getLowestFRCToNextPoint(), a
+					.getLowestFRCToNextPoint());
+			assertEquals(e.getBearing().getBearing(), a.getBearing()
+					.getBearing(), 11.25f);
+		}
+	}
+}
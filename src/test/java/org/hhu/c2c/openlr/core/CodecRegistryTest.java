@@ -0,0 +1,244 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.hhu.c2c.openlr.io.CodecRegistry;
+import org.hhu.c2c.openlr.io.CodecRegistryBuilder;
+import org.hhu.c2c.openlr.io.Decoder;
+import org.hhu.c2c.openlr.io.Encoder;
+import org.hhu.c2c.openlr.io.Version2Codec;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link CodecRegistry}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class CodecRegistryTest {
+
+	/**
+	 * Tests decoding and encoding location references of mixed versions
+	 */
+	@Test
+	public void testMixedVersions() {
+		try {
+			CodecRegistry registry = new CodecRegistryBuilder()
+					.registerDefaults().build();
+			assertTrue(registry.supports((byte) 2));
+			assertTrue(registry.supports((byte) 3));
+			assertFalse(registry.supports((byte) 4));
+
+			// the example from the technical report is a version 2 line
+			byte[] bytes = Example.asBinaryInputStream().clone();
+			Location location = registry.decode(bytes);
+			assertEquals(new Decoder().decode(bytes), location);
+			assertArrayEquals(encode((LocationReference) location, false), write(
+					registry, location));
+
+			// the same line in version 3
+			bytes[0] = (byte) (bytes[0] & ~7 | 3);
+			location = registry.decode(bytes);
+			assertEquals(LocationType.LINE, location.getLocationType());
+			assertEquals(3, location.getVersion());
+			byte[] written = write(registry, location);
+			assertEquals(bytes[0], written[0]);
+			assertArrayEquals(encode((LocationReference) location, true),
+					written);
+
+			// an area, which only version 3 knows
+			bytes = write(registry, new AreaLocationReferenceBuilder()
+					.setCircle(612683, 4960851, 300).build());
+			location = registry.decode(bytes);
+			assertEquals(LocationType.CIRCLE, location.getLocationType());
+			assertArrayEquals(bytes, write(registry, location));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the offsets of version 3 lines are written relative to the
+	 * distance of the first and last pair of location reference points, while
+	 * version 2 lines keep their absolute offsets
+	 */
+	@Test
+	public void testRelativeLineOffsets() {
+		try {
+			CodecRegistry registry = new CodecRegistryBuilder()
+					.registerDefaults().build();
+			Distance first = Distance.newDistanceFromBucket(20);
+			Distance last = Distance.newDistanceFromBucket(10);
+
+			LocationReference line = line((byte) 3, first, last);
+			byte[] bytes = write(registry, line);
+			int length = bytes.length;
+			assertEquals(300 * 256 / first.getDistance(),
+					bytes[length - 2] & 0xff);
+			assertEquals(100 * 256 / last.getDistance(),
+					bytes[length - 1] & 0xff);
+
+			LocationReference decoded = (LocationReference) registry
+					.decode(bytes);
+			assertEquals(3, decoded.getVersion());
+			assertEquals(first, decoded.getLocationReferencePoints().get(0)
+					.getDistanceToNextPoint());
+			assertTrue(Math.abs(decoded.getPositiveOffset().getDistance()
+					- 300) <= first.getDistance() / 256 + 1);
+			assertTrue(Math.abs(decoded.getNegativeOffset().getDistance()
+					- 100) <= last.getDistance() / 256 + 1);
+			byte[] written = write(registry, decoded);
+			assertArrayEquals(encode(decoded, true), written);
+			assertEquals(bytes[length - 2], written[length - 2]);
+			assertEquals(bytes[length - 1], written[length - 1]);
+
+			bytes = write(registry, line((byte) 2, first, last));
+			length = bytes.length;
+			assertArrayEquals(encode(line((byte) 2, first, last), false),
+					bytes);
+			assertEquals(Distance.newDistanceFromMetricRepresentation(300)
+					.getByteRepresentation(), bytes[length - 2] & 0xff);
+			assertEquals(Distance.newDistanceFromMetricRepresentation(100)
+					.getByteRepresentation(), bytes[length - 1] & 0xff);
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that unsupported versions are rejected
+	 */
+	@Test
+	public void testUnsupportedVersions() {
+		CodecRegistry registry = null;
+		Area circle = null;
+		try {
+			registry = new CodecRegistryBuilder().register((byte) 2,
+					new Version2Codec()).build();
+			circle = new AreaLocationReferenceBuilder().setCircle(612683,
+					4960851, 300).build();
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+
+		byte[] bytes = Example.asBinaryInputStream().clone();
+		bytes[0] = (byte) (bytes[0] & ~7 | 3);
+		for (byte[] invalid : new byte[][] { bytes, new byte[0] }) {
+			try {
+				registry.decode(invalid);
+				fail();
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+		}
+
+		try {
+			write(registry, circle);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			new CodecRegistryBuilder().build();
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			new CodecRegistryBuilder().register((byte) 8, new Version2Codec());
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Returns a line of three location reference points with a positive offset
+	 * of 300m and a negative offset of 100m
+	 *
+	 * @param version
+	 *            the version of the line
+	 * @param first
+	 *            the distance between the first two location reference points
+	 * @param last
+	 *            the distance between the last two location reference points
+	 * @return the line location reference
+	 * @throws LocationReferenceException
+	 *             if the line is invalid
+	 */
+	private LocationReference line(final byte version, final Distance first,
+			final Distance last) throws LocationReferenceException {
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+		return new LocationReferenceBuilder().addLocationReferencePoint(
+				lrpb.setCoordinate(6.12683f, 49.60851f).setFrc(
+						FunctionalRoadClass.THIRD_CLASS_ROAD).setFow(
+						FormOfWay.MULTIPLE_CARRIAGEWAY).setLfrcnp(
+						FunctionalRoadClass.THIRD_CLASS_ROAD).setBearing(135f)
+						.setDnp(first).build()).addLocationReferencePoint(
+				lrpb.reset().setCoordinate(6.12838f, 49.60398f).setFrc(
+						FunctionalRoadClass.THIRD_CLASS_ROAD).setFow(
+						FormOfWay.SINGLE_CARRIAGEWAY).setLfrcnp(
+						FunctionalRoadClass.FIFTH_CLASS_ROAD).setBearing(227f)
+						.setDnp(last).build()).close(
+				lrpb.reset().setCoordinate(6.12817f, 49.60305f).setFrc(
+						FunctionalRoadClass.FIFTH_CLASS_ROAD).setFow(
+						FormOfWay.SINGLE_CARRIAGEWAY).setBearing(290f).build())
+				.setPositiveOffset(300).setNegativeOffset(100).setVersion(
+						version).build();
+	}
+
+	/**
+	 * Returns the byte representation of the given line location reference
+	 * written by the {@link Encoder}
+	 *
+	 * @param locationReference
+	 *            the line location reference
+	 * @param relativeOffsets
+	 *            <code>true</code> to write the offsets relative, as in
+	 *            version 3
+	 * @return the bytes
+	 */
+	private byte[] encode(final LocationReference locationReference,
+			final boolean relativeOffsets) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			if (relativeOffsets) {
+				new Encoder().writeRelativeOffsets(out, locationReference);
+			} else {
+				new Encoder().write(out, locationReference);
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Returns the byte representation of the given location reference
+	 *
+	 * @param registry
+	 *            the codec registry
+	 * @param location
+	 *            the location reference
+	 * @return the bytes
+	 */
+	private byte[] write(final CodecRegistry registry, final Location location) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			registry.write(out, location);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,219 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.hhu.c2c.openlr.io.Column;
+import org.hhu.c2c.openlr.io.ColumnReader;
+import org.hhu.c2c.openlr.io.ColumnWriter;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link ColumnWriter} and {@link ColumnReader}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ColumnTest {
+
+	/**
+	 * Tests exporting and scanning all columns
+	 */
+	@Test
+	public void testColumns() {
+		for (int count : new int[] { 0, 1, 3, 1000 }) {
+			List<LocationReference> references = createReferences(count);
+			File directory = createDirectory();
+			try {
+				ColumnWriter writer = new ColumnWriter(directory);
+				try {
+					for (LocationReference reference : references) {
+						writer.write(reference);
+					}
+				} finally {
+					writer.close();
+				}
+
+				ColumnReader reader = new ColumnReader(directory);
+				assertEquals(count, reader.getValueCount(Column.POINT_COUNT));
+				assertEquals(3 * count, reader
+						.getValueCount(Column.FUNCTIONAL_ROAD_CLASS));
+
+				IntBuffer pointCounts = reader.getInts(Column.POINT_COUNT);
+				IntBuffer positiveOffsets = reader
+						.getInts(Column.POSITIVE_OFFSET);
+				IntBuffer distances = reader
+						.getInts(Column.DISTANCE_TO_NEXT_POINT);
+				FloatBuffer longitudes = reader.getFloats(Column.LONGITUDE);
+				byte[] frcs = reader.getSymbols(Column.FUNCTIONAL_ROAD_CLASS);
+				byte[] fows = reader.getSymbols(Column.FORM_OF_WAY);
+				byte[] bearings = reader.getSymbols(Column.BEARING);
+				long[] histogram = reader
+						.getHistogram(Column.FUNCTIONAL_ROAD_CLASS);
+				long[] expected = new long[8];
+
+				int point = 0;
+				for (int i = 0; i < count; i++) {
+					LocationReference reference = references.get(i);
+					assertEquals(3, pointCounts.get(i));
+					assertEquals(reference.getPositiveOffset().getDistance(),
+							positiveOffsets.get(i));
+					for (LocationReferencePoint lrp : reference
+							.getLocationReferencePoints()) {
+						assertEquals(lrp.getCoordinate().getLongitude(),
+								longitudes.get(point), 0);
+						assertEquals(lrp.getFunctionalRoadClass()
+								.getByteRepresentation(), frcs[point]);
+						assertEquals(lrp.getFormOfWay().getByteRepresentation(),
+								fows[point]);
+						assertEquals(lrp.getBearing().getByteRepresentation(),
+								bearings[point]);
+						assertEquals(lrp.getDistanceToNextPoint().getDistance(),
+								distances.get(point));
+						expected[lrp.getFunctionalRoadClass()
+								.getByteRepresentation()]++;
+						point++;
+					}
+				}
+				assertArrayEquals(expected, histogram);
+
+				if (count == 1000) {
+					// long runs of the same road class take a few bytes
+					assertTrue(new File(directory, Column.FUNCTIONAL_ROAD_CLASS
+							.getFileName()).length() < 100);
+					// random bearings take five bits each
+					assertTrue(new File(directory, Column.BEARING
+							.getFileName()).length() < 3 * count);
+				}
+			} catch (IOException e) {
+				fail(e.getMessage());
+			} finally {
+				delete(directory);
+			}
+		}
+	}
+
+	/**
+	 * Tests that malformed columns are rejected
+	 */
+	@Test
+	public void testMalformed() {
+		File directory = createDirectory();
+		try {
+			ColumnWriter writer = new ColumnWriter(directory);
+			for (LocationReference reference : createReferences(10)) {
+				writer.write(reference);
+			}
+			writer.close();
+
+			// swap two column files
+			File frc = new File(directory, Column.FUNCTIONAL_ROAD_CLASS
+					.getFileName());
+			File fow = new File(directory, Column.FORM_OF_WAY.getFileName());
+			File swap = new File(directory, "swap"); //$NON-NLS-1$
+			assertTrue(frc.renameTo(swap) && fow.renameTo(frc)
+					&& swap.renameTo(fow));
+			try {
+				new ColumnReader(directory)
+						.getSymbols(Column.FUNCTIONAL_ROAD_CLASS);
+				fail();
+			} catch (IOException e) {
+				// expected
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} finally {
+			delete(directory);
+		}
+
+		try {
+			new ColumnReader(directory).getInts(Column.BEARING);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns location references based on the example, with runs of the
+	 * same road class and random forms of way and bearings
+	 *
+	 * @param count
+	 *            the number of location references
+	 * @return the location references
+	 */
+	private List<LocationReference> createReferences(final int count) {
+		Random random = new Random(42);
+		List<LocationReference> references = new ArrayList<LocationReference>(
+				count);
+		FunctionalRoadClass[] frcs = FunctionalRoadClass.values();
+		FormOfWay[] fows = FormOfWay.values();
+		LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+		try {
+			for (int i = 0; i < count; i++) {
+				FunctionalRoadClass frc = frcs[i / 150 % 7];
+				float shift = random.nextInt(1000) / 10000f;
+				lrb.reset();
+				lrb.addLocationReferencePoint(lrpb.reset().setCoordinate(
+						6.12683f + shift, 49.60851f).setFrc(frc).setFow(
+						fows[random.nextInt(8)]).setLfrcnp(frc).setBearing(
+						random.nextInt(360)).setDnp(561).build());
+				lrb.addLocationReferencePoint(lrpb.reset().setCoordinate(
+						6.12838f + shift, 49.60398f).setFrc(frc).setFow(
+						fows[random.nextInt(8)]).setLfrcnp(frc).setBearing(
+						random.nextInt(360)).setDnp(274).build());
+				lrb.close(lrpb.reset().setCoordinate(6.12817f + shift,
+						49.60305f).setFrc(frc).setFow(fows[random.nextInt(8)])
+						.setBearing(random.nextInt(360)).build());
+				lrb.setPositiveOffset(random.nextInt(500));
+				references.add(lrb.build());
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+		return references;
+	}
+
+	/**
+	 * Creates a new temporary directory
+	 *
+	 * @return the directory
+	 */
+	private File createDirectory() {
+		try {
+			File directory = File.createTempFile("columns", ""); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue(directory.delete() && directory.mkdir());
+			return directory;
+		} catch (IOException e) {
+			fail(e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes the given directory and its files
+	 *
+	 * @param directory
+	 *            the directory
+	 */
+	private void delete(final File directory) {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+}
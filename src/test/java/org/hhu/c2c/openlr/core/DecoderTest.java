@@ -1,11 +1,16 @@
 package org.hhu.c2c.openlr.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
+import org.hhu.c2c.openlr.geo.BoundingBox;
+import org.hhu.c2c.openlr.geo.Coordinate;
 import org.hhu.c2c.openlr.io.Decoder;
 import org.hhu.c2c.openlr.io.Encoder;
 import org.hhu.c2c.openlr.util.LocationReferenceException;
@@ -39,4 +44,79 @@ public class DecoderTest {
 		}
 	}
 
+	/**
+	 * Tests that the bounding box read from the bytes of the example from the
+	 * technical report contains all location reference points, enlarged by
+	 * half the longest distance to the next point
+	 */
+	@Test
+	public void testBoundingBox() {
+		try {
+			BoundingBox box = new Decoder().decodeBoundingBox(Example
+					.asBinaryInputStream());
+			for (LocationReferencePoint point : Example.asLocationReference()
+					.getLocationReferencePoints()) {
+				Coordinate coordinate = point.getCoordinate();
+				assertTrue(box.contains(coordinate.getLongitude(), coordinate
+						.getLatitude()));
+			}
+			// about 280 meters north of the northernmost point
+			assertEquals(49.60851f + 0.0025f, box.getNorth(), 0.0002f);
+			assertEquals(49.60305f - 0.0025f, box.getSouth(), 0.0002f);
+			assertTrue(box.intersects(new BoundingBox(6.127f, 49.605f, 6.128f,
+					49.606f)));
+			assertFalse(box.intersects(new BoundingBox(6.2f, 49.605f, 6.3f,
+					49.606f)));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests decoding and encoding the Base64 representation of the example from
+	 * the technical report
+	 */
+	@Test
+	public void testBase64() {
+		String base64 = "CgRbWyNG9BpsCQCb/jsbtAT/6/+jK1kC"; //$NON-NLS-1$
+		try {
+			LocationReference expected = new Decoder().decode(Example
+					.asBinaryInputStream());
+			assertEquals(expected, new Decoder().decode(base64));
+
+			// from the middle of a buffer of ASCII characters
+			byte[] ascii = ("{\"lr\":\"" + base64 + "\"}").getBytes("US-ASCII"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertEquals(expected, new Decoder().decodeBase64(ascii, 7, base64
+					.length()));
+
+			// into a reused scratch array larger than the location reference
+			byte[] scratch = new byte[64];
+			Arrays.fill(scratch, (byte) 0x7f);
+			Decoder decoder = new Decoder();
+			assertEquals(expected, decoder.decode(base64, scratch));
+			assertEquals(expected, decoder.decodeBase64(ascii, 7, base64
+					.length(), scratch));
+			try {
+				decoder.decode(base64, new byte[8]);
+				fail("Decoded into a too small scratch array");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+
+			assertEquals(base64, new Encoder().writeBase64(Example
+					.asLocationReference()));
+			char[] buffer = new char[40];
+			assertEquals(base64.length(), new Encoder().writeBase64(Example
+					.asLocationReference(), buffer, 4));
+			assertEquals(base64, new String(buffer, 4, base64.length()));
+
+			assertEquals(new Decoder().decodeBoundingBox(Example
+					.asBinaryInputStream()), new Decoder()
+					.decodeBoundingBox(base64));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
 }
@@ -1,6 +1,7 @@
 package org.hhu.c2c.openlr.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.hhu.c2c.openlr.util.LocationReferenceException;
@@ -46,4 +47,29 @@ public class DistanceTest {
 			}
 		}
 	}
+
+	/**
+	 * Tests that a distance is encoded into the interval it lies in and that a
+	 * distance read from a bucket is the first whole meter of its interval,
+	 * while the rounded down byte representation stays unchanged
+	 */
+	@Test
+	public void testBucket() {
+		assertEquals(0, new Distance(0).getByteRepresentation());
+		assertEquals(0, new Distance(58).getByteRepresentation());
+		assertEquals(1, new Distance(59).getByteRepresentation());
+		assertEquals(9, new Distance(561).getByteRepresentation());
+
+		try {
+			assertEquals(58, Distance.newDistanceFromByteRepresentation(1)
+					.getDistance());
+			for (int i = 0; i < 256; i++) {
+				Distance distance = Distance.newDistanceFromBucket(i);
+				assertEquals(i, distance.getByteRepresentation());
+				assertTrue(distance.getDistance() < i * Rules.ONE_BIT_DISTANCE + 1);
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
 }
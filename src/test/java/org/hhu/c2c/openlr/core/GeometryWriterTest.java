@@ -0,0 +1,124 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.hhu.c2c.openlr.io.GeoJsonWriter;
+import org.hhu.c2c.openlr.io.WktWriter;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link GeoJsonWriter} and {@link WktWriter}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class GeometryWriterTest {
+
+	/**
+	 * Tests writing the example and a line across the null meridian as
+	 * GeoJSON
+	 */
+	@Test
+	public void testGeoJson() {
+		try {
+			StringWriter out = new StringWriter();
+			GeoJsonWriter writer = new GeoJsonWriter(out);
+			writer.write(Example.asLocationReference());
+			writer.write(createLine());
+			writer.close();
+			assertEquals("{\"type\":\"FeatureCollection\",\"features\":[\n" //$NON-NLS-1$
+					+ "{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":" //$NON-NLS-1$
+					+ "[[6.12683,49.60851],[6.12838,49.60398],[6.12817,49.60305]]}," //$NON-NLS-1$
+					+ "\"properties\":{\"positiveOffset\":150,\"negativeOffset\":0}},\n" //$NON-NLS-1$
+					+ "{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":" //$NON-NLS-1$
+					+ "[[-0.00001,51.5],[0,51.50009]]}," //$NON-NLS-1$
+					+ "\"properties\":{\"positiveOffset\":0,\"negativeOffset\":0}}\n" //$NON-NLS-1$
+					+ "]}\n", out.toString()); //$NON-NLS-1$
+
+			out = new StringWriter();
+			new GeoJsonWriter(out).close();
+			assertEquals(
+					"{\"type\":\"FeatureCollection\",\"features\":[]}\n", out //$NON-NLS-1$
+							.toString());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests writing the example and a line across the null meridian as WKT
+	 */
+	@Test
+	public void testWkt() {
+		try {
+			StringWriter out = new StringWriter();
+			WktWriter writer = new WktWriter(out);
+			writer.write(Example.asLocationReference());
+			writer.write(createLine());
+			writer.close();
+			assertEquals(
+					"LINESTRING (6.12683 49.60851, 6.12838 49.60398, 6.12817 49.60305)\n" //$NON-NLS-1$
+							+ "LINESTRING (-0.00001 51.5, 0 51.50009)\n", //$NON-NLS-1$
+					out.toString());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that many features are streamed through the buffer in order
+	 */
+	@Test
+	public void testStreaming() {
+		try {
+			LocationReference reference = Example.asLocationReference();
+			StringWriter out = new StringWriter();
+			WktWriter writer = new WktWriter(out);
+			for (int i = 0; i < 10000; i++) {
+				writer.write(reference);
+			}
+			writer.flush();
+			String[] lines = out.toString().split("\n"); //$NON-NLS-1$
+			assertEquals(10000, lines.length);
+			for (String line : lines) {
+				assertTrue(line.equals(lines[0]));
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a line starting just west of the null meridian, whose
+	 * coordinates have trailing and leading zeros in their decimals
+	 *
+	 * @return the line location reference
+	 * @throws LocationReferenceException
+	 *             if the line location reference is not valid
+	 */
+	private LocationReference createLine() throws LocationReferenceException {
+		LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+		lrb.addLocationReferencePoint(lrpb.setCoordinate(-0.00001f, 51.5f)
+				.setFrc(FunctionalRoadClass.MAIN_ROAD).setFow(
+						FormOfWay.MOTORWAY).setLfrcnp(
+						FunctionalRoadClass.MAIN_ROAD).setBearing(0f).setDnp(
+						10).build());
+		lrb.close(lrpb.reset().setCoordinate(0f, 51.50009f).setFrc(
+				FunctionalRoadClass.MAIN_ROAD).setFow(FormOfWay.MOTORWAY)
+				.setBearing(180f).build());
+		return lrb.build();
+	}
+}
@@ -0,0 +1,196 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.hhu.c2c.openlr.geo.Coordinate;
+import org.hhu.c2c.openlr.io.Decoder;
+import org.hhu.c2c.openlr.io.Encoder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link PointLocationReference} and its encoding and decoding
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class PointLocationReferenceTest {
+
+	/**
+	 * Tests encoding and decoding a point along line
+	 */
+	@Test
+	public void testPointAlongLine() {
+		try {
+			PointLocationReference expected = builder().build();
+			assertEquals(LocationType.POINT_ALONG_LINE, expected
+					.getLocationType());
+
+			byte[] bytes = encode(expected);
+			assertEquals(17, bytes.length);
+			assertEquals(0x2B, bytes[0]);
+
+			Location location = new Decoder().decodeLocation(bytes);
+			assertTrue(location instanceof PointLocationReference);
+			PointLocationReference actual = (PointLocationReference) location;
+			assertEquals(LocationType.POINT_ALONG_LINE, actual
+					.getLocationType());
+			assertEquals(SideOfRoad.RIGHT, actual.getSideOfRoad());
+			assertEquals(Orientation.WITH_LINE_DIRECTION, actual
+					.getOrientation());
+			assertEquals(expected.getFirstPoint().getDistanceToNextPoint(),
+					actual.getFirstPoint().getDistanceToNextPoint());
+			assertEquals(FunctionalRoadClass.THIRD_CLASS_ROAD, actual
+					.getLastPoint().getFunctionalRoadClass());
+			assertEquals(150, actual.getPositiveOffset().getDistance(), 3);
+			assertClose(expected.getLastPoint().getCoordinate(), actual
+					.getLastPoint().getCoordinate());
+			assertNull(actual.getPointOfInterest());
+
+			// encoding the decoded location reference gives the same bytes
+			assertArrayEquals(bytes, encode(actual));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests encoding and decoding a POI with access point, with and without a
+	 * positive offset
+	 */
+	@Test
+	public void testPoiWithAccessPoint() {
+		try {
+			PointLocationReferenceBuilder plrb = builder().setPointOfInterest(
+					6.1275f, 49.6062f);
+			PointLocationReference expected = plrb.build();
+			assertEquals(LocationType.POI_WITH_ACCESS_POINT, expected
+					.getLocationType());
+			byte[] bytes = encode(expected);
+			assertEquals(21, bytes.length);
+			PointLocationReference actual = new Decoder().decodePoint(bytes);
+			assertEquals(LocationType.POI_WITH_ACCESS_POINT, actual
+					.getLocationType());
+			assertClose(expected.getPointOfInterest(), actual
+					.getPointOfInterest());
+			assertArrayEquals(bytes, encode(actual));
+
+			bytes = encode(plrb.setPositiveOffset(0).build());
+			assertEquals(20, bytes.length);
+			actual = new Decoder().decodePoint(bytes);
+			assertEquals(0, actual.getPositiveOffset().getDistance());
+			assertClose(expected.getPointOfInterest(), actual
+					.getPointOfInterest());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that line locations are still decoded as such, and that invalid
+	 * point locations and their bounding boxes are rejected
+	 */
+	@Test
+	public void testDispatchAndValidation() {
+		try {
+			assertEquals(new Decoder().decode(Example.asBinaryInputStream()),
+					new Decoder().decodeLocation(Example.asBinaryInputStream()));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+
+		try {
+			byte[] bytes = encode(builder().build());
+			byte[] truncated = new byte[18];
+			System.arraycopy(bytes, 0, truncated, 0, bytes.length);
+			new Decoder().decodeLocation(truncated);
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			// a point location has no bounding box of its own
+			new Decoder().decodeBoundingBox(encode(builder().build()));
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			builder().setPositiveOffset(600).build();
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			builder().setVersion((byte) 2).build();
+			fail();
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Returns a builder holding a point along line on the first line of the
+	 * example from the technical report
+	 * 
+	 * @return the builder
+	 * @throws LocationReferenceException
+	 *             if the example can't be built
+	 */
+	private PointLocationReferenceBuilder builder()
+			throws LocationReferenceException {
+		LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+		PointLocationReferenceBuilder plrb = new PointLocationReferenceBuilder();
+		plrb.setFirstPoint(lrpb.setCoordinate(6.12683f, 49.60851f).setFrc(
+				FunctionalRoadClass.THIRD_CLASS_ROAD).setFow(
+				FormOfWay.MULTIPLE_CARRIAGEWAY).setLfrcnp(
+				FunctionalRoadClass.THIRD_CLASS_ROAD).setBearing(135).setDnp(
+				Distance.newDistanceFromBucket(9)).build());
+		plrb.setLastPoint(lrpb.reset().setCoordinate(6.12838f, 49.60398f)
+				.setFrc(FunctionalRoadClass.THIRD_CLASS_ROAD).setFow(
+						FormOfWay.SINGLE_CARRIAGEWAY).setBearing(227).build());
+		return plrb.setPositiveOffset(150).setSideOfRoad(SideOfRoad.RIGHT)
+				.setOrientation(Orientation.WITH_LINE_DIRECTION);
+	}
+
+	/**
+	 * Returns the byte representation of the given point location reference
+	 * 
+	 * @param locationReference
+	 *            the point location reference
+	 * @return the bytes
+	 */
+	private byte[] encode(final PointLocationReference locationReference) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			new Encoder().write(out, locationReference);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Asserts that two coordinates are equal within the resolution of the
+	 * physical data format
+	 * 
+	 * @param expected
+	 *            the expected coordinate
+	 * @param actual
+	 *            the actual coordinate
+	 */
+	private void assertClose(final Coordinate expected, final Coordinate actual) {
+		assertEquals(expected.getLongitude(), actual.getLongitude(), 0.0001f);
+		assertEquals(expected.getLatitude(), actual.getLatitude(), 0.0001f);
+	}
+}
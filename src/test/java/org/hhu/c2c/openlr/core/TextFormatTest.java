@@ -0,0 +1,138 @@
+package org.hhu.c2c.openlr.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.hhu.c2c.openlr.io.Decoder;
+import org.hhu.c2c.openlr.io.TextDecoder;
+import org.hhu.c2c.openlr.io.TextEncoder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link TextEncoder} and {@link TextDecoder}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class TextFormatTest {
+
+	/**
+	 * The example in the text format
+	 */
+	private static final String EXAMPLE = "2:150:0:6.12683,49.60851,3,2,135.0,3,561;6.12838,49.60398,3,3,227.0,5,274;6.12817,49.60305,5,3,290.0"; //$NON-NLS-1$
+
+	/**
+	 * Tests the text of the example and reading it back
+	 */
+	@Test
+	public void testExample() {
+		try {
+			LocationReference reference = Example.asLocationReference();
+			StringBuilder builder = new TextEncoder().append(
+					new StringBuilder(), reference);
+			assertEquals(EXAMPLE, builder.toString());
+			assertEquals(reference, new TextDecoder().decode(builder));
+
+			reference = new Decoder().decode(Example.asBinaryInputStream()
+					.clone());
+			builder.setLength(0);
+			new TextEncoder().append(builder, reference);
+			assertEquals(reference, new TextDecoder().decode(builder));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests appending to a writer
+	 */
+	@Test
+	public void testAppendable() {
+		try {
+			StringWriter out = new StringWriter();
+			TextEncoder encoder = new TextEncoder();
+			encoder.append(out, Example.asLocationReference());
+			out.append('\n');
+			encoder.append(out, Example.asLocationReference());
+			assertEquals(EXAMPLE + '\n' + EXAMPLE, out.toString());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that random location references with arbitrary floats read back
+	 * unchanged through one reused encoder, decoder and builder
+	 */
+	@Test
+	public void testRoundTrip() {
+		try {
+			Random random = new Random(42);
+			FunctionalRoadClass[] frcs = FunctionalRoadClass.values();
+			FormOfWay[] fows = FormOfWay.values();
+			TextEncoder encoder = new TextEncoder();
+			TextDecoder decoder = new TextDecoder();
+			StringBuilder builder = new StringBuilder();
+			LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+			LocationReferencePointBuilder lrpb = new LocationReferencePointBuilder();
+			for (int i = 0; i < 10000; i++) {
+				lrb.reset().setVersion((byte) 2);
+				int count = 2 + random.nextInt(4);
+				for (int j = 0; j < count - 1; j++) {
+					lrb.addLocationReferencePoint(lrpb.reset().setCoordinate(
+							random.nextFloat() * 360 - 180,
+							random.nextFloat() * 180 - 90).setFrc(
+							frcs[random.nextInt(8)]).setFow(
+							fows[random.nextInt(8)]).setLfrcnp(
+							frcs[random.nextInt(8)]).setBearing(
+							random.nextFloat() * 360).setDnp(
+							random.nextInt(15000)).build());
+				}
+				lrb.close(random.nextFloat() * 360 - 180,
+						random.nextFloat() * 180 - 90, frcs[random.nextInt(8)],
+						fows[random.nextInt(8)], random.nextInt(360));
+				lrb.setPositiveOffset(random.nextInt(500));
+				lrb.setNegativeOffset(random.nextInt(500));
+				LocationReference reference = lrb.build();
+
+				builder.setLength(0);
+				encoder.append(builder, reference);
+				assertEquals(reference, decoder.decode(builder));
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that malformed text is rejected
+	 */
+	@Test
+	public void testMalformed() {
+		TextDecoder decoder = new TextDecoder();
+		String[] texts = { "", //$NON-NLS-1$
+				"2:150:0", //$NON-NLS-1$
+				"2:150:0:6.12683,49.60851,3,2,135.0,3,561", //$NON-NLS-1$
+				"2:150:0:6.12683,49.60851,3,2,135.0,3,561;", //$NON-NLS-1$
+				"2:150:0:6.12683,49.60851,8,2,135.0,3,561;6.12817,49.60305,5,3,290.0", //$NON-NLS-1$
+				"2:150:0:6.12683,49.60851,3,2,1e,3,561;6.12817,49.60305,5,3,290.0", //$NON-NLS-1$
+				"2:150:0:6.12683,49.60851,3,2,135.0,3,5x;6.12817,49.60305,5,3,290.0", //$NON-NLS-1$
+				"2:99999999999:0:6.12683,49.60851,3,2,135.0,3,561;6.12817,49.60305,5,3,290.0", //$NON-NLS-1$
+				EXAMPLE + ";" }; //$NON-NLS-1$
+		for (String text : texts) {
+			try {
+				decoder.decode(text);
+				fail(text);
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package org.hhu.c2c.openlr.geo;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link GeoHelper}
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class GeoHelperTest {
+
+	/**
+	 * The longitudes of the location reference points of the example from the
+	 * technical report
+	 */
+	private static final float[] LONGITUDES = { 6.12683f, 6.12838f, 6.12817f };
+
+	/**
+	 * The latitudes of the location reference points of the example from the
+	 * technical report
+	 */
+	private static final float[] LATITUDES = { 49.60851f, 49.60398f, 49.60305f };
+
+	/**
+	 * Tests the haversine distance against a well known distance
+	 */
+	@Test
+	public void testHaversine() {
+		// Berlin to Paris
+		assertEquals(877464.5, GeoHelper.haversine(13.405, 52.52, 2.3522,
+				48.8566), 1);
+		assertEquals(0, GeoHelper.haversine(6.1, 49.6, 6.1, 49.6), 0);
+	}
+
+	/**
+	 * Tests if the fast mode stays close to the exact mode for distances
+	 * between consecutive location reference points
+	 */
+	@Test
+	public void testDistances() {
+		float[] exact = new float[LONGITUDES.length - 1];
+		float[] fast = new float[LONGITUDES.length - 1];
+		GeoHelper.distances(LONGITUDES, LATITUDES, 0, LONGITUDES.length, exact,
+				0, false);
+		GeoHelper.distances(LONGITUDES, LATITUDES, 0, LONGITUDES.length, fast,
+				0, true);
+
+		assertEquals(515.9, exact[0], 0.5);
+		assertEquals(104.5, exact[1], 0.5);
+		for (int i = 0; i < exact.length; i++) {
+			assertEquals(exact[i], fast[i], 0.5);
+		}
+		assertEquals(exact[0] + exact[1], GeoHelper.length(LONGITUDES,
+				LATITUDES, 0, LONGITUDES.length, false), 0.01);
+	}
+
+	/**
+	 * Tests the bearing for the cardinal directions in both modes
+	 */
+	@Test
+	public void testBearings() {
+		for (boolean fast : new boolean[] { false, true }) {
+			assertEquals(0, GeoHelper.bearing(6, 49, 6, 49.1, fast), 0.25);
+			assertEquals(90, GeoHelper.bearing(6, 49, 6.1, 49, fast), 0.25);
+			assertEquals(180, GeoHelper.bearing(6, 49, 6, 48.9, fast), 0.25);
+			assertEquals(270, GeoHelper.bearing(6, 49, 5.9, 49, fast), 0.25);
+		}
+
+		float[] exact = new float[LONGITUDES.length - 1];
+		float[] fast = new float[LONGITUDES.length - 1];
+		GeoHelper.bearings(LONGITUDES, LATITUDES, 0, LONGITUDES.length, exact,
+				0, false);
+		GeoHelper.bearings(LONGITUDES, LATITUDES, 0, LONGITUDES.length, fast,
+				0, true);
+		for (int i = 0; i < exact.length; i++) {
+			assertEquals(exact[i], fast[i], 0.25);
+		}
+	}
+
+	/**
+	 * Tests that both modes agree for positions on either side of the
+	 * antimeridian
+	 */
+	@Test
+	public void testAntimeridian() {
+		float[] longitudes = { 179.999f, -179.999f, 179.999f };
+		float[] latitudes = { -16.5f, -16.5f, -16.5f };
+		float[] exact = new float[longitudes.length - 1];
+		float[] fast = new float[longitudes.length - 1];
+		GeoHelper.distances(longitudes, latitudes, 0, longitudes.length,
+				exact, 0, false);
+		GeoHelper.distances(longitudes, latitudes, 0, longitudes.length, fast,
+				0, true);
+		for (int i = 0; i < exact.length; i++) {
+			assertEquals(214.7, exact[i], 0.5);
+			assertEquals(exact[i], fast[i], 0.5);
+		}
+
+		GeoHelper.bearings(longitudes, latitudes, 0, longitudes.length, exact,
+				0, false);
+		GeoHelper.bearings(longitudes, latitudes, 0, longitudes.length, fast,
+				0, true);
+		assertEquals(90, exact[0], 0.25);
+		assertEquals(270, exact[1], 0.25);
+		for (int i = 0; i < exact.length; i++) {
+			assertEquals(exact[i], fast[i], 0.25);
+		}
+	}
+
+	/**
+	 * Tests that too small result arrays are rejected
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testResultTooSmall() {
+		GeoHelper.distances(LONGITUDES, LATITUDES, 0, LONGITUDES.length,
+				new float[1], 0, true);
+	}
+}
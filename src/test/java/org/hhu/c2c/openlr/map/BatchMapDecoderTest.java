@@ -0,0 +1,206 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LATITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LONGITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.SIZE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferenceBuilder;
+import org.hhu.c2c.openlr.core.LocationReferencePointBuilder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link BatchMapDecoder}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class BatchMapDecoderTest {
+
+	/**
+	 * Tests that a batch is decoded in order and that a location reference
+	 * which can't be decoded doesn't affect the others
+	 */
+	@Test
+	public void testDecode() {
+		try {
+			RoadGraph graph = ExampleRoadGraph.asRoadGraph();
+			MapEncoder encoder = new MapEncoder(graph);
+			List<int[]> paths = new ArrayList<int[]>();
+			List<LocationReference> references = new ArrayList<LocationReference>();
+			for (int i = 0; i < SIZE; i++) {
+				// each row from west to east and each column from south to
+				// north
+				int[] row = new int[SIZE - 1];
+				int[] column = new int[SIZE - 1];
+				for (int j = 0; j + 1 < SIZE; j++) {
+					row[j] = edge(graph, node(i, j), node(i, j + 1));
+					column[j] = edge(graph, node(j, i), node(j + 1, i));
+				}
+				paths.add(row);
+				references.add(encoder.encode(row));
+				paths.add(column);
+				references.add(encoder.encode(column));
+			}
+			int failed = references.size() / 2;
+			paths.add(failed, null);
+			references.add(failed, farAway());
+
+			BatchMapDecoder decoder = new BatchMapDecoder(new SpatialIndex(
+					graph), new MatchingParametersBuilder().build(),
+					new ContractionHierarchyBuilder().setRoadGraph(graph)
+							.build(), new RouteCache(100), 3);
+			try {
+				for (int run = 0; run < 2; run++) {
+					List<BatchResult> results = decoder.decode(references);
+					assertEquals(references.size(), results.size());
+					for (int i = 0; i < results.size(); i++) {
+						BatchResult result = results.get(i);
+						assertEquals(i, result.getIndex());
+						if (i == failed) {
+							assertEquals(BatchResult.Status.FAILED, result
+									.getStatus());
+							assertNull(result.getPath());
+							assertNotNull(result.getException());
+						} else {
+							assertEquals(BatchResult.Status.DECODED, result
+									.getStatus());
+							assertArrayEquals(paths.get(i), result.getPath()
+									.getEdges());
+						}
+					}
+				}
+				MapDecoderStatistics statistics = decoder.getStatistics();
+				assertEquals(2 * (references.size() - 1), statistics
+						.getDecoded());
+				assertEquals(2, statistics.getFailed());
+			} finally {
+				decoder.shutdown();
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that an unexpected exception while decoding a location reference
+	 * is reported as an error of that location reference only
+	 */
+	@Test
+	public void testError() {
+		try {
+			RoadGraph graph = ExampleRoadGraph.asRoadGraph();
+			int[] row = new int[SIZE - 1];
+			for (int j = 0; j + 1 < SIZE; j++) {
+				row[j] = edge(graph, node(3, j), node(3, j + 1));
+			}
+			List<LocationReference> references = new ArrayList<LocationReference>();
+			references.add(new MapEncoder(graph).encode(row));
+			references.add(null);
+
+			BatchMapDecoder decoder = new BatchMapDecoder(new SpatialIndex(
+					graph), new MatchingParametersBuilder().build(), 2);
+			try {
+				List<BatchResult> results = decoder.decode(references);
+				assertEquals(2, results.size());
+				assertEquals(BatchResult.Status.DECODED, results.get(0)
+						.getStatus());
+				assertArrayEquals(row, results.get(0).getPath().getEdges());
+				assertEquals(BatchResult.Status.ERROR, results.get(1)
+						.getStatus());
+				assertNull(results.get(1).getPath());
+				assertTrue(results.get(1).getException() instanceof RuntimeException);
+			} finally {
+				decoder.shutdown();
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that an empty batch gives an empty result
+	 */
+	@Test
+	public void testEmpty() {
+		try {
+			RoadGraph graph = ExampleRoadGraph.asRoadGraph();
+			BatchMapDecoder decoder = new BatchMapDecoder(new SpatialIndex(
+					graph), new MatchingParametersBuilder().build(), 2);
+			try {
+				assertTrue(decoder.decode(new ArrayList<LocationReference>())
+						.isEmpty());
+				assertEquals(0, decoder.getStatistics().getDecoded());
+			} finally {
+				decoder.shutdown();
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that no batch can be decoded after the batch map decoder has been
+	 * shut down
+	 */
+	@Test
+	public void testShutdown() {
+		try {
+			RoadGraph graph = ExampleRoadGraph.asRoadGraph();
+			BatchMapDecoder decoder = new BatchMapDecoder(new SpatialIndex(
+					graph), new MatchingParametersBuilder().build(), 2);
+			decoder.shutdown();
+			List<LocationReference> references = new ArrayList<LocationReference>();
+			references.add(farAway());
+			decoder.decode(references);
+			fail("Decoded a batch after the shutdown");
+		} catch (IllegalStateException e) {
+			// expected
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a location reference far away from the road graph
+	 *
+	 * @return the location reference
+	 * @throws LocationReferenceException
+	 *             if the location reference is invalid
+	 */
+	private LocationReference farAway() throws LocationReferenceException {
+		LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+		lrb.addLocationReferencePoint(new LocationReferencePointBuilder()
+				.setCoordinate(LONGITUDE + 1, LATITUDE + 1).setFrc(
+						FunctionalRoadClass.SECOND_CLASS_ROAD).setFow(
+						FormOfWay.MULTIPLE_CARRIAGEWAY).setLfrcnp(
+						FunctionalRoadClass.SECOND_CLASS_ROAD).setBearing(90)
+				.setDnp(200).build());
+		lrb.close(LONGITUDE + 1.002f, LATITUDE + 1,
+				FunctionalRoadClass.SECOND_CLASS_ROAD,
+				FormOfWay.MULTIPLE_CARRIAGEWAY, 270);
+		return lrb.build();
+	}
+}
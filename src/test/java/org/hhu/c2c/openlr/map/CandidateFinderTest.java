@@ -0,0 +1,175 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LATITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LONGITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.STEP;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link CandidateFinder}, {@link CandidateList} and
+ * {@link SpatialIndex}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class CandidateFinderTest {
+
+	/**
+	 * The byte representation of the functional road class of the major roads
+	 */
+	private static final int FRC = FunctionalRoadClass.SECOND_CLASS_ROAD
+			.getByteRepresentation();
+
+	/**
+	 * The byte representation of the form of way of the major roads
+	 */
+	private static final int FOW = FormOfWay.MULTIPLE_CARRIAGEWAY
+			.getByteRepresentation();
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The spatial index, using small cells to span several of them
+	 */
+	private SpatialIndex index;
+
+	/**
+	 * Builds the road graph and its index
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			index = new SpatialIndex(graph, 0.001f);
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that a point next to the middle of a line finds the line heading
+	 * in the same direction, but not the one in the opposite direction
+	 */
+	@Test
+	public void testFind() {
+		try {
+			CandidateFinder finder = new CandidateFinder(index,
+					new MatchingParametersBuilder().build());
+			CandidateList candidates = new CandidateList(1);
+
+			int edge = edge(graph, node(3, 2), node(3, 3));
+			finder.find(LONGITUDE + 2.5f * STEP, LATITUDE + 3 * STEP + 0.0001f,
+					90, FRC, FOW, false, candidates);
+
+			assertTrue(candidates.size() > 0);
+			assertEquals(edge, candidates.getEdge(0));
+			assertEquals(graph.getLength(edge) / 2, candidates.getOffset(0), 1);
+			assertTrue(candidates.getScore(0) > 0.9f);
+
+			for (int i = 1; i < candidates.size(); i++) {
+				assertTrue(candidates.getScore(i - 1) >= candidates.getScore(i));
+				assertTrue(candidates.getEdge(i) != edge(graph, node(3, 3),
+						node(3, 2)));
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the bearing of the last location reference point is measured
+	 * against the direction of the line
+	 */
+	@Test
+	public void testFindLast() {
+		try {
+			CandidateFinder finder = new CandidateFinder(index,
+					new MatchingParametersBuilder().build());
+			CandidateList candidates = new CandidateList(1);
+
+			finder.find(LONGITUDE + 2.5f * STEP, LATITUDE + 3 * STEP, 270, FRC,
+					FOW, true, candidates);
+			assertEquals(edge(graph, node(3, 2), node(3, 3)), candidates
+					.getEdge(0));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that a point on a node finds the line starting there, but not the
+	 * one ending there
+	 */
+	@Test
+	public void testFindOnNode() {
+		try {
+			CandidateFinder finder = new CandidateFinder(index,
+					new MatchingParametersBuilder().build());
+			CandidateList candidates = new CandidateList(1);
+
+			finder.find(LONGITUDE + 3 * STEP, LATITUDE + 3 * STEP, 0, FRC, FOW,
+					false, candidates);
+			assertEquals(edge(graph, node(3, 3), node(4, 3)), candidates
+					.getEdge(0));
+			assertEquals(0, candidates.getOffset(0));
+			for (int i = 0; i < candidates.size(); i++) {
+				assertTrue(candidates.getEdge(i) != edge(graph, node(2, 3),
+						node(3, 3)));
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that no candidates are found far away from the road graph and
+	 * that the number of candidates is limited
+	 */
+	@Test
+	public void testLimits() {
+		try {
+			CandidateList candidates = new CandidateList(1);
+			CandidateFinder finder = new CandidateFinder(index,
+					new MatchingParametersBuilder().setCandidateRadius(1000)
+							.setMaximumBearingDifference(180)
+							.setMaximumCandidates(3).build());
+
+			finder.find(LONGITUDE + 3 * STEP, LATITUDE + 3 * STEP, 0, FRC, FOW,
+					false, candidates);
+			assertEquals(3, candidates.size());
+
+			finder.find(LONGITUDE - 1, LATITUDE, 0, FRC, FOW, false,
+					candidates);
+			assertTrue(candidates.isEmpty());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that invalid parameters are rejected
+	 */
+	@Test
+	public void testInvalidParameters() {
+		try {
+			new MatchingParametersBuilder().setMaximumBearingDifference(200)
+					.build();
+			fail("Bearing difference accepted");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+	}
+}
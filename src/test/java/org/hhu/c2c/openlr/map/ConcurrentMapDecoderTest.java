@@ -0,0 +1,258 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.SIZE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConcurrentMapDecoder} and {@link DecodingContextBuilder}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ConcurrentMapDecoderTest {
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The middle row from west to east
+	 */
+	private int[] path;
+
+	/**
+	 * The location reference of the middle row
+	 */
+	private LocationReference reference;
+
+	/**
+	 * Builds the road graph and encodes the middle row
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			path = new int[SIZE - 1];
+			for (int column = 0; column + 1 < SIZE; column++) {
+				path[column] = edge(graph, node(SIZE / 2, column), node(
+						SIZE / 2, column + 1));
+			}
+			reference = new MapEncoder(graph).encode(path);
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that a new context is used by the next decode call and that a
+	 * context derived from an outdated one isn't published
+	 */
+	@Test
+	public void testSetContext() {
+		try {
+			RoadGraphUpdater updater = new RoadGraphUpdater(new SpatialIndex(
+					graph));
+			DecodingContext initial = new DecodingContextBuilder().setIndex(
+					updater.getIndex()).setParameters(
+					new MatchingParametersBuilder().build()).build();
+			ConcurrentMapDecoder decoder = new ConcurrentMapDecoder(initial);
+			assertArrayEquals(path, decoder.decode(reference).getEdges());
+
+			// close a road of the location
+			SpatialIndex index = updater.apply(updater.newDelta().removeEdge(
+					path[2]));
+			DecodingContext updated = new DecodingContextBuilder().setContext(
+					initial).setIndex(index).build();
+			assertTrue(decoder.compareAndSetContext(initial, updated));
+			assertSame(updated, decoder.getContext());
+			DecodingContext outdated = new DecodingContextBuilder().setContext(
+					initial).build();
+			assertFalse(decoder.compareAndSetContext(initial, outdated));
+			assertSame(updated, decoder.getContext());
+
+			try {
+				int[] edges = decoder.decode(reference).getEdges();
+				assertFalse(Arrays.equals(path, edges));
+				for (int edge : edges) {
+					assertTrue(edge != path[2]);
+				}
+			} catch (LocationReferenceException e) {
+				// no detour within the distance tolerance
+			}
+
+			assertSame(updated, decoder.setContext(initial));
+			assertArrayEquals(path, decoder.decode(reference).getEdges());
+			assertEquals(3, decoder.getStatistics().getDecoded()
+					+ decoder.getStatistics().getFailed());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the route cache is dropped when a context is derived for an
+	 * updated road graph
+	 */
+	@Test
+	public void testRouteCacheOfUpdatedGraph() {
+		try {
+			RoadGraphUpdater updater = new RoadGraphUpdater(new SpatialIndex(
+					graph));
+			RouteCache cache = new RouteCache(100);
+			DecodingContext initial = new DecodingContextBuilder().setIndex(
+					updater.getIndex()).setParameters(
+					new MatchingParametersBuilder().build()).setRouteCache(
+					cache).build();
+			assertSame(cache, new DecodingContextBuilder().setContext(initial)
+					.setIndex(new SpatialIndex(graph)).build().getCache());
+
+			SpatialIndex index = updater.apply(updater.newDelta().removeEdge(
+					path[2]));
+			assertNull(new DecodingContextBuilder().setContext(initial)
+					.setIndex(index).build().getCache());
+			RouteCache updated = new RouteCache(100);
+			assertSame(updated, new DecodingContextBuilder().setContext(
+					initial).setIndex(index).setRouteCache(updated).build()
+					.getCache());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that decoding threads keep decoding correctly while the context
+	 * is replaced over and over again
+	 */
+	@Test
+	public void testConcurrentReplace() {
+		try {
+			SpatialIndex index = new SpatialIndex(graph);
+			final DecodingContext[] contexts = new DecodingContext[] {
+					new DecodingContextBuilder().setIndex(index).setParameters(
+							new MatchingParametersBuilder().build()).build(),
+					new DecodingContextBuilder().setIndex(index).setParameters(
+							new MatchingParametersBuilder()
+									.setCandidateRadius(50)
+									.setMaximumBearingDifference(30).build())
+							.setHierarchy(
+									new ContractionHierarchyBuilder()
+											.setRoadGraph(graph).build())
+							.setRouteCache(new RouteCache(100)).build() };
+			final ConcurrentMapDecoder decoder = new ConcurrentMapDecoder(
+					contexts[0]);
+			final int runs = 200;
+			final AtomicInteger errors = new AtomicInteger();
+			Thread[] threads = new Thread[4];
+			for (int t = 0; t < threads.length; t++) {
+				threads[t] = new Thread() {
+					@Override
+					public void run() {
+						for (int run = 0; run < runs; run++) {
+							try {
+								if (!Arrays.equals(path, decoder.decode(
+										reference).getEdges())) {
+									errors.incrementAndGet();
+								}
+							} catch (LocationReferenceException e) {
+								errors.incrementAndGet();
+							}
+						}
+					}
+				};
+				threads[t].start();
+			}
+			for (int run = 0; run < runs; run++) {
+				decoder.setContext(contexts[run % 2]);
+				Thread.yield();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			assertEquals(0, errors.get());
+			assertEquals(threads.length * runs, decoder.getStatistics()
+					.getDecoded());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that releasing the decoder of a thread keeps its statistics and
+	 * that the thread can decode again afterwards
+	 */
+	@Test
+	public void testRelease() {
+		try {
+			ConcurrentMapDecoder decoder = new ConcurrentMapDecoder(
+					new DecodingContextBuilder().setIndex(
+							new SpatialIndex(graph)).setParameters(
+							new MatchingParametersBuilder().build())
+							.setHierarchy(
+									new ContractionHierarchyBuilder()
+											.setRoadGraph(graph).build())
+							.build());
+			assertArrayEquals(path, decoder.decode(reference).getEdges());
+			decoder.release();
+			assertEquals(1, decoder.getStatistics().getDecoded());
+			assertArrayEquals(path, decoder.decode(reference).getEdges());
+			assertEquals(2, decoder.getStatistics().getDecoded());
+			decoder.release();
+			decoder.release();
+			assertEquals(2, decoder.getStatistics().getDecoded());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that an incomplete or inconsistent context is rejected
+	 */
+	@Test
+	public void testInvalidContext() {
+		try {
+			new DecodingContextBuilder().setParameters(
+					new MatchingParametersBuilder().build()).build();
+			fail("Expected LocationReferenceException");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+		try {
+			new DecodingContextBuilder().setIndex(new SpatialIndex(graph))
+					.build();
+			fail("Expected LocationReferenceException");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+		try {
+			RoadGraph other = ExampleRoadGraph.asRoadGraph();
+			new DecodingContextBuilder().setIndex(new SpatialIndex(graph))
+					.setParameters(new MatchingParametersBuilder().build())
+					.setHierarchy(
+							new ContractionHierarchyBuilder().setRoadGraph(
+									other).build()).build();
+			fail("Expected LocationReferenceException");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ContractionHierarchyBuilder} and {@link HierarchyRouter}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ContractionHierarchyTest {
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The contraction hierarchy
+	 */
+	private ContractionHierarchy hierarchy;
+
+	/**
+	 * Builds the road graph and its contraction hierarchy
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			hierarchy = new ContractionHierarchyBuilder().setRoadGraph(graph)
+					.build();
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the hierarchy router finds routes as short as the Dijkstra
+	 * router, for all pairs of nodes and functional road classes
+	 */
+	@Test
+	public void testRoute() {
+		assertRoutes(hierarchy);
+	}
+
+	/**
+	 * Tests that a contraction hierarchy survives writing and reading
+	 */
+	@Test
+	public void testWriteRead() {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new RoadGraphWriter().write(out, hierarchy);
+			ContractionHierarchy read = new RoadGraphReader().readHierarchy(
+					new ByteArrayInputStream(out.toByteArray()), graph);
+
+			assertEquals(hierarchy.getArcCount(), read.getArcCount());
+			for (int node = 0; node < graph.getNodeCount(); node++) {
+				assertEquals(hierarchy.getRank(node), read.getRank(node));
+			}
+			assertRoutes(read);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that reading a road graph as contraction hierarchy fails
+	 */
+	@Test(expected = IOException.class)
+	public void testReadRoadGraph() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new RoadGraphWriter().write(out, graph);
+		new RoadGraphReader().readHierarchy(new ByteArrayInputStream(out
+				.toByteArray()), graph);
+	}
+
+	/**
+	 * Tests decoding with the hierarchy router
+	 */
+	@Test
+	public void testDecode() {
+		try {
+			int[] edges = new int[] { edge(graph, node(3, 0), node(3, 1)),
+					edge(graph, node(3, 1), node(3, 2)),
+					edge(graph, node(3, 2), node(2, 2)),
+					edge(graph, node(2, 2), node(1, 2)) };
+			LocationReference reference = new MapEncoder(new HierarchyRouter(
+					hierarchy)).encode(edges);
+			MapDecoder decoder = new MapDecoder(new SpatialIndex(graph),
+					new MatchingParametersBuilder().build(),
+					new HierarchyRouter(hierarchy));
+			assertArrayEquals(edges, decoder.decode(reference).getEdges());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Compares the routes of a hierarchy router on the given contraction
+	 * hierarchy with those of a Dijkstra router
+	 *
+	 * @param hierarchy
+	 *            the contraction hierarchy
+	 */
+	private void assertRoutes(final ContractionHierarchy hierarchy) {
+		Router expected = new DijkstraRouter(graph);
+		Router actual = new HierarchyRouter(hierarchy);
+		IntList expectedPath = new IntList();
+		IntList actualPath = new IntList();
+		for (int frc = 0; frc < 8; frc++) {
+			for (int source = 0; source < graph.getNodeCount(); source++) {
+				for (int target = 0; target < graph.getNodeCount(); target++) {
+					int length = expected.route(source, target, frc,
+							Integer.MAX_VALUE, expectedPath);
+					assertEquals(length, actual.route(source, target, frc,
+							Integer.MAX_VALUE, actualPath));
+					if (length == Router.NO_ROUTE) {
+						continue;
+					}
+					assertPath(source, target, frc, length, actualPath);
+
+					// the maximum length is respected
+					assertEquals(length == 0 ? 0 : Router.NO_ROUTE, actual
+							.route(source, target, frc, length - 1, actualPath));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Asserts that the given path is a path of the road graph
+	 *
+	 * @param source
+	 *            the start node
+	 * @param target
+	 *            the end node
+	 * @param frc
+	 *            the least important functional road class allowed
+	 * @param length
+	 *            the expected length
+	 * @param path
+	 *            the path
+	 */
+	private void assertPath(final int source, final int target, final int frc,
+			final int length, final IntList path) {
+		int node = source;
+		int sum = 0;
+		for (int i = 0; i < path.size(); i++) {
+			int edge = path.get(i);
+			assertEquals(node, graph.getSource(edge));
+			assertTrue(graph.getFrc(edge) <= frc);
+			node = graph.getTarget(edge);
+			sum += graph.getLength(edge);
+		}
+		assertEquals(target, node);
+		assertEquals(length, sum);
+	}
+}
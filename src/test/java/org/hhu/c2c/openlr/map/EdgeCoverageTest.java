@@ -0,0 +1,131 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link EdgeCoverage}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class EdgeCoverageTest {
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * Builds the road graph
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests the overlap of two paths along the same row, one starting and
+	 * ending within an edge of the other
+	 */
+	@Test
+	public void testOverlap() {
+		int[] row = new int[5];
+		for (int column = 0; column < row.length; column++) {
+			row[column] = edge(graph, node(3, column), node(3, column + 1));
+		}
+		EdgeCoverage first = coverage(row, 0, 4, 0, 0);
+		EdgeCoverage second = coverage(row, 2, 5, 30, 40);
+
+		int length = 0;
+		for (int edge : row) {
+			length += graph.getLength(edge);
+		}
+		assertEquals(length - graph.getLength(row[4]), first.getLength());
+		assertEquals(graph.getLength(row[2]) + graph.getLength(row[3])
+				+ graph.getLength(row[4]) - 70, second.getLength());
+
+		int overlap = graph.getLength(row[2]) - 30 + graph.getLength(row[3]);
+		assertEquals(overlap, first.getOverlap(second));
+		assertEquals(overlap, second.getOverlap(first));
+		assertTrue(first.overlaps(second));
+		assertEquals((float) overlap / first.getLength(), first
+				.getCoverage(second), 0.0001f);
+		assertEquals(1f, first.getCoverage(first), 0.0001f);
+	}
+
+	/**
+	 * Tests that paths in opposite directions along the same road don't
+	 * overlap
+	 */
+	@Test
+	public void testOppositeDirection() {
+		EdgeCoverage east = coverage(new int[] {
+				edge(graph, node(3, 2), node(3, 3)),
+				edge(graph, node(3, 3), node(3, 4)) }, 0, 2, 0, 0);
+		EdgeCoverage west = coverage(new int[] {
+				edge(graph, node(3, 4), node(3, 3)),
+				edge(graph, node(3, 3), node(3, 2)) }, 0, 2, 0, 0);
+		assertEquals(0, east.getOverlap(west));
+		assertFalse(east.overlaps(west));
+		assertEquals(0f, west.getCoverage(east), 0f);
+	}
+
+	/**
+	 * Tests that an edge covered twice by a path turning back is split into
+	 * two intervals if the offsets don't meet
+	 */
+	@Test
+	public void testTurningBack() {
+		int there = edge(graph, node(0, 0), node(0, 1));
+		int back = edge(graph, node(0, 1), node(0, 0));
+		int length = graph.getLength(there);
+		EdgeCoverage coverage = coverage(new int[] { there, back, there }, 0,
+				3, length - 20, length - 10);
+
+		assertEquals(3, coverage.getIntervalCount());
+		assertEquals(20 + graph.getLength(back) + 10, coverage.getLength());
+		EdgeCoverage whole = coverage(new int[] { there }, 0, 1, 0, 0);
+		assertEquals(30, coverage.getOverlap(whole));
+		assertEquals(30, whole.getOverlap(coverage));
+	}
+
+	/**
+	 * Returns the coverage of a part of the given edges
+	 *
+	 * @param edges
+	 *            the edges
+	 * @param from
+	 *            the index of the first edge of the path
+	 * @param to
+	 *            the index after the last edge of the path
+	 * @param positiveOffset
+	 *            the positive offset in meters
+	 * @param negativeOffset
+	 *            the negative offset in meters
+	 * @return the coverage
+	 */
+	private EdgeCoverage coverage(final int[] edges, final int from,
+			final int to, final int positiveOffset, final int negativeOffset) {
+		int[] path = new int[to - from];
+		int length = -positiveOffset - negativeOffset;
+		for (int i = from; i < to; i++) {
+			path[i - from] = edges[i];
+			length += graph.getLength(edges[i]);
+		}
+		return new EdgeCoverage(graph, new MatchedPath(path, positiveOffset,
+				negativeOffset, length));
+	}
+}
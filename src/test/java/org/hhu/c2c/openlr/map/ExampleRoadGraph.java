@@ -0,0 +1,130 @@
+package org.hhu.c2c.openlr.map;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+
+/**
+ * A small road graph used by the tests of the map package. The nodes form a
+ * regular grid around the example location of the technical report. Every two
+ * neighbouring nodes are connected by a pair of edges, one in each direction.
+ * The middle row and the middle column are second class roads, all others are
+ * fifth class roads.
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class ExampleRoadGraph {
+
+	/**
+	 * The number of rows and columns of the grid
+	 */
+	protected static final int SIZE = 7;
+
+	/**
+	 * The longitude of the south west corner of the grid
+	 */
+	protected static final float LONGITUDE = 6.12f;
+
+	/**
+	 * The latitude of the south west corner of the grid
+	 */
+	protected static final float LATITUDE = 49.60f;
+
+	/**
+	 * The distance between two neighbouring nodes in degree, about 220 meters
+	 * in north-south direction and about 145 meters in east-west direction
+	 */
+	protected static final float STEP = 0.002f;
+
+	/**
+	 * Returns the id of the node in the given row and column
+	 * 
+	 * @param row
+	 *            the row, counting from south to north
+	 * @param column
+	 *            the column, counting from west to east
+	 * @return the node id
+	 */
+	protected static int node(final int row, final int column) {
+		return row * SIZE + column;
+	}
+
+	/**
+	 * Returns the edge between the two given nodes
+	 * 
+	 * @param graph
+	 *            the road graph
+	 * @param source
+	 *            the source node
+	 * @param target
+	 *            the target node
+	 * @return the edge id
+	 * @throws IllegalArgumentException
+	 *             if there is no such edge
+	 */
+	protected static int edge(final RoadGraph graph, final int source,
+			final int target) {
+		for (int i = graph.getOutgoingStart(source); i < graph
+				.getOutgoingEnd(source); i++) {
+			int edge = graph.getOutgoingEdge(i);
+			if (graph.getTarget(edge) == target) {
+				return edge;
+			}
+		}
+		throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Returns the grid as a road graph
+	 * 
+	 * @return the grid as a road graph
+	 * @throws LocationReferenceException
+	 *             if the road graph can't be built
+	 */
+	protected static RoadGraph asRoadGraph() throws LocationReferenceException {
+		RoadGraphBuilder builder = new RoadGraphBuilder();
+		for (int row = 0; row < SIZE; row++) {
+			for (int column = 0; column < SIZE; column++) {
+				builder.addNode(LONGITUDE + column * STEP, LATITUDE + row
+						* STEP);
+			}
+		}
+		for (int row = 0; row < SIZE; row++) {
+			for (int column = 0; column < SIZE; column++) {
+				if (column + 1 < SIZE) {
+					addEdges(builder, node(row, column), node(row, column + 1),
+							row == SIZE / 2);
+				}
+				if (row + 1 < SIZE) {
+					addEdges(builder, node(row, column), node(row + 1, column),
+							column == SIZE / 2);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Adds a pair of edges between the two nodes
+	 * 
+	 * @param builder
+	 *            the builder
+	 * @param a
+	 *            the first node
+	 * @param b
+	 *            the second node
+	 * @param major
+	 *            <code>true</code> for a second class road, <code>false</code>
+	 *            for a fifth class road
+	 */
+	private static void addEdges(final RoadGraphBuilder builder, final int a,
+			final int b, final boolean major) {
+		FunctionalRoadClass frc = major ? FunctionalRoadClass.SECOND_CLASS_ROAD
+				: FunctionalRoadClass.FIFTH_CLASS_ROAD;
+		FormOfWay fow = major ? FormOfWay.MULTIPLE_CARRIAGEWAY
+				: FormOfWay.SINGLE_CARRIAGEWAY;
+		builder.addEdge(a, b, frc, fow, null, null);
+		builder.addEdge(b, a, frc, fow, null, null);
+	}
+}
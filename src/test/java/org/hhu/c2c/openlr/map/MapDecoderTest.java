@@ -0,0 +1,291 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LATITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LONGITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.STEP;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.core.LocationReferenceBuilder;
+import org.hhu.c2c.openlr.core.LocationReferencePointBuilder;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link MapDecoder} and {@link DijkstraRouter}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MapDecoderTest {
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The decoder
+	 */
+	private MapDecoder decoder;
+
+	/**
+	 * Builds the road graph and the decoder
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			decoder = new MapDecoder(new SpatialIndex(graph),
+					new MatchingParametersBuilder().setFrcVariance(0).build());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests a location along the middle row, from west to east
+	 */
+	@Test
+	public void testDecode() {
+		try {
+			int[] edges = edges(node(3, 0), node(3, 1), node(3, 2), node(3, 3),
+					node(3, 4));
+			LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+			add(lrb, 3, 0, 90, FunctionalRoadClass.SECOND_CLASS_ROAD,
+					length(edges));
+			close(lrb, 3, 4, 270);
+
+			MatchedPath path = decoder.decode(lrb.build());
+			assertArrayEquals(edges, path.getEdges());
+			assertEquals(0, path.getPositiveOffset());
+			assertEquals(0, path.getNegativeOffset());
+			assertEquals(length(edges), path.getLength());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests a location turning from the middle row into the middle column,
+	 * using an intermediate location reference point
+	 */
+	@Test
+	public void testDecodeIntermediate() {
+		try {
+			int[] west = edges(node(3, 0), node(3, 1), node(3, 2), node(3, 3));
+			int[] north = edges(node(3, 3), node(4, 3), node(5, 3), node(6, 3));
+			LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+			add(lrb, 3, 0, 90, FunctionalRoadClass.SECOND_CLASS_ROAD,
+					length(west));
+			add(lrb, 3, 3, 0, FunctionalRoadClass.SECOND_CLASS_ROAD,
+					length(north));
+			close(lrb, 6, 3, 180);
+
+			MatchedPath path = decoder.decode(lrb.build());
+			assertEquals(west.length + north.length, path.getEdgeCount());
+			assertEquals(west[0], path.getEdge(0));
+			assertEquals(north[0], path.getEdge(west.length));
+			assertEquals(length(west) + length(north), path.getLength());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the offsets remove edges and are kept relative to the
+	 * remaining edges
+	 */
+	@Test
+	public void testOffsets() {
+		try {
+			int[] edges = edges(node(3, 0), node(3, 1), node(3, 2), node(3, 3),
+					node(3, 4));
+			LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+			add(lrb, 3, 0, 90, FunctionalRoadClass.SECOND_CLASS_ROAD,
+					length(edges));
+			close(lrb, 3, 4, 270);
+			int first = graph.getLength(edges[0]);
+			lrb.setPositiveOffset(first + 10).setNegativeOffset(20);
+
+			MatchedPath path = decoder.decode(lrb.build());
+			assertEquals(edges.length - 1, path.getEdgeCount());
+			assertEquals(edges[1], path.getEdge(0));
+			assertEquals(10, path.getPositiveOffset());
+			assertEquals(20, path.getNegativeOffset());
+			assertEquals(length(edges) - first - 30, path.getLength());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the distance to the next point and the lowest functional road
+	 * class to the next point are respected
+	 */
+	@Test
+	public void testNoRoute() {
+		int[] edges = edges(node(0, 0), node(0, 1), node(0, 2), node(0, 3));
+		try {
+			// the bottom row consists of fifth class roads only
+			LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+			add(lrb, 0, 0, 90, FunctionalRoadClass.SECOND_CLASS_ROAD,
+					length(edges));
+			close(lrb, 0, 3, 270);
+			decoder.decode(lrb.build());
+			fail("Route uses roads below the lowest functional road class");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		try {
+			LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+			add(lrb, 0, 0, 90, FunctionalRoadClass.FIFTH_CLASS_ROAD,
+					length(edges) + 500);
+			close(lrb, 0, 3, 270);
+			decoder.decode(lrb.build());
+			fail("Route doesn't match the distance to the next point");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+
+		assertEquals(0, decoder.getStatistics().getDecoded());
+		assertEquals(2, decoder.getStatistics().getFailed());
+		assertTrue(decoder.getStatistics().getRoutes() > 0);
+	}
+
+	/**
+	 * Tests that the decoder backtracks if the best candidate of an
+	 * intermediate location reference point is a dead end. The point lies on
+	 * the fork of a road straight to the east, which ends after one block, and
+	 * a road turning slightly to the north, which leads to the last point.
+	 */
+	@Test
+	public void testBacktracking() {
+		try {
+			float north = STEP / 5;
+			graph = new RoadGraphBuilder()
+					.addNode(LONGITUDE, LATITUDE)
+					.addNode(LONGITUDE + STEP, LATITUDE)
+					.addNode(LONGITUDE + 2 * STEP, LATITUDE)
+					.addNode(LONGITUDE + 2 * STEP, LATITUDE + north)
+					.addNode(LONGITUDE + 2 * STEP, LATITUDE + north + STEP)
+					.addEdge(0, 1, FunctionalRoadClass.SECOND_CLASS_ROAD,
+							FormOfWay.MULTIPLE_CARRIAGEWAY, null, null)
+					.addEdge(1, 2, FunctionalRoadClass.SECOND_CLASS_ROAD,
+							FormOfWay.MULTIPLE_CARRIAGEWAY, null, null)
+					.addEdge(1, 3, FunctionalRoadClass.SECOND_CLASS_ROAD,
+							FormOfWay.MULTIPLE_CARRIAGEWAY, null, null)
+					.addEdge(3, 4, FunctionalRoadClass.SECOND_CLASS_ROAD,
+							FormOfWay.MULTIPLE_CARRIAGEWAY, null, null)
+					.build();
+			decoder = new MapDecoder(new SpatialIndex(graph),
+					new MatchingParametersBuilder().setFrcVariance(0).build());
+			int[] first = edges(0, 1);
+			int[] second = edges(1, 3, 4);
+
+			LocationReferenceBuilder lrb = new LocationReferenceBuilder();
+			add(lrb, 0, 0, 90, FunctionalRoadClass.SECOND_CLASS_ROAD,
+					length(first));
+			add(lrb, 0, 1, 90, FunctionalRoadClass.SECOND_CLASS_ROAD,
+					length(second));
+			lrb.close(LONGITUDE + 2 * STEP, LATITUDE + north + STEP,
+					FunctionalRoadClass.SECOND_CLASS_ROAD,
+					FormOfWay.MULTIPLE_CARRIAGEWAY, 180);
+
+			MatchedPath path = decoder.decode(lrb.build());
+			assertArrayEquals(edges(0, 1, 3, 4), path.getEdges());
+			assertEquals(length(first) + length(second), path.getLength());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Adds a location reference point on the given node
+	 *
+	 * @param lrb
+	 *            the location reference builder
+	 * @param row
+	 *            the row of the node
+	 * @param column
+	 *            the column of the node
+	 * @param bearing
+	 *            the bearing
+	 * @param lfrcnp
+	 *            the lowest functional road class to the next point
+	 * @param dnp
+	 *            the distance to the next point
+	 * @throws LocationReferenceException
+	 *             if the point is invalid
+	 */
+	private void add(final LocationReferenceBuilder lrb, final int row,
+			final int column, final float bearing,
+			final FunctionalRoadClass lfrcnp, final int dnp)
+			throws LocationReferenceException {
+		lrb.addLocationReferencePoint(new LocationReferencePointBuilder()
+				.setCoordinate(LONGITUDE + column * STEP, LATITUDE + row * STEP)
+				.setFrc(FunctionalRoadClass.SECOND_CLASS_ROAD).setFow(
+						FormOfWay.MULTIPLE_CARRIAGEWAY).setLfrcnp(lfrcnp)
+				.setBearing(bearing).setDnp(dnp).build());
+	}
+
+	/**
+	 * Adds the last location reference point on the given node
+	 *
+	 * @param lrb
+	 *            the location reference builder
+	 * @param row
+	 *            the row of the node
+	 * @param column
+	 *            the column of the node
+	 * @param bearing
+	 *            the bearing
+	 * @throws LocationReferenceException
+	 *             if the point is invalid
+	 */
+	private void close(final LocationReferenceBuilder lrb, final int row,
+			final int column, final float bearing)
+			throws LocationReferenceException {
+		lrb.close(LONGITUDE + column * STEP, LATITUDE + row * STEP,
+				FunctionalRoadClass.SECOND_CLASS_ROAD,
+				FormOfWay.MULTIPLE_CARRIAGEWAY, bearing);
+	}
+
+	/**
+	 * Returns the edges connecting the given nodes
+	 *
+	 * @param nodes
+	 *            the nodes
+	 * @return the edges
+	 */
+	private int[] edges(final int... nodes) {
+		int[] edges = new int[nodes.length - 1];
+		for (int i = 0; i < edges.length; i++) {
+			edges[i] = edge(graph, nodes[i], nodes[i + 1]);
+		}
+		return edges;
+	}
+
+	/**
+	 * Returns the total length of the given edges
+	 *
+	 * @param edges
+	 *            the edges
+	 * @return the length in meters
+	 */
+	private int length(final int[] edges) {
+		int length = 0;
+		for (int edge : edges) {
+			length += graph.getLength(edge);
+		}
+		return length;
+	}
+}
@@ -0,0 +1,186 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.core.LocationReferencePoint;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link MapEncoder}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class MapEncoderTest {
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The encoder
+	 */
+	private MapEncoder encoder;
+
+	/**
+	 * The decoder
+	 */
+	private MapDecoder decoder;
+
+	/**
+	 * Builds the road graph, the encoder and the decoder
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			encoder = new MapEncoder(graph);
+			decoder = new MapDecoder(new SpatialIndex(graph),
+					new MatchingParametersBuilder().build());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that a shortest path is encoded by two location reference points
+	 */
+	@Test
+	public void testEncode() {
+		try {
+			int[] edges = edges(node(3, 0), node(3, 1), node(3, 2), node(3, 3));
+			LocationReference reference = encoder.encode(edges);
+			List<LocationReferencePoint> points = reference
+					.getLocationReferencePoints();
+
+			assertEquals(2, points.size());
+			LocationReferencePoint first = points.get(0);
+			assertEquals(graph.getNodeLongitude(node(3, 0)), first
+					.getCoordinate().getLongitude(), 0.00001f);
+			assertEquals(FunctionalRoadClass.SECOND_CLASS_ROAD, first
+					.getFunctionalRoadClass());
+			assertEquals(FunctionalRoadClass.SECOND_CLASS_ROAD, first
+					.getLowestFRCToNextPoint());
+			assertEquals(FormOfWay.MULTIPLE_CARRIAGEWAY, first.getFormOfWay());
+			assertEquals(90, first.getBearing().getBearing(), 1);
+			assertEquals(length(edges), first.getDistanceToNextPoint()
+					.getDistance());
+			assertEquals(270, points.get(1).getBearing().getBearing(), 1);
+
+			assertArrayEquals(edges, decoder.decode(reference).getEdges());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that intermediate location reference points are inserted where
+	 * the path deviates from the shortest path
+	 */
+	@Test
+	public void testDetour() {
+		try {
+			int[] edges = edges(node(3, 0), node(3, 1), node(4, 1), node(4, 2),
+					node(3, 2), node(3, 3));
+			LocationReference reference = encoder.encode(edges, 20, 30);
+			assertTrue(reference.getLocationReferencePoints().size() > 2);
+
+			MatchedPath path = decoder.decode(reference);
+			assertArrayEquals(edges, path.getEdges());
+			assertEquals(20, path.getPositiveOffset());
+			assertEquals(30, path.getNegativeOffset());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the distance between two location reference points doesn't
+	 * exceed the maximum distance and that longer edges are rejected
+	 */
+	@Test
+	public void testMaximumDistance() {
+		try {
+			RoadGraphBuilder builder = new RoadGraphBuilder();
+			for (int i = 0; i < 5; i++) {
+				builder.addNode(6 + i * 0.05f, 50);
+			}
+			for (int i = 0; i < 4; i++) {
+				builder.addEdge(i, i + 1, FunctionalRoadClass.MAIN_ROAD,
+						FormOfWay.MOTORWAY, 6000);
+			}
+			builder.addEdge(4, 0, FunctionalRoadClass.MAIN_ROAD,
+					FormOfWay.MOTORWAY, 16000);
+			MapEncoder encoder = new MapEncoder(builder.build());
+
+			LocationReference reference = encoder.encode(new int[] { 0, 1, 2,
+					3 });
+			List<LocationReferencePoint> points = reference
+					.getLocationReferencePoints();
+			assertEquals(3, points.size());
+			assertEquals(12000, points.get(0).getDistanceToNextPoint()
+					.getDistance());
+			assertEquals(12000, points.get(1).getDistanceToNextPoint()
+					.getDistance());
+
+			try {
+				encoder.encode(new int[] { 3, 4 });
+				fail("Edge longer than the maximum distance accepted");
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+
+			try {
+				encoder.encode(new int[] { 0, 2 });
+				fail("Path not connected accepted");
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the edges connecting the given nodes
+	 *
+	 * @param nodes
+	 *            the nodes
+	 * @return the edges
+	 */
+	private int[] edges(final int... nodes) {
+		int[] edges = new int[nodes.length - 1];
+		for (int i = 0; i < edges.length; i++) {
+			edges[i] = edge(graph, nodes[i], nodes[i + 1]);
+		}
+		return edges;
+	}
+
+	/**
+	 * Returns the total length of the given edges
+	 *
+	 * @param edges
+	 *            the edges
+	 * @return the length in meters
+	 */
+	private int length(final int[] edges) {
+		int length = 0;
+		for (int edge : edges) {
+			length += graph.getLength(edge);
+		}
+		return length;
+	}
+}
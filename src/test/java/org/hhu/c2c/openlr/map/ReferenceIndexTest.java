@@ -0,0 +1,190 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.IntObjectMap;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ReferenceIndex} and {@link IntObjectMap}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class ReferenceIndexTest {
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The first three edges of the middle row from west to east
+	 */
+	private int[] row;
+
+	/**
+	 * Builds the road graph
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			row = new int[3];
+			for (int column = 0; column < row.length; column++) {
+				row[column] = edge(graph, node(3, column), node(3, column + 1));
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests adding, looking up and removing location references
+	 */
+	@Test
+	public void testAddRemove() {
+		ReferenceIndex index = new ReferenceIndex(graph);
+		index.add(7, coverage(new int[] { row[0], row[1] }, 50, 0));
+		index.add(9, coverage(new int[] { row[1], row[2] }, 0, 20));
+		assertEquals(2, index.size());
+		assertTrue(index.contains(7));
+
+		IntList ids = new IntList();
+		assertEquals(1, index.getReferences(row[0], ids));
+		assertEquals(7, ids.get(0));
+		ids.clear();
+		assertEquals(2, index.getReferences(row[1], ids));
+		ids.clear();
+		assertEquals(0, index.getReferences(row[0], 10, ids));
+		assertEquals(1, index.getReferences(row[0], 60, ids));
+		assertEquals(graph.getLength(row[0]) - 50, index
+				.getCoveredLength(row[0]));
+		assertEquals(graph.getLength(row[1]), index.getCoveredLength(row[1]));
+		assertEquals(graph.getLength(row[2]) - 20, index
+				.getCoveredLength(row[2]));
+
+		assertTrue(index.remove(7));
+		assertFalse(index.remove(7));
+		assertFalse(index.isCovered(row[0]));
+		ids.clear();
+		assertEquals(1, index.getReferences(row[1], ids));
+		assertEquals(9, ids.get(0));
+
+		// replacing moves the location reference
+		index.add(9, coverage(new int[] { row[0] }, 0, 0));
+		assertEquals(1, index.size());
+		assertFalse(index.isCovered(row[1]));
+		assertTrue(index.isCovered(row[0]));
+	}
+
+	/**
+	 * Tests that readers see every edge in a consistent state while a writer
+	 * adds and removes location references
+	 */
+	@Test
+	public void testConcurrentReaders() throws InterruptedException {
+		final ReferenceIndex index = new ReferenceIndex(graph);
+		final EdgeCoverage coverage = coverage(row, 0, 0);
+		final AtomicInteger errors = new AtomicInteger();
+		final int runs = 2000;
+		Thread[] readers = new Thread[3];
+		for (int t = 0; t < readers.length; t++) {
+			readers[t] = new Thread() {
+				@Override
+				public void run() {
+					IntList ids = new IntList();
+					for (int run = 0; run < runs; run++) {
+						for (int edge : row) {
+							ids.clear();
+							int count = index.getReferences(edge, ids);
+							for (int i = 0; i < count; i++) {
+								if (ids.get(i) < 0 || ids.get(i) >= 10) {
+									errors.incrementAndGet();
+								}
+							}
+							// every location reference covers the whole edge
+							int covered = index.getCoveredLength(edge);
+							if (covered != 0 && covered != graph.getLength(edge)) {
+								errors.incrementAndGet();
+							}
+						}
+					}
+				}
+			};
+			readers[t].start();
+		}
+		for (int run = 0; run < runs; run++) {
+			index.add(run % 10, coverage);
+			if (run % 3 == 0) {
+				index.remove((run + 5) % 10);
+			}
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		assertEquals(0, errors.get());
+	}
+
+	/**
+	 * Tests the map against a {@link HashMap}, with enough removals to move
+	 * entries back in the probe sequences
+	 */
+	@Test
+	public void testIntObjectMap() {
+		IntObjectMap<Integer> map = new IntObjectMap<Integer>();
+		Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			int key = random.nextInt(500) - 250;
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (int key = -250; key < 250; key++) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+		assertEquals(expected.size(), map.keys().length);
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertNull(map.get(0));
+	}
+
+	/**
+	 * Returns the coverage of the given edges
+	 *
+	 * @param edges
+	 *            the edges
+	 * @param positiveOffset
+	 *            the positive offset in meters
+	 * @param negativeOffset
+	 *            the negative offset in meters
+	 * @return the coverage
+	 */
+	private EdgeCoverage coverage(final int[] edges, final int positiveOffset,
+			final int negativeOffset) {
+		int length = -positiveOffset - negativeOffset;
+		for (int edge : edges) {
+			length += graph.getLength(edge);
+		}
+		return new EdgeCoverage(graph, new MatchedPath(edges, positiveOffset,
+				negativeOffset, length));
+	}
+}
@@ -0,0 +1,501 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LATITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.LONGITUDE;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.STEP;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link RoadGraphDelta}, {@link RoadGraphUpdater} and updating a
+ * {@link SpatialIndex}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphDeltaTest {
+
+	/**
+	 * The size of the cells of the spatial index
+	 */
+	private static final float CELL_SIZE = 0.001f;
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The spatial index
+	 */
+	private SpatialIndex index;
+
+	/**
+	 * Builds the road graph and its index
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			index = new SpatialIndex(graph, CELL_SIZE);
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that a removed edge keeps its id but is neither routed on nor
+	 * found, while the base road graph is unchanged
+	 */
+	@Test
+	public void testRemoveEdge() {
+		try {
+			int edge = edge(graph, node(3, 2), node(3, 3));
+			RoadGraph updated = new RoadGraphDelta(graph).removeEdge(edge)
+					.build();
+
+			assertEquals(graph.getEdgeCount(), updated.getEdgeCount());
+			assertTrue(updated.isRemoved(edge));
+			assertFalse(graph.isRemoved(edge));
+			assertEquals(graph.getFrc(edge), updated.getFrc(edge));
+			for (int i = updated.getOutgoingStart(node(3, 2)); i < updated
+					.getOutgoingEnd(node(3, 2)); i++) {
+				assertTrue(updated.getOutgoingEdge(i) != edge);
+			}
+			assertEquals(edge, edge(graph, node(3, 2), node(3, 3)));
+			assertSame(graph.getShapeLongitudes(), updated.getShapeLongitudes());
+
+			IntList path = new IntList();
+			int length = new DijkstraRouter(graph).route(node(3, 2),
+					node(3, 3), 7, Integer.MAX_VALUE, path);
+			assertEquals(graph.getLength(edge), length);
+			length = new DijkstraRouter(updated).route(node(3, 2), node(3, 3),
+					7, Integer.MAX_VALUE, path);
+			assertTrue(length > graph.getLength(edge));
+
+			SpatialIndex updatedIndex = new SpatialIndex(index, updated);
+			assertIndexEquals(new SpatialIndex(updated, CELL_SIZE),
+					updatedIndex);
+			CandidateFinder finder = new CandidateFinder(updatedIndex,
+					new MatchingParametersBuilder().build());
+			CandidateList candidates = new CandidateList(1);
+			finder.find(LONGITUDE + 2.5f * STEP, LATITUDE + 3 * STEP, 90,
+					FunctionalRoadClass.SECOND_CLASS_ROAD
+							.getByteRepresentation(),
+					FormOfWay.MULTIPLE_CARRIAGEWAY.getByteRepresentation(),
+					false, candidates);
+			for (int i = 0; i < candidates.size(); i++) {
+				assertTrue(candidates.getEdge(i) != edge);
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that added nodes and edges get the next ids, are routed on and
+	 * are found by the updated spatial index
+	 */
+	@Test
+	public void testAddEdge() {
+		try {
+			RoadGraphDelta delta = new RoadGraphDelta(graph);
+			int node = delta.getNodeCount();
+			int edge = delta.getEdgeCount();
+			delta.addNode(LONGITUDE + 0.5f * STEP, LATITUDE + 0.5f * STEP)
+					.addEdge(node(0, 0), node,
+							FunctionalRoadClass.FOURTH_CLASS_ROAD,
+							FormOfWay.SINGLE_CARRIAGEWAY, null, null).addEdge(
+							node, node(1, 1),
+							FunctionalRoadClass.FOURTH_CLASS_ROAD,
+							FormOfWay.SINGLE_CARRIAGEWAY, new float[] {
+									LONGITUDE + 0.6f * STEP },
+							new float[] { LATITUDE + 0.8f * STEP });
+			RoadGraph updated = delta.build();
+
+			assertEquals(graph.getNodeCount() + 1, updated.getNodeCount());
+			assertEquals(graph.getEdgeCount() + 2, updated.getEdgeCount());
+			assertEquals(node, updated.getTarget(edge));
+			assertEquals(3, updated.getGeometrySize(edge + 1));
+			assertEquals(LATITUDE + 0.8f * STEP, updated.getGeometryLatitude(
+					edge + 1, 1), 0.00001f);
+			assertTrue(updated.getLength(edge) > 0);
+			assertEquals(FunctionalRoadClass.FOURTH_CLASS_ROAD, updated
+					.getFunctionalRoadClass(edge));
+			for (int e = 0; e < graph.getEdgeCount(); e++) {
+				assertEquals(graph.getGeometrySize(e), updated
+						.getGeometrySize(e));
+				assertEquals(graph.getLength(e), updated.getLength(e));
+			}
+
+			IntList path = new IntList();
+			int length = new DijkstraRouter(updated).route(node(0, 0), node(
+					1, 1), 7, Integer.MAX_VALUE, path);
+			assertEquals(2, path.size());
+			assertEquals(edge, path.get(0));
+			assertEquals(updated.getLength(edge) + updated.getLength(edge + 1),
+					length);
+
+			SpatialIndex updatedIndex = new SpatialIndex(index, updated);
+			assertIndexEquals(new SpatialIndex(updated, CELL_SIZE),
+					updatedIndex);
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that successive updates, which keep sharing the buffers of the
+	 * base road graph, give the same road graph and index as a single update
+	 * with all changes
+	 */
+	@Test
+	public void testSuccessiveUpdates() {
+		try {
+			int removed = edge(graph, node(3, 2), node(3, 3));
+			int changed = edge(graph, node(0, 0), node(0, 1));
+			RoadGraphDelta first = new RoadGraphDelta(graph);
+			RoadGraphDelta all = new RoadGraphDelta(graph);
+			int node = first.getNodeCount();
+			int added = first.getEdgeCount();
+			for (RoadGraphDelta delta : new RoadGraphDelta[] { first, all }) {
+				delta.addNode(LONGITUDE + 0.5f * STEP, LATITUDE + 0.5f * STEP)
+						.addEdge(node(0, 0), node,
+								FunctionalRoadClass.FOURTH_CLASS_ROAD,
+								FormOfWay.SINGLE_CARRIAGEWAY, null, null)
+						.addEdge(node, node(1, 1),
+								FunctionalRoadClass.FOURTH_CLASS_ROAD,
+								FormOfWay.SINGLE_CARRIAGEWAY, null, null)
+						.removeEdge(removed);
+			}
+			RoadGraph updated = first.build();
+			RoadGraphDelta second = new RoadGraphDelta(updated);
+			for (RoadGraphDelta delta : new RoadGraphDelta[] { second, all }) {
+				delta.removeEdge(added).addEdge(node, node(0, 1),
+						FunctionalRoadClass.FIFTH_CLASS_ROAD,
+						FormOfWay.SINGLE_CARRIAGEWAY, null, null).setLength(
+						added + 1, 1000).setAttributes(changed,
+						FunctionalRoadClass.MAIN_ROAD, FormOfWay.MOTORWAY);
+			}
+			RoadGraph twice = second.build();
+			RoadGraph once = all.build();
+
+			assertGraphEquals(once, twice);
+			assertGraphEquals(once, twice.compact());
+			assertTrue(twice.isRemoved(added));
+			assertFalse(updated.isRemoved(added));
+			assertEquals(1000, twice.getLength(added + 1));
+			assertEquals(FunctionalRoadClass.MAIN_ROAD, twice
+					.getFunctionalRoadClass(changed));
+			assertEquals(graph.getFrc(changed), updated.getFrc(changed));
+			assertSame(graph.getOutgoingEdges(), twice.getOutgoingEdges());
+			assertSame(graph.getEdgeLengths(), twice.getEdgeLengths());
+
+			SpatialIndex expected = new SpatialIndex(once, CELL_SIZE);
+			SpatialIndex updatedIndex = new SpatialIndex(index, updated);
+			assertIndexEquals(new SpatialIndex(updated, CELL_SIZE),
+					updatedIndex);
+			assertIndexEquals(expected, new SpatialIndex(updatedIndex, twice));
+			assertIndexEquals(expected, new SpatialIndex(index, twice));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests changing the attributes and lengths of edges, which shares all
+	 * buffers with the base road graph
+	 */
+	@Test
+	public void testChangeEdge() {
+		try {
+			int edge = edge(graph, node(0, 0), node(0, 1));
+			RoadGraph updated = new RoadGraphDelta(graph).setAttributes(edge,
+					FunctionalRoadClass.MAIN_ROAD, FormOfWay.MOTORWAY)
+					.setLength(edge, 1000).build();
+
+			assertEquals(FunctionalRoadClass.MAIN_ROAD, updated
+					.getFunctionalRoadClass(edge));
+			assertEquals(FormOfWay.MOTORWAY, updated.getFormOfWay(edge));
+			assertEquals(1000, updated.getLength(edge));
+			assertFalse(updated.isRemoved(edge));
+			assertTrue(graph.getLength(edge) < 1000);
+			assertSame(graph.getOutgoingEdges(), updated.getOutgoingEdges());
+			assertSame(graph.getShapeOffsets(), updated.getShapeOffsets());
+			assertSame(graph.getEdgeLengths(), updated.getEdgeLengths());
+			assertSame(graph.getEdgeAttributes(), updated
+					.getEdgeAttributes());
+			assertEquals(1000, updated.compact().getLength(edge));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the updater swaps in the updated version while earlier
+	 * versions stay usable, and rejects outdated deltas
+	 */
+	@Test
+	public void testUpdater() {
+		try {
+			RoadGraphUpdater updater = new RoadGraphUpdater(index);
+			assertSame(index, updater.apply(updater.newDelta()));
+
+			RoadGraphDelta outdated = updater.newDelta();
+			int edge = edge(graph, node(3, 2), node(3, 3));
+			SpatialIndex updated = updater.apply(updater.newDelta().removeEdge(
+					edge));
+			assertSame(updated, updater.getIndex());
+			assertTrue(updater.getGraph().isRemoved(edge));
+			assertFalse(index.getGraph().isRemoved(edge));
+
+			try {
+				updater.apply(outdated.removeEdge(0));
+				fail("Expected LocationReferenceException");
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+			assertSame(updated, updater.getIndex());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the updater drops the contraction hierarchy on an update and
+	 * only accepts one built for the current version
+	 */
+	@Test
+	public void testUpdaterHierarchy() {
+		try {
+			ContractionHierarchy hierarchy = new ContractionHierarchyBuilder()
+					.setRoadGraph(graph).build();
+			RoadGraphUpdater updater = new RoadGraphUpdater(index, hierarchy);
+			assertSame(hierarchy, updater.getHierarchy());
+			MatchingParameters parameters = new MatchingParametersBuilder()
+					.build();
+			assertSame(hierarchy, updater.newContextBuilder().setParameters(
+					parameters).build().getHierarchy());
+
+			updater.apply(updater.newDelta().removeEdge(
+					edge(graph, node(3, 2), node(3, 3))));
+			assertNull(updater.getHierarchy());
+			DecodingContext context = updater.newContextBuilder()
+					.setParameters(parameters).build();
+			assertSame(updater.getIndex(), context.getIndex());
+			assertNull(context.getHierarchy());
+			try {
+				updater.setHierarchy(hierarchy);
+				fail("Expected LocationReferenceException");
+			} catch (LocationReferenceException e) {
+				// expected
+			}
+
+			ContractionHierarchy rebuilt = new ContractionHierarchyBuilder()
+					.setRoadGraph(updater.getGraph()).build();
+			updater.setHierarchy(rebuilt);
+			assertSame(rebuilt, updater.getHierarchy());
+			assertSame(rebuilt, updater.newContextBuilder().setParameters(
+					parameters).build().getHierarchy());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that a contraction hierarchy written for the base road graph is
+	 * rejected for an updated road graph with as many nodes and edges
+	 */
+	@Test
+	public void testStaleHierarchy() {
+		try {
+			ContractionHierarchy hierarchy = new ContractionHierarchyBuilder()
+					.setRoadGraph(graph).build();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new RoadGraphWriter().write(out, hierarchy);
+
+			RoadGraph updated = new RoadGraphDelta(graph).removeEdge(
+					edge(graph, node(3, 2), node(3, 3))).build();
+			assertEquals(graph.getNodeCount(), updated.getNodeCount());
+			assertEquals(graph.getEdgeCount(), updated.getEdgeCount());
+			assertTrue(graph.getStamp() != updated.getStamp());
+
+			RoadGraphReader reader = new RoadGraphReader();
+			reader.readHierarchy(new ByteArrayInputStream(out.toByteArray()),
+					graph);
+			try {
+				reader.readHierarchy(new ByteArrayInputStream(out
+						.toByteArray()), updated);
+				fail("Expected IOException");
+			} catch (IOException e) {
+				// expected
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that a road graph with removed and added edges survives writing
+	 * and reading, both streamed and mapped
+	 */
+	@Test
+	public void testWriteRead() {
+		try {
+			RoadGraphDelta delta = new RoadGraphDelta(graph);
+			int removed = edge(graph, node(3, 2), node(3, 3));
+			int node = delta.getNodeCount();
+			delta.removeEdge(removed).removeEdge(
+					edge(graph, node(1, 1), node(1, 2))).addNode(
+					LONGITUDE + 0.5f * STEP, LATITUDE + 0.5f * STEP).addEdge(
+					node(0, 0), node, FunctionalRoadClass.FOURTH_CLASS_ROAD,
+					FormOfWay.SINGLE_CARRIAGEWAY, null, null);
+			RoadGraph updated = delta.build();
+
+			RoadGraphWriter writer = new RoadGraphWriter();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			writer.write(out, updated);
+			assertGraphEquals(updated, new RoadGraphReader()
+					.read(new ByteArrayInputStream(out.toByteArray())));
+
+			File file = File.createTempFile("roadgraph", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				writer.write(file, updated);
+				RoadGraph read = new RoadGraphReader().read(file);
+				assertGraphEquals(updated, read);
+				assertEquals(updated.getStamp(), read.getStamp());
+				assertTrue(read.isRemoved(removed));
+
+				IntList path = new IntList();
+				assertEquals(new DijkstraRouter(updated).route(node(3, 2),
+						node(3, 3), 7, Integer.MAX_VALUE, path),
+						new DijkstraRouter(read).route(node(3, 2), node(3, 3),
+								7, Integer.MAX_VALUE, path));
+			} finally {
+				file.delete();
+			}
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that changes of unknown edges and nodes are rejected
+	 */
+	@Test
+	public void testInvalid() {
+		try {
+			new RoadGraphDelta(graph).removeEdge(graph.getEdgeCount()).build();
+			fail("Expected LocationReferenceException");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+		try {
+			new RoadGraphDelta(graph).addEdge(0, graph.getNodeCount(),
+					FunctionalRoadClass.MAIN_ROAD, FormOfWay.MOTORWAY, 10, null,
+					null).build();
+			fail("Expected LocationReferenceException");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+		try {
+			new RoadGraphDelta(graph).setLength(0, -1).build();
+			fail("Expected LocationReferenceException");
+		} catch (LocationReferenceException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Asserts that two road graphs have the same edges and adjacency lists,
+	 * wherever the lists are stored
+	 *
+	 * @param expected
+	 *            the expected road graph
+	 * @param actual
+	 *            the actual road graph
+	 */
+	private static void assertGraphEquals(final RoadGraph expected,
+			final RoadGraph actual) {
+		assertEquals(expected.getNodeCount(), actual.getNodeCount());
+		assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+		for (int edge = 0; edge < expected.getEdgeCount(); edge++) {
+			assertEquals(expected.getSource(edge), actual.getSource(edge));
+			assertEquals(expected.getTarget(edge), actual.getTarget(edge));
+			assertEquals(expected.getLength(edge), actual.getLength(edge));
+			assertEquals(expected.isRemoved(edge), actual.isRemoved(edge));
+			assertEquals(expected.getGeometrySize(edge), actual
+					.getGeometrySize(edge));
+		}
+		for (int node = 0; node < expected.getNodeCount(); node++) {
+			int start = expected.getOutgoingStart(node);
+			int actualStart = actual.getOutgoingStart(node);
+			assertEquals(expected.getOutgoingEnd(node) - start, actual
+					.getOutgoingEnd(node)
+					- actualStart);
+			for (int i = start; i < expected.getOutgoingEnd(node); i++) {
+				assertEquals(expected.getOutgoingEdge(i), actual
+						.getOutgoingEdge(actualStart + i - start));
+			}
+			start = expected.getIncomingStart(node);
+			actualStart = actual.getIncomingStart(node);
+			assertEquals(expected.getIncomingEnd(node) - start, actual
+					.getIncomingEnd(node)
+					- actualStart);
+			for (int i = start; i < expected.getIncomingEnd(node); i++) {
+				assertEquals(expected.getIncomingEdge(i), actual
+						.getIncomingEdge(actualStart + i - start));
+			}
+		}
+	}
+
+	/**
+	 * Asserts that two spatial indices list the same edges in each cell
+	 *
+	 * @param expected
+	 *            the expected index
+	 * @param actual
+	 *            the actual index
+	 */
+	private static void assertIndexEquals(final SpatialIndex expected,
+			final SpatialIndex actual) {
+		for (int row = 0; row <= expected.getRow(90); row++) {
+			for (int column = 0; column <= expected.getColumn(180); column++) {
+				int cell = expected.getCell(row, column);
+				assertEquals(actual.getCell(row, column), cell);
+				assertEquals(expected.getCellEnd(cell)
+						- expected.getCellStart(cell), actual.getCellEnd(cell)
+						- actual.getCellStart(cell));
+				for (int i = expected.getCellStart(cell); i < expected
+						.getCellEnd(cell); i++) {
+					assertEquals(expected.getCellEdge(i), actual
+							.getCellEdge(actual.getCellStart(cell) + i
+									- expected.getCellStart(cell)));
+				}
+			}
+		}
+	}
+}
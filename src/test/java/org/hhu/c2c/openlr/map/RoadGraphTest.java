@@ -0,0 +1,278 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.hhu.c2c.openlr.core.FormOfWay;
+import org.hhu.c2c.openlr.core.FunctionalRoadClass;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Test;
+
+/**
+ * Tests {@link RoadGraph}, {@link RoadGraphBuilder}, {@link RoadGraphReader}
+ * and {@link RoadGraphWriter}
+ * 
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ * 
+ */
+public class RoadGraphTest {
+
+	/**
+	 * A small road graph in text format
+	 */
+	private static final String TEXT = "# three nodes\n" //
+			+ "N,6.12683,49.60851\n" //
+			+ "N,6.12838,49.60398\n" //
+			+ "N,6.12817,49.60305\n" //
+			+ "E,0,1,3,2,561,6.1275 49.6060\n" //
+			+ "E,1,2,5,3\n" //
+			+ "E,2,1,5,3,,\n";
+
+	/**
+	 * Tests the adjacency lists and attributes of a road graph read from the
+	 * text format
+	 */
+	@Test
+	public void testReadText() {
+		try {
+			RoadGraph graph = new RoadGraphReader().readText(new StringReader(
+					TEXT));
+			assertEquals(3, graph.getNodeCount());
+			assertEquals(3, graph.getEdgeCount());
+
+			assertEquals(FunctionalRoadClass.THIRD_CLASS_ROAD, graph
+					.getFunctionalRoadClass(0));
+			assertEquals(FormOfWay.MULTIPLE_CARRIAGEWAY, graph.getFormOfWay(0));
+			assertEquals(561, graph.getLength(0));
+			assertEquals(3, graph.getGeometrySize(0));
+			assertEquals(6.1275f, graph.getGeometryLongitude(0, 1), 0.000001f);
+			assertEquals(49.60398f, graph.getGeometryLatitude(0, 2), 0.000001f);
+
+			// the length is computed from the geometry
+			assertEquals(105, graph.getLength(1));
+			assertEquals(2, graph.getGeometrySize(1));
+
+			assertEquals(2, graph.getOutgoingEnd(1) - graph.getOutgoingStart(1)
+					+ graph.getIncomingEnd(2) - graph.getIncomingStart(2));
+			assertEquals(1, graph.getOutgoingEdge(graph.getOutgoingStart(1)));
+			assertEquals(2, graph.getIncomingEdge(graph.getIncomingStart(1) + 1));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that an edge referencing an unknown node is rejected
+	 * 
+	 * @throws Exception
+	 *             expected
+	 */
+	@Test(expected = IOException.class)
+	public void testReadTextUnknownNode() throws Exception {
+		new RoadGraphReader().readText(new StringReader("N,6.1,49.6\nE,0,1,3,2"));
+	}
+
+	/**
+	 * Writes a road graph in its binary format, reads it again and compares
+	 * both
+	 */
+	@Test
+	public void testBinaryRoundTrip() {
+		try {
+			RoadGraph expected = ExampleRoadGraph.asRoadGraph();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new RoadGraphWriter().write(out, expected);
+			RoadGraph actual = new RoadGraphReader()
+					.read(new ByteArrayInputStream(out.toByteArray()));
+
+			assertGraphEquals(expected, actual);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests writing a road graph to a file and mapping it back into memory
+	 */
+	@Test
+	public void testMappedRoundTrip() {
+		try {
+			RoadGraph expected = ExampleRoadGraph.asRoadGraph();
+			File file = File.createTempFile("roadgraph", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				new RoadGraphWriter().write(file, expected);
+				RoadGraph actual = new RoadGraphReader().read(file);
+				assertGraphEquals(expected, actual);
+				// the arrays are views of the mapping, not copies
+				assertTrue(actual.getEdgeSources().isDirect());
+				assertTrue(actual.getEdgeAttributes().isDirect());
+			} finally {
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that road graphs written in either byte order are read by both the
+	 * stream and the mapped reader, and that the mapped arrays of a road graph
+	 * written in the native byte order don't swap bytes
+	 */
+	@Test
+	public void testByteOrder() {
+		try {
+			RoadGraph expected = ExampleRoadGraph.asRoadGraph();
+			for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN,
+					ByteOrder.LITTLE_ENDIAN }) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				new RoadGraphWriter(order).write(out, expected);
+				byte[] bytes = out.toByteArray();
+				assertEquals(RoadGraphFormat.MAGIC_NUMBER, ByteBuffer.wrap(
+						bytes).order(order).getInt());
+				assertGraphEquals(expected, new RoadGraphReader()
+						.read(new ByteArrayInputStream(bytes)));
+
+				File file = File.createTempFile("roadgraph", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+				try {
+					new RoadGraphWriter(order).write(file, expected);
+					RoadGraph actual = new RoadGraphReader().read(file);
+					assertGraphEquals(expected, actual);
+					assertEquals(order, actual.getEdgeSources().order());
+				} finally {
+					file.delete();
+				}
+			}
+
+			File file = File.createTempFile("roadgraph", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				new RoadGraphWriter().write(file, expected);
+				assertEquals(ByteOrder.nativeOrder(), new RoadGraphReader()
+						.read(file).getEdgeSources().order());
+			} finally {
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that mapping a truncated file fails
+	 */
+	@Test(expected = EOFException.class)
+	public void testMappedTruncated() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new RoadGraphWriter().write(out, ExampleRoadGraph.asRoadGraph());
+		File file = File.createTempFile("roadgraph", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			FileOutputStream stream = new FileOutputStream(file);
+			try {
+				stream.write(out.toByteArray(), 0, out.size() / 2);
+			} finally {
+				stream.close();
+			}
+			new RoadGraphReader().read(file);
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests that a negative count in the header is rejected by both the stream
+	 * and the mapped reader
+	 */
+	@Test
+	public void testInvalidCount() {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new RoadGraphWriter().write(out, ExampleRoadGraph.asRoadGraph());
+			byte[] bytes = out.toByteArray();
+			// the number of edges
+			ByteBuffer.wrap(bytes).putInt(20, -1);
+
+			try {
+				new RoadGraphReader().read(new ByteArrayInputStream(bytes));
+				fail();
+			} catch (EOFException e) {
+				fail(e.getMessage());
+			} catch (IOException e) {
+				// expected
+			}
+
+			File file = File.createTempFile("roadgraph", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				FileOutputStream stream = new FileOutputStream(file);
+				try {
+					stream.write(bytes);
+				} finally {
+					stream.close();
+				}
+				new RoadGraphReader().read(file);
+				fail();
+			} catch (EOFException e) {
+				fail(e.getMessage());
+			} catch (IOException e) {
+				// expected
+			} finally {
+				file.delete();
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Asserts that two road graphs are equal
+	 *
+	 * @param expected
+	 *            the expected road graph
+	 * @param actual
+	 *            the actual road graph
+	 */
+	private void assertGraphEquals(final RoadGraph expected,
+			final RoadGraph actual) {
+		assertEquals(expected.getNodeCount(), actual.getNodeCount());
+		assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+		for (int node = 0; node < expected.getNodeCount(); node++) {
+			assertEquals(expected.getNodeLongitude(node), actual
+					.getNodeLongitude(node), 0);
+			assertEquals(expected.getOutgoingEnd(node), actual
+					.getOutgoingEnd(node));
+			assertEquals(expected.getIncomingStart(node), actual
+					.getIncomingStart(node));
+		}
+		for (int edge = 0; edge < expected.getEdgeCount(); edge++) {
+			assertEquals(expected.getSource(edge), actual.getSource(edge));
+			assertEquals(expected.getTarget(edge), actual.getTarget(edge));
+			assertEquals(expected.getLength(edge), actual.getLength(edge));
+			assertEquals(expected.getFrc(edge), actual.getFrc(edge));
+			assertEquals(expected.getFow(edge), actual.getFow(edge));
+			assertEquals(expected.getOutgoingEdge(edge), actual
+					.getOutgoingEdge(edge));
+			assertEquals(expected.getIncomingEdge(edge), actual
+					.getIncomingEdge(edge));
+		}
+	}
+}
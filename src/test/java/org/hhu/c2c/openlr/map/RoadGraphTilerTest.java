@@ -0,0 +1,265 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.edge;
+import static org.hhu.c2c.openlr.map.ExampleRoadGraph.node;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link RoadGraphTiler}, {@link TileCache} and {@link TiledMapDecoder}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoadGraphTilerTest {
+
+	/**
+	 * The road graph
+	 */
+	private RoadGraph graph;
+
+	/**
+	 * The tiler, using tiles of about three by three nodes
+	 */
+	private RoadGraphTiler tiler;
+
+	/**
+	 * Builds the road graph and the tiler
+	 */
+	@Before
+	public void setUp() {
+		try {
+			graph = ExampleRoadGraph.asRoadGraph();
+			tiler = new RoadGraphTiler(new TileGrid(0.005f));
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that stitching all tiles gives back the road graph
+	 */
+	@Test
+	public void testSplitStitch() {
+		List<RoadGraphTile> tiles = tiler.split(graph);
+		assertTrue(tiles.size() > 1);
+		int edges = 0;
+		for (RoadGraphTile tile : tiles) {
+			edges += tile.getGraph().getEdgeCount();
+		}
+		assertEquals(graph.getEdgeCount(), edges);
+
+		RoadGraphRegion region = tiler.stitch(tiles);
+		RoadGraph stitched = region.getGraph();
+		assertEquals(graph.getNodeCount(), stitched.getNodeCount());
+		assertEquals(graph.getEdgeCount(), stitched.getEdgeCount());
+		for (int edge = 0; edge < stitched.getEdgeCount(); edge++) {
+			int original = region.getEdgeId(edge);
+			assertEquals(graph.getSource(original), region.getNodeId(stitched
+					.getSource(edge)));
+			assertEquals(graph.getTarget(original), region.getNodeId(stitched
+					.getTarget(edge)));
+			assertEquals(graph.getLength(original), stitched.getLength(edge));
+			assertEquals(graph.getFrc(original), stitched.getFrc(edge));
+		}
+		for (int node = 0; node < stitched.getNodeCount(); node++) {
+			int original = region.getNodeId(node);
+			assertEquals(graph.getOutgoingEnd(original)
+					- graph.getOutgoingStart(original), stitched
+					.getOutgoingEnd(node)
+					- stitched.getOutgoingStart(node));
+			assertEquals(graph.getNodeLatitude(original), stitched
+					.getNodeLatitude(node), 0);
+		}
+	}
+
+	/**
+	 * Tests writing and reading a tile
+	 */
+	@Test
+	public void testWriteRead() {
+		try {
+			RoadGraphTile expected = tiler.split(graph).get(0);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new RoadGraphWriter().write(out, expected);
+			RoadGraphTile actual = new RoadGraphReader()
+					.readTile(new ByteArrayInputStream(out.toByteArray()));
+
+			assertEquals(expected.getColumn(), actual.getColumn());
+			assertEquals(expected.getRow(), actual.getRow());
+			assertArrayEquals(expected.getNodeIds(), actual.getNodeIds());
+			assertArrayEquals(expected.getEdgeIds(), actual.getEdgeIds());
+			assertEquals(expected.getGraph().getEdgeCount(), actual.getGraph()
+					.getEdgeCount());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that empty tiles are remembered within the memory budget
+	 */
+	@Test
+	public void testEmptyTiles() {
+		File directory = null;
+		try {
+			directory = File.createTempFile("tiles", ""); //$NON-NLS-1$ //$NON-NLS-2$
+			directory.delete();
+			directory.mkdir();
+
+			TileCache cache = new TileCache(tiler.getGrid(), directory, 256);
+			for (int column = 0; column < 100; column++) {
+				assertNull(cache.getTile(column, 0));
+			}
+			assertTrue(cache.getMemorySize() <= 256);
+			assertEquals(100 - cache.size(), cache.getEvictions());
+			assertNull(cache.getTile(99, 0));
+			assertEquals(1, cache.getHits());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} finally {
+			if (directory != null) {
+				directory.delete();
+			}
+		}
+	}
+
+	/**
+	 * Tests that a tile asked for by several threads at the same time is
+	 * loaded only once
+	 */
+	@Test
+	public void testConcurrentLoads() {
+		File directory = null;
+		try {
+			directory = File.createTempFile("tiles", ""); //$NON-NLS-1$ //$NON-NLS-2$
+			directory.delete();
+			directory.mkdir();
+			tiler.write(graph, directory);
+
+			final RoadGraphTile expected = tiler.split(graph).get(0);
+			final TileCache cache = new TileCache(tiler.getGrid(), directory,
+					Long.MAX_VALUE);
+			final CountDownLatch start = new CountDownLatch(1);
+			final RoadGraphTile[] tiles = new RoadGraphTile[8];
+			Thread[] threads = new Thread[tiles.length];
+			for (int i = 0; i < threads.length; i++) {
+				final int index = i;
+				threads[i] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							start.await();
+							tiles[index] = cache.getTile(expected.getColumn(),
+									expected.getRow());
+						} catch (InterruptedException e) {
+							// leaves the tile null
+						} catch (IOException e) {
+							// leaves the tile null
+						}
+					}
+				};
+				threads[i].start();
+			}
+			start.countDown();
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			assertEquals(1, cache.getLoads());
+			assertEquals(tiles.length - 1, cache.getHits());
+			for (RoadGraphTile tile : tiles) {
+				assertSame(tiles[0], tile);
+			}
+			assertArrayEquals(expected.getEdgeIds(), tiles[0].getEdgeIds());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		} finally {
+			if (directory != null) {
+				File[] files = directory.listFiles();
+				for (int i = 0; files != null && i < files.length; i++) {
+					files[i].delete();
+				}
+				directory.delete();
+			}
+		}
+	}
+
+	/**
+	 * Tests decoding on tiles loaded on demand, with a memory budget for
+	 * about one tile
+	 */
+	@Test
+	public void testDecode() {
+		File directory = null;
+		try {
+			directory = File.createTempFile("tiles", ""); //$NON-NLS-1$ //$NON-NLS-2$
+			directory.delete();
+			directory.mkdir();
+			tiler.write(graph, directory);
+
+			long budget = tiler.split(graph).get(0).getMemorySize();
+			TileCache cache = new TileCache(tiler.getGrid(), directory, budget);
+			TiledMapDecoder decoder = new TiledMapDecoder(cache,
+					new MatchingParametersBuilder().build());
+			MapEncoder encoder = new MapEncoder(graph);
+
+			int[] west = new int[] { edge(graph, node(0, 0), node(0, 1)),
+					edge(graph, node(0, 1), node(1, 1)) };
+			int[] east = new int[] { edge(graph, node(6, 4), node(6, 5)),
+					edge(graph, node(6, 5), node(6, 6)) };
+			int[] across = new int[] { edge(graph, node(3, 0), node(3, 1)),
+					edge(graph, node(3, 1), node(3, 2)),
+					edge(graph, node(3, 2), node(3, 3)),
+					edge(graph, node(3, 3), node(3, 4)),
+					edge(graph, node(3, 4), node(3, 5)) };
+			RoadGraphRegion westRegion = null;
+			for (int[] edges : new int[][] { west, east, across }) {
+				LocationReference reference = encoder.encode(edges);
+				assertArrayEquals(edges, decoder.decode(reference).getEdges());
+				if (westRegion == null) {
+					westRegion = decoder.getRegion();
+				}
+			}
+
+			// the region of the first location is kept
+			assertArrayEquals(west, decoder.decode(encoder.encode(west))
+					.getEdges());
+			assertSame(westRegion, decoder.getRegion());
+
+			assertTrue(cache.getEvictions() > 0);
+			assertTrue(cache.getMemorySize() <= budget || cache.size() == 1);
+			assertEquals(4, decoder.getStatistics().getDecoded());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		} finally {
+			if (directory != null) {
+				File[] files = directory.listFiles();
+				for (int i = 0; files != null && i < files.length; i++) {
+					files[i].delete();
+				}
+				directory.delete();
+			}
+		}
+	}
+}
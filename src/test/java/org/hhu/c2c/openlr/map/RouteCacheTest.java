@@ -0,0 +1,145 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.hhu.c2c.openlr.core.LocationReference;
+import org.hhu.c2c.openlr.util.IntList;
+import org.hhu.c2c.openlr.util.LocationReferenceException;
+import org.hhu.c2c.openlr.util.LongIntMap;
+import org.junit.Test;
+
+/**
+ * Tests {@link RouteCache} and {@link LongIntMap}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RouteCacheTest {
+
+	/**
+	 * Tests lookups, eviction and the counters
+	 */
+	@Test
+	public void testCache() {
+		RouteCache cache = new RouteCache(2, 1);
+		IntList path = new IntList();
+		path.add(7);
+		path.add(8);
+
+		cache.put(1, 2, 3, path, 100);
+		cache.put(1, 2, 4, path, 200);
+		assertEquals(100, cache.get(1, 2, 3, path));
+		assertArrayEquals(new int[] { 7, 8 }, path.toArray());
+		assertEquals(Router.NO_ROUTE, cache.get(2, 1, 3, path));
+
+		// the route for class 4 is the least recently used one
+		cache.put(5, 6, 3, path, 300);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(Router.NO_ROUTE, cache.get(1, 2, 4, path));
+		assertEquals(100, cache.get(1, 2, 3, path));
+
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), 0.0001);
+
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	/**
+	 * Tests that replacing a route marks it as the most recently used one and
+	 * that the counters of all segments are summed up
+	 */
+	@Test
+	public void testSegments() {
+		RouteCache cache = new RouteCache(2, 1);
+		IntList path = new IntList();
+		path.add(7);
+
+		cache.put(1, 2, 3, path, 100);
+		cache.put(3, 4, 3, path, 200);
+		cache.put(1, 2, 3, path, 150);
+		cache.put(5, 6, 3, path, 300);
+		assertEquals(Router.NO_ROUTE, cache.get(3, 4, 3, path));
+		assertEquals(150, cache.get(1, 2, 3, path));
+		assertEquals(300, cache.get(5, 6, 3, path));
+
+		cache = new RouteCache(64, 4);
+		for (int i = 0; i < 64; i++) {
+			cache.put(i, i + 1, 7, path, i);
+		}
+		for (int i = 0; i < 64; i++) {
+			cache.get(i, i + 1, 7, path);
+			cache.get(i + 1, i, 7, path);
+		}
+		assertEquals(64 - cache.getEvictions(), cache.size());
+		assertEquals(cache.size(), cache.getHits());
+		assertEquals(128 - cache.getHits(), cache.getMisses());
+	}
+
+	/**
+	 * Tests {@link LongIntMap}, including removals which move back the
+	 * following entries of a probe sequence
+	 */
+	@Test
+	public void testLongIntMap() {
+		LongIntMap map = new LongIntMap(1);
+		for (long key = 0; key < 1000; key++) {
+			map.put(key << 33 | key, (int) key);
+		}
+		assertEquals(1000, map.size());
+		for (long key = 0; key < 1000; key += 2) {
+			assertTrue(map.remove(key << 33 | key));
+		}
+		assertFalse(map.remove(0));
+		assertEquals(500, map.size());
+		for (long key = 0; key < 1000; key++) {
+			assertEquals(key % 2 == 0 ? -1 : (int) key, map.get(key << 33
+					| key, -1));
+		}
+		map.put(1L << 33 | 1, 7);
+		assertEquals(7, map.get(1L << 33 | 1, -1));
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(1L << 33 | 1));
+	}
+
+	/**
+	 * Tests that decoding the same location reference again takes its routes
+	 * from the cache
+	 */
+	@Test
+	public void testDecode() {
+		try {
+			RoadGraph graph = ExampleRoadGraph.asRoadGraph();
+			int[] edges = new int[] {
+					ExampleRoadGraph.edge(graph, ExampleRoadGraph.node(3, 0),
+							ExampleRoadGraph.node(3, 1)),
+					ExampleRoadGraph.edge(graph, ExampleRoadGraph.node(3, 1),
+							ExampleRoadGraph.node(3, 2)),
+					ExampleRoadGraph.edge(graph, ExampleRoadGraph.node(3, 2),
+							ExampleRoadGraph.node(3, 3)) };
+			LocationReference reference = new MapEncoder(graph).encode(edges);
+
+			RouteCache cache = new RouteCache(100);
+			MapDecoder decoder = new MapDecoder(new SpatialIndex(graph),
+					new MatchingParametersBuilder().build(),
+					new DijkstraRouter(graph), cache);
+			assertArrayEquals(edges, decoder.decode(reference).getEdges());
+			long routes = decoder.getStatistics().getRoutes();
+			long misses = cache.getMisses();
+
+			assertArrayEquals(edges, decoder.decode(reference).getEdges());
+			assertEquals(routes, decoder.getStatistics().getRoutes());
+			assertEquals(misses, cache.getMisses());
+			assertEquals(misses, cache.getHits());
+		} catch (LocationReferenceException e) {
+			fail(e.getMessage());
+		}
+	}
+}
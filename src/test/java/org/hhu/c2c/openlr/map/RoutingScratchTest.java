@@ -0,0 +1,74 @@
+package org.hhu.c2c.openlr.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.hhu.c2c.openlr.util.IndexedIntHeap;
+import org.junit.Test;
+
+/**
+ * Tests {@link RoutingScratch} and {@link IndexedIntHeap}
+ *
+ * @author Oliver Schrenk <oliver.schrenk@uni-duesseldorf.de>
+ *
+ */
+public class RoutingScratchTest {
+
+	/**
+	 * Tests that relaxing keeps the shortest distance and that clearing
+	 * forgets all nodes
+	 */
+	@Test
+	public void testRelaxClear() {
+		RoutingScratch scratch = new RoutingScratch(4);
+		scratch.clear();
+		assertTrue(scratch.relax(2, 10, 7));
+		assertFalse(scratch.relax(2, 12, 8));
+		assertTrue(scratch.relax(2, 5, 9));
+		assertEquals(5, scratch.getDistance(2));
+		assertEquals(9, scratch.getPredecessor(2));
+		assertEquals(1, scratch.getTouchedCount());
+		assertEquals(2, scratch.getTouchedNode(0));
+		assertEquals(1, scratch.getHeap().size());
+
+		scratch.clear();
+		assertFalse(scratch.isReached(2));
+		assertEquals(Integer.MAX_VALUE, scratch.getDistance(2));
+		assertEquals(-1, scratch.getPredecessor(2));
+		assertEquals(0, scratch.getTouchedCount());
+		assertTrue(scratch.getHeap().isEmpty());
+	}
+
+	/**
+	 * Tests that the heap returns its values by increasing key after keys
+	 * have been decreased
+	 */
+	@Test
+	public void testHeap() {
+		IndexedIntHeap heap = new IndexedIntHeap(10);
+		for (int value = 0; value < 10; value++) {
+			heap.update(value, 100 - value);
+		}
+		assertTrue(heap.update(3, 1));
+		assertFalse(heap.update(3, 2));
+		assertTrue(heap.update(5, 0));
+		assertEquals(10, heap.size());
+
+		assertEquals(5, heap.removeMinimum());
+		assertEquals(3, heap.removeMinimum());
+		assertFalse(heap.contains(3));
+		int previous = Integer.MIN_VALUE;
+		while (!heap.isEmpty()) {
+			int key = heap.getMinimumKey();
+			assertTrue(key >= previous);
+			previous = key;
+			heap.removeMinimum();
+		}
+
+		heap.update(4, 4);
+		heap.clear();
+		assertFalse(heap.contains(4));
+		assertTrue(heap.isEmpty());
+	}
+}
@@ -1,9 +1,33 @@
 package org.hhu.c2c.test;
 
+import org.hhu.c2c.openlr.core.ArchiveTest;
+import org.hhu.c2c.openlr.core.AreaLocationReferenceTest;
+import org.hhu.c2c.openlr.core.Base64Test;
+import org.hhu.c2c.openlr.core.BatchTest;
 import org.hhu.c2c.openlr.core.BearingTest;
+import org.hhu.c2c.openlr.core.ClosedLineLocationReferenceTest;
+import org.hhu.c2c.openlr.core.CodecRegistryTest;
+import org.hhu.c2c.openlr.core.ColumnTest;
 import org.hhu.c2c.openlr.core.DecoderTest;
 import org.hhu.c2c.openlr.core.DistanceTest;
 import org.hhu.c2c.openlr.core.EncoderTest;
+import org.hhu.c2c.openlr.core.GeometryWriterTest;
+import org.hhu.c2c.openlr.core.PointLocationReferenceTest;
+import org.hhu.c2c.openlr.core.TextFormatTest;
+import org.hhu.c2c.openlr.geo.GeoHelperTest;
+import org.hhu.c2c.openlr.map.BatchMapDecoderTest;
+import org.hhu.c2c.openlr.map.CandidateFinderTest;
+import org.hhu.c2c.openlr.map.ConcurrentMapDecoderTest;
+import org.hhu.c2c.openlr.map.ContractionHierarchyTest;
+import org.hhu.c2c.openlr.map.EdgeCoverageTest;
+import org.hhu.c2c.openlr.map.MapDecoderTest;
+import org.hhu.c2c.openlr.map.MapEncoderTest;
+import org.hhu.c2c.openlr.map.ReferenceIndexTest;
+import org.hhu.c2c.openlr.map.RoadGraphDeltaTest;
+import org.hhu.c2c.openlr.map.RoadGraphTest;
+import org.hhu.c2c.openlr.map.RoadGraphTilerTest;
+import org.hhu.c2c.openlr.map.RouteCacheTest;
+import org.hhu.c2c.openlr.map.RoutingScratchTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -14,8 +38,19 @@ import org.junit.runners.Suite;
  * 
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ BearingTest.class, DecoderTest.class, DistanceTest.class,
-		EncoderTest.class
+@Suite.SuiteClasses({ ArchiveTest.class, AreaLocationReferenceTest.class,
+		Base64Test.class, BatchTest.class, BearingTest.class,
+		ClosedLineLocationReferenceTest.class, CodecRegistryTest.class,
+		ColumnTest.class, DecoderTest.class, DistanceTest.class,
+		EncoderTest.class, GeometryWriterTest.class,
+		PointLocationReferenceTest.class, TextFormatTest.class,
+		GeoHelperTest.class,
+		BatchMapDecoderTest.class, CandidateFinderTest.class,
+		ConcurrentMapDecoderTest.class, ContractionHierarchyTest.class,
+		EdgeCoverageTest.class, MapDecoderTest.class, MapEncoderTest.class,
+		ReferenceIndexTest.class, RoadGraphDeltaTest.class,
+		RoadGraphTest.class, RoadGraphTilerTest.class, RouteCacheTest.class,
+		RoutingScratchTest.class
 
 })
 public class AllTests {